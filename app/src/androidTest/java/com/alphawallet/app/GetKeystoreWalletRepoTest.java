@@ -37,7 +37,7 @@ public class GetKeystoreWalletRepoTest {
 		Context context = InstrumentationRegistry.getTargetContext();
 		accountKeystoreService = new KeystoreAccountService(new File(context.getFilesDir(), "store"),
 															new File(context.getFilesDir(), ""),
-															new KeyService(null));
+															() -> new KeyService(null));
 	}
 
 //	Single<byte[]> signTransaction(
@@ -0,0 +1,66 @@
+package com.alphawallet.app;
+
+import android.os.SystemClock;
+import android.support.test.rule.ActivityTestRule;
+import android.support.test.runner.AndroidJUnit4;
+import android.util.Log;
+
+import com.alphawallet.app.ui.SplashActivity;
+import com.alphawallet.app.util.Metrics;
+import com.alphawallet.app.util.StartupPipeline;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Cold launches the app and records time to first frame and, if the device has a wallet, time to first wallet
+ * render. Per-phase and per-task timings are written to the log under "STARTUP".
+ */
+@RunWith(AndroidJUnit4.class)
+public class StartupTimingTest
+{
+    private static final String TAG = "STARTUP";
+    private static final long FIRST_FRAME_TIMEOUT_MS = 10000;
+    private static final long WALLET_RENDER_TIMEOUT_MS = 30000;
+
+    @Rule
+    public ActivityTestRule<SplashActivity> activityRule = new ActivityTestRule<>(SplashActivity.class);
+
+    @Test
+    public void recordsStartupPhases()
+    {
+        long firstFrame = waitFor(StartupPipeline::getFirstFrameTime, FIRST_FRAME_TIMEOUT_MS);
+        assertTrue("First frame not drawn", firstFrame > 0);
+
+        //deferred work must not run before the first frame
+        assertNotEquals(StartupPipeline.Phase.CRITICAL, StartupPipeline.getCurrentPhase());
+
+        long walletRender = waitFor(StartupPipeline::getWalletRenderTime, WALLET_RENDER_TIMEOUT_MS);
+        Log.d(TAG, "Time to first frame: " + firstFrame + "ms");
+        Log.d(TAG, "Time to wallet render: " + (walletRender > 0 ? walletRender + "ms" : "no wallet on device"));
+        if (walletRender > 0) assertTrue(walletRender >= firstFrame);
+
+        Log.d(TAG, Metrics.snapshotJson());
+    }
+
+    private long waitFor(TimeSource source, long timeoutMs)
+    {
+        long deadline = SystemClock.elapsedRealtime() + timeoutMs;
+        long value = source.get();
+        while (value == 0 && SystemClock.elapsedRealtime() < deadline)
+        {
+            SystemClock.sleep(50);
+            value = source.get();
+        }
+        return value;
+    }
+
+    private interface TimeSource
+    {
+        long get();
+    }
+}
@@ -0,0 +1,177 @@
+package com.alphawallet.app.repository;
+
+import android.support.test.InstrumentationRegistry;
+import android.support.test.runner.AndroidJUnit4;
+import android.util.Log;
+
+import com.alphawallet.app.repository.entity.RealmTransaction;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import io.realm.Realm;
+import io.realm.RealmConfiguration;
+import io.realm.RealmResults;
+import io.realm.Sort;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Compares the indexed relatedness query against the previous approach (sort every row on the chain, then test each
+ * in Java) on a synthetic 50k transaction wallet. The median of several timed runs of each is written to the log.
+ */
+@RunWith(AndroidJUnit4.class)
+public class TransactionsRealmQueryTest
+{
+    private static final String TAG = "TXQUERY";
+    private static final String WALLET = "0x5aaeb6053f3e94c9b9a09f33669435e7ef1beaed";
+    private static final int TRANSACTION_COUNT = 50000;
+    private static final int TOKEN_COUNT = 40;
+    private static final Integer[] CHAINS = { 1, 3, 4, 100 };
+    private static final int TIMED_RUNS = 7;
+
+    private Realm realm;
+
+    @Before
+    public void setUp()
+    {
+        Realm.init(InstrumentationRegistry.getTargetContext());
+        RealmConfiguration config = new RealmConfiguration.Builder()
+                .name("tx-query-test.realm")
+                .inMemory()
+                .build();
+        realm = Realm.getInstance(config);
+
+        realm.beginTransaction();
+        for (int i = 0; i < TRANSACTION_COUNT; i++)
+        {
+            RealmTransaction tx = realm.createObject(RealmTransaction.class, String.format("0x%064x", i));
+            String token = tokenAddress(i % TOKEN_COUNT);
+            tx.setChainId(CHAINS[i % CHAINS.length]);
+            tx.setBlockNumber(9000000 + i);
+            tx.setTimeStamp(1580000000L + i * 13L);
+            tx.setFrom((i % 3 == 0) ? WALLET : token);
+            tx.setTo((i % 5 == 0) ? WALLET : token);
+            tx.setToken((i % 5 == 0) ? null : token);
+            tx.setValue("0");
+            tx.setInput("0xa9059cbb");
+            tx.setError("0");
+        }
+        realm.commitTransaction();
+    }
+
+    @After
+    public void tearDown()
+    {
+        realm.close();
+    }
+
+    @Test
+    public void relatedQueryMatchesJavaFilter()
+    {
+        String token = tokenAddress(7);
+        int chainId = CHAINS[7 % CHAINS.length];
+
+        List<String> before = relatedByJavaFilter(chainId, token);
+        List<String> after = relatedByQuery(chainId, token);
+        assertEquals(before, after);
+        assertEquals(3, after.size());
+
+        Log.d(TAG, "Related (token): before " + medianMicros(() -> relatedByJavaFilter(chainId, token))
+                + "us, after " + medianMicros(() -> relatedByQuery(chainId, token)) + "us");
+    }
+
+    @Test
+    public void networkQueryMatchesJavaFilter()
+    {
+        List<Integer> filters = Arrays.asList(1, 100);
+        int max = 200;
+
+        List<String> before = networksByJavaFilter(filters, max);
+        List<String> after = networksByQuery(filters, max);
+        assertEquals(before, after);
+        assertTrue(after.size() == max);
+
+        Log.d(TAG, "Networks: before " + medianMicros(() -> networksByJavaFilter(filters, max))
+                + "us, after " + medianMicros(() -> networksByQuery(filters, max)) + "us");
+    }
+
+    //previous approach: sort every row on the chain, then test each in Java
+    private List<String> relatedByJavaFilter(int chainId, String token)
+    {
+        List<String> hashes = new ArrayList<>();
+        RealmResults<RealmTransaction> all = realm.where(RealmTransaction.class)
+                .equalTo("chainId", chainId)
+                .sort("timeStamp", Sort.DESCENDING)
+                .findAll();
+        for (RealmTransaction rtx : all)
+        {
+            if (token.equals(rtx.getTo()) || token.equals(rtx.getToken()))
+            {
+                hashes.add(rtx.getHash());
+                if (hashes.size() >= 3) break;
+            }
+        }
+        return hashes;
+    }
+
+    private List<String> relatedByQuery(int chainId, String token)
+    {
+        List<String> hashes = new ArrayList<>();
+        for (RealmTransaction rtx : TransactionsRealmQuery.relatedTo(realm, chainId, token, WALLET).limit(3).findAll())
+        {
+            hashes.add(rtx.getHash());
+        }
+        return hashes;
+    }
+
+    private List<String> networksByJavaFilter(List<Integer> filters, int max)
+    {
+        List<String> hashes = new ArrayList<>();
+        RealmResults<RealmTransaction> all = realm.where(RealmTransaction.class)
+                .sort("timeStamp", Sort.DESCENDING)
+                .findAll();
+        for (RealmTransaction rtx : all)
+        {
+            if (filters.contains(rtx.getChainId())) hashes.add(rtx.getHash());
+            if (hashes.size() >= max) break;
+        }
+        return hashes;
+    }
+
+    private List<String> networksByQuery(List<Integer> filters, int max)
+    {
+        List<String> hashes = new ArrayList<>();
+        for (RealmTransaction rtx : TransactionsRealmQuery.onNetworks(realm, filters).limit(max).findAll())
+        {
+            hashes.add(rtx.getHash());
+        }
+        return hashes;
+    }
+
+    //the first run of each was made by the check above; take the median so one GC pause doesn't decide it
+    private static long medianMicros(Runnable query)
+    {
+        long[] times = new long[TIMED_RUNS];
+        for (int i = 0; i < TIMED_RUNS; i++)
+        {
+            long start = System.nanoTime();
+            query.run();
+            times[i] = (System.nanoTime() - start) / 1000;
+        }
+        Arrays.sort(times);
+        return times[TIMED_RUNS / 2];
+    }
+
+    private static String tokenAddress(int index)
+    {
+        return String.format("0x%040x", 0x1000 + index);
+    }
+}
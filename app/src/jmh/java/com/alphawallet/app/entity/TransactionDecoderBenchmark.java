@@ -0,0 +1,91 @@
+package com.alphawallet.app.entity;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decodes per second through TransactionDecoder's shared selector table, over a mix of the inputs seen in a
+ * transaction list: ERC20 and ERC875 transfers, a signed trade, and calls the table doesn't know.
+ *
+ * TransactionDecoder has no Android dependencies, so this is built with lib's benchmarks.
+ * Run with ./gradlew :lib:jmh
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class TransactionDecoderBenchmark
+{
+    private static final int BATCH = 1024;
+    private static final String WALLET = "000000000000000000000000951c19daead668bfa8391c94286f8ce7cbda2fe3";
+
+    private static final String[] SAMPLES = {
+            //transfer(address,uint256)
+            "0xa9059cbb" + WALLET + "0000000000000000000000000000000000000000000000000de0b6b3a7640000",
+            //approve(address,uint256)
+            "0x095ea7b3" + WALLET + "0000000000000000000000000000000000000000000000000000000000000000",
+            //transferFrom(address,address,uint16[])
+            "0xa6fb475f" + WALLET
+                    + "000000000000000000000000879230570f360424bc5baa99906d5f640a75551e"
+                    + "0000000000000000000000000000000000000000000000000000000000000060"
+                    + "0000000000000000000000000000000000000000000000000000000000000002"
+                    + "0000000000000000000000000000000000000000000000000000000000000001"
+                    + "0000000000000000000000000000000000000000000000000000000000000002",
+            //trade(uint256,uint16[],uint8,bytes32,bytes32)
+            "0x696ecc55"
+                    + "000000000000000000000000000000000000000000000000000000005a9a00e2"
+                    + "00000000000000000000000000000000000000000000000000000000000000a0"
+                    + "000000000000000000000000000000000000000000000000000000000000001b"
+                    + "c59d6718734043600a49ec2419e566fa03676058e88326ff1161c579c6b8e799"
+                    + "51d22461ab6f27bedd72d6b56c1fecf9f4cbb79a7728c510022617a9e42782ea"
+                    + "0000000000000000000000000000000000000000000000000000000000000002"
+                    + "0000000000000000000000000000000000000000000000000000000000000009"
+                    + "000000000000000000000000000000000000000000000000000000000000000a",
+            //calls to functions the table doesn't know
+            "0x7ff36ab5" + WALLET + WALLET,
+            "0xd0e30db0",
+    };
+
+    private TransactionDecoder decoder;
+    private String[] inputs;
+
+    @Setup
+    public void setup()
+    {
+        decoder = new TransactionDecoder();
+        inputs = new String[BATCH];
+        for (int i = 0; i < BATCH; i++) inputs[i] = SAMPLES[i % SAMPLES.length];
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public int selectorLookup()
+    {
+        int found = 0;
+        for (String input : inputs)
+        {
+            if (decoder.getFunction(input) != null) found++;
+        }
+        return found;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public int decodeInput()
+    {
+        int args = 0;
+        for (String input : inputs)
+        {
+            TransactionInput data = decoder.decodeInput(input);
+            args += data.addresses.size() + data.paramValues.size();
+        }
+        return args;
+    }
+}
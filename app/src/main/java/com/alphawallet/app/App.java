@@ -2,8 +2,13 @@ package com.alphawallet.app;
 
 import android.app.Activity;
 import android.app.Application;
+import android.content.IntentFilter;
 import android.support.v4.app.Fragment;
 import com.alphawallet.app.di.DaggerAppComponent;
+import com.alphawallet.app.util.EnsCache;
+import com.alphawallet.app.util.Metrics;
+import com.alphawallet.app.util.StartupPipeline;
+
 import javax.inject.Inject;
 import dagger.android.AndroidInjector;
 import dagger.android.DispatchingAndroidInjector;
@@ -22,12 +27,22 @@ public class App extends Application implements HasActivityInjector, HasSupportF
 	@Override
 	public void onCreate() {
 		super.onCreate();
-        Realm.init(this);
-        DaggerAppComponent
+		StartupPipeline.begin();
+		StartupPipeline.register(this);
+		StartupPipeline.schedule(StartupPipeline.Phase.CRITICAL, "realm", () -> Realm.init(this));
+		StartupPipeline.schedule(StartupPipeline.Phase.CRITICAL, "dagger", () -> DaggerAppComponent
 				.builder()
 				.application(this)
 				.build()
-				.inject(this);
+				.inject(this));
+
+		StartupPipeline.schedule(StartupPipeline.Phase.IDLE, "ens_cache", () -> EnsCache.init(this));
+
+		//dump hot path timings on request: adb shell am broadcast -a <applicationId>.DUMP_METRICS
+		if (BuildConfig.DEBUG) {
+			StartupPipeline.schedule(StartupPipeline.Phase.IDLE, "metrics_receiver",
+					() -> registerReceiver(new Metrics.DumpReceiver(), new IntentFilter(Metrics.ACTION_DUMP)));
+		}
 
 		// enable pin code for the application
 //		LockManager<CustomPinActivity> lockManager = LockManager.getInstance();
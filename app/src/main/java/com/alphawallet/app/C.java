@@ -124,6 +124,8 @@ public abstract class C {
     public static final long GAS_LIMIT_MIN = 21000L;
     public static final long GAS_LIMIT_DEFAULT = 90000L;
     public static final long GAS_LIMIT_MAX = 900000L;
+    public static final int GAS_USED_MARGIN_PERCENT = 50; //added to the gas a previous call to the same function used
+    public static final int GAS_ESTIMATE_MARGIN_PERCENT = 20; //added to the node's eth_estimateGas result
     public static final long GAS_PRICE_MIN = 1000000000L;
     public static final long NETWORK_FEE_MAX = 90000000000000000L;
     public static final int ETHER_DECIMALS = 18;
@@ -3,6 +3,7 @@ package com.alphawallet.app.di;
 
 import com.alphawallet.app.interact.FindDefaultNetworkInteract;
 import com.alphawallet.app.repository.EthereumNetworkRepositoryType;
+import com.alphawallet.app.service.GasService;
 import com.alphawallet.app.viewmodel.GasSettingsViewModelFactory;
 
 import dagger.Module;
@@ -12,8 +13,9 @@ import dagger.Provides;
 public class GasSettingsModule {
 
     @Provides
-    public GasSettingsViewModelFactory provideGasSettingsViewModelFactory(FindDefaultNetworkInteract findDefaultNetworkInteract) {
-        return new GasSettingsViewModelFactory(findDefaultNetworkInteract);
+    public GasSettingsViewModelFactory provideGasSettingsViewModelFactory(FindDefaultNetworkInteract findDefaultNetworkInteract,
+                                                                          GasService gasService) {
+        return new GasSettingsViewModelFactory(findDefaultNetworkInteract, gasService);
     }
 
     @Provides
@@ -2,10 +2,13 @@ package com.alphawallet.app.di;
 
 import android.content.Context;
 
+import com.alphawallet.app.C;
+
 import com.alphawallet.app.repository.EthereumNetworkRepository;
 import com.alphawallet.app.repository.EthereumNetworkRepositoryType;
 import com.alphawallet.app.repository.PreferenceRepositoryType;
 import com.alphawallet.app.repository.SharedPreferenceRepository;
+import com.alphawallet.app.repository.TokenSnapshotCache;
 import com.alphawallet.app.repository.TokenLocalSource;
 import com.alphawallet.app.repository.TokenRepository;
 import com.alphawallet.app.repository.TokenRepositoryType;
@@ -20,6 +23,8 @@ import com.alphawallet.app.repository.WalletRepositoryType;
 import com.alphawallet.app.service.AccountKeystoreService;
 import com.alphawallet.app.service.AlphaWalletService;
 import com.alphawallet.app.service.AssetDefinitionService;
+import com.alphawallet.app.service.BlockTimestampCache;
+import com.alphawallet.app.service.GasEstimateCache;
 import com.alphawallet.app.service.GasService;
 import com.alphawallet.app.service.KeyService;
 import com.alphawallet.app.service.KeystoreAccountService;
@@ -38,6 +43,7 @@ import java.io.File;
 
 import javax.inject.Singleton;
 
+import dagger.Lazy;
 import dagger.Module;
 import dagger.Provides;
 import okhttp3.OkHttpClient;
@@ -54,7 +60,7 @@ public class RepositoriesModule {
 
 	@Singleton
 	@Provides
-    AccountKeystoreService provideAccountKeyStoreService(Context context, KeyService keyService) {
+    AccountKeystoreService provideAccountKeyStoreService(Context context, Lazy<KeyService> keyService) {
         File file = new File(context.getFilesDir(), KEYSTORE_FOLDER);
 		return new KeystoreAccountService(file, context.getFilesDir(), keyService);
 	}
@@ -104,10 +110,22 @@ public class RepositoriesModule {
 
 	@Singleton
     @Provides
-    TransactionLocalSource provideTransactionInDiskCache(RealmManager realmManager) {
-        return new TransactionsRealmCache(realmManager);
+    TransactionLocalSource provideTransactionInDiskCache(RealmManager realmManager, GasEstimateCache gasEstimateCache) {
+        return new TransactionsRealmCache(realmManager, gasEstimateCache);
     }
 
+	@Singleton
+	@Provides
+	BlockTimestampCache provideBlockTimestampCache(RealmManager realmManager) {
+		return new BlockTimestampCache(realmManager);
+	}
+
+	@Singleton
+	@Provides
+	GasEstimateCache provideGasEstimateCache() {
+		return new GasEstimateCache(C.GAS_USED_MARGIN_PERCENT, C.GAS_ESTIMATE_MARGIN_PERCENT);
+	}
+
 	@Singleton
 	@Provides
     TransactionsNetworkClientType provideBlockExplorerClient(
@@ -123,12 +141,10 @@ public class RepositoriesModule {
     TokenRepositoryType provideTokenRepository(
             EthereumNetworkRepositoryType ethereumNetworkRepository,
             TokenLocalSource tokenLocalSource,
-			OkHttpClient httpClient,
 			Context context) {
 	    return new TokenRepository(
 	            ethereumNetworkRepository,
 				tokenLocalSource,
-				httpClient,
 				context);
     }
 
@@ -152,8 +168,14 @@ public class RepositoriesModule {
 
 	@Singleton
 	@Provides
-	GasService provideGasService(EthereumNetworkRepositoryType ethereumNetworkRepository) {
-		return new GasService(ethereumNetworkRepository);
+	TokenSnapshotCache provideTokenSnapshotCache(Context context) {
+		return new TokenSnapshotCache(context);
+	}
+
+	@Singleton
+	@Provides
+	GasService provideGasService(EthereumNetworkRepositoryType ethereumNetworkRepository, GasEstimateCache gasEstimateCache) {
+		return new GasService(ethereumNetworkRepository, gasEstimateCache);
 	}
 
 	@Singleton
@@ -185,8 +207,8 @@ public class RepositoriesModule {
 
 	@Singleton
 	@Provides
-    AssetDefinitionService provideAssetDefinitionService(OkHttpClient okHttpClient, Context ctx, NotificationService notificationService, RealmManager realmManager, EthereumNetworkRepositoryType ethereumNetworkRepository, TokensService tokensService, TokenLocalSource tls, AlphaWalletService alphaService) {
-		return new AssetDefinitionService(okHttpClient, ctx, notificationService, realmManager, ethereumNetworkRepository, tokensService, tls, alphaService);
+    AssetDefinitionService provideAssetDefinitionService(OkHttpClient okHttpClient, Context ctx, NotificationService notificationService, RealmManager realmManager, EthereumNetworkRepositoryType ethereumNetworkRepository, TokensService tokensService, TokenLocalSource tls, AlphaWalletService alphaService, BlockTimestampCache blockTimestampCache) {
+		return new AssetDefinitionService(okHttpClient, ctx, notificationService, realmManager, ethereumNetworkRepository, tokensService, tls, alphaService, blockTimestampCache);
 	}
 
 	@Singleton
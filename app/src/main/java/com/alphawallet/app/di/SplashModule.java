@@ -1,5 +1,6 @@
 package com.alphawallet.app.di;
 
+import dagger.Lazy;
 import dagger.Module;
 import dagger.Provides;
 import com.alphawallet.app.interact.FetchWalletsInteract;
@@ -21,8 +22,8 @@ public class SplashModule {
     SplashViewModelFactory provideSplashViewModelFactory(FetchWalletsInteract fetchWalletsInteract,
                                                          PreferenceRepositoryType preferenceRepository,
                                                          LocaleRepositoryType localeRepository,
-                                                         KeyService keyService,
-                                                         AssetDefinitionService assetDefinitionService,
+                                                         Lazy<KeyService> keyService,
+                                                         Lazy<AssetDefinitionService> assetDefinitionService,
                                                          CurrencyRepositoryType currencyRepository) {
         return new SplashViewModelFactory(
                 fetchWalletsInteract,
@@ -4,10 +4,9 @@ import android.content.Context;
 
 import com.google.gson.Gson;
 import com.alphawallet.app.App;
+import com.alphawallet.app.service.NetworkStack;
 import com.alphawallet.app.service.RealmManager;
 
-import java.util.concurrent.TimeUnit;
-
 import javax.inject.Singleton;
 
 import dagger.Module;
@@ -30,13 +29,7 @@ class ToolsModule {
 	@Singleton
 	@Provides
 	OkHttpClient okHttpClient() {
-		return new OkHttpClient.Builder()
-                //.addInterceptor(new LogInterceptor())
-                .connectTimeout(10, TimeUnit.SECONDS)
-                .readTimeout(10, TimeUnit.SECONDS)
-                .writeTimeout(10, TimeUnit.SECONDS)
-				.retryOnConnectionFailure(false)
-                .build();
+		return NetworkStack.getClient();
 	}
 
 	@Singleton
@@ -5,6 +5,7 @@ import dagger.Provides;
 import com.alphawallet.app.interact.DeleteWalletInteract;
 import com.alphawallet.app.interact.ExportWalletInteract;
 import com.alphawallet.app.interact.FetchWalletsInteract;
+import com.alphawallet.app.repository.TokenSnapshotCache;
 import com.alphawallet.app.repository.WalletRepositoryType;
 import com.alphawallet.app.router.HomeRouter;
 import com.alphawallet.app.viewmodel.WalletActionsViewModelFactory;
@@ -16,12 +17,14 @@ class WalletActionsModule {
 			HomeRouter homeRouter,
 			DeleteWalletInteract deleteWalletInteract,
 			ExportWalletInteract exportWalletInteract,
-			FetchWalletsInteract fetchWalletsInteract) {
+			FetchWalletsInteract fetchWalletsInteract,
+			TokenSnapshotCache tokenSnapshotCache) {
 		return new WalletActionsViewModelFactory(
 				homeRouter,
 				deleteWalletInteract,
 				exportWalletInteract,
-				fetchWalletsInteract);
+				fetchWalletsInteract,
+				tokenSnapshotCache);
 	}
 
 	@Provides
@@ -9,6 +9,7 @@ import com.alphawallet.app.interact.GenericWalletInteract;
 import com.alphawallet.app.interact.SetupTokensInteract;
 import com.alphawallet.app.repository.EthereumNetworkRepositoryType;
 import com.alphawallet.app.repository.TokenRepositoryType;
+import com.alphawallet.app.repository.TokenSnapshotCache;
 import com.alphawallet.app.repository.TransactionRepositoryType;
 import com.alphawallet.app.repository.WalletRepositoryType;
 import com.alphawallet.app.router.AddTokenRouter;
@@ -40,7 +41,8 @@ public class WalletModule {
             OpenseaService openseaService,
             FetchTransactionsInteract fetchTransactionsInteract,
             EthereumNetworkRepositoryType ethereumNetworkRepository,
-            ChangeTokenEnableInteract changeTokenEnableInteract) {
+            ChangeTokenEnableInteract changeTokenEnableInteract,
+            TokenSnapshotCache tokenSnapshotCache) {
         return new WalletViewModelFactory(
                 fetchTokensInteract,
                 addTokenRouter,
@@ -55,7 +57,8 @@ public class WalletModule {
                 openseaService,
                 fetchTransactionsInteract,
                 ethereumNetworkRepository,
-                changeTokenEnableInteract);
+                changeTokenEnableInteract,
+                tokenSnapshotCache);
     }
 
     @Provides
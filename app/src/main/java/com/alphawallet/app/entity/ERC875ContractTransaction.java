@@ -203,7 +203,7 @@ public class ERC875ContractTransaction extends TransactionContract implements Pa
     @Override
     public void interpretTransferFrom(String walletAddr, Transaction trans)
     {
-        if (trans.operations.length > 0 && trans.operations[0].to.equals(C.BURN_ADDRESS))
+        if (trans.getOperations().length > 0 && trans.getOperations()[0].to.equals(C.BURN_ADDRESS))
         {
             operation = TransactionType.REDEEM;
             type = -1;
@@ -259,9 +259,9 @@ public class ERC875ContractTransaction extends TransactionContract implements Pa
     @Override
     public void interpretPassTo(String walletAddr, Transaction transaction)
     {
-        if (transaction.operations.length > 0)
+        if (transaction.getOperations().length > 0)
         {
-            if (transaction.operations[0].to.equals(walletAddr))
+            if (transaction.getOperations()[0].to.equals(walletAddr))
             {
                 //we received a ticket from magiclink with transfer paid by server
                 operation = TransactionType.PASS_FROM;// R.string.ticket_pass_from;
@@ -30,16 +30,18 @@ public class EtherscanTransaction
     String gasUsed;
     int confirmations;
 
-    private static TransactionDecoder decoder = null;
-
     public Transaction createTransaction(String walletAddress, Context ctx, int chainId)
     {
         Transaction tx = new Transaction(hash, isError, blockNumber, timeStamp, nonce, from, to, value, gas, gasPrice, input,
                                          gasUsed, chainId, contractAddress);
 
-        if (tx.operations.length > 0)
+        if (!tx.isDecoded())
+        {
+            tx.setOperationWallet(walletAddress); //interpret against this wallet when decoded
+        }
+        else if (tx.getOperations().length > 0)
         {
-            TransactionOperation op = tx.operations[0];
+            TransactionOperation op = tx.getOperations()[0];
             if (op.contract != null) op.contract.completeSetup(walletAddress, tx);
         }
 
@@ -53,14 +55,12 @@ public class EtherscanTransaction
 
     private boolean walletInvolvedInTransaction(Transaction trans, String walletAddr)
     {
-        if (decoder == null) decoder = new TransactionDecoder();
-        TransactionInput data = decoder.decodeInput(input);
+        //Undecoded transactions are plain calls; any address argument is also found by the input scan below
         boolean involved = false;
-        if ((data != null && data.functionData != null) && data.containsAddress(walletAddr)) return true;
         if (trans.from.equalsIgnoreCase(walletAddr)) return true;
         if (trans.to.equalsIgnoreCase(walletAddr)) return true;
         if (input != null && input.length() > 40 && input.contains(Numeric.cleanHexPrefix(walletAddr))) return true;
-        if (trans.operations != null && trans.operations.length > 0 && trans.operations[0].walletInvolvedWithTransaction(walletAddr))
+        if (trans.isDecoded() && trans.getOperations().length > 0 && trans.getOperations()[0].walletInvolvedWithTransaction(walletAddr))
             involved = true;
         return involved;
     }
@@ -0,0 +1,24 @@
+package com.alphawallet.app.entity;
+
+import java.math.BigInteger;
+
+/**
+ * Gas prices in wei taken from the recent blocks of a chain
+ */
+public class GasPriceEstimate
+{
+    public final int chainId;
+    public final long blockNumber;  // latest block the estimate includes
+    public final BigInteger slow;
+    public final BigInteger standard;
+    public final BigInteger fast;
+
+    public GasPriceEstimate(int chainId, long blockNumber, BigInteger slow, BigInteger standard, BigInteger fast)
+    {
+        this.chainId = chainId;
+        this.blockNumber = blockNumber;
+        this.slow = slow;
+        this.standard = standard;
+        this.fast = fast;
+    }
+}
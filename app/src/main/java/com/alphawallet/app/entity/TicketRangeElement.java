@@ -29,6 +29,12 @@ public class TicketRangeElement
         }
     }
 
+    public TicketRangeElement(BigInteger v, long time)
+    {
+        this.id = v;
+        this.time = time;
+    }
+
     public static void sortElements(List<TicketRangeElement> elementList)
     {
         Collections.sort(elementList, (e1, e2) -> {
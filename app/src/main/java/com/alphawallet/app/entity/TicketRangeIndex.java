@@ -0,0 +1,193 @@
+package com.alphawallet.app.entity;
+
+import com.alphawallet.app.entity.tokens.Token;
+import com.alphawallet.app.service.AssetDefinitionService;
+import com.alphawallet.token.entity.AttributeType;
+import com.alphawallet.token.entity.TicketRange;
+import com.alphawallet.token.entity.TokenScriptResult;
+import com.alphawallet.token.tools.TokenIdCodec;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Groups a ticket balance into display ranges without building and sorting an element per tokenId.
+ *
+ * Ids are bucketed by their 'time' attribute, which for a bitfield attribute is resolved once per distinct
+ * value of the masked bits rather than once per id. Only one TicketRangeElement is created per bucket.
+ * When time is untimed or a bitfield the sorted buckets depend only on the balance, so they are kept for the
+ * most recently shown tokens until the balance changes; function or event times can change on chain, so
+ * those are re-resolved each time.
+ */
+public class TicketRangeIndex
+{
+    private static final String TIME_ATTRIBUTE = "time";
+    private static final int MAX_CACHED_INDEXES = 32;
+
+    private static final Map<String, TicketRangeIndex> indexCache = new LinkedHashMap<String, TicketRangeIndex>(16, 0.75f, true)
+    {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, TicketRangeIndex> eldest)
+        {
+            return size() > MAX_CACHED_INDEXES;
+        }
+    };
+
+    public interface TimeResolver
+    {
+        long getTime(BigInteger id);
+    }
+
+    private final byte[] balanceSnapshot;
+    private final AttributeType timeAttr;
+    private final List<TicketRangeElement> sortedKeys;
+    private final Map<TicketRangeElement, List<BigInteger>> buckets;
+
+    private TicketRangeIndex(byte[] balanceSnapshot, AttributeType timeAttr, Map<TicketRangeElement, List<BigInteger>> buckets)
+    {
+        this.balanceSnapshot = balanceSnapshot;
+        this.timeAttr = timeAttr;
+        this.buckets = buckets;
+        this.sortedKeys = new ArrayList<>(buckets.keySet());
+        TicketRangeElement.sortElements(sortedKeys);
+    }
+
+    public static TicketRangeIndex getIndex(AssetDefinitionService assetService, Token token, List<BigInteger> idList)
+    {
+        AttributeType timeAttr = assetService.getAttributeType(token, TIME_ATTRIBUTE);
+        TimeResolver resolver = timeAttr != null ? id -> resolveTime(assetService, token, id) : null;
+        boolean isBitfield = timeAttr != null && timeAttr.function == null && timeAttr.event == null;
+
+        //time from a contract call or event can change without the balance changing
+        if (timeAttr != null && !isBitfield)
+        {
+            return new TicketRangeIndex(null, timeAttr, buildBuckets(idList, null, resolver));
+        }
+
+        String key = token.tokenInfo.chainId + "-" + token.getAddress();
+        byte[] snapshot = TokenIdCodec.encode(idList);
+
+        synchronized (indexCache)
+        {
+            TicketRangeIndex index = indexCache.get(key);
+            if (index != null && index.timeAttr == timeAttr && Arrays.equals(index.balanceSnapshot, snapshot)) return index;
+        }
+
+        TicketRangeIndex index = new TicketRangeIndex(snapshot, timeAttr,
+                buildBuckets(idList, isBitfield ? timeAttr.bitmask : null, resolver));
+        synchronized (indexCache)
+        {
+            indexCache.put(key, index);
+        }
+
+        return index;
+    }
+
+    /**
+     * Build an index from a time lookup rather than a TokenScript
+     * @param bitmask if not null, ids with the same masked bits share a time, so the lookup is made once per value
+     * @param resolver time for an id, or null if the token has no time attribute
+     */
+    public static TicketRangeIndex build(List<BigInteger> idList, BigInteger bitmask, TimeResolver resolver)
+    {
+        return new TicketRangeIndex(null, null, buildBuckets(idList, bitmask, resolver));
+    }
+
+    /**
+     * Build the display ranges; gives the same grouping as sorting an element per id and walking them with
+     * Token.groupWithToken, since every id in a bucket shares the same time (or for untimed ids, the same id).
+     */
+    public List<TicketRange> getRanges(Token token)
+    {
+        List<TicketRange> ranges = new ArrayList<>();
+        TicketRange currentRange = null;
+        long currentTime = 0;
+
+        for (TicketRangeElement e : sortedKeys)
+        {
+            List<BigInteger> ids = buckets.get(e);
+            if (currentRange == null || !token.groupWithToken(currentRange, e, currentTime))
+            {
+                currentRange = new TicketRange(e.id, token.getAddress());
+                ranges.add(currentRange);
+                currentTime = e.time;
+            }
+            else
+            {
+                currentRange.tokenIds.add(e.id);
+            }
+
+            if (ids.size() == 1) continue;
+
+            if (token.groupWithToken(currentRange, e, currentTime))
+            {
+                currentRange.tokenIds.addAll(ids.subList(1, ids.size()));
+            }
+            else
+            {
+                //token doesn't group, each id is its own row
+                for (BigInteger id : ids.subList(1, ids.size()))
+                {
+                    currentRange = new TicketRange(id, token.getAddress());
+                    ranges.add(currentRange);
+                }
+            }
+        }
+
+        return ranges;
+    }
+
+    private static Map<TicketRangeElement, List<BigInteger>> buildBuckets(List<BigInteger> idList, BigInteger bitmask,
+                                                                          TimeResolver resolver)
+    {
+        Map<TicketRangeElement, List<BigInteger>> buckets = new LinkedHashMap<>();
+        Map<Long, TicketRangeElement> timedKeys = new HashMap<>();
+        Map<BigInteger, TicketRangeElement> untimedKeys = new HashMap<>();
+        Map<BigInteger, Long> bitfieldTimes = new HashMap<>();
+
+        for (BigInteger id : idList)
+        {
+            if (id.compareTo(BigInteger.ZERO) == 0) continue;
+
+            long time = 0;
+            if (resolver != null && bitmask != null)
+            {
+                BigInteger bits = id.and(bitmask);
+                Long cached = bitfieldTimes.get(bits);
+                if (cached == null)
+                {
+                    cached = resolver.getTime(id);
+                    bitfieldTimes.put(bits, cached);
+                }
+                time = cached;
+            }
+            else if (resolver != null)
+            {
+                time = resolver.getTime(id);
+            }
+
+            TicketRangeElement key = (time != 0) ? timedKeys.get(time) : untimedKeys.get(id);
+            if (key == null)
+            {
+                key = new TicketRangeElement(id, time);
+                if (time != 0) timedKeys.put(time, key);
+                else untimedKeys.put(id, key);
+                buckets.put(key, new ArrayList<>());
+            }
+            buckets.get(key).add(id);
+        }
+
+        return buckets;
+    }
+
+    private static long resolveTime(AssetDefinitionService assetService, Token token, BigInteger id)
+    {
+        TokenScriptResult.Attribute attr = assetService.getAttribute(token, id, TIME_ATTRIBUTE);
+        return attr != null ? attr.value.longValue() : 0;
+    }
+}
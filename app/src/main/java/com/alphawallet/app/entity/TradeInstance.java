@@ -17,6 +17,8 @@ import java.util.List;
 
 public class TradeInstance
 {
+    private static final int EXPIRY_OFFSET = 32; //after the uint256 price
+
     public BigInteger expiry;
     public final BigInteger price;
     public final int[] tickets;
@@ -111,6 +113,21 @@ public class TradeInstance
         return buffer.toByteArray();
     }
 
+    /**
+     * Overwrite the expiry in trade bytes from getTradeBytes. Only the expiry differs between the orders for each
+     * time step, so the rest of the encoding can be reused.
+     */
+    public static void setExpiry(byte[] tradeBytes, long expiry)
+    {
+        //uint256 at EXPIRY_OFFSET; a UNIX time only occupies the last 8 bytes
+        Arrays.fill(tradeBytes, EXPIRY_OFFSET, EXPIRY_OFFSET + 24, (byte) 0);
+        for (int i = EXPIRY_OFFSET + 31; i >= EXPIRY_OFFSET + 24; i--)
+        {
+            tradeBytes[i] = (byte) (expiry & 0xFF);
+            expiry >>= 8;
+        }
+    }
+
     private String padLeft(String source, int length)
     {
         if(source.length() > length) return source;
@@ -45,13 +45,15 @@ public class Transaction implements Parcelable {
     public final String gasPrice;
     public final String gasUsed;
     public final String input;
-    public final TransactionOperation[] operations;
+    private TransactionOperation[] operations; //null until decoded, see getOperations()
     public final String error;
     public final int chainId;
 
     public boolean isConstructor = false;
+    private String operationWallet;
+    private boolean setupOnDecode = false;
 
-	private static TransactionDecoder decoder = null;
+	private static final TransactionDecoder decoder = new TransactionDecoder(); //holds no parse state; safe to share
 	private static ParseMagicLink parser = null;
 
     public Transaction(
@@ -88,12 +90,21 @@ public class Transaction implements Parcelable {
 	public Transaction(String hash, String isError, String blockNumber, long timeStamp, int nonce, String from, String to,
 					   String value, String gas, String gasPrice, String input, String gasUsed, int chainId, String contractAddress)
 	{
-		//build transaction using input
-		TransactionInput f;
+		this.hash = hash;
+		this.error = isError;
+		this.blockNumber = blockNumber;
+		this.timeStamp = timeStamp;
+		this.nonce = nonce;
+		this.from = from;
+		this.value = value;
+		this.gas = gas;
+		this.gasPrice = gasPrice;
+		this.gasUsed = gasUsed;
+		this.chainId = chainId;
 
 		if (!TextUtils.isEmpty(contractAddress)) //must be a constructor
 		{
-			to = contractAddress;
+			this.to = contractAddress;
 			//add a constructor here
 			operations = generateERC875Op();
 			TransactionContract ct = operations[0].contract;
@@ -104,167 +115,202 @@ public class Transaction implements Parcelable {
 			isConstructor = true;
 			ContractType type = decoder.getContractType(input);
 			ct.decimals = type.ordinal();
-			input = "Constructor"; //Placeholder - don't consume storage for the constructor
+			this.input = "Constructor"; //Placeholder - don't consume storage for the constructor
 		}
 		else
 		{
-			//Now perform as complete processing as we are able to here. This saves re-allocating and makes code far less brittle.
-			TransactionOperation[] o = new TransactionOperation[0];
+			this.to = to;
+			this.input = input;
+			//Only classify the call here; full decode happens in getOperations() when the transaction is displayed.
+			FunctionData function = decoder.getFunction(input);
+			if (function == null)
+			{
+				operations = new TransactionOperation[0];
+			}
+			else if (function.hasSig)
+			{
+				//signed orders must ecrecover to find the other party, which is needed to filter the wallet's transactions
+				operations = decodeOperations();
+			}
+		}
+	}
+
+	/**
+	 * Wallet to interpret lazily decoded operations against (eg transfer to or from). Only needed for transactions
+	 * which haven't yet been decoded.
+	 */
+	public void setOperationWallet(String walletAddress)
+	{
+		this.operationWallet = walletAddress;
+		this.setupOnDecode = true;
+	}
 
-			//TODO: Handle transaction with multiple operations
-			if (input != null && input.length() >= 10)
+	/**
+	 * @return true if the operations have been decoded from the input. If not, the transaction is a plain call to 'to'
+	 * and the input is all we need to keep.
+	 */
+	public boolean isDecoded()
+	{
+		return operations != null;
+	}
+
+	public TransactionOperation[] getOperations()
+	{
+		if (operations == null)
+		{
+			operations = decodeOperations(); //assign first; completeSetup reads the operations back
+			if (operations.length > 0 && operations[0].contract != null && setupOnDecode)
 			{
-				TransactionOperation op = null;
-				TransactionContract ct;
+				operations[0].contract.completeSetup(operationWallet, this);
+			}
+		}
+
+		return operations;
+	}
 
-				if (decoder == null) decoder = new TransactionDecoder(); //initialise decoder on demand
+	private TransactionOperation[] decodeOperations()
+	{
+		//Now perform as complete processing as we are able to here. This saves re-allocating and makes code far less brittle.
+		TransactionOperation[] o = new TransactionOperation[0];
+
+		//TODO: Handle transaction with multiple operations
+		if (input != null && input.length() >= 10)
+		{
+			TransactionOperation op = null;
+			TransactionContract ct;
 
-				f = decoder.decodeInput(input);
-				//is this a trade?
-				if (f.functionData != null)
+			TransactionInput f = decoder.decodeInput(input);
+			//is this a trade?
+			if (f.functionData != null)
+			{
+				//recover recipient
+				switch (f.functionData.functionFullName)
 				{
-					//recover recipient
-					switch (f.functionData.functionFullName)
-					{
-						case "trade(uint256,uint16[],uint8,bytes32,bytes32)":
-						case "trade(uint256,uint256[],uint8,bytes32,bytes32)":
-							o = processTrade(f, contractAddress);
-							op = o[0];
-							setName(o, TransactionType.MAGICLINK_TRANSFER);
-							op.contract.address = to;
-							op.value = String.valueOf(f.paramValues.size());
-							break;
-						case "transferFrom(address,address,uint16[])":
-						case "transferFrom(address,address,uint256[])":
-							o = generateERC875Op();
-							op = o[0];
-							op.contract.setIndicies(f.paramValues);
-							if (f.containsAddress(C.BURN_ADDRESS))
-							{
-								setName(o, TransactionType.REDEEM);
-							}
-							else
-							{
-								setName(o, TransactionType.TRANSFER_FROM);
-							}
-							op.contract.setType(-1);
-							op.contract.address = to;
-							op.contract.setOtherParty(f.getFirstAddress());
-							op.value = String.valueOf(f.paramValues.size());
-							op.to = f.getAddress(1);
-							break;
-						case "transfer(address,uint16[])":
-						case "transfer(address,uint256[])":
-							o = generateERC875Op();
-							op = o[0];
-							op.contract.setOtherParty(f.getFirstAddress());
-							op.contract.setIndicies(f.paramValues);
-							setName(o, TransactionType.TRANSFER_TO);
-							op.value = String.valueOf(f.paramValues.size());
-							op.contract.address = to;
-							break;
-						case "transfer(address,uint256)":
-							o = generateERC20Op();
-							op = o[0];
-							op.from = from;
-							op.to = f.getFirstAddress();
-							op.value = String.valueOf(f.getFirstValue());
-							op.contract.address = to;
-							setName(o, TransactionType.TRANSFER_TO);
-							break;
-						case "transferFrom(address,address,uint256)":
-							o = generateERC20Op();
-							op = o[0];
-							op.from = f.getFirstAddress();
-							op.to = f.getAddress(1);
-							op.value = String.valueOf(f.getFirstValue());
-							op.contract.address = to;
+					case "trade(uint256,uint16[],uint8,bytes32,bytes32)":
+					case "trade(uint256,uint256[],uint8,bytes32,bytes32)":
+						o = processTrade(f);
+						op = o[0];
+						setName(o, TransactionType.MAGICLINK_TRANSFER);
+						op.contract.address = to;
+						op.value = String.valueOf(f.paramValues.size());
+						break;
+					case "transferFrom(address,address,uint16[])":
+					case "transferFrom(address,address,uint256[])":
+						o = generateERC875Op();
+						op = o[0];
+						op.contract.setIndicies(f.paramValues);
+						if (f.containsAddress(C.BURN_ADDRESS))
+						{
+							setName(o, TransactionType.REDEEM);
+						}
+						else
+						{
 							setName(o, TransactionType.TRANSFER_FROM);
-							op.contract.setType(1);
-							break;
-						case "allocateTo(address,uint256)":
-							o = generateERC20Op();
-							op = o[0];
-							op.from = from;
-							op.to = f.getFirstAddress();
-							op.value = String.valueOf(f.getFirstValue());
-							op.contract.address = to;
-							setName(o, TransactionType.ALLOCATE_TO);
-							break;
-						case "approve(address,uint256)":
-							o = generateERC20Op();
-							op = o[0];
-							op.from = from;
-							op.to = f.getFirstAddress();
-							op.value = String.valueOf(f.getFirstValue());
-							op.contract.address = to;
-							setName(o, TransactionType.APPROVE);
-							break;
-						case "loadNewTickets(bytes32[])":
-						case "loadNewTickets(uint256[])":
-							o = generateERC875Op();
-							op = o[0];
-							op.from = from;
-							op.value = String.valueOf(f.paramValues.size());
-							op.contract.address = to;
-							setName(o, TransactionType.LOAD_NEW_TOKENS);
-							op.contract.setType(1);
-							break;
-						case "passTo(uint256,uint16[],uint8,bytes32,bytes32,address)":
-						case "passTo(uint256,uint256[],uint8,bytes32,bytes32,address)":
-							o = processPassTo(f, contractAddress);
-							op = o[0];
-							op.from = from;
-							op.to = f.getFirstAddress();
-							op.value = String.valueOf(f.paramValues.size());
-							op.contract.address = to;
-							setName(o, TransactionType.PASS_TO);
-							op.contract.setType(-1);
-							break;
-						case "endContract()":
-						case "selfdestruct()":
-						case "kill()":
-							o = generateERC875Op();
-							op = o[0];
-							ct = op.contract;
-							ct.setOperation(TransactionType.TERMINATE_CONTRACT);
-							ct.name = to;
-							ct.setType(-2);
-							setName(o, TransactionType.TERMINATE_CONTRACT);
-							op.value = "";
-							ct.address = to;
-							break;
-						default:
-							break;
-					}
-
-					if (op != null)
-					{
-						op.transactionId = hash;
-					}
+						}
+						op.contract.setType(-1);
+						op.contract.address = to;
+						op.contract.setOtherParty(f.getFirstAddress());
+						op.value = String.valueOf(f.paramValues.size());
+						op.to = f.getAddress(1);
+						break;
+					case "transfer(address,uint16[])":
+					case "transfer(address,uint256[])":
+						o = generateERC875Op();
+						op = o[0];
+						op.contract.setOtherParty(f.getFirstAddress());
+						op.contract.setIndicies(f.paramValues);
+						setName(o, TransactionType.TRANSFER_TO);
+						op.value = String.valueOf(f.paramValues.size());
+						op.contract.address = to;
+						break;
+					case "transfer(address,uint256)":
+						o = generateERC20Op();
+						op = o[0];
+						op.from = from;
+						op.to = f.getFirstAddress();
+						op.value = String.valueOf(f.getFirstValue());
+						op.contract.address = to;
+						setName(o, TransactionType.TRANSFER_TO);
+						break;
+					case "transferFrom(address,address,uint256)":
+						o = generateERC20Op();
+						op = o[0];
+						op.from = f.getFirstAddress();
+						op.to = f.getAddress(1);
+						op.value = String.valueOf(f.getFirstValue());
+						op.contract.address = to;
+						setName(o, TransactionType.TRANSFER_FROM);
+						op.contract.setType(1);
+						break;
+					case "allocateTo(address,uint256)":
+						o = generateERC20Op();
+						op = o[0];
+						op.from = from;
+						op.to = f.getFirstAddress();
+						op.value = String.valueOf(f.getFirstValue());
+						op.contract.address = to;
+						setName(o, TransactionType.ALLOCATE_TO);
+						break;
+					case "approve(address,uint256)":
+						o = generateERC20Op();
+						op = o[0];
+						op.from = from;
+						op.to = f.getFirstAddress();
+						op.value = String.valueOf(f.getFirstValue());
+						op.contract.address = to;
+						setName(o, TransactionType.APPROVE);
+						break;
+					case "loadNewTickets(bytes32[])":
+					case "loadNewTickets(uint256[])":
+						o = generateERC875Op();
+						op = o[0];
+						op.from = from;
+						op.value = String.valueOf(f.paramValues.size());
+						op.contract.address = to;
+						setName(o, TransactionType.LOAD_NEW_TOKENS);
+						op.contract.setType(1);
+						break;
+					case "passTo(uint256,uint16[],uint8,bytes32,bytes32,address)":
+					case "passTo(uint256,uint256[],uint8,bytes32,bytes32,address)":
+						o = processPassTo(f);
+						op = o[0];
+						op.from = from;
+						op.to = f.getFirstAddress();
+						op.value = String.valueOf(f.paramValues.size());
+						op.contract.address = to;
+						setName(o, TransactionType.PASS_TO);
+						op.contract.setType(-1);
+						break;
+					case "endContract()":
+					case "selfdestruct()":
+					case "kill()":
+						o = generateERC875Op();
+						op = o[0];
+						ct = op.contract;
+						ct.setOperation(TransactionType.TERMINATE_CONTRACT);
+						ct.name = to;
+						ct.setType(-2);
+						setName(o, TransactionType.TERMINATE_CONTRACT);
+						op.value = "";
+						ct.address = to;
+						break;
+					default:
+						break;
+				}
+
+				if (op != null)
+				{
+					op.transactionId = hash;
 				}
 			}
-			operations = o;
 		}
 
-		this.to = to;
-		this.hash = hash;
-		this.error = isError;
-		this.blockNumber = blockNumber;
-		this.timeStamp = timeStamp;
-		this.nonce = nonce;
-		this.from = from;
-		this.value = value;
-		this.gas = gas;
-		this.gasPrice = gasPrice;
-		this.input = input;
-		this.gasUsed = gasUsed;
-		this.chainId = chainId;
+		return o;
 	}
 
 	public String getTokenAddress(String walletAddress)
 	{
-		if (operations == null || operations.length == 0)
+		if (getOperations().length == 0)
 		{
 			return walletAddress;
 		}
@@ -327,7 +373,7 @@ public class Transaction implements Parcelable {
 		dest.writeString(input);
 		dest.writeString(gasUsed);
 		dest.writeInt(chainId);
-		dest.writeParcelableArray(operations, flags);
+		dest.writeParcelableArray(getOperations(), flags);
 	}
 
 	public static void sortTransactions(List<Transaction> txList)
@@ -343,6 +389,7 @@ public class Transaction implements Parcelable {
 
 	public boolean isRelated(String contractAddress, String walletAddress)
 	{
+		//operations which haven't been decoded are calls to 'to', so checking 'to' is sufficient
 		TransactionOperation operation = operations == null
 				|| operations.length == 0 ? null : operations[0];
 
@@ -361,8 +408,7 @@ public class Transaction implements Parcelable {
 
     public TransactionContract getOperation()
     {
-		return operations == null
-				|| operations.length == 0 ? null : operations[0].contract;
+		return getOperations().length == 0 ? null : getOperations()[0].contract;
     }
 
 
@@ -386,9 +432,9 @@ public class Transaction implements Parcelable {
 		return o;
 	}
 
-	private TransactionOperation[] processPassTo(TransactionInput f, String contractAddress)
+	private TransactionOperation[] processPassTo(TransactionInput f)
 	{
-		TransactionOperation[] o = processTrade(f, contractAddress);
+		TransactionOperation[] o = processTrade(f);
 		if (o.length > 0)
 		{
 			o[0].contract.totalSupply = f.getFirstAddress(); //store destination address for this passTo. We don't use totalSupply for anything else in this case
@@ -397,7 +443,7 @@ public class Transaction implements Parcelable {
 		return o;
 	}
 
-	private TransactionOperation[] processTrade(TransactionInput f, String contractAddress)
+	private TransactionOperation[] processTrade(TransactionInput f)
 	{
 		TransactionOperation[] o;
 		try
@@ -408,7 +454,7 @@ public class Transaction implements Parcelable {
 			String expiryStr = f.miscData.get(0);
 			long expiry = Long.valueOf(expiryStr, 16);
 			BigInteger priceWei = new BigInteger(value);
-			contractAddress = to;
+			String contractAddress = to;
 			o = generateERC875Op();
 			TransactionOperation op = o[0];
 			TransactionContract ct = op.contract;
@@ -458,20 +504,19 @@ public class Transaction implements Parcelable {
 	 */
 	public String getOperationResult(Token token)
 	{
-		if (operations == null || operations.length == 0)
+		if (getOperations().length == 0)
 			return token.getTransactionValue(this);
 		if (error.equals("1")) return "";
 
 		//TODO: Handle multiple operation transactions
-		TransactionOperation operation = operations[0];
+		TransactionOperation operation = getOperations()[0];
 
 		return operation.getOperationResult(token, this);
 	}
 
 	public String getOperationTokenAddress()
 	{
-		TransactionOperation operation = operations == null
-												 || operations.length == 0 ? null : operations[0];
+		TransactionOperation operation = getOperations().length == 0 ? null : getOperations()[0];
 
 		if (operation == null || operation.contract == null)
 		{
@@ -492,9 +537,9 @@ public class Transaction implements Parcelable {
 			{
 				txName = ctx.getString(R.string.status_pending);
 			}
-			else if (operations != null && operations.length > 0)
+			else if (getOperations().length > 0)
 			{
-				TransactionOperation operation = operations[0];
+				TransactionOperation operation = getOperations()[0];
 				txName = operation.getOperationName(ctx);
 			}
 		}
@@ -508,8 +553,7 @@ public class Transaction implements Parcelable {
 
 	public String getContract(Token token)
 	{
-		TransactionOperation operation = operations == null
-												 || operations.length == 0 ? null : operations[0];
+		TransactionOperation operation = getOperations().length == 0 ? null : getOperations()[0];
 
 		if (operation == null || operation.contract == null)
 		{
@@ -523,8 +567,7 @@ public class Transaction implements Parcelable {
 
 	public int getOperationImage(Token token)
 	{
-		TransactionOperation operation = operations == null
-												 || operations.length == 0 ? null : operations[0];
+		TransactionOperation operation = getOperations().length == 0 ? null : getOperations()[0];
 
 		if (operation == null || operation.contract == null)
 		{
@@ -548,8 +591,7 @@ public class Transaction implements Parcelable {
 	 */
 	public String getSupplementalInfo(String walletAddress, String networkName)
 	{
-		TransactionOperation operation = operations == null
-												 || operations.length == 0 ? null : operations[0];
+		TransactionOperation operation = getOperations().length == 0 ? null : getOperations()[0];
 
 		if (operation == null || operation.contract == null)
 		{
@@ -572,13 +614,13 @@ public class Transaction implements Parcelable {
 
     public BigDecimal getRawValue() throws Exception
     {
-		if (operations == null || operations.length == 0)
+		if (getOperations().length == 0)
 		{
 			return new BigDecimal(value);
 		}
 		else
 		{
-			TransactionOperation operation = operations[0];
+			TransactionOperation operation = getOperations()[0];
 			return operation.getRawValue();
 		}
     }
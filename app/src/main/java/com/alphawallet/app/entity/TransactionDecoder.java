@@ -1,14 +1,17 @@
 package com.alphawallet.app.entity;
 
+import com.alphawallet.token.tools.Numeric;
+
 import org.web3j.crypto.Hash;
 import org.web3j.crypto.Sign;
-import org.web3j.utils.Numeric;
 
 import java.math.BigInteger;
-import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
 
 import static com.alphawallet.app.entity.TransactionDecoder.ReadState.ARGS;
 import static org.web3j.crypto.Keys.ADDRESS_LENGTH_IN_HEX;
@@ -16,66 +19,79 @@ import static org.web3j.crypto.Keys.ADDRESS_LENGTH_IN_HEX;
 /**
  * Created by James on 2/02/2018.
  *
- * TransactionDecoder currently only decode a transaction input in the
- * string format, which is strictly a string starting with "0x" and
- * with an even number of hex digits followed. (Probably should be
- * bytes but we work with string for now.) It is used only for one
- * thing at the moment: decodeInput(), which returns the decoded
- * input.
+ * TransactionDecoder decodes a transaction input, supplied as a hex string
+ * starting with "0x". The input is converted to bytes once and the function
+ * is found from its 4 byte selector in a static table, shared by all decoders.
+ * Arguments are only read once the selector is recognised, and are read
+ * directly from the byte array. The decoder holds no parse state, and
+ * functions added with addScanFunction are kept in a concurrent map, so one
+ * instance can be shared between threads.
  */
 
 // TODO: Should be a factory class that emits an object containing transaction interpretation
 public class TransactionDecoder
 {
-    TransactionInput thisData;
-
-    private static List<String> endContractSignatures = new ArrayList<>();
-
-    private int parseIndex;
-    private Map<String, FunctionData> functionList;
+    private static final int WORD = 32;
+    private static final int ADDRESS_BYTES = ADDRESS_LENGTH_IN_HEX / 2;
+
+    //Known functions, sorted by selector for binary search. Built once; never modified after class init.
+    private static final int[] knownSelectors;
+    private static final FunctionData[] knownFunctions;
+    private static final String[] knownSelectorHex; //for scanning contract bytecode
+
+    private static final String balanceMethod = Numeric.cleanHexPrefix(buildMethodId("balanceOf(address)"));
+    private static final String isStormbird = Numeric.cleanHexPrefix(buildMethodId("isStormBirdContract()"));
+    private static final String isStormbird2 = Numeric.cleanHexPrefix(buildMethodId("isStormBird()"));
+    private static final String trade = Numeric.cleanHexPrefix(buildMethodId("trade(uint256,uint256[],uint8,bytes32,bytes32)"));
+    private static final String tradeLegacy = Numeric.cleanHexPrefix(buildMethodId("trade(uint256,uint16[],uint8,bytes32,bytes32)"));
+
+    private static final List<String> endContractSignatures = Arrays.asList(
+            buildMethodId("endContract()"),
+            buildMethodId("selfdestruct()"),
+            buildMethodId("kill()"));
+
+    static
+    {
+        Map<Integer, FunctionData> functionList = new TreeMap<>();
+        setupKnownFunctions(functionList);
+        knownSelectors = new int[functionList.size()];
+        knownFunctions = new FunctionData[functionList.size()];
+        knownSelectorHex = new String[functionList.size()];
+        int index = 0;
+        for (Map.Entry<Integer, FunctionData> entry : functionList.entrySet())
+        {
+            knownSelectors[index] = entry.getKey();
+            knownFunctions[index] = entry.getValue();
+            knownSelectorHex[index] = String.format("%08x", entry.getKey());
+            index++;
+        }
+    }
 
-    private ReadState state = ARGS;
-    private int sigCount = 0;
+    private final Map<Integer, FunctionData> scanFunctions = new ConcurrentHashMap<>(); //functions added by this instance
 
-    private FunctionData unknownFunction = new FunctionData("unknown()", ContractType.OTHER, false);
+    private final FunctionData unknownFunction = new FunctionData("unknown()", ContractType.OTHER, false);
 
     public TransactionDecoder()
     {
-        setupKnownFunctions();
         setupUnknownFunction();
     }
 
     public TransactionInput decodeInput(String input)
     {
-        ParseStage parseState = ParseStage.PARSE_FUNCTION;
-        parseIndex = 0;
-        //1. check function
-        thisData = new TransactionInput();
-        if (input == null || input.length() < 10)
+        TransactionInput thisData = new TransactionInput();
+        FunctionData data = getFunction(input);
+        if (data == null)
         {
             thisData.functionData = unknownFunction;
             return thisData;
         }
 
-        try {
-            while (parseIndex < input.length() && !(parseState == ParseStage.FINISH)) {
-                switch (parseState) {
-                    case PARSE_FUNCTION: //get function
-                        parseState = setFunction(readBytes(input, 10), input.length());
-                        break;
-                    case PARSE_ARGS: //now get params
-                        parseState = getParams(input);
-                        break;
-                    case FINISH:
-                        break;
-                    case ERROR:
-                        //Perform any future error handling here
-                        parseState = ParseStage.FINISH;
-                        break;
-                }
+        thisData.functionData = data;
 
-                if (parseIndex < 0) break; //error
-            }
+        try
+        {
+            byte[] inputBytes = Numeric.hexStringToByteArray(input);
+            getParams(thisData, inputBytes);
         }
         catch (Exception e)
         {
@@ -85,149 +101,133 @@ public class TransactionDecoder
         return thisData;
     }
 
-    private ParseStage setFunction(String input, int length) {
-        //first get expected arg list:
-        FunctionData data = functionList.get(input);
+    /**
+     * Find the function called by this input without decoding any of its arguments.
+     * Reads the selector directly from the hex string.
+     *
+     * @return function data or null if the function isn't known
+     */
+    public FunctionData getFunction(String input)
+    {
+        if (input == null || input.length() < 10 || !Numeric.containsHexPrefix(input)) return null;
 
-        if (data != null)
+        int selector = 0;
+        for (int i = 2; i < 10; i++)
         {
-            thisData.functionData = data;
-            thisData.paramValues.clear();
-            thisData.addresses.clear();
-            thisData.sigData.clear();
-            thisData.miscData.clear();
-        }
-        else
-        {
-            thisData.functionData = unknownFunction;
-            return ParseStage.ERROR;
+            int digit = Character.digit(input.charAt(i), 16);
+            if (digit < 0) return null;
+            selector = (selector << 4) | digit;
         }
 
-        return ParseStage.PARSE_ARGS;
+        return findFunction(selector);
     }
 
-    enum ReadState
+    private FunctionData findFunction(int selector)
     {
-        ARGS,
-        SIGNATURE
-    }
-
-    private ParseStage getParams(String input) {
-        state = ARGS;
-        BigInteger count;
-        StringBuilder sb = new StringBuilder();
-        if (thisData.functionData != null && thisData.functionData.args != null)
+        int index = Arrays.binarySearch(knownSelectors, selector);
+        if (index >= 0)
         {
-            for (String type : thisData.functionData.args)
-            {
-                String argData = read256bits(input);
-                if (argData.equals("0")) break;
-                switch (type)
-                {
-                    case "string":
-                        count = new BigInteger(argData, 16);
-                        sb.setLength(0);
-                        argData = read256bits(input);
-                        if (count.intValue() > argData.length()) count = BigInteger.valueOf(argData.length());
-                        for (int index = 0; index < (count.intValue()*2); index += 2)
-                        {
-                            int v = Integer.parseInt(argData.substring(index, index+2), 16);
-                            char c = (char)v;
-                            sb.append(c);
-                        }
-                        thisData.miscData.add(Numeric.cleanHexPrefix(sb.toString()));
-                        break;
-                    case "address":
-                        if (argData.length() >= 64 - ADDRESS_LENGTH_IN_HEX)
-                        {
-                            thisData.addresses.add("0x" + argData.substring(64 - ADDRESS_LENGTH_IN_HEX));
-                        }
-                        break;
-                    case "bytes32":
-                        addArg(argData);
-                        break;
-                    case "bytes32[]":
-                    case "uint16[]":
-                    case "uint256[]":
-                        count = new BigInteger(argData, 16);
-                        for (int i = 0; i < count.intValue(); i++) {
-                            String inputData = read256bits(input);
-                            thisData.paramValues.add(new BigInteger(inputData, 16));
-                            if (inputData.equals("0")) break;
-                        }
-                        break;
-                    case "uint256":
-                        addArg(argData);
-                        break;
-                    case "uint8": //In our standards, we will put uint8 as the signature marker
-                        if (thisData.functionData.hasSig) {
-                            state = ReadState.SIGNATURE;
-                            sigCount = 0;
-                        }
-                        addArg(argData);
-                        break;
-                    case "nodata":
-                        //no need to store this data - eg placeholder to indicate presence of a vararg
-                        break;
-                    default:
-                        break;
-                }
-            }
+            return knownFunctions[index];
         }
         else
         {
-            return ParseStage.FINISH; //skip to end of read if there are no args in the spec
+            return scanFunctions.get(selector);
         }
-
-        return ParseStage.FINISH;
     }
 
-    private void addArg(String input)
+    enum ReadState
     {
-        switch (state)
-        {
-            case ARGS:
-                thisData.miscData.add(Numeric.cleanHexPrefix(input));
-                break;
-            case SIGNATURE:
-                thisData.sigData.add(input);
-                if (++sigCount == 3) state = ARGS;
-                break;
-        }
+        ARGS,
+        SIGNATURE
     }
 
-    private String readBytes(String input, int bytes)
+    private void getParams(TransactionInput thisData, byte[] input)
     {
-        if ((parseIndex + bytes) <= input.length())
-        {
-            String value = input.substring(parseIndex, parseIndex+bytes);
-            parseIndex += bytes;
-            return value;
-        }
-        else
+        ReadState state = ARGS;
+        int sigCount = 0;
+        int index = 4; //skip selector
+        if (thisData.functionData.args == null) return;
+
+        for (String type : thisData.functionData.args)
         {
-            return "0";
+            if (index + WORD > input.length) break; //end of data
+            int argIndex = index;
+            index += WORD;
+            switch (type)
+            {
+                case "string":
+                    //string is a single word; length followed by data
+                    int count = readCount(input, argIndex, WORD);
+                    if (index + WORD > input.length) break;
+                    char[] chars = new char[count];
+                    for (int i = 0; i < count; i++)
+                    {
+                        chars[i] = (char) (input[index + i] & 0xFF);
+                    }
+                    index += WORD;
+                    thisData.miscData.add(Numeric.cleanHexPrefix(new String(chars)));
+                    break;
+                case "address":
+                    thisData.addresses.add(Numeric.toHexString(input, argIndex + WORD - ADDRESS_BYTES, ADDRESS_BYTES, true));
+                    break;
+                case "bytes32[]":
+                case "uint16[]":
+                case "uint256[]":
+                    int elements = readCount(input, argIndex, (input.length - index) / WORD);
+                    for (int i = 0; i < elements; i++)
+                    {
+                        thisData.paramValues.add(Numeric.toBigInt(input, index, WORD));
+                        index += WORD;
+                    }
+                    break;
+                case "uint8": //In our standards, we will put uint8 as the signature marker
+                    if (thisData.functionData.hasSig)
+                    {
+                        state = ReadState.SIGNATURE;
+                        sigCount = 0;
+                    }
+                    //fall through
+                case "bytes32":
+                case "uint256":
+                    String arg = Numeric.toHexString(input, argIndex, WORD, false);
+                    if (state == ARGS)
+                    {
+                        thisData.miscData.add(arg);
+                    }
+                    else
+                    {
+                        thisData.sigData.add(arg);
+                        if (++sigCount == 3) state = ARGS;
+                    }
+                    break;
+                case "nodata":
+                    //no need to store this data - eg placeholder to indicate presence of a vararg
+                    break;
+                default:
+                    break;
+            }
         }
     }
 
-    private String read256bits(String input)
+    /**
+     * Read a length or count word, limited to the data which could follow it
+     */
+    private static int readCount(byte[] input, int index, int max)
     {
-        if ((parseIndex + 64) <= input.length())
-        {
-            String value = input.substring(parseIndex, parseIndex+64);
-            parseIndex += 64;
-            return value;
-        }
-        else
+        for (int i = index; i < index + WORD - 4; i++)
         {
-            return "0";
+            if (input[i] != 0) return max; //can't be a genuine count
         }
+
+        int count = ((input[index + WORD - 4] & 0xFF) << 24) | ((input[index + WORD - 3] & 0xFF) << 16)
+                | ((input[index + WORD - 2] & 0xFF) << 8) | (input[index + WORD - 1] & 0xFF);
+        return (count < 0 || count > max) ? max : count;
     }
 
-    private void addFunction(String method, ContractType type, boolean hasSig)
+    private static void addFunction(Map<Integer, FunctionData> functionList, String method, ContractType type, boolean hasSig)
     {
-        String methodId = buildMethodId(method);
-        FunctionData data = functionList.get(methodId);
+        int selector = buildSelector(method);
+        FunctionData data = functionList.get(selector);
         if (data != null)
         {
             data.addType(type);
@@ -235,65 +235,66 @@ public class TransactionDecoder
         else
         {
             data = new FunctionData(method, type, hasSig);
-            functionList.put(buildMethodId(method), data);
+            functionList.put(selector, data);
         }
     }
 
-    private void setupKnownFunctions()
+    private static void setupKnownFunctions(Map<Integer, FunctionData> functionList)
     {
-        functionList = new HashMap<>();
-        addFunction("transferFrom(address,address,uint16[])", ContractType.ERC875_LEGACY, false);
-        addFunction("transfer(address,uint16[])", ContractType.ERC875_LEGACY, false);
-        addFunction("trade(uint256,uint16[],uint8,bytes32,bytes32)", ContractType.ERC875_LEGACY, true);
-        addFunction("passTo(uint256,uint16[],uint8,bytes32,bytes32,address)", ContractType.ERC875_LEGACY, true);
-        addFunction("loadNewTickets(bytes32[])", ContractType.ERC875_LEGACY, false);
-        addFunction("balanceOf(address)", ContractType.ERC875_LEGACY, false);
-
-        addFunction("transfer(address,uint256)", ContractType.ERC20, false);
-        addFunction("transfer(address,uint)", ContractType.ERC20, false);
-        addFunction("transferFrom(address,address,uint256)", ContractType.ERC20, false);
-        addFunction("approve(address,uint256)", ContractType.ERC20, false);
-        addFunction("approve(address,uint)", ContractType.ERC20, false);
-        addFunction("allocateTo(address,uint256)", ContractType.ERC20, false);
-        addFunction("allowance(address,address)", ContractType.ERC20, false);
-        addFunction("transferFrom(address,address,uint)", ContractType.ERC20, false);
-        addFunction("approveAndCall(address,uint,bytes)", ContractType.ERC20, false);
-        addFunction("balanceOf(address)", ContractType.ERC20, false);
-        addFunction("transferAnyERC20Token(address,uint)", ContractType.ERC20, false);
-
-        addFunction("transferFrom(address,address,uint256[])", ContractType.ERC875, false);
-        addFunction("transfer(address,uint256[])", ContractType.ERC875, false);
-        addFunction("trade(uint256,uint256[],uint8,bytes32,bytes32)", ContractType.ERC875, true);
-        addFunction("passTo(uint256,uint256[],uint8,bytes32,bytes32,address)", ContractType.ERC875, true);
-        addFunction("loadNewTickets(uint256[])", ContractType.ERC875, false);
-        addFunction("balanceOf(address)", ContractType.ERC875, false);
-
-        addFunction("endContract()", ContractType.CREATION, false);
-        addFunction("selfdestruct()", ContractType.CREATION, false);
-        addFunction("kill()", ContractType.CREATION, false);
-
-        addFunction("safeTransferFrom(address,address,uint256,bytes)", ContractType.ERC721, false);
-        addFunction("safeTransferFrom(address,address,uint256)", ContractType.ERC721, false);
-        addFunction("transferFrom(address,address,uint256)", ContractType.ERC721, false);
-        addFunction("approve(address,uint256)", ContractType.ERC721, false);
-        addFunction("setApprovalForAll(address,bool)", ContractType.ERC721, false);
-        addFunction("getApproved(address,address,uint256)", ContractType.ERC721, false);
-        addFunction("isApprovedForAll(address,address)", ContractType.ERC721, false);
-        addFunction("transfer(address,uint256)", ContractType.ERC721_LEGACY, false);
-        addFunction("giveBirth(uint256,uint256)", ContractType.ERC721, false);
-        addFunction("breedWithAuto(uint256,uint256)", ContractType.ERC721, false);
-        addFunction("ownerOf(uint256)", ContractType.ERC721, false);
-        addFunction("createSaleAuction(uint256,uint256,uint256,uint256)", ContractType.ERC721, false);
-        addFunction("mixGenes(uint256,uint256,uint256)", ContractType.ERC721, false);
-        addFunction("tokensOfOwner(address)", ContractType.ERC721, false);
-
-        addFunction("dropCurrency(uint32,uint32,uint32,uint8,bytes32,bytes32,address)", ContractType.CURRENCY, true);
-        addFunction("withdraw(uint256)", ContractType.CURRENCY, false); //0x2e1a7d4d0000000000000000000000000000000000000000000000000000000000000001
+        addFunction(functionList, "transferFrom(address,address,uint16[])", ContractType.ERC875_LEGACY, false);
+        addFunction(functionList, "transfer(address,uint16[])", ContractType.ERC875_LEGACY, false);
+        addFunction(functionList, "trade(uint256,uint16[],uint8,bytes32,bytes32)", ContractType.ERC875_LEGACY, true);
+        addFunction(functionList, "passTo(uint256,uint16[],uint8,bytes32,bytes32,address)", ContractType.ERC875_LEGACY, true);
+        addFunction(functionList, "loadNewTickets(bytes32[])", ContractType.ERC875_LEGACY, false);
+        addFunction(functionList, "balanceOf(address)", ContractType.ERC875_LEGACY, false);
+
+        addFunction(functionList, "transfer(address,uint256)", ContractType.ERC20, false);
+        addFunction(functionList, "transfer(address,uint)", ContractType.ERC20, false);
+        addFunction(functionList, "transferFrom(address,address,uint256)", ContractType.ERC20, false);
+        addFunction(functionList, "approve(address,uint256)", ContractType.ERC20, false);
+        addFunction(functionList, "approve(address,uint)", ContractType.ERC20, false);
+        addFunction(functionList, "allocateTo(address,uint256)", ContractType.ERC20, false);
+        addFunction(functionList, "allowance(address,address)", ContractType.ERC20, false);
+        addFunction(functionList, "transferFrom(address,address,uint)", ContractType.ERC20, false);
+        addFunction(functionList, "approveAndCall(address,uint,bytes)", ContractType.ERC20, false);
+        addFunction(functionList, "balanceOf(address)", ContractType.ERC20, false);
+        addFunction(functionList, "transferAnyERC20Token(address,uint)", ContractType.ERC20, false);
+
+        addFunction(functionList, "transferFrom(address,address,uint256[])", ContractType.ERC875, false);
+        addFunction(functionList, "transfer(address,uint256[])", ContractType.ERC875, false);
+        addFunction(functionList, "trade(uint256,uint256[],uint8,bytes32,bytes32)", ContractType.ERC875, true);
+        addFunction(functionList, "passTo(uint256,uint256[],uint8,bytes32,bytes32,address)", ContractType.ERC875, true);
+        addFunction(functionList, "loadNewTickets(uint256[])", ContractType.ERC875, false);
+        addFunction(functionList, "balanceOf(address)", ContractType.ERC875, false);
+
+        addFunction(functionList, "endContract()", ContractType.CREATION, false);
+        addFunction(functionList, "selfdestruct()", ContractType.CREATION, false);
+        addFunction(functionList, "kill()", ContractType.CREATION, false);
+
+        addFunction(functionList, "safeTransferFrom(address,address,uint256,bytes)", ContractType.ERC721, false);
+        addFunction(functionList, "safeTransferFrom(address,address,uint256)", ContractType.ERC721, false);
+        addFunction(functionList, "transferFrom(address,address,uint256)", ContractType.ERC721, false);
+        addFunction(functionList, "approve(address,uint256)", ContractType.ERC721, false);
+        addFunction(functionList, "setApprovalForAll(address,bool)", ContractType.ERC721, false);
+        addFunction(functionList, "getApproved(address,address,uint256)", ContractType.ERC721, false);
+        addFunction(functionList, "isApprovedForAll(address,address)", ContractType.ERC721, false);
+        addFunction(functionList, "transfer(address,uint256)", ContractType.ERC721_LEGACY, false);
+        addFunction(functionList, "giveBirth(uint256,uint256)", ContractType.ERC721, false);
+        addFunction(functionList, "breedWithAuto(uint256,uint256)", ContractType.ERC721, false);
+        addFunction(functionList, "ownerOf(uint256)", ContractType.ERC721, false);
+        addFunction(functionList, "createSaleAuction(uint256,uint256,uint256,uint256)", ContractType.ERC721, false);
+        addFunction(functionList, "mixGenes(uint256,uint256,uint256)", ContractType.ERC721, false);
+        addFunction(functionList, "tokensOfOwner(address)", ContractType.ERC721, false);
+
+        addFunction(functionList, "dropCurrency(uint32,uint32,uint32,uint8,bytes32,bytes32,address)", ContractType.CURRENCY, true);
+        addFunction(functionList, "withdraw(uint256)", ContractType.CURRENCY, false); //0x2e1a7d4d0000000000000000000000000000000000000000000000000000000000000001
     }
 
     public void addScanFunction(String methodSignature, boolean hasSig)
     {
-        addFunction(methodSignature, ContractType.OTHER, hasSig);
+        int selector = buildSelector(methodSignature);
+        if (Arrays.binarySearch(knownSelectors, selector) >= 0) return; //already known; shared table is immutable
+        addFunction(scanFunctions, methodSignature, ContractType.OTHER, hasSig);
     }
 
     public ContractType getContractType(String input)
@@ -304,12 +305,6 @@ public class TransactionDecoder
         int highestCount = 0;
 
         //improve heuristic:
-        String balanceMethod = Numeric.cleanHexPrefix(buildMethodId("balanceOf(address)"));
-        String isStormbird = Numeric.cleanHexPrefix(buildMethodId("isStormBirdContract()"));
-        String isStormbird2 = Numeric.cleanHexPrefix(buildMethodId("isStormBird()"));
-        String trade = Numeric.cleanHexPrefix(buildMethodId("trade(uint256,uint256[],uint8,bytes32,bytes32)"));
-        String tradeLegacy = Numeric.cleanHexPrefix(buildMethodId("trade(uint256,uint16[],uint8,bytes32,bytes32)"));
-
         if (input.contains(balanceMethod))
         {
             if (input.contains(isStormbird) || input.contains(isStormbird2) || input.contains(tradeLegacy) || input.contains(trade))
@@ -331,13 +326,12 @@ public class TransactionDecoder
 
         //ERC721/x or ERC20
 
-        for (String signature : functionList.keySet())
+        for (int i = 0; i < knownSelectors.length; i++)
         {
-            String cleanSig = Numeric.cleanHexPrefix(signature);
-            int index = input.indexOf(cleanSig);
+            int index = input.indexOf(knownSelectorHex[i]);
             if (index >= 0)
             {
-                FunctionData data = functionList.get(signature);
+                FunctionData data = knownFunctions[i];
                 for (ContractType type : data.contractType)
                 {
                     int count = 0;
@@ -365,11 +359,6 @@ public class TransactionDecoder
         return highestType;
     }
 
-    enum ParseStage
-    {
-        PARSE_FUNCTION, PARSE_ARGS, FINISH, ERROR
-    }
-
     public Sign.SignatureData getSignatureData(TransactionInput data)
     {
         Sign.SignatureData sigData = null;
@@ -409,6 +398,12 @@ public class TransactionDecoder
         return Numeric.toHexString(hash).substring(0, 10);
     }
 
+    private static int buildSelector(String methodSignature)
+    {
+        byte[] hash = Hash.sha3(methodSignature.getBytes());
+        return ((hash[0] & 0xFF) << 24) | ((hash[1] & 0xFF) << 16) | ((hash[2] & 0xFF) << 8) | (hash[3] & 0xFF);
+    }
+
     public static boolean isEndContract(String input)
     {
         if (input == null || input.length() != 10)
@@ -416,11 +411,6 @@ public class TransactionDecoder
             return false;
         }
 
-        if (endContractSignatures.size() == 0)
-        {
-            buildEndContractSigs();
-        }
-
         for (String sig : endContractSignatures)
         {
             if (input.equals(sig)) return true;
@@ -429,13 +419,6 @@ public class TransactionDecoder
         return false;
     }
 
-    private static void buildEndContractSigs()
-    {
-        endContractSignatures.add(buildMethodId("endContract()"));
-        endContractSignatures.add(buildMethodId("selfdestruct()"));
-        endContractSignatures.add(buildMethodId("kill()"));
-    }
-
     private void setupUnknownFunction()
     {
         unknownFunction.functionName = "N/A";
@@ -18,6 +18,7 @@ import com.alphawallet.app.service.AssetDefinitionService;
 import com.alphawallet.app.ui.widget.holder.TokenHolder;
 import com.alphawallet.app.viewmodel.BaseViewModel;
 import com.alphawallet.token.entity.TicketRange;
+import com.alphawallet.token.tools.TokenIdCodec;
 
 import com.alphawallet.app.web3j.datatypes.Function;
 import org.web3j.abi.datatypes.generated.Uint256;
@@ -142,7 +143,16 @@ public class ERC721Ticket extends Token implements Parcelable {
     @Override
     public void setRealmBalance(RealmToken realmToken)
     {
-        realmToken.setBalance(bigIntListToString(balanceArray, true));
+        //the id runs are only rewritten when they've changed
+        byte[] packedBalance = getPackedBalance();
+        if (!Arrays.equals(packedBalance, realmToken.getBalanceData())) realmToken.setBalanceData(packedBalance);
+        if (!"".equals(realmToken.getBalance())) realmToken.setBalance("");
+    }
+
+    @Override
+    protected byte[] getPackedBalance()
+    {
+        return TokenIdCodec.encode(balanceArray);
     }
 
     @Override
@@ -288,8 +298,7 @@ public class ERC721Ticket extends Token implements Parcelable {
     public boolean getIsSent(Transaction transaction)
     {
         boolean isSent = true;
-        TransactionOperation operation = transaction.operations == null
-                                                 || transaction.operations.length == 0 ? null : transaction.operations[0];
+        TransactionOperation operation = transaction.getOperations().length == 0 ? null : transaction.getOperations()[0];
 
         if (operation != null && operation.contract instanceof ERC875ContractTransaction)
         {
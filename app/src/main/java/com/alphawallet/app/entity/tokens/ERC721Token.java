@@ -191,9 +191,9 @@ public class ERC721Token extends Token implements Parcelable
     @Override
     public String getTransactionValue(Transaction transaction, Context ctx)
     {
-        if (transaction.operations != null && transaction.operations.length > 0)
+        if (transaction.getOperations().length > 0)
         {
-            TransactionOperation operation = transaction.operations[0];
+            TransactionOperation operation = transaction.getOperations()[0];
             return "#" + operation.value;
         }
         else
@@ -347,7 +347,6 @@ public class Token implements Parcelable, Comparable<Token>
     public String bigIntListToString(List<BigInteger> idList, boolean keepZeros)
     {
         if (idList == null) return "";
-        String displayIDs = "";
         boolean first = true;
         StringBuilder sb = new StringBuilder();
         for (BigInteger id : idList)
@@ -360,10 +359,9 @@ public class Token implements Parcelable, Comparable<Token>
             first = false;
 
             sb.append(Numeric.toHexStringNoPrefix(id));
-            displayIDs = sb.toString();
         }
 
-        return displayIDs;
+        return sb.toString();
     }
 
     public List<Integer> stringIntsToIntegerList(String userList)
@@ -426,18 +424,35 @@ public class Token implements Parcelable, Comparable<Token>
     public boolean checkRealmBalanceChange(RealmToken realmToken)
     {
         if (contractType == null || contractType.ordinal() != realmToken.getInterfaceSpec()) return true;
-        String currentState = realmToken.getBalance();
-        if (currentState == null) return true;
         if (tokenInfo.name != null && realmToken.getName() == null) return true; //signal to update database if correct name has been fetched (node timeout etc)
         if (tokenInfo.name == null && realmToken.getName() != null) return true;
         if (tokenInfo.symbol == null && realmToken.getSymbol() != null) return true;
-        if (tokenInfo.name != null && realmToken.getName() != null) return true;
         if (tokenInfo.symbol != null && realmToken.getSymbol() == null) return true;
-        if (tokenInfo.name != null && (!tokenInfo.name.equals(realmToken.getName()) || !tokenInfo.symbol.equals(realmToken.getSymbol()))) return true;
+        if (tokenInfo.name != null && (!tokenInfo.name.equals(realmToken.getName())
+                || (tokenInfo.symbol != null && !tokenInfo.symbol.equals(realmToken.getSymbol())))) return true;
+
+        //named tokens are always written so update time, last block and ticker stay current;
+        //an unchanged ticket balance is skipped in setRealmBalance
+        if (tokenInfo.name != null && realmToken.getName() != null) return true;
+
+        byte[] packedBalance = getPackedBalance();
+        if (packedBalance != null) return !Arrays.equals(packedBalance, realmToken.getBalanceData());
+
+        String currentState = realmToken.getBalance();
+        if (currentState == null) return true;
         String currentBalance = getFullBalance();
         return !currentState.equals(currentBalance);
     }
 
+    /**
+     * Ticket balances are stored in packed binary form rather than as the balance string
+     * @return packed id list, or null if this token stores its balance as a string
+     */
+    protected byte[] getPackedBalance()
+    {
+        return null;
+    }
+
     private Map<String, String> restoreAuxData(String data)
     {
         Map<String, String> aux = null;
@@ -714,9 +729,9 @@ public class Token implements Parcelable, Comparable<Token>
         {
             return "";
         }
-        else if (transaction.operations != null && transaction.operations.length > 0)
+        else if (transaction.getOperations().length > 0)
         {
-            result = transaction.operations[0].getValue(tokenInfo.decimals);
+            result = transaction.getOperations()[0].getValue(tokenInfo.decimals);
         }
         else if (!transaction.value.equals("0"))
         {
@@ -0,0 +1,52 @@
+package com.alphawallet.app.entity.tokens;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A single change to the wallet's token set, emitted by TokensService so the token list can be updated in place
+ * rather than rebuilt from the full token array.
+ */
+public class TokenChange
+{
+    public enum Type
+    {
+        ADDED,
+        REMOVED,
+        BALANCE,
+        TICKER
+    }
+
+    public final Type type;
+    public final Token token;
+
+    public TokenChange(Type type, Token token)
+    {
+        this.type = type;
+        this.token = token;
+    }
+
+    /**
+     * True if the displayed token object was modified in place, so a list diff on the token can't see the change
+     */
+    public boolean isInPlace(Token displayed)
+    {
+        return displayed == token && (type == Type.TICKER || type == Type.BALANCE);
+    }
+
+    /**
+     * Reduce a batch of changes to the latest change per token
+     */
+    public static List<TokenChange> coalesce(List<TokenChange> changes)
+    {
+        Map<String, TokenChange> latest = new LinkedHashMap<>();
+        for (TokenChange change : changes)
+        {
+            String key = change.token.tokenInfo.chainId + "-" + change.token.getAddress().toLowerCase();
+            latest.put(key, change);
+        }
+        return new ArrayList<>(latest.values());
+    }
+}
@@ -8,6 +8,7 @@ import com.alphawallet.app.entity.tokens.Token;
 import com.alphawallet.app.entity.tokens.TokenInfo;
 import com.alphawallet.app.repository.entity.RealmERC721Token;
 import com.alphawallet.app.repository.entity.RealmToken;
+import com.alphawallet.token.tools.TokenIdCodec;
 
 import java.math.BigDecimal;
 import java.math.BigInteger;
@@ -76,13 +77,27 @@ public class TokenFactory
                 thisToken.pendingBalance = balance;
                 break;
             case ERC721_TICKET:
-                if (realmBalance == null) realmBalance = "";
-                thisToken = new ERC721Ticket(tokenInfo, realmBalance, updateBlancaTime, networkName, type);
+                if (realmItem.getBalanceData() != null)
+                {
+                    thisToken = new ERC721Ticket(tokenInfo, TokenIdCodec.decode(realmItem.getBalanceData()), updateBlancaTime, networkName, type);
+                }
+                else
+                {
+                    if (realmBalance == null) realmBalance = "";
+                    thisToken = new ERC721Ticket(tokenInfo, realmBalance, updateBlancaTime, networkName, type);
+                }
                 break;
             case ERC875:
             case ERC875_LEGACY:
-                if (realmBalance == null) realmBalance = "";
-                thisToken = new Ticket(tokenInfo, realmBalance, updateBlancaTime, networkName, type);
+                if (realmItem.getBalanceData() != null)
+                {
+                    thisToken = new Ticket(tokenInfo, TokenIdCodec.decode(realmItem.getBalanceData()), updateBlancaTime, networkName, type);
+                }
+                else
+                {
+                    if (realmBalance == null) realmBalance = "";
+                    thisToken = new Ticket(tokenInfo, realmBalance, updateBlancaTime, networkName, type);
+                }
                 break;
 
             case OTHER:
@@ -2,132 +2,27 @@ package com.alphawallet.app.entity.tokenscript;
 
 import com.alphawallet.app.entity.tokens.Token;
 import com.alphawallet.token.entity.EventDefinition;
-import com.alphawallet.token.entity.Module;
+import com.alphawallet.token.tools.AbiCodec;
 
-import org.web3j.abi.EventEncoder;
-import org.web3j.abi.EventValues;
 import org.web3j.abi.TypeEncoder;
-import org.web3j.abi.TypeReference;
 import org.web3j.abi.datatypes.Address;
-import org.web3j.abi.datatypes.BytesType;
-import org.web3j.abi.datatypes.Event;
-import org.web3j.abi.datatypes.Int;
-import org.web3j.abi.datatypes.Type;
-import org.web3j.abi.datatypes.Uint;
-import org.web3j.abi.datatypes.Utf8String;
-import org.web3j.abi.datatypes.generated.Bytes1;
-import org.web3j.abi.datatypes.generated.Bytes10;
-import org.web3j.abi.datatypes.generated.Bytes11;
-import org.web3j.abi.datatypes.generated.Bytes12;
-import org.web3j.abi.datatypes.generated.Bytes13;
-import org.web3j.abi.datatypes.generated.Bytes14;
-import org.web3j.abi.datatypes.generated.Bytes15;
-import org.web3j.abi.datatypes.generated.Bytes16;
-import org.web3j.abi.datatypes.generated.Bytes17;
-import org.web3j.abi.datatypes.generated.Bytes18;
-import org.web3j.abi.datatypes.generated.Bytes19;
-import org.web3j.abi.datatypes.generated.Bytes2;
-import org.web3j.abi.datatypes.generated.Bytes20;
-import org.web3j.abi.datatypes.generated.Bytes21;
-import org.web3j.abi.datatypes.generated.Bytes22;
-import org.web3j.abi.datatypes.generated.Bytes23;
-import org.web3j.abi.datatypes.generated.Bytes24;
-import org.web3j.abi.datatypes.generated.Bytes25;
-import org.web3j.abi.datatypes.generated.Bytes26;
-import org.web3j.abi.datatypes.generated.Bytes27;
-import org.web3j.abi.datatypes.generated.Bytes28;
-import org.web3j.abi.datatypes.generated.Bytes29;
-import org.web3j.abi.datatypes.generated.Bytes3;
-import org.web3j.abi.datatypes.generated.Bytes30;
-import org.web3j.abi.datatypes.generated.Bytes31;
-import org.web3j.abi.datatypes.generated.Bytes32;
-import org.web3j.abi.datatypes.generated.Bytes4;
-import org.web3j.abi.datatypes.generated.Bytes5;
-import org.web3j.abi.datatypes.generated.Bytes6;
-import org.web3j.abi.datatypes.generated.Bytes7;
-import org.web3j.abi.datatypes.generated.Bytes8;
-import org.web3j.abi.datatypes.generated.Bytes9;
-import org.web3j.abi.datatypes.generated.Int104;
-import org.web3j.abi.datatypes.generated.Int112;
-import org.web3j.abi.datatypes.generated.Int120;
-import org.web3j.abi.datatypes.generated.Int128;
-import org.web3j.abi.datatypes.generated.Int136;
-import org.web3j.abi.datatypes.generated.Int144;
-import org.web3j.abi.datatypes.generated.Int152;
-import org.web3j.abi.datatypes.generated.Int16;
-import org.web3j.abi.datatypes.generated.Int160;
-import org.web3j.abi.datatypes.generated.Int168;
-import org.web3j.abi.datatypes.generated.Int176;
-import org.web3j.abi.datatypes.generated.Int184;
-import org.web3j.abi.datatypes.generated.Int192;
-import org.web3j.abi.datatypes.generated.Int200;
-import org.web3j.abi.datatypes.generated.Int208;
-import org.web3j.abi.datatypes.generated.Int216;
-import org.web3j.abi.datatypes.generated.Int224;
-import org.web3j.abi.datatypes.generated.Int232;
-import org.web3j.abi.datatypes.generated.Int24;
-import org.web3j.abi.datatypes.generated.Int240;
-import org.web3j.abi.datatypes.generated.Int248;
-import org.web3j.abi.datatypes.generated.Int256;
-import org.web3j.abi.datatypes.generated.Int32;
-import org.web3j.abi.datatypes.generated.Int40;
-import org.web3j.abi.datatypes.generated.Int48;
-import org.web3j.abi.datatypes.generated.Int56;
-import org.web3j.abi.datatypes.generated.Int64;
-import org.web3j.abi.datatypes.generated.Int72;
-import org.web3j.abi.datatypes.generated.Int8;
-import org.web3j.abi.datatypes.generated.Int80;
-import org.web3j.abi.datatypes.generated.Int88;
-import org.web3j.abi.datatypes.generated.Int96;
-import org.web3j.abi.datatypes.generated.Uint104;
-import org.web3j.abi.datatypes.generated.Uint112;
-import org.web3j.abi.datatypes.generated.Uint120;
-import org.web3j.abi.datatypes.generated.Uint128;
-import org.web3j.abi.datatypes.generated.Uint136;
-import org.web3j.abi.datatypes.generated.Uint144;
-import org.web3j.abi.datatypes.generated.Uint152;
-import org.web3j.abi.datatypes.generated.Uint16;
-import org.web3j.abi.datatypes.generated.Uint160;
-import org.web3j.abi.datatypes.generated.Uint168;
-import org.web3j.abi.datatypes.generated.Uint176;
-import org.web3j.abi.datatypes.generated.Uint184;
-import org.web3j.abi.datatypes.generated.Uint192;
-import org.web3j.abi.datatypes.generated.Uint200;
-import org.web3j.abi.datatypes.generated.Uint208;
-import org.web3j.abi.datatypes.generated.Uint216;
-import org.web3j.abi.datatypes.generated.Uint224;
-import org.web3j.abi.datatypes.generated.Uint232;
-import org.web3j.abi.datatypes.generated.Uint24;
-import org.web3j.abi.datatypes.generated.Uint240;
-import org.web3j.abi.datatypes.generated.Uint248;
 import org.web3j.abi.datatypes.generated.Uint256;
-import org.web3j.abi.datatypes.generated.Uint32;
-import org.web3j.abi.datatypes.generated.Uint40;
-import org.web3j.abi.datatypes.generated.Uint48;
-import org.web3j.abi.datatypes.generated.Uint56;
-import org.web3j.abi.datatypes.generated.Uint64;
-import org.web3j.abi.datatypes.generated.Uint72;
-import org.web3j.abi.datatypes.generated.Uint8;
-import org.web3j.abi.datatypes.generated.Uint80;
-import org.web3j.abi.datatypes.generated.Uint88;
-import org.web3j.abi.datatypes.generated.Uint96;
+import org.web3j.crypto.Hash;
 import org.web3j.protocol.Web3j;
 import org.web3j.protocol.core.DefaultBlockParameter;
 import org.web3j.protocol.core.DefaultBlockParameterName;
 import org.web3j.protocol.core.methods.request.EthFilter;
-import org.web3j.protocol.core.methods.response.EthBlock;
+import org.web3j.protocol.core.methods.request.Filter;
 import org.web3j.protocol.core.methods.response.EthLog;
 import org.web3j.protocol.core.methods.response.Log;
 import org.web3j.utils.Numeric;
 
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.math.BigInteger;
 import java.util.ArrayList;
 import java.util.List;
 
-import io.reactivex.Single;
-
-import static org.web3j.tx.Contract.staticExtractEventParameters;
 
 /**
  * Created by JB on 23/03/2020.
@@ -148,9 +43,22 @@ import static org.web3j.tx.Contract.staticExtractEventParameters;
 public abstract class EventUtils
 {
     public EthFilter generateLogFilter(EventDefinition ev, Token originToken)
+    {
+        DefaultBlockParameter startBlock = DefaultBlockParameterName.EARLIEST;
+
+        if (ev.readBlock != null && ev.readBlock.compareTo(BigInteger.ZERO) > 0)
+        {
+            //TODO: ADD this back in if all is good
+            //startBlock = DefaultBlockParameter.valueOf(ev.readBlock);
+        }
+
+        return generateLogFilter(ev, originToken, startBlock, DefaultBlockParameterName.LATEST);
+    }
+
+    public EthFilter generateLogFilter(EventDefinition ev, Token originToken, DefaultBlockParameter startBlock, DefaultBlockParameter endBlock)
     {
         String eventContractAddr = ev.eventModule.contractInfo.addresses.get(originToken.tokenInfo.chainId).get(0);
-        final Event resolverEvent = generateEventFunction(ev);
+        final AbiCodec eventCodec = getEventCodec(ev);
         //work out which topics to filter on
         String filterTopic = ev.getFilterTopicIndex();
         String filterTopicValue = ev.getFilterTopicValue();
@@ -161,20 +69,12 @@ public abstract class EventUtils
         //isolate which indexed param it is
         List<String> indexedParams = ev.eventModule.getArgNames(true);
 
-        DefaultBlockParameter startBlock = DefaultBlockParameterName.EARLIEST;
-
-        if (ev.readBlock != null && ev.readBlock.compareTo(BigInteger.ZERO) > 0)
-        {
-            //TODO: ADD this back in if all is good
-            //startBlock = DefaultBlockParameter.valueOf(ev.readBlock);
-        }
-
         final org.web3j.protocol.core.methods.request.EthFilter filter =
                 new org.web3j.protocol.core.methods.request.EthFilter(
                         startBlock,
-                        DefaultBlockParameterName.LATEST,
+                        endBlock,
                         eventContractAddr)                            // contract address
-                        .addSingleTopic(EventEncoder.encode(resolverEvent)); // event name
+                        .addSingleTopic(eventCodec.getEventTopic()); // event name
 
         for (int i = 0; i < indexedParams.size(); i++)
         {
@@ -192,21 +92,86 @@ public abstract class EventUtils
         return filter;
     }
 
+    /**
+     * Fetch the logs matching the event filter between two blocks (inclusive).
+     * Nodes cap the number of results (or time out) on large ranges; when that happens the range is
+     * split in half and each half fetched in turn, down to a single block.
+     *
+     * @return logs in block order, or throws if a range could not be fetched even after splitting
+     */
+    public List<EthLog.LogResult> getLogsInRange(Web3j web3j, EventDefinition ev, Token originToken,
+                                                 BigInteger fromBlock, BigInteger toBlock) throws IOException
+    {
+        EthFilter filter = generateLogFilter(ev, originToken, DefaultBlockParameter.valueOf(fromBlock), DefaultBlockParameter.valueOf(toBlock));
+        String errorMessage;
+
+        try
+        {
+            EthLog ethLogs = web3j.ethGetLogs(filter).send();
+            if (!ethLogs.hasError())
+            {
+                return ethLogs.getLogs() != null ? ethLogs.getLogs() : new ArrayList<>();
+            }
+            errorMessage = ethLogs.getError().getMessage();
+        }
+        catch (InterruptedIOException e) //node took too long to answer; try a smaller range
+        {
+            errorMessage = e.getMessage();
+        }
+
+        if (fromBlock.compareTo(toBlock) >= 0)
+        {
+            throw new IOException("Unable to fetch logs for block " + fromBlock.toString() + ": " + errorMessage);
+        }
+
+        BigInteger midBlock = fromBlock.add(toBlock).shiftRight(1);
+        List<EthLog.LogResult> logs = new ArrayList<>(getLogsInRange(web3j, ev, originToken, fromBlock, midBlock));
+        logs.addAll(getLogsInRange(web3j, ev, originToken, midBlock.add(BigInteger.ONE), toBlock));
+        return logs;
+    }
+
+    /**
+     * Produces a signature of the topics the filter for this event/token pair currently listens to.
+     * If this changes (eg the token gains a new tokenId) any stored scan checkpoint is no longer valid.
+     */
+    public String getFilterSignature(EventDefinition ev, Token originToken)
+    {
+        EthFilter filter = generateLogFilter(ev, originToken);
+        StringBuilder sb = new StringBuilder(filter.getAddress().toString());
+        for (Filter.FilterTopic<?> topic : filter.getTopics())
+        {
+            sb.append(",");
+            Object value = topic != null ? topic.getValue() : null;
+            if (value instanceof List)
+            {
+                for (Object optional : (List<?>) value)
+                {
+                    sb.append(((Filter.SingleTopic)optional).getValue()).append("|");
+                }
+            }
+            else if (value != null)
+            {
+                sb.append(value.toString());
+            }
+        }
+        return Hash.sha3String(sb.toString()).substring(2, 18);
+    }
+
     public String getSelectVal(EventDefinition ev, EthLog.LogResult ethLog)
     {
         String selectVal = "";
-        final Event resolverEvent = generateEventFunction(ev);
-        final EventValues eventValues = staticExtractEventParameters(resolverEvent, (Log)ethLog.get());
+        final AbiCodec eventCodec = getEventCodec(ev);
         int selectIndexInNonIndexed = ev.getSelectIndex(false);
         int selectIndexInIndexed = ev.getSelectIndex(true);
 
         if (selectIndexInNonIndexed >= 0)
         {
-            selectVal = getValueFromParams(eventValues.getNonIndexedValues(), selectIndexInNonIndexed);
+            List<Object> nonIndexedValues = eventCodec.decodeOutputs(Numeric.hexStringToByteArray(((Log)ethLog.get()).getData()));
+            selectVal = getValueFromParams(nonIndexedValues.get(selectIndexInNonIndexed), eventCodec.getOutputType(selectIndexInNonIndexed));
         }
         else if (selectIndexInIndexed >= 0)
         {
-            selectVal = getValueFromParams(eventValues.getIndexedValues(), selectIndexInIndexed);
+            selectVal = getIndexedValue(eventCodec, (Log)ethLog.get(), selectIndexInIndexed);
         }
 
         Log log = (Log)ethLog;
@@ -217,48 +182,34 @@ public abstract class EventUtils
 
     public String getTopicVal(EventDefinition ev, EthLog.LogResult ethLog)
     {
-        String topicVal = "";
-        final Event resolverEvent = generateEventFunction(ev);
-        final EventValues eventValues = staticExtractEventParameters(resolverEvent, (Log)ethLog.get());
+        final AbiCodec eventCodec = getEventCodec(ev);
         String filterTopic = ev.getFilterTopicIndex();
         int topicIndex = ev.getTopicIndex(filterTopic);
 
-        topicVal = getValueFromParams(eventValues.getIndexedValues(), topicIndex);
-
-        return topicVal;
+        return getIndexedValue(eventCodec, (Log)ethLog.get(), topicIndex);
     }
 
-    public Single<EthBlock> getTransactionDetails(String blockHash, Web3j web3j)
+    private String getIndexedValue(AbiCodec eventCodec, Log log, int indexedPosition)
     {
-        return Single.fromCallable(() -> {
-            EthBlock txResult;
-            try
-            {
-                txResult = web3j.ethGetBlockByHash(blockHash.trim(), false).send();
-                System.out.println(txResult.getResult());
-            }
-            catch (IOException | NullPointerException e)
-            {
-                e.printStackTrace();
-                txResult = new EthBlock();
-            }
-
-            return txResult;
-        });
+        //topic 0 is the event signature, indexed args follow
+        byte[] topicData = Numeric.hexStringToByteArray(log.getTopics().get(indexedPosition + 1));
+        return getValueFromParams(eventCodec.decodeTopic(indexedPosition, topicData), eventCodec.getIndexedType(indexedPosition));
     }
 
-    private String getValueFromParams(List<Type> responseParams, int selectIndex)
+    private String getValueFromParams(Object value, String typeName)
     {
-        Type t = responseParams.get(selectIndex);
-        String typeName = t.getTypeAsString();
         //strip numbers
         int i = typeName.length() - 1;
         while (Character.isDigit(typeName.charAt(i))) { i--; }; //strip
         typeName = typeName.substring(0, i+1);
-        byte[] val;
 
         String selectVal;
 
+        if (value instanceof byte[]) //bytesN, or the hash of an indexed dynamic value
+        {
+            return Numeric.toHexString((byte[])value);
+        }
+
         // Note this param gets interpreted according to the script 'syntax'
         // by the attribute value conversion function getSyntaxVal(String ...) in class AttributeType
         switch (typeName.toLowerCase())
@@ -268,16 +219,11 @@ public abstract class EventUtils
             case "uint":
             case "int":
             case "bool":
-            case "fixed":
-                selectVal = t.getValue().toString();
-                break;
-            case "bytes":
-                val = (byte[])(t.getValue());
-                selectVal = Numeric.toHexString(val);
+                selectVal = value.toString();
                 break;
 
             default:
-                selectVal = "Unexpected type: " + t.getTypeAsString();
+                selectVal = "Unexpected type: " + typeName;
                 break;
         }
 
@@ -285,335 +231,11 @@ public abstract class EventUtils
     }
 
     /**
-     * This function generates an input definition given an arg sequence, including if the arg is indexed
-     * Could be used to generate any input function spec to pass to Web3j
-     * @param args
-     * @return
+     * Event codecs are compiled once per signature and cached in the codec, so this is cheap to call per log
      */
-    private static List<TypeReference<?>> generateFunctionDefinition(List<Module.SequenceElement> args)
-    {
-        List<TypeReference<?>> paramList = new ArrayList<>();
-        for (Module.SequenceElement element : args)
-        {
-            switch (element.type)
-            {
-                case "int":
-                    paramList.add(new TypeReference<Int>(element.indexed) { });
-                    break;
-                case "int8":
-                    paramList.add(new TypeReference<Int8>(element.indexed) { });
-                    break;
-                case "int16":
-                    paramList.add(new TypeReference<Int16>(element.indexed) { });
-                    break;
-                case "int24":
-                    paramList.add(new TypeReference<Int24>(element.indexed) { });
-                    break;
-                case "int32":
-                    paramList.add(new TypeReference<Int32>(element.indexed) { });
-                    break;
-                case "int40":
-                    paramList.add(new TypeReference<Int40>(element.indexed) { });
-                    break;
-                case "int48":
-                    paramList.add(new TypeReference<Int48>(element.indexed) { });
-                    break;
-                case "int56":
-                    paramList.add(new TypeReference<Int56>(element.indexed) { });
-                    break;
-                case "int64":
-                    paramList.add(new TypeReference<Int64>(element.indexed) { });
-                    break;
-                case "int72":
-                    paramList.add(new TypeReference<Int72>(element.indexed) { });
-                    break;
-                case "int80":
-                    paramList.add(new TypeReference<Int80>(element.indexed) { });
-                    break;
-                case "int88":
-                    paramList.add(new TypeReference<Int88>(element.indexed) { });
-                    break;
-                case "int96":
-                    paramList.add(new TypeReference<Int96>(element.indexed) { });
-                    break;
-                case "int104":
-                    paramList.add(new TypeReference<Int104>(element.indexed) { });
-                    break;
-                case "int112":
-                    paramList.add(new TypeReference<Int112>(element.indexed) { });
-                    break;
-                case "int120":
-                    paramList.add(new TypeReference<Int120>(element.indexed) { });
-                    break;
-                case "int128":
-                    paramList.add(new TypeReference<Int128>(element.indexed) { });
-                    break;
-                case "int136":
-                    paramList.add(new TypeReference<Int136>(element.indexed) { });
-                    break;
-                case "int144":
-                    paramList.add(new TypeReference<Int144>(element.indexed) { });
-                    break;
-                case "int152":
-                    paramList.add(new TypeReference<Int152>(element.indexed) { });
-                    break;
-                case "int160":
-                    paramList.add(new TypeReference<Int160>(element.indexed) { });
-                    break;
-                case "int168":
-                    paramList.add(new TypeReference<Int168>(element.indexed) { });
-                    break;
-                case "int176":
-                    paramList.add(new TypeReference<Int176>(element.indexed) { });
-                    break;
-                case "int184":
-                    paramList.add(new TypeReference<Int184>(element.indexed) { });
-                    break;
-                case "int192":
-                    paramList.add(new TypeReference<Int192>(element.indexed) { });
-                    break;
-                case "int200":
-                    paramList.add(new TypeReference<Int200>(element.indexed) { });
-                    break;
-                case "int208":
-                    paramList.add(new TypeReference<Int208>(element.indexed) { });
-                    break;
-                case "int216":
-                    paramList.add(new TypeReference<Int216>(element.indexed) { });
-                    break;
-                case "int224":
-                    paramList.add(new TypeReference<Int224>(element.indexed) { });
-                    break;
-                case "int232":
-                    paramList.add(new TypeReference<Int232>(element.indexed) { });
-                    break;
-                case "int240":
-                    paramList.add(new TypeReference<Int240>(element.indexed) { });
-                    break;
-                case "int248":
-                    paramList.add(new TypeReference<Int248>(element.indexed) { });
-                    break;
-                case "int256":
-                    paramList.add(new TypeReference<Int256>(element.indexed) { });
-                    break;
-                case "uint":
-                    paramList.add(new TypeReference<Uint>(element.indexed) { });
-                    break;
-
-                case "uint8":
-                    paramList.add(new TypeReference<Uint8>(element.indexed) { });
-                    break;
-                case "uint16":
-                    paramList.add(new TypeReference<Uint16>(element.indexed) { });
-                    break;
-                case "uint24":
-                    paramList.add(new TypeReference<Uint24>(element.indexed) { });
-                    break;
-                case "uint32":
-                    paramList.add(new TypeReference<Uint32>(element.indexed) { });
-                    break;
-                case "uint40":
-                    paramList.add(new TypeReference<Uint40>(element.indexed) { });
-                    break;
-                case "uint48":
-                    paramList.add(new TypeReference<Uint48>(element.indexed) { });
-                    break;
-                case "uint56":
-                    paramList.add(new TypeReference<Uint56>(element.indexed) { });
-                    break;
-                case "uint64":
-                    paramList.add(new TypeReference<Uint64>(element.indexed) { });
-                    break;
-                case "uint72":
-                    paramList.add(new TypeReference<Uint72>(element.indexed) { });
-                    break;
-                case "uint80":
-                    paramList.add(new TypeReference<Uint80>(element.indexed) { });
-                    break;
-                case "uint88":
-                    paramList.add(new TypeReference<Uint88>(element.indexed) { });
-                    break;
-                case "uint96":
-                    paramList.add(new TypeReference<Uint96>(element.indexed) { });
-                    break;
-                case "uint104":
-                    paramList.add(new TypeReference<Uint104>(element.indexed) { });
-                    break;
-                case "uint112":
-                    paramList.add(new TypeReference<Uint112>(element.indexed) { });
-                    break;
-                case "uint120":
-                    paramList.add(new TypeReference<Uint120>(element.indexed) { });
-                    break;
-                case "uint128":
-                    paramList.add(new TypeReference<Uint128>(element.indexed) { });
-                    break;
-                case "uint136":
-                    paramList.add(new TypeReference<Uint136>(element.indexed) { });
-                    break;
-                case "uint144":
-                    paramList.add(new TypeReference<Uint144>(element.indexed) { });
-                    break;
-                case "uint152":
-                    paramList.add(new TypeReference<Uint152>(element.indexed) { });
-                    break;
-                case "uint160":
-                    paramList.add(new TypeReference<Uint160>(element.indexed) { });
-                    break;
-                case "uint168":
-                    paramList.add(new TypeReference<Uint168>(element.indexed) { });
-                    break;
-                case "uint176":
-                    paramList.add(new TypeReference<Uint176>(element.indexed) { });
-                    break;
-                case "uint184":
-                    paramList.add(new TypeReference<Uint184>(element.indexed) { });
-                    break;
-                case "uint192":
-                    paramList.add(new TypeReference<Uint192>(element.indexed) { });
-                    break;
-                case "uint200":
-                    paramList.add(new TypeReference<Uint200>(element.indexed) { });
-                    break;
-                case "uint208":
-                    paramList.add(new TypeReference<Uint208>(element.indexed) { });
-                    break;
-                case "uint216":
-                    paramList.add(new TypeReference<Uint216>(element.indexed) { });
-                    break;
-                case "uint224":
-                    paramList.add(new TypeReference<Uint224>(element.indexed) { });
-                    break;
-                case "uint232":
-                    paramList.add(new TypeReference<Uint232>(element.indexed) { });
-                    break;
-                case "uint240":
-                    paramList.add(new TypeReference<Uint240>(element.indexed) { });
-                    break;
-                case "uint248":
-                    paramList.add(new TypeReference<Uint248>(element.indexed) { });
-                    break;
-                case "uint256":
-                    paramList.add(new TypeReference<Uint256>(element.indexed) { });
-                    break;
-                case "address":
-                    paramList.add(new TypeReference<Address>(element.indexed) { });
-                    break;
-                case "string":
-                    paramList.add(new TypeReference<Utf8String>(element.indexed) { });
-                    break;
-                case "bytes":
-                    paramList.add(new TypeReference<BytesType>(element.indexed) { });
-                    break;
-                case "bytes1":
-                    paramList.add(new TypeReference<Bytes1>(element.indexed) { });
-                    break;
-                case "bytes2":
-                    paramList.add(new TypeReference<Bytes2>(element.indexed) { });
-                    break;
-                case "bytes3":
-                    paramList.add(new TypeReference<Bytes3>(element.indexed) { });
-                    break;
-                case "bytes4":
-                    paramList.add(new TypeReference<Bytes4>(element.indexed) { });
-                    break;
-                case "bytes5":
-                    paramList.add(new TypeReference<Bytes5>(element.indexed) { });
-                    break;
-                case "bytes6":
-                    paramList.add(new TypeReference<Bytes6>(element.indexed) { });
-                    break;
-                case "bytes7":
-                    paramList.add(new TypeReference<Bytes7>(element.indexed) { });
-                    break;
-                case "bytes8":
-                    paramList.add(new TypeReference<Bytes8>(element.indexed) { });
-                    break;
-                case "bytes9":
-                    paramList.add(new TypeReference<Bytes9>(element.indexed) { });
-                    break;
-                case "bytes10":
-                    paramList.add(new TypeReference<Bytes10>(element.indexed) { });
-                    break;
-                case "bytes11":
-                    paramList.add(new TypeReference<Bytes11>(element.indexed) { });
-                    break;
-                case "bytes12":
-                    paramList.add(new TypeReference<Bytes12>(element.indexed) { });
-                    break;
-                case "bytes13":
-                    paramList.add(new TypeReference<Bytes13>(element.indexed) { });
-                    break;
-                case "bytes14":
-                    paramList.add(new TypeReference<Bytes14>(element.indexed) { });
-                    break;
-                case "bytes15":
-                    paramList.add(new TypeReference<Bytes15>(element.indexed) { });
-                    break;
-                case "bytes16":
-                    paramList.add(new TypeReference<Bytes16>(element.indexed) { });
-                    break;
-                case "bytes17":
-                    paramList.add(new TypeReference<Bytes17>(element.indexed) { });
-                    break;
-                case "bytes18":
-                    paramList.add(new TypeReference<Bytes18>(element.indexed) { });
-                    break;
-                case "bytes19":
-                    paramList.add(new TypeReference<Bytes19>(element.indexed) { });
-                    break;
-                case "bytes20":
-                    paramList.add(new TypeReference<Bytes20>(element.indexed) { });
-                    break;
-                case "bytes21":
-                    paramList.add(new TypeReference<Bytes21>(element.indexed) { });
-                    break;
-                case "bytes22":
-                    paramList.add(new TypeReference<Bytes22>(element.indexed) { });
-                    break;
-                case "bytes23":
-                    paramList.add(new TypeReference<Bytes23>(element.indexed) { });
-                    break;
-                case "bytes24":
-                    paramList.add(new TypeReference<Bytes24>(element.indexed) { });
-                    break;
-                case "bytes25":
-                    paramList.add(new TypeReference<Bytes25>(element.indexed) { });
-                    break;
-                case "bytes26":
-                    paramList.add(new TypeReference<Bytes26>(element.indexed) { });
-                    break;
-                case "bytes27":
-                    paramList.add(new TypeReference<Bytes27>(element.indexed) { });
-                    break;
-                case "bytes28":
-                    paramList.add(new TypeReference<Bytes28>(element.indexed) { });
-                    break;
-                case "bytes29":
-                    paramList.add(new TypeReference<Bytes29>(element.indexed) { });
-                    break;
-                case "bytes30":
-                    paramList.add(new TypeReference<Bytes30>(element.indexed) { });
-                    break;
-                case "bytes31":
-                    paramList.add(new TypeReference<Bytes31>(element.indexed) { });
-                    break;
-                case "bytes32":
-                    paramList.add(new TypeReference<Bytes32>(element.indexed) { });
-                    break;
-                default:
-                    System.out.println("NOT IMPLEMENTED: " + element.type);
-                    break;
-            }
-        }
-
-        return paramList;
-    }
-
-    private Event generateEventFunction(EventDefinition ev)
+    private AbiCodec getEventCodec(EventDefinition ev)
     {
-        List<TypeReference<?>> eventArgSpec = EventUtils.generateFunctionDefinition(ev.eventModule.getSequenceArgs());
-        return new Event(ev.eventName, eventArgSpec);
+        return AbiCodec.getEventCodec(ev.eventName, ev.eventModule.getSequenceArgs());
     }
 
     private void addTopicFilter(EthFilter filter, String filterTopicValue, Token originToken)
@@ -7,11 +7,8 @@ import com.alphawallet.app.entity.tokens.Token;
 import com.alphawallet.app.repository.TokenRepository;
 import com.alphawallet.app.util.BalanceUtils;
 import com.alphawallet.app.util.Utils;
-import com.alphawallet.app.web3j.FunctionEncoder;
-import com.alphawallet.app.web3j.FunctionReturnDecoder;
 import com.alphawallet.app.web3j.TypeReference;
 import com.alphawallet.app.web3j.datatypes.Function;
-import com.alphawallet.token.entity.As;
 import com.alphawallet.token.entity.AttributeInterface;
 import com.alphawallet.token.entity.AttributeType;
 import com.alphawallet.token.entity.ContractAddress;
@@ -20,6 +17,7 @@ import com.alphawallet.token.entity.MethodArg;
 import com.alphawallet.token.entity.TokenScriptResult;
 import com.alphawallet.token.entity.TokenscriptElement;
 import com.alphawallet.token.entity.TransactionResult;
+import com.alphawallet.token.tools.AttributeEngine;
 import com.alphawallet.token.tools.TokenDefinition;
 
 import org.web3j.abi.datatypes.Address;
@@ -28,17 +26,14 @@ import org.web3j.abi.datatypes.Type;
 import org.web3j.abi.datatypes.Uint;
 import org.web3j.abi.datatypes.Utf8String;
 import org.web3j.abi.datatypes.generated.*;
-import org.web3j.protocol.Web3j;
 import org.web3j.protocol.core.DefaultBlockParameterName;
 import org.web3j.protocol.core.methods.response.EthCall;
-import org.web3j.utils.Bytes;
 import org.web3j.utils.Numeric;
 
 import java.io.IOException;
 import java.math.BigDecimal;
 import java.math.BigInteger;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
@@ -55,6 +50,9 @@ public abstract class TokenscriptFunction
 {
     public static final String TOKENSCRIPT_CONVERSION_ERROR = "<error>";
 
+    //identical calls from concurrent token views go to the node once; results are cached against the token's transactions
+    private static final AttributeEngine engine = new AttributeEngine(TokenscriptFunction::ethCall);
+
     private final Map<String, AttributeType> localAttrs = new ConcurrentHashMap<>();
     private final Map<String, String> refTags = new ConcurrentHashMap<>();
 
@@ -465,180 +463,15 @@ public abstract class TokenscriptFunction
 
     public static byte[] convertArgToBytes(String inputValue)
     {
-        byte[] argBytes = new byte[1];
-        try
-        {
-            String hexValue = inputValue;
-            if (!Numeric.containsHexPrefix(inputValue))
-            {
-                BigInteger value;
-                try
-                {
-                    value = new BigInteger(inputValue);
-                }
-                catch (NumberFormatException e)
-                {
-                    value = new BigInteger(inputValue, 16);
-                }
-
-                hexValue = Numeric.toHexStringNoPrefix(value.toByteArray());
-                //fix sign condition
-                if (hexValue.length() > 64 && hexValue.startsWith("00"))
-                {
-                    hexValue = hexValue.substring(2);
-                }
-            }
-
-            argBytes = Numeric.hexStringToByteArray(hexValue);
-        }
-        catch (Exception e)
-        {
-            //no action
-        }
-
-        return argBytes;
-    }
-
-    private String handleTransactionResult(TransactionResult result, Function function, String responseValue, AttributeType attr, long lastTransactionTime)
-    {
-        String transResult = null;
-        try
-        {
-            //try to interpret the value. For now, just use the raw return value - this is more reliable until we need to interpret arrays
-            List<Type> response = FunctionReturnDecoder.decode(responseValue, function.getOutputParameters());
-            if (response.size() > 0)
-            {
-                result.resultTime = lastTransactionTime;
-                Type val = response.get(0);
-
-                BigInteger value;
-                byte[] bytes = Bytes.trimLeadingZeroes(Numeric.hexStringToByteArray(responseValue));
-                String hexBytes = Numeric.toHexString(bytes);
-
-                switch (attr.syntax)
-                {
-                    case Boolean:
-                        value = Numeric.toBigInt(hexBytes);
-                        transResult = value.equals(BigDecimal.ZERO) ? "FALSE" : "TRUE";
-                        break;
-                    case Integer:
-                        value = Numeric.toBigInt(hexBytes);
-                        transResult = value.toString();
-                        break;
-                    case BitString:
-                    case NumericString:
-                        if (val.getTypeAsString().equals("string"))
-                        {
-                            transResult = (String)val.getValue();
-                            if (responseValue.length() > 2 && transResult.length() == 0)
-                            {
-                                transResult = checkBytesString(responseValue);
-                            }
-                        }
-                        else
-                        {
-                            //should be a decimal string
-                            value = Numeric.toBigInt(hexBytes);
-                            transResult = value.toString();
-                        }
-                        break;
-                    case IA5String:
-                    case DirectoryString:
-                    case GeneralizedTime:
-                    case CountryString:
-                        if (val.getTypeAsString().equals("string"))
-                        {
-                            transResult = (String)val.getValue();
-                            if (responseValue.length() > 2 && transResult.length() == 0)
-                            {
-                                transResult = checkBytesString(responseValue);
-                            }
-                        }
-                        else if (val.getTypeAsString().equals("address"))
-                        {
-                            transResult = (String)val.getValue();
-                        }
-                        else
-                        {
-                            transResult = hexBytes;
-                        }
-                        break;
-                    default:
-                        transResult = hexBytes;
-                        break;
-                }
-            }
-            else
-            {
-                result.resultTime = lastTransactionTime == -1 ? -1 : 0;
-            }
-        }
-        catch (Exception e)
-        {
-            e.printStackTrace();
-        }
-
-        return transResult;
-    }
-
-    private String checkBytesString(String responseValue) throws Exception
-    {
-        String name = "";
-        if (responseValue.length() > 0)
-        {
-            //try raw bytes
-            byte[] data = Numeric.hexStringToByteArray(responseValue);
-            //check leading bytes for non-zero
-            if (data[0] != 0)
-            {
-                //truncate zeros
-                int index = data.length - 1;
-                while (data[index] == 0 && index > 0)
-                    index--;
-                if (index != (data.length - 1))
-                {
-                    data = Arrays.copyOfRange(data, 0, index + 1);
-                }
-                name = new String(data, "UTF-8");
-            }
-        }
-
-        return name;
+        return AttributeEngine.convertArgToBytes(inputValue);
     }
 
     public TokenScriptResult.Attribute parseFunctionResult(TransactionResult transactionResult, AttributeType attr)
     {
-        String res = attr.getSyntaxVal(transactionResult.result);
-        BigInteger val = transactionResult.tokenId; //?
-
-        if (attr.syntax == TokenDefinition.Syntax.Boolean)
-        {
-            if (res.equalsIgnoreCase("TRUE")) val = BigInteger.ONE;
-            else val = BigInteger.ZERO;
-        }
-        else if (attr.syntax == TokenDefinition.Syntax.NumericString && attr.as != As.Address)
-        {
-            if (transactionResult.result == null)
-            {
-                res = "0";
-            }
-            else if (transactionResult.result.startsWith("0x"))
-            {
-                res = res.substring(2);
-            }
-            try
-            {
-                val = new BigInteger(res, 16);
-            }
-            catch (NumberFormatException e)
-            {
-                val = BigInteger.ZERO;
-            }
-        }
-        return new TokenScriptResult.Attribute(attr.id, attr.name, val, res);
+        return AttributeEngine.parseFunctionResult(transactionResult, attr);
     }
 
-    public static final String ZERO_ADDRESS = "0x0000000000000000000000000000000000000000";
+    public static final String ZERO_ADDRESS = AttributeEngine.ZERO_ADDRESS;
 
     /**
      * Haven't pre-cached this value yet, so need to fetch it before we can proceed
@@ -653,7 +486,6 @@ public abstract class TokenscriptFunction
     {
         return Observable.fromCallable(() -> {
             ContractAddress useAddress;
-            long txUpdateTime = lastTransactionTime;
             if (override == null) // contract not specified - is not holder contract
             {
                 //determine address using definition context
@@ -663,50 +495,24 @@ public abstract class TokenscriptFunction
             {
                 useAddress = override;
             }
-            TransactionResult transactionResult = new TransactionResult(useAddress.chainId, useAddress.address, tokenId, attr);
             Function transaction = generateTransactionFunction(token, tokenId, definition, attr.function, attrIf);
-
-            String result;
-            if (transaction.getInputParameters() == null)
+            List<Object> argValues = null;
+            if (transaction.getInputParameters() != null)
             {
-                //couldn't validate all the input param values
-                result = "";
-                txUpdateTime = -1;
-            }
-            else
-            {
-                //now push the transaction
-                result = callSmartContractFunction(TokenRepository.getWeb3jService(useAddress.chainId), transaction, useAddress.address, ZERO_ADDRESS);
+                argValues = new ArrayList<>();
+                for (Type param : transaction.getInputParameters()) argValues.add(param.getValue());
             }
 
-            transactionResult.result = handleTransactionResult(transactionResult, transaction, result, attr, txUpdateTime);
-            return transactionResult;
+            return engine.callFunction(useAddress, attr, tokenId, argValues, lastTransactionTime);
         });
     }
 
-    private String callSmartContractFunction(Web3j web3j,
-                                             Function function, String contractAddress, String walletAddr)
+    private static String ethCall(int chainId, String from, String to, String data) throws IOException
     {
-        String encodedFunction = FunctionEncoder.encode(function);
-
-        try
-        {
-            org.web3j.protocol.core.methods.request.Transaction transaction
-                    = createEthCallTransaction(walletAddr, contractAddress, encodedFunction);
-            EthCall response = web3j.ethCall(transaction, DefaultBlockParameterName.LATEST).send();
-
-            return response.getValue();
-        }
-        catch (IOException e)
-        {
-            //Connection error. Use cached value
-            return null;
-        }
-        catch (Exception e)
-        {
-            e.printStackTrace();
-            return null;
-        }
+        org.web3j.protocol.core.methods.request.Transaction transaction
+                = createEthCallTransaction(from, to, data);
+        EthCall response = TokenRepository.getWeb3jService(chainId).ethCall(transaction, DefaultBlockParameterName.LATEST).send();
+        return response.getValue();
     }
 
     public String resolveReference(Token token, TokenscriptElement element, BigInteger tokenId, TokenDefinition definition, AttributeInterface attrIf)
@@ -813,7 +619,7 @@ public abstract class TokenscriptFunction
             long lastTxUpdate = attrIf.getLastTokenUpdate(useAddress.chainId, useAddress.address);
             TransactionResult cachedResult = attrIf.getFunctionResult(useAddress, attr, tokenId); //Needs to allow for multiple tokenIds
             if (cAddr != null && !useAddress.address.equalsIgnoreCase(cAddr.address)) lastTxUpdate = 0; //If calling a function which isn't the main tokenscript function retrieve from contract call not cache
-            if (itemView || (!attr.isVolatile() && (attrIf.resolveOptimisedAttr(useAddress, attr, cachedResult) || !cachedResult.needsUpdating(lastTxUpdate)))) //can we use wallet's known data or cached value?
+            if (itemView || engine.useCachedResult(useAddress, attr, cachedResult, attrIf, lastTxUpdate)) //can we use wallet's known data or cached value?
             {
                 return resultFromDatabase(cachedResult, attr);
             }
@@ -821,7 +627,7 @@ public abstract class TokenscriptFunction
             {
                 return fetchResultFromEthereum(token, useAddress, attr, tokenId, td, attrIf, lastTxUpdate)       // Fetch function result from blockchain
                         .map(transactionResult -> addParseResultIfValid(token, tokenId, attr, transactionResult))// only cache live transaction result
-                        .map(result -> restoreFromDBIfRequired(result, cachedResult))  // If network unavailable restore value from cache
+                        .map(result -> AttributeEngine.restoreFromCache(result, cachedResult))  // If network unavailable restore value from cache
                         .map(attrIf::storeAuxData)                                     // store new data
                         .map(result -> parseFunctionResult(result, attr));    // write returned data into attribute
             }
@@ -831,23 +637,9 @@ public abstract class TokenscriptFunction
     private Observable<TokenScriptResult.Attribute> staticAttribute(AttributeType attr, BigInteger tokenId)
     {
         return Observable.fromCallable(() -> {
-            try
-            {
-                if (attr.userInput)
-                {
-                    return new TokenScriptResult.Attribute(attr.id, attr.name, BigInteger.ZERO, "", true);
-                }
-                else
-                {
-                    BigInteger val = tokenId.and(attr.bitmask).shiftRight(attr.bitshift);
-                    if (BuildConfig.DEBUG) System.out.println("ATTR: " + attr.name + " : " + attr.id + " : " + attr.getSyntaxVal(attr.toString(val)));
-                    return new TokenScriptResult.Attribute(attr.id, attr.name, val, attr.getSyntaxVal(attr.toString(val)));
-                }
-            }
-            catch (Exception e)
-            {
-                return new TokenScriptResult.Attribute(attr.id, attr.name, tokenId, "unsupported encoding");
-            }
+            TokenScriptResult.Attribute attribute = AttributeEngine.staticAttribute(attr, tokenId);
+            if (BuildConfig.DEBUG && !attr.userInput) System.out.println("ATTR: " + attr.name + " : " + attr.id + " : " + attribute.text);
+            return attribute;
         });
     }
 
@@ -856,23 +648,6 @@ public abstract class TokenscriptFunction
         return Observable.fromCallable(() -> parseFunctionResult(transactionResult, attr));
     }
 
-    /**
-     * Restore result from Database if required (eg connection failure), and if there was a database value to restore
-     * @param result return from calling contract function
-     * @param cachedResult previous return value, restored from database
-     * @return
-     */
-    private TransactionResult restoreFromDBIfRequired(TransactionResult result, TransactionResult cachedResult)
-    {
-        if (result.resultTime == 0 && cachedResult != null && result.result == null)
-        {
-            result.result = cachedResult.result;
-            result.resultTime = cachedResult.resultTime;
-        }
-
-        return result;
-    }
-
     public String convertInputValue(AttributeType attr, String valueFromInput)
     {
         String convertedValue = "";
@@ -17,24 +17,23 @@ import com.alphawallet.app.entity.tokens.Token;
 import com.alphawallet.app.entity.tokens.TokenFactory;
 import com.alphawallet.app.entity.tokens.TokenInfo;
 import com.alphawallet.app.entity.tokens.TokenTicker;
-import com.alphawallet.app.service.AWHttpService;
 import com.alphawallet.app.service.TokensService;
 import com.alphawallet.app.util.AWEnsResolver;
+import com.alphawallet.app.util.Metrics;
 import com.alphawallet.app.util.Utils;
 import com.alphawallet.app.web3j.FunctionEncoder;
 import com.alphawallet.app.web3j.FunctionReturnDecoder;
 import com.alphawallet.app.web3j.TypeReference;
 import com.alphawallet.app.web3j.datatypes.Function;
 import com.alphawallet.token.entity.MagicLinkData;
+import com.alphawallet.token.tools.AbiCodec;
 
 import org.web3j.abi.datatypes.Address;
 import org.web3j.abi.datatypes.Bool;
-import org.web3j.abi.datatypes.DynamicArray;
 import org.web3j.abi.datatypes.Type;
 import org.web3j.abi.datatypes.Uint;
 import org.web3j.abi.datatypes.Utf8String;
 import org.web3j.abi.datatypes.generated.Bytes4;
-import org.web3j.abi.datatypes.generated.Int256;
 import org.web3j.abi.datatypes.generated.Uint256;
 import org.web3j.abi.datatypes.generated.Uint8;
 import org.web3j.protocol.Web3j;
@@ -54,8 +53,6 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.TimeUnit;
 
 import io.reactivex.Completable;
 import io.reactivex.Observable;
@@ -63,7 +60,6 @@ import io.reactivex.Single;
 import io.reactivex.SingleTransformer;
 import io.reactivex.disposables.Disposable;
 import io.reactivex.schedulers.Schedulers;
-import okhttp3.OkHttpClient;
 
 import static com.alphawallet.app.entity.tokenscript.TokenscriptFunction.ZERO_ADDRESS;
 import static org.web3j.protocol.core.methods.request.Transaction.createEthCallTransaction;
@@ -73,7 +69,6 @@ public class TokenRepository implements TokenRepositoryType {
     private static final String TAG = "TRT";
     private final TokenLocalSource localSource;
     private final EthereumNetworkRepositoryType ethereumNetworkRepository;
-    private final OkHttpClient okClient;
     private final Context context;
 
     public static final String INVALID_CONTRACT = "<invalid>";
@@ -86,37 +81,32 @@ public class TokenRepository implements TokenRepositoryType {
     private static final int NODE_COMMS_ERROR = -1;
     private static final int CONTRACT_BALANCE_NULL = -2;
 
-    private final Map<Integer, Web3j> web3jNodeServers;
+    //pre-compiled codecs for the balance checks, which run for every token on every refresh
+    private static final AbiCodec BALANCE_OF = AbiCodec.getCodec("balanceOf", "address", "uint256");
+    private static final AbiCodec BALANCE_OF_ARRAY = AbiCodec.getCodec("balanceOf", "address", "uint256[]");
+    private static final AbiCodec TICKET_BALANCE_ARRAY = AbiCodec.getCodec("getBalances", "address", "uint256[]");
+
     private AWEnsResolver ensResolver;
 
     public TokenRepository(
             EthereumNetworkRepositoryType ethereumNetworkRepository,
             TokenLocalSource localSource,
-            OkHttpClient okClient,
             Context context) {
         this.ethereumNetworkRepository = ethereumNetworkRepository;
         this.localSource = localSource;
-        this.ethereumNetworkRepository.addOnChangeDefaultNetwork(this::buildWeb3jClient);
-        this.okClient = okClient;
+        this.ethereumNetworkRepository.addOnChangeDefaultNetwork(this::onNetworkChanged);
         this.context = context;
-
-        web3jNodeServers = new ConcurrentHashMap<>();
     }
 
-    private void buildWeb3jClient(NetworkInfo networkInfo)
+    private void onNetworkChanged(NetworkInfo networkInfo)
     {
-        AWHttpService publicNodeService = new AWHttpService(networkInfo.rpcServerUrl, networkInfo.backupNodeUrl, okClient, false);
-        EthereumNetworkRepository.addRequiredCredentials(networkInfo.chainId, publicNodeService);
-        web3jNodeServers.put(networkInfo.chainId, Web3j.build(publicNodeService));
+        //pick up the network's current node credentials on next use
+        Web3jRegistry.invalidate(networkInfo.chainId);
     }
 
     private Web3j getService(int chainId)
     {
-        if (!web3jNodeServers.containsKey(chainId))
-        {
-            buildWeb3jClient(ethereumNetworkRepository.getNetworkByChain(chainId));
-        }
-        return web3jNodeServers.get(chainId);
+        return Web3jRegistry.getWeb3j(chainId);
     }
 
     @Override
@@ -412,6 +402,7 @@ public class TokenRepository implements TokenRepositoryType {
         else
         return Single.fromCallable(() -> {
             TokenFactory tFactory = new TokenFactory();
+            Metrics.Timer timer = Metrics.start("balance", token.tokenInfo.chainId, token.getInterfaceSpec());
             try
             {
                 List<BigInteger> balanceArray = null;
@@ -471,9 +462,14 @@ public class TokenRepository implements TokenRepositoryType {
             }
             catch (Exception e)
             {
+                timer.fail();
                 e.printStackTrace();
                 return token;
             }
+            finally
+            {
+                timer.stop();
+            }
         })
         .flatMap(ethereumNetworkRepository::attachTokenTicker)
         .flatMap(ttoken -> localSource.saveTicker(wallet, ttoken));
@@ -492,9 +488,8 @@ public class TokenRepository implements TokenRepositoryType {
         BigDecimal balance = BigDecimal.ZERO;
         try
         {
-            Function function = balanceOf(wallet.address);
             NetworkInfo network = ethereumNetworkRepository.getNetworkByChain(tokenInfo.chainId);
-            String responseValue = callSmartContractFunction(function, tokenInfo.address, network, wallet);
+            String responseValue = callSmartContractFunction(BALANCE_OF, Collections.singletonList(wallet.address), tokenInfo.address, network, wallet);
 
             if (token != null && TextUtils.isEmpty(responseValue))
             {
@@ -502,8 +497,8 @@ public class TokenRepository implements TokenRepositoryType {
             }
             else
             {
-                List<Type> response = FunctionReturnDecoder.decode(responseValue, function.getOutputParameters());
-                if (response.size() > 0) balance = new BigDecimal(((Uint256) response.get(0)).getValue());
+                List<Object> response = BALANCE_OF.decodeOutputs(Numeric.hexStringToByteArray(responseValue));
+                if (response.size() > 0) balance = new BigDecimal((BigInteger) response.get(0));
 
                 //only perform checking if token is non-null
                 if (token != null && tokenInfo.decimals == 18 && balance.compareTo(BigDecimal.ZERO) > 0 && balance.compareTo(BigDecimal.valueOf(10)) < 0)
@@ -692,15 +687,14 @@ public class TokenRepository implements TokenRepositoryType {
     }
 
     private BigDecimal getBalance(Wallet wallet, TokenInfo tokenInfo) throws Exception {
-        Function function = balanceOf(wallet.address);
         NetworkInfo network = ethereumNetworkRepository.getNetworkByChain(tokenInfo.chainId);
-        String responseValue = callSmartContractFunction(function, tokenInfo.address, network, wallet);
+        String responseValue = callSmartContractFunction(BALANCE_OF, Collections.singletonList(wallet.address), tokenInfo.address, network, wallet);
 
         if (responseValue == null) return BigDecimal.valueOf(-1); //early return for network error
 
-        List<Type> response = FunctionReturnDecoder.decode(responseValue, function.getOutputParameters());
+        List<Object> response = BALANCE_OF.decodeOutputs(Numeric.hexStringToByteArray(responseValue));
         if (response.size() == 1) {
-            return new BigDecimal(((Uint256) response.get(0)).getValue());
+            return new BigDecimal((BigInteger) response.get(0));
         } else {
             return BigDecimal.ZERO;
         }
@@ -732,16 +726,12 @@ public class TokenRepository implements TokenRepositoryType {
         result.add(BigInteger.valueOf(NODE_COMMS_ERROR));
         try
         {
-            Function function = balanceOfArray(wallet.address);
             NetworkInfo network = ethereumNetworkRepository.getNetworkByChain(tokenInfo.chainId);
-            List<Type> indices = callSmartContractFunctionArray(function, tokenInfo.address, network, wallet);
+            List<BigInteger> indices = callSmartContractFunctionArray(BALANCE_OF_ARRAY, tokenInfo.address, network, wallet);
             if (indices != null)
             {
                 result.clear();
-                for (Type val : indices)
-                {
-                    result.add((BigInteger)val.getValue());
-                }
+                result.addAll(indices);
             }
         }
         catch (StringIndexOutOfBoundsException e)
@@ -758,16 +748,12 @@ public class TokenRepository implements TokenRepositoryType {
         result.add(BigInteger.valueOf(NODE_COMMS_ERROR));
         try
         {
-            Function function = erc721TicketBalanceArray(wallet.address);
             NetworkInfo network = ethereumNetworkRepository.getNetworkByChain(tokenInfo.chainId);
-            List<Type> tokenIds = callSmartContractFunctionArray(function, tokenInfo.address, network, wallet);
+            List<BigInteger> tokenIds = callSmartContractFunctionArray(TICKET_BALANCE_ARRAY, tokenInfo.address, network, wallet);
             if (tokenIds != null)
             {
                 result.clear();
-                for (Type val : tokenIds)
-                {
-                    result.add((BigInteger)val.getValue());
-                }
+                result.addAll(tokenIds);
             }
         }
         catch (StringIndexOutOfBoundsException e)
@@ -918,27 +904,6 @@ public class TokenRepository implements TokenRepositoryType {
         }
     }
 
-    private static Function balanceOf(String owner) {
-        return new Function(
-                "balanceOf",
-                Collections.singletonList(new Address(owner)),
-                Collections.singletonList(new TypeReference<Uint256>() {}));
-    }
-
-    private static Function balanceOfArray(String owner) {
-        return new Function(
-                "balanceOf",
-                Collections.singletonList(new Address(owner)),
-                Collections.singletonList(new TypeReference<DynamicArray<Uint256>>() {}));
-    }
-
-    private static Function erc721TicketBalanceArray(String owner) {
-        return new Function(
-                "getBalances",
-                Collections.singletonList(new Address(owner)),
-                Collections.singletonList(new TypeReference<DynamicArray<Uint256>>() {}));
-    }
-
     private static Function nameOf() {
         return new Function("name",
                 Arrays.<Type>asList(),
@@ -1016,32 +981,30 @@ public class TokenRepository implements TokenRepositoryType {
                 Collections.singletonList(new TypeReference<Bool>() {}));
     }
 
-    private List callSmartContractFunctionArray(
-            Function function, String contractAddress, NetworkInfo network, Wallet wallet)
+    /**
+     * Call a balance array function, eg ERC875 balanceOf(address) returns (uint256[])
+     * @return array of values, CONTRACT_BALANCE_NULL if the call returned nothing, or null on error
+     */
+    private List<BigInteger> callSmartContractFunctionArray(
+            AbiCodec codec, String contractAddress, NetworkInfo network, Wallet wallet)
     {
         try
         {
-            String encodedFunction = FunctionEncoder.encode(function);
-            org.web3j.protocol.core.methods.response.EthCall ethCall = getService(network.chainId).ethCall(
-                    org.web3j.protocol.core.methods.request.Transaction
-                            .createEthCallTransaction(wallet.address, contractAddress, encodedFunction),
-                    DefaultBlockParameterName.LATEST).send();
-
-            String value = ethCall.getValue();
-            List<Type> values = FunctionReturnDecoder.decode(value, function.getOutputParameters());
-            Object o;
+            String value = callSmartContractFunction(codec, Collections.singletonList(wallet.address), contractAddress, network, wallet);
+            List<Object> values = codec.decodeOutputs(Numeric.hexStringToByteArray(value));
+            List<BigInteger> result = new ArrayList<>();
             if (values.isEmpty())
             {
-                values = new ArrayList<Type>();
-                values.add((Type)new Int256(CONTRACT_BALANCE_NULL));
-                o = (List)values;
+                result.add(BigInteger.valueOf(CONTRACT_BALANCE_NULL));
             }
             else
             {
-                Type T = values.get(0);
-                o = T.getValue();
+                for (Object val : (List<?>) values.get(0))
+                {
+                    result.add((BigInteger) val);
+                }
             }
-            return (List) o;
+            return result;
         }
         catch (IOException e) //this call is expected to be interrupted when user switches network or wallet
         {
@@ -1054,13 +1017,23 @@ public class TokenRepository implements TokenRepositoryType {
         }
     }
 
+    private String callSmartContractFunction(
+            AbiCodec codec, List<?> params, String contractAddress, NetworkInfo network, Wallet wallet) throws Exception
+    {
+        return callSmartContractFunction(Numeric.toHexString(codec.encodeFunctionCall(params)), contractAddress, network, wallet);
+    }
+
     private String callSmartContractFunction(
             Function function, String contractAddress, NetworkInfo network, Wallet wallet) throws Exception
+    {
+        return callSmartContractFunction(FunctionEncoder.encode(function), contractAddress, network, wallet);
+    }
+
+    private String callSmartContractFunction(
+            String encodedFunction, String contractAddress, NetworkInfo network, Wallet wallet) throws Exception
     {
         try
         {
-            String encodedFunction = FunctionEncoder.encode(function);
-
             org.web3j.protocol.core.methods.request.Transaction transaction
                     = createEthCallTransaction(wallet.address, contractAddress, encodedFunction);
             EthCall response = getService(network.chainId).ethCall(transaction, DefaultBlockParameterName.LATEST).send();
@@ -1235,7 +1208,7 @@ public class TokenRepository implements TokenRepositoryType {
                 catch (Exception e) { isERC875 = false; }
                 try
                 {
-                    responseValue = callSmartContractFunction(balanceOf(ZERO_ADDRESS), tokenInfo.address, network, new Wallet(ZERO_ADDRESS));
+                    responseValue = callSmartContractFunction(BALANCE_OF, Collections.singletonList(ZERO_ADDRESS), tokenInfo.address, network, new Wallet(ZERO_ADDRESS));
                 }
                 catch (Exception e) { responseValue = ""; }
 
@@ -1281,14 +1254,6 @@ public class TokenRepository implements TokenRepositoryType {
 
     public static Web3j getWeb3jService(int chainId)
     {
-        OkHttpClient okClient = new OkHttpClient.Builder()
-                .connectTimeout(10, TimeUnit.SECONDS)
-                .readTimeout(10, TimeUnit.SECONDS)
-                .writeTimeout(10, TimeUnit.SECONDS)
-                .retryOnConnectionFailure(false)
-                .build();
-        AWHttpService publicNodeService = new AWHttpService(EthereumNetworkRepository.getNodeURLByNetworkId (chainId), EthereumNetworkRepository.getSecondaryNodeURL(chainId), okClient, false);
-        EthereumNetworkRepository.addRequiredCredentials(chainId, publicNodeService);
-        return Web3j.build(publicNodeService);
+        return Web3jRegistry.getWeb3j(chainId);
     }
 }
@@ -0,0 +1,263 @@
+package com.alphawallet.app.repository;
+
+import android.content.Context;
+
+import com.alphawallet.app.entity.ContractType;
+import com.alphawallet.app.entity.tokens.Token;
+import com.alphawallet.app.entity.tokens.TokenFactory;
+import com.alphawallet.app.entity.tokens.TokenInfo;
+import com.alphawallet.app.entity.tokens.TokenTicker;
+import com.alphawallet.app.util.Metrics;
+import com.alphawallet.token.tools.TokenIdCodec;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import io.reactivex.Completable;
+import io.reactivex.Single;
+
+/**
+ * Snapshot of the last displayed token list for each wallet, so the wallet can draw on cold start before
+ * Realm is opened. The snapshot holds what the token cards need: token info, balance, ticker and the display
+ * order. Background refresh then replaces it with the Realm tokens and live balances.
+ *
+ * File layout: MAGIC, VERSION, write time, token count, then one record per token. Ticket balances are
+ * stored packed with TokenIdCodec. ERC721 tokens are left out; their assets only come from Realm.
+ */
+public class TokenSnapshotCache
+{
+    private static final int MAGIC = 0x41575353; //"AWSS"
+    private static final byte VERSION = 1;
+    private static final String SNAPSHOT_DIR = "snapshots";
+
+    private static final byte BALANCE_DECIMAL = 0;
+    private static final byte BALANCE_IDS = 1;
+
+    private final File snapshotDir;
+
+    public TokenSnapshotCache(Context context)
+    {
+        this(context.getFilesDir());
+    }
+
+    public TokenSnapshotCache(File filesDir)
+    {
+        snapshotDir = new File(filesDir, SNAPSHOT_DIR);
+    }
+
+    public Single<Token[]> load(String walletAddress)
+    {
+        return Single.fromCallable(() -> {
+            Metrics.Timer timer = Metrics.start("snapshot_load");
+            try
+            {
+                return read(walletAddress);
+            }
+            catch (RuntimeException e)
+            {
+                timer.fail();
+                throw e;
+            }
+            finally
+            {
+                timer.stop();
+            }
+        });
+    }
+
+    public Completable store(String walletAddress, Token[] tokens)
+    {
+        return Completable.fromAction(() -> write(walletAddress, tokens));
+    }
+
+    public void delete(String walletAddress)
+    {
+        File file = getFile(walletAddress);
+        if (file.exists()) file.delete();
+    }
+
+    private Token[] read(String walletAddress)
+    {
+        File file = getFile(walletAddress);
+        if (!file.exists()) return new Token[0];
+
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r");
+             FileChannel channel = raf.getChannel())
+        {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.remaining() < 5 || buffer.getInt() != MAGIC || buffer.get() != VERSION)
+            {
+                //written by a different version; the Realm load will replace it
+                return new Token[0];
+            }
+
+            buffer.getLong(); //write time
+            int count = buffer.getInt();
+            TokenFactory tf = new TokenFactory();
+            List<Token> tokens = new ArrayList<>(count);
+            for (int i = 0; i < count; i++)
+            {
+                tokens.add(readToken(buffer, tf, walletAddress));
+            }
+            return tokens.toArray(new Token[0]);
+        }
+        catch (Exception e)
+        {
+            //truncated or corrupt snapshot, discard it
+            e.printStackTrace();
+            file.delete();
+            return new Token[0];
+        }
+    }
+
+    private void write(String walletAddress, Token[] tokens) throws IOException
+    {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bos);
+
+        List<Token> stored = new ArrayList<>();
+        for (Token t : tokens)
+        {
+            if (!t.isERC721() && !t.isTerminated()) stored.add(t);
+        }
+
+        out.writeInt(MAGIC);
+        out.writeByte(VERSION);
+        out.writeLong(System.currentTimeMillis());
+        out.writeInt(stored.size());
+        for (Token t : stored)
+        {
+            writeToken(out, t);
+        }
+        out.flush();
+
+        if (!snapshotDir.exists() && !snapshotDir.mkdirs()) return;
+
+        //write to a temp file and rename, so a crash mid-write never leaves a partial snapshot
+        File file = getFile(walletAddress);
+        File temp = new File(snapshotDir, file.getName() + ".tmp");
+        try (FileOutputStream fos = new FileOutputStream(temp))
+        {
+            fos.write(bos.toByteArray());
+            fos.getFD().sync();
+        }
+        if (!temp.renameTo(file)) temp.delete();
+    }
+
+    private void writeToken(DataOutputStream out, Token t) throws IOException
+    {
+        TokenInfo info = t.tokenInfo;
+        out.writeInt(info.chainId);
+        writeString(out, info.address);
+        writeString(out, info.name);
+        writeString(out, info.symbol);
+        out.writeInt(info.decimals);
+        out.writeBoolean(info.isEnabled);
+        out.writeByte(t.getInterfaceSpec().ordinal());
+        writeString(out, t.getNetworkName());
+        out.writeLong(t.updateBlancaTime);
+        out.writeLong(t.lastBlockCheck);
+
+        if (t.hasArrayBalance())
+        {
+            byte[] packed = TokenIdCodec.encode(t.getArrayBalance());
+            out.writeByte(BALANCE_IDS);
+            out.writeInt(packed.length);
+            out.write(packed);
+        }
+        else
+        {
+            out.writeByte(BALANCE_DECIMAL);
+            writeString(out, t.balance != null ? t.balance.toString() : "0");
+        }
+
+        TokenTicker ticker = t.ticker;
+        out.writeBoolean(ticker != null);
+        if (ticker != null)
+        {
+            writeString(out, ticker.price);
+            writeString(out, ticker.percentChange24h);
+            writeString(out, ticker.priceSymbol);
+            writeString(out, ticker.image);
+            out.writeLong(ticker.updateTime);
+        }
+    }
+
+    private Token readToken(ByteBuffer buffer, TokenFactory tf, String walletAddress)
+    {
+        int chainId = buffer.getInt();
+        String address = readString(buffer);
+        String name = readString(buffer);
+        String symbol = readString(buffer);
+        int decimals = buffer.getInt();
+        boolean isEnabled = buffer.get() != 0;
+        ContractType type = ContractType.values()[buffer.get()];
+        String networkName = readString(buffer);
+        long updateTime = buffer.getLong();
+        long lastBlockCheck = buffer.getLong();
+
+        BigDecimal balance = BigDecimal.ZERO;
+        List<BigInteger> balances = null;
+        if (buffer.get() == BALANCE_IDS)
+        {
+            byte[] packed = new byte[buffer.getInt()];
+            buffer.get(packed);
+            balances = TokenIdCodec.decode(packed);
+        }
+        else
+        {
+            balance = new BigDecimal(readString(buffer));
+        }
+
+        TokenInfo info = new TokenInfo(address, name, symbol, decimals, isEnabled, chainId);
+        Token token = tf.createToken(info, balance, balances, updateTime, type, networkName, lastBlockCheck);
+        token.pendingBalance = balance;
+        token.setTokenWallet(walletAddress);
+
+        if (buffer.get() != 0)
+        {
+            token.ticker = new TokenTicker(readString(buffer), readString(buffer), readString(buffer),
+                                           readString(buffer), buffer.getLong());
+        }
+
+        return token;
+    }
+
+    private File getFile(String walletAddress)
+    {
+        return new File(snapshotDir, "tokens-" + walletAddress.toLowerCase() + ".bin");
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException
+    {
+        if (value == null)
+        {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer buffer)
+    {
+        int length = buffer.getInt();
+        if (length < 0) return null;
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -19,6 +19,7 @@ import com.alphawallet.app.repository.entity.RealmERC721Asset;
 import com.alphawallet.app.repository.entity.RealmToken;
 import com.alphawallet.app.repository.entity.RealmTokenTicker;
 import com.alphawallet.app.service.RealmManager;
+import com.alphawallet.app.util.Metrics;
 
 import org.web3j.crypto.WalletUtils;
 
@@ -193,6 +194,7 @@ public class TokensRealmSource implements TokenLocalSource {
     @Override
     public Single<Token[]> fetchTokensWithBalance(Wallet wallet) {
         return Single.fromCallable(() -> {
+            Metrics.Timer timer = Metrics.start("realm_read_tokens");
             try (Realm realm = realmManager.getRealmInstance(wallet))
             {
                 RealmResults<RealmToken> realmItems = realm.where(RealmToken.class)
@@ -203,8 +205,13 @@ public class TokensRealmSource implements TokenLocalSource {
             }
             catch (Exception e)
             {
+                timer.fail();
                 return new Token[0]; //ensure fetch completes
             }
+            finally
+            {
+                timer.stop();
+            }
         });
     }
 
@@ -425,6 +432,7 @@ public class TokensRealmSource implements TokenLocalSource {
     @Override
     public void updateTokenBalance(NetworkInfo network, Wallet wallet, Token token)
     {
+        Metrics.Timer timer = Metrics.start("realm_write_balance", network.chainId);
         try (Realm realm = realmManager.getRealmInstance(wallet))
         {
             RealmToken realmToken = realm.where(RealmToken.class)
@@ -454,8 +462,13 @@ public class TokensRealmSource implements TokenLocalSource {
         }
         catch (Exception ex)
         {
+            timer.fail();
             ex.printStackTrace();
         }
+        finally
+        {
+            timer.stop();
+        }
     }
 
     @Override
@@ -703,7 +716,8 @@ public class TokensRealmSource implements TokenLocalSource {
             if (t != null)
             {
                 tokenList.add(t);
-                if (!t.isTerminated() && !t.isBad()) t.balanceUpdateWeight = 2.0f; //on wallet startup give all tokens a high priority so they all refresh then settle down
+                //on wallet startup double each token's weight so they all refresh soon, valued tokens first, then settle down
+                if (!t.isTerminated() && !t.isBad()) t.balanceUpdateWeight *= 2.0f;
             }
         }
 
@@ -231,6 +231,11 @@ public class TransactionRepository implements TransactionRepositoryType {
 		return accountKeystoreService.signTransactionFast(wallet, password, message, chainId);
 	}
 
+	@Override
+	public Observable<byte[]> getSignaturesFast(Wallet wallet, String password, List<byte[]> messages, int chainId) {
+		return accountKeystoreService.signTransactionsFast(wallet, password, messages, chainId);
+	}
+
 	private Single<Transaction[]> fetchFromCache(Wallet wallet, int maxTransactions, List<Integer> networkFilters) {
 	    return inDiskCache.fetchTransaction(wallet, maxTransactions, networkFilters);
     }
@@ -23,6 +23,7 @@ public interface TransactionRepositoryType {
 	Single<TransactionData> createTransactionWithSig(Wallet from, BigInteger gasPrice, BigInteger gasLimit, String data, int chainId);
 	Single<SignatureFromKey> getSignature(Wallet wallet, byte[] message, int chainId);
 	Single<byte[]> getSignatureFast(Wallet wallet, String password, byte[] message, int chainId);
+	Observable<byte[]> getSignaturesFast(Wallet wallet, String password, List<byte[]> messages, int chainId);
 	Single<Transaction[]> storeTransactions(Wallet wallet, Transaction[] txList);
 	Single<Transaction[]> fetchTransactionsFromStorage(Wallet wallet, Token token, int count);
 
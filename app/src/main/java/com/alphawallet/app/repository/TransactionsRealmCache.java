@@ -16,11 +16,12 @@ import com.alphawallet.app.repository.entity.RealmTransactionOperation;
 import io.reactivex.Single;
 import io.realm.Realm;
 import io.realm.RealmResults;
-import io.realm.Sort;
 
+import com.alphawallet.app.service.GasEstimateCache;
 import com.alphawallet.app.service.RealmManager;
+import com.alphawallet.app.util.Metrics;
 
-import java.util.ArrayList;
+import java.math.BigInteger;
 import java.util.List;
 
 import static com.alphawallet.app.entity.TransactionOperation.ERC875_CONTRACT_TYPE;
@@ -29,28 +30,38 @@ import static com.alphawallet.app.entity.TransactionOperation.NORMAL_CONTRACT_TY
 public class TransactionsRealmCache implements TransactionLocalSource {
 
     private final RealmManager realmManager;
+    private final GasEstimateCache gasEstimateCache;
     private static final String TAG = "TRC";
     public static int realmCount = 0;
 
-    public TransactionsRealmCache(RealmManager realmManager) {
+    public TransactionsRealmCache(RealmManager realmManager, GasEstimateCache gasEstimateCache) {
         this.realmManager = realmManager;
+        this.gasEstimateCache = gasEstimateCache;
     }
 
 	@Override
 	public Single<Transaction[]> fetchTransaction(Wallet wallet, int maxTransactions, List<Integer> networkFilters) {
         return Single.fromCallable(() -> {
+            Metrics.Timer timer = Metrics.start("realm_read_transactions");
             try (Realm instance = realmManager.getRealmInstance(wallet))
             {
-                RealmResults<RealmTransaction> txs = instance.where(RealmTransaction.class)
-                        .sort("timeStamp", Sort.DESCENDING)
+                RealmResults<RealmTransaction> txs = TransactionsRealmQuery.onNetworks(instance, networkFilters)
+                        .limit(maxTransactions)
                         .findAll();
                 Log.d(TAG, "Found " + txs.size() + " TX Results");
-                return convertCount(txs, maxTransactions, networkFilters);
+                Transaction[] result = convert(txs, wallet.address);
+                for (Transaction tx : result) seedGasUsed(tx);
+                return result;
             }
             catch (Exception e)
             {
+                timer.fail();
                 return new Transaction[0];
             }
+            finally
+            {
+                timer.stop();
+            }
         });
 	}
 
@@ -60,24 +71,12 @@ public class TransactionsRealmCache implements TransactionLocalSource {
         return Single.fromCallable(() -> {
             try (Realm instance = realmManager.getRealmInstance(wallet))
             {
-                RealmResults<RealmTransaction> txs;
-                txs = instance.where(RealmTransaction.class)
-                        .equalTo("chainId", token.tokenInfo.chainId)
-                        .sort("timeStamp", Sort.DESCENDING)
+                RealmResults<RealmTransaction> txs = TransactionsRealmQuery
+                        .relatedTo(instance, token.tokenInfo.chainId, token.getAddress(), wallet.address)
+                        .limit(3)
                         .findAll();
 
-                List<Transaction> result = new ArrayList<>();
-
-                for (RealmTransaction rtx : txs)
-                {
-                    Transaction tx = convert(rtx);
-                    if (tx.isRelated(token.getAddress(), wallet.address))
-                    {
-                        result.add(tx);
-                        if (result.size() >= 3) break;
-                    }
-                }
-                return result.toArray(new Transaction[0]);
+                return convert(txs, wallet.address);
             }
             catch (Exception e)
             {
@@ -91,13 +90,12 @@ public class TransactionsRealmCache implements TransactionLocalSource {
     {
         try (Realm instance = realmManager.getRealmInstance(wallet))
         {
-            RealmTransaction realmTx = instance.where(RealmTransaction.class)
-                    .equalTo("hash", hash)
+            RealmTransaction realmTx = TransactionsRealmQuery.byHash(instance, hash)
                     .findFirst();
 
             if (realmTx != null)
             {
-                return convert(realmTx);
+                return convert(realmTx, wallet.address);
             }
             else
             {
@@ -119,6 +117,7 @@ public class TransactionsRealmCache implements TransactionLocalSource {
     @Override
     public Single<Transaction[]> putAndReturnTransactions(Wallet wallet, Transaction[] transactions) {
         return Single.fromCallable(() -> {
+            Metrics.Timer timer = Metrics.start("realm_write_transactions");
             try (Realm instance = realmManager.getRealmInstance(wallet))
             {
                 addRealm();
@@ -126,13 +125,13 @@ public class TransactionsRealmCache implements TransactionLocalSource {
                 for (Transaction transaction : transactions)
                 {
                     if (isBadTransaction(transaction)) continue;
-                    RealmTransaction realmTx = instance.where(RealmTransaction.class)
-                            .equalTo("hash", transaction.hash)
+                    seedGasUsed(transaction);
+                    RealmTransaction realmTx = TransactionsRealmQuery.byHash(instance, transaction.hash)
                             .findFirst();
 
                     if (realmTx != null)
                     {
-                        if (realmTx.getBlockNumber().equals("0"))
+                        if (realmTx.getBlockNumber() == 0)
                         {
                             //replacing pending TX
                             //erase pending tx operations now we have the transaction results
@@ -158,6 +157,15 @@ public class TransactionsRealmCache implements TransactionLocalSource {
                 instance.commitTransaction();
                 subRealm();
             }
+            catch (Exception e)
+            {
+                timer.fail();
+                throw e;
+            }
+            finally
+            {
+                timer.stop();
+            }
 
             return transactions;
         });
@@ -185,20 +193,36 @@ public class TransactionsRealmCache implements TransactionLocalSource {
         }
     }
 
+    //completed calls tell us the gas each contract function needs; share it with gas estimation
+    private void seedGasUsed(Transaction transaction)
+    {
+        //failed calls use all their gas, and pending calls haven't used any yet
+        if (!"0".equals(transaction.error) || parseBlockNumber(transaction.blockNumber) == 0 || transaction.gasUsed == null) return;
+        try
+        {
+            gasEstimateCache.putGasUsed(transaction.chainId, transaction.to, transaction.input, new BigInteger(transaction.gasUsed));
+        }
+        catch (NumberFormatException e)
+        {
+            //malformed gas used; nothing to learn
+        }
+    }
+
     private boolean alreadyRecorded(Realm instance, String hash)
     {
-        RealmTransaction realmTx = instance.where(RealmTransaction.class)
-                .equalTo("hash", hash)
+        RealmTransaction realmTx = TransactionsRealmQuery.byHash(instance, hash)
                 .findFirst();
 
-        return realmTx != null && !realmTx.getBlockNumber().equals("0");
+        return realmTx != null && realmTx.getBlockNumber() != 0;
     }
 
     private boolean isBadTransaction(Transaction transaction)
     {
-        if ((transaction.operations.length > 0 && transaction.operations[0].contract instanceof ERC875ContractTransaction))
+        //only signed order transactions can be bad; these are always decoded
+        if (transaction.isDecoded() && transaction.getOperations().length > 0
+                && transaction.getOperations()[0].contract instanceof ERC875ContractTransaction)
         {
-            return transaction.operations[0].contract.badTransaction;
+            return transaction.getOperations()[0].contract.badTransaction;
         }
         else
         {
@@ -208,7 +232,7 @@ public class TransactionsRealmCache implements TransactionLocalSource {
 
     private void fill(Realm realm, RealmTransaction item, Transaction transaction) {
         item.setError(transaction.error);
-        item.setBlockNumber(transaction.blockNumber);
+        item.setBlockNumber(parseBlockNumber(transaction.blockNumber));
         item.setTimeStamp(transaction.timeStamp);
         item.setNonce(transaction.nonce);
         item.setFrom(transaction.from);
@@ -220,7 +244,14 @@ public class TransactionsRealmCache implements TransactionLocalSource {
         item.setGasUsed(transaction.gasUsed);
         item.setChainId(transaction.chainId);
 
-        for (TransactionOperation operation : transaction.operations) {
+        if (!transaction.isDecoded())
+        {
+            //Record only the contract called; the operations are decoded from the input when the transaction is displayed
+            item.setToken(transaction.to);
+            return;
+        }
+
+        for (TransactionOperation operation : transaction.getOperations()) {
             RealmTransactionOperation realmOperation = realm.createObject(RealmTransactionOperation.class);
             realmOperation.setTransactionId(operation.transactionId);
             realmOperation.setViewType(operation.viewType);
@@ -254,33 +285,32 @@ public class TransactionsRealmCache implements TransactionLocalSource {
             realmOperation.setContract(realmContract);
             item.getOperations().add(realmOperation);
         }
-    }
 
-    private Transaction[] convert(RealmResults<RealmTransaction> items) {
-	    int len = items.size();
-	    //System.gc();
-	    Transaction[] result = new Transaction[len];
-	    for (int i = 0; i < len; i++) {
-	        result[i] = convert(items.get(i));
+        if (transaction.getOperations().length > 0 && transaction.getOperations()[0].contract != null)
+        {
+            item.setToken(transaction.getOperations()[0].contract.address); //for relatedness queries
         }
-        return result;
     }
 
-    private Transaction[] convertCount(RealmResults<RealmTransaction> items, int maxTransactions, List<Integer> networkFilters) {
-        List<Transaction> retrievedTransactions = new ArrayList<>();
-        int len = items.size() > maxTransactions ? maxTransactions : items.size();
-        for (RealmTransaction item : items)
+    private static long parseBlockNumber(String blockNumber)
+    {
+        try
         {
-            Transaction tx = convert(item);
-            if (networkFilters.contains(tx.chainId))
-            {
-                retrievedTransactions.add(tx);
-            }
-
-            if (retrievedTransactions.size() >= len) break;
+            return Long.parseLong(blockNumber);
         }
+        catch (NumberFormatException e)
+        {
+            return 0; //pending
+        }
+    }
 
-        return retrievedTransactions.toArray(new Transaction[0]);
+    private Transaction[] convert(RealmResults<RealmTransaction> items, String walletAddress) {
+        Transaction[] result = new Transaction[items.size()];
+        for (int i = 0; i < result.length; i++)
+        {
+            result[i] = convert(items.get(i), walletAddress);
+        }
+        return result;
     }
 
     private void deleteOperations(RealmTransaction rawItem)
@@ -297,8 +327,16 @@ public class TransactionsRealmCache implements TransactionLocalSource {
         }
     }
 
-    private Transaction convert(RealmTransaction rawItem) {
+    private Transaction convert(RealmTransaction rawItem, String walletAddress) {
         int len = rawItem.getOperations().size();
+        if (len == 0 && rawItem.getToken() != null)
+        {
+            //stored without operations; decode from input on demand
+            Transaction tx = buildTransaction(rawItem, null);
+            tx.setOperationWallet(walletAddress);
+            return tx;
+        }
+
         TransactionOperation[] operations = new TransactionOperation[len];
         //Log.d(TAG, "Read Tx " + rawItem.getHash() + " : Sz: " + len);
         for (int i = 0; i < len; i++) {
@@ -341,10 +379,16 @@ public class TransactionsRealmCache implements TransactionLocalSource {
 
             operations[i] = operation;
         }
+
+        return buildTransaction(rawItem, operations);
+    }
+
+    private Transaction buildTransaction(RealmTransaction rawItem, TransactionOperation[] operations)
+    {
 	    return new Transaction(
 	            rawItem.getHash(),
                 rawItem.getError(),
-                rawItem.getBlockNumber(),
+                String.valueOf(rawItem.getBlockNumber()),
                 rawItem.getTimeStamp(),
                 rawItem.getNonce(),
                 rawItem.getFrom(),
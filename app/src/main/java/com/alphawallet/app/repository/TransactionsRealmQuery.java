@@ -0,0 +1,58 @@
+package com.alphawallet.app.repository;
+
+import com.alphawallet.app.repository.entity.RealmTransaction;
+
+import java.util.List;
+
+import io.realm.Realm;
+import io.realm.RealmQuery;
+import io.realm.Sort;
+
+/**
+ * Builds the transaction queries used by TransactionsRealmCache so filtering happens on the
+ * indexed columns in Realm, rather than by converting every row and testing it in Java.
+ */
+final class TransactionsRealmQuery
+{
+    private TransactionsRealmQuery() { }
+
+    /**
+     * Most recent transactions on any of these networks
+     */
+    static RealmQuery<RealmTransaction> onNetworks(Realm realm, List<Integer> networkFilters)
+    {
+        return realm.where(RealmTransaction.class)
+                .in("chainId", networkFilters.toArray(new Integer[0]))
+                .sort("timeStamp", Sort.DESCENDING);
+    }
+
+    /**
+     * Most recent transactions related to this token; matches the logic of Transaction.isRelated.
+     * For the chain currency (token address is the wallet address) this is any transaction to or from the wallet,
+     * otherwise any transaction calling the token contract or whose decoded operation refers to it.
+     */
+    static RealmQuery<RealmTransaction> relatedTo(Realm realm, int chainId, String tokenAddress, String walletAddress)
+    {
+        RealmQuery<RealmTransaction> query = realm.where(RealmTransaction.class)
+                .equalTo("chainId", chainId)
+                .beginGroup();
+
+        if (walletAddress.equals(tokenAddress))
+        {
+            query.equalTo("from", walletAddress).or().equalTo("to", walletAddress);
+        }
+        else
+        {
+            query.equalTo("to", tokenAddress).or().equalTo("token", tokenAddress);
+        }
+
+        return query.endGroup()
+                .sort("timeStamp", Sort.DESCENDING);
+    }
+
+    static RealmQuery<RealmTransaction> byHash(Realm realm, String hash)
+    {
+        return realm.where(RealmTransaction.class)
+                .equalTo("hash", hash);
+    }
+}
@@ -0,0 +1,99 @@
+package com.alphawallet.app.repository;
+
+import com.alphawallet.app.service.AWHttpService;
+import com.alphawallet.app.service.NetworkStack;
+import com.alphawallet.app.util.Metrics;
+
+import org.web3j.protocol.Web3j;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * One Web3j client per chain, created on first use and shared by everything that reads from a node
+ * (TokenScript attribute calls, event log scans, ENS, gas and transaction lookups).
+ *
+ * A client is rebuilt if the node URLs for its chain have changed, or after invalidate() - which
+ * TokenRepository calls when the network changes, so the next request picks up the current node credentials.
+ */
+public final class Web3jRegistry
+{
+    private static final ConcurrentHashMap<Integer, Client> clients = new ConcurrentHashMap<>();
+
+    private Web3jRegistry() { }
+
+    public static Web3j getWeb3j(int chainId)
+    {
+        String primaryUrl = EthereumNetworkRepository.getNodeURLByNetworkId(chainId);
+        String secondaryUrl = EthereumNetworkRepository.getSecondaryNodeURL(chainId);
+
+        Client client = clients.get(chainId);
+        if (client == null || !client.matches(primaryUrl, secondaryUrl))
+        {
+            synchronized (clients)
+            {
+                client = clients.get(chainId);
+                if (client == null || !client.matches(primaryUrl, secondaryUrl))
+                {
+                    client = new Client(chainId, primaryUrl, secondaryUrl);
+                    clients.put(chainId, client);
+                    Metrics.count("web3j_build", chainId);
+                }
+            }
+        }
+
+        return client.web3j;
+    }
+
+    public static void invalidate(int chainId)
+    {
+        clients.remove(chainId);
+    }
+
+    /**
+     * Request counts for each live client, keyed by chainId
+     */
+    public static Map<Integer, String> getClientStats()
+    {
+        Map<Integer, String> stats = new HashMap<>();
+        for (Map.Entry<Integer, Client> entry : clients.entrySet())
+        {
+            AWHttpService service = entry.getValue().service;
+            long ageSeconds = (System.currentTimeMillis() - entry.getValue().created) / 1000;
+            stats.put(entry.getKey(), "requests=" + service.getRequestCount()
+                    + " errors=" + service.getErrorCount()
+                    + " age=" + ageSeconds + "s");
+        }
+        return stats;
+    }
+
+    private static class Client
+    {
+        final String primaryUrl;
+        final String secondaryUrl;
+        final AWHttpService service;
+        final Web3j web3j;
+        final long created;
+
+        Client(int chainId, String primaryUrl, String secondaryUrl)
+        {
+            this.primaryUrl = primaryUrl;
+            this.secondaryUrl = secondaryUrl;
+            this.service = new AWHttpService(primaryUrl, secondaryUrl, chainId, NetworkStack.getClient(), false);
+            EthereumNetworkRepository.addRequiredCredentials(chainId, service);
+            this.web3j = Web3j.build(service);
+            this.created = System.currentTimeMillis();
+        }
+
+        boolean matches(String primary, String secondary)
+        {
+            return equal(primaryUrl, primary) && equal(secondaryUrl, secondary);
+        }
+
+        private static boolean equal(String a, String b)
+        {
+            return a == null ? b == null : a.equals(b);
+        }
+    }
+}
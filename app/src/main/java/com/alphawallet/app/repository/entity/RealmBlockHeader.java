@@ -0,0 +1,52 @@
+package com.alphawallet.app.repository.entity;
+
+import io.realm.RealmObject;
+import io.realm.annotations.PrimaryKey;
+
+/**
+ * Minimal block header record; we only need the block timestamp for event display.
+ * Looked up by hash; the block number is kept for reference
+ */
+public class RealmBlockHeader extends RealmObject
+{
+    @PrimaryKey
+    private String instanceKey; //chainId-blockHash
+    private long blockNumber;
+    private int chainId;
+    private long timeStamp;
+
+    public String getInstanceKey()
+    {
+        return instanceKey;
+    }
+
+    public long getBlockNumber()
+    {
+        return blockNumber;
+    }
+
+    public void setBlockNumber(long blockNumber)
+    {
+        this.blockNumber = blockNumber;
+    }
+
+    public int getChainId()
+    {
+        return chainId;
+    }
+
+    public void setChainId(int chainId)
+    {
+        this.chainId = chainId;
+    }
+
+    public long getTimeStamp()
+    {
+        return timeStamp;
+    }
+
+    public void setTimeStamp(long timeStamp)
+    {
+        this.timeStamp = timeStamp;
+    }
+}
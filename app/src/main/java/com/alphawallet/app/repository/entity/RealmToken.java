@@ -17,6 +17,7 @@ public class RealmToken extends RealmObject {
     private long updatedTime;
     private long lastTxTime;
     private String balance;
+    private byte[] balanceData;
     private boolean isEnabled;
     private int tokenId;
     private int interfaceSpec;
@@ -87,6 +88,19 @@ public class RealmToken extends RealmObject {
         this.balance = balance;
     }
 
+    /**
+     * Packed id list for ticket balances, see TokenIdCodec
+     */
+    public byte[] getBalanceData()
+    {
+        return balanceData;
+    }
+
+    public void setBalanceData(byte[] balanceData)
+    {
+        this.balanceData = balanceData;
+    }
+
     public boolean getEnabled() {
         return isEnabled;
     }
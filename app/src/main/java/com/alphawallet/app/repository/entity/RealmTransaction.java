@@ -2,15 +2,20 @@ package com.alphawallet.app.repository.entity;
 
 import io.realm.RealmList;
 import io.realm.RealmObject;
+import io.realm.annotations.Index;
 import io.realm.annotations.PrimaryKey;
 
 public class RealmTransaction extends RealmObject {
     @PrimaryKey
     private String hash;
-    private String blockNumber;
+    @Index
+    private long blockNumber; //0 for pending
+    @Index
     private long timeStamp;
     private int nonce;
+    @Index
     private String from;
+    @Index
     private String to;
     private String value;
     private String gas;
@@ -18,8 +23,10 @@ public class RealmTransaction extends RealmObject {
     private String gasUsed;
     private String input;
     private String error;
+    @Index
     private int chainId;
-    private String token;
+    @Index
+    private String token; //contract the transaction operates on, if it's a contract call
     private RealmList<RealmTransactionOperation> operations;
 
     public String getHash() {
@@ -30,11 +37,11 @@ public class RealmTransaction extends RealmObject {
         this.hash = hash;
     }
 
-    public String getBlockNumber() {
+    public long getBlockNumber() {
         return blockNumber;
     }
 
-    public void setBlockNumber(String blockNumber) {
+    public void setBlockNumber(long blockNumber) {
         this.blockNumber = blockNumber;
     }
 
@@ -4,11 +4,14 @@ package com.alphawallet.app.service;
  * Created by JB on 7/05/2020.
  *
  * This class extends Web3j's HttpService connection and provides a backup URL connection.
- * The backup connection is used if there's a timeout on the main node.
+ * Requests go to whichever node RpcEndpointManager currently rates healthiest; the other is used if that
+ * times out, and idempotent reads are hedged against it if the first node is slow to answer.
  * This class provides ALL net access to Ethereum nodes for AlphaWallet
  *
  */
 
+import com.alphawallet.app.util.Metrics;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.web3j.protocol.exceptions.ClientConnectionException;
@@ -17,12 +20,22 @@ import org.web3j.protocol.http.HttpService;
 import java.io.BufferedInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InterruptedIOException;
 import java.net.SocketTimeoutException;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import okhttp3.Call;
 import okhttp3.CipherSuite;
 import okhttp3.ConnectionSpec;
 import okhttp3.Headers;
@@ -87,21 +100,43 @@ public class AWHttpService extends HttpService
 
     private static final Logger log = LoggerFactory.getLogger(org.web3j.protocol.http.HttpService.class);
 
+    //only the hedged second call of a read runs here, the first always runs on the caller's thread. When every hedge
+    //thread is busy and the queue is full the hedge is skipped and the read waits on its first node
+    private static final int HEDGE_THREADS = 4;
+    private static final int HEDGE_QUEUE = 4;
+    private static final ThreadPoolExecutor hedgeExecutor = new ThreadPoolExecutor(HEDGE_THREADS, HEDGE_THREADS,
+            30, TimeUnit.SECONDS, new ArrayBlockingQueue<>(HEDGE_QUEUE), daemonThreads("rpc-hedge"));
+
+    //fires the hedge once a read has waited out its delay; it only hands the call to hedgeExecutor
+    private static final ScheduledThreadPoolExecutor hedgeTimer = new ScheduledThreadPoolExecutor(1, daemonThreads("rpc-hedge-timer"));
+
+    static
+    {
+        hedgeExecutor.allowCoreThreadTimeOut(true);
+        hedgeTimer.setRemoveOnCancelPolicy(true);
+    }
+
     private OkHttpClient httpClient;
 
-    private final String url;
-    private final String secondaryUrl;
+    private final int chainId;
+    private final RpcEndpointManager endpointManager;
+    private final AtomicLong requestCount = new AtomicLong();
+    private final AtomicLong errorCount = new AtomicLong();
 
     private final boolean includeRawResponse;
 
     private HashMap<String, String> headers = new HashMap<>();
 
     public AWHttpService(String url, String secondaryUrl, OkHttpClient httpClient, boolean includeRawResponses) {
+        this(url, secondaryUrl, 0, httpClient, includeRawResponses);
+    }
+
+    public AWHttpService(String url, String secondaryUrl, int chainId, OkHttpClient httpClient, boolean includeRawResponses) {
         super(includeRawResponses);
-        this.url = url;
         this.httpClient = httpClient;
         this.includeRawResponse = includeRawResponses;
-        this.secondaryUrl = secondaryUrl;
+        this.chainId = chainId;
+        this.endpointManager = RpcEndpointManager.getManager(chainId, url, secondaryUrl);
     }
 
     @Override
@@ -109,46 +144,305 @@ public class AWHttpService extends HttpService
     {
         RequestBody requestBody = RequestBody.create(request, JSON_MEDIA_TYPE);
         Headers headers = buildHeaders();
-
-        okhttp3.Request httpRequest =
-                new okhttp3.Request.Builder().url(url).headers(headers).post(requestBody).build();
+        String method = getMethod(request);
+        List<RpcEndpointManager.Endpoint> endpoints = endpointManager.getRankedEndpoints();
 
         okhttp3.Response response;
+        endpointManager.acquireCall();
+        Metrics.Timer timer = Metrics.start("rpc", chainId, method);
+        requestCount.incrementAndGet();
+        boolean succeeded = false;
 
         try
         {
-            //try primary node
-            response = httpClient.newCall(httpRequest).execute();
+            if (endpoints.size() > 1 && RpcEndpointManager.isHedgeable(method))
+            {
+                response = executeHedged(endpoints, requestBody, headers);
+            }
+            else
+            {
+                response = executeWithFailover(endpoints, requestBody, headers);
+            }
+
+            processHeaders(response.headers());
+            ResponseBody responseBody = response.body();
+            if (response.isSuccessful()) {
+                succeeded = true;
+                if (responseBody != null) {
+                    return buildInputStream(responseBody);
+                } else {
+                    return null;
+                }
+            } else {
+                int code = response.code();
+                String text = responseBody == null ? "N/A" : responseBody.string();
+
+                throw new ClientConnectionException("Invalid response received: " + code + "; " + text);
+            }
         }
-        catch (SocketTimeoutException e) //seamlessly attempt a call to secondary node if primary timed out
+        finally
         {
-            if (secondaryUrl != null) //only if we have a secondary node
+            endpointManager.releaseCall();
+            //any exception, not just IOException, must close the in-flight gauge
+            if (succeeded)
             {
-                httpRequest =
-                        new okhttp3.Request.Builder().url(secondaryUrl).headers(headers).post(requestBody).build();
-                response = httpClient.newCall(httpRequest).execute();
+                timer.stop();
             }
             else
             {
-                throw new SocketTimeoutException();
+                timer.fail();
+                errorCount.incrementAndGet();
             }
         }
-        processHeaders(response.headers());
-        ResponseBody responseBody = response.body();
-        if (response.isSuccessful()) {
-            if (responseBody != null) {
-                return buildInputStream(responseBody);
-            } else {
-                return null;
+    }
+
+    /**
+     * Send to the healthiest node; if that times out seamlessly retry on the next one
+     */
+    private okhttp3.Response executeWithFailover(List<RpcEndpointManager.Endpoint> endpoints, RequestBody requestBody, Headers headers) throws IOException
+    {
+        RpcEndpointManager.Endpoint endpoint = endpoints.get(0);
+        try
+        {
+            return execute(endpoint, requestBody, headers);
+        }
+        catch (SocketTimeoutException e)
+        {
+            if (endpoints.size() < 2) throw e; //only if we have a secondary node
+            Metrics.count("rpc_failover", chainId);
+            return execute(endpoints.get(1), requestBody, headers);
+        }
+    }
+
+    private okhttp3.Response execute(RpcEndpointManager.Endpoint endpoint, RequestBody requestBody, Headers headers) throws IOException
+    {
+        long start = System.currentTimeMillis();
+        try
+        {
+            okhttp3.Response response = httpClient.newCall(buildRequest(endpoint, requestBody, headers)).execute();
+            recordResult(endpoint, response, start);
+            return response;
+        }
+        catch (IOException e)
+        {
+            endpoint.recordFailure();
+            throw e;
+        }
+    }
+
+    /**
+     * Idempotent reads: send to the healthiest node on the caller's thread, and if it hasn't answered within its
+     * p90 latency race the same request on the next node from the hedge pool. The first successful response wins
+     * and the other call is cancelled. If the hedge pool is saturated the hedge is skipped.
+     */
+    private okhttp3.Response executeHedged(List<RpcEndpointManager.Endpoint> endpoints, RequestBody requestBody, Headers headers) throws IOException
+    {
+        RpcEndpointManager.Endpoint first = endpoints.get(0);
+        HedgedCall hedged = new HedgedCall(first, endpoints.get(1), requestBody, headers);
+        ScheduledFuture<?> trigger = hedgeTimer.schedule(hedged::launch, endpointManager.getHedgeDelay(first), TimeUnit.MILLISECONDS);
+        try
+        {
+            return hedged.execute();
+        }
+        finally
+        {
+            trigger.cancel(false);
+        }
+    }
+
+    private okhttp3.Request buildRequest(RpcEndpointManager.Endpoint endpoint, RequestBody requestBody, Headers headers)
+    {
+        return new okhttp3.Request.Builder().url(endpoint.url).headers(headers).post(requestBody).build();
+    }
+
+    private static void recordResult(RpcEndpointManager.Endpoint endpoint, okhttp3.Response response, long start)
+    {
+        if (response.isSuccessful()) endpoint.recordSuccess(System.currentTimeMillis() - start);
+        else endpoint.recordFailure();
+    }
+
+    /**
+     * One read raced across two nodes. The first call runs on the caller's thread; the second is only handed to the
+     * hedge pool if the first is slow, and whichever succeeds first cancels the other.
+     */
+    private class HedgedCall
+    {
+        final RpcEndpointManager.Endpoint firstEndpoint;
+        final RpcEndpointManager.Endpoint nextEndpoint;
+        final Call first;
+        final Call next;
+        boolean launched;
+        boolean finished;
+        Result hedgeResult;
+
+        HedgedCall(RpcEndpointManager.Endpoint firstEndpoint, RpcEndpointManager.Endpoint nextEndpoint, RequestBody requestBody, Headers headers)
+        {
+            this.firstEndpoint = firstEndpoint;
+            this.nextEndpoint = nextEndpoint;
+            first = httpClient.newCall(buildRequest(firstEndpoint, requestBody, headers));
+            next = httpClient.newCall(buildRequest(nextEndpoint, requestBody, headers));
+        }
+
+        okhttp3.Response execute() throws IOException
+        {
+            Result result = attempt(first, firstEndpoint);
+            synchronized (this)
+            {
+                if (!launched)
+                {
+                    finished = true;
+                }
+                else if (!finished && result.isSuccessful())
+                {
+                    //first node answered, hedge loses
+                    finished = true;
+                    next.cancel();
+                    if (hedgeResult != null) hedgeResult.close();
+                    return result.response;
+                }
+                else
+                {
+                    //hedge is in flight or has already won
+                    try
+                    {
+                        while (hedgeResult == null) wait();
+                    }
+                    catch (InterruptedException e)
+                    {
+                        finished = true;
+                        next.cancel();
+                        result.close();
+                        throw new InterruptedIOException("RPC call interrupted");
+                    }
+                    finished = true;
+                    result.close();
+                    return hedgeResult.get();
+                }
             }
-        } else {
-            int code = response.code();
-            String text = responseBody == null ? "N/A" : responseBody.string();
 
-            throw new ClientConnectionException("Invalid response received: " + code + "; " + text);
+            if (result.isSuccessful()) return result.response;
+
+            //first node failed outright, don't wait for the hedge delay
+            result.close();
+            return attempt(next, nextEndpoint).get();
+        }
+
+        //runs on the hedge timer; hands the second call to the hedge pool unless the first has finished or the chain
+        //is already at its call limit
+        synchronized void launch()
+        {
+            if (finished) return;
+            if (!endpointManager.tryAcquireCall())
+            {
+                Metrics.count("rpc_hedge_skipped", chainId);
+                return;
+            }
+            try
+            {
+                hedgeExecutor.execute(this::runHedge);
+                launched = true;
+                Metrics.count("rpc_hedge", chainId);
+            }
+            catch (RejectedExecutionException e)
+            {
+                endpointManager.releaseCall();
+                Metrics.count("rpc_hedge_skipped", chainId);
+            }
+        }
+
+        private void runHedge()
+        {
+            Result result;
+            try
+            {
+                result = attempt(next, nextEndpoint);
+            }
+            finally
+            {
+                endpointManager.releaseCall();
+            }
+            synchronized (this)
+            {
+                if (finished)
+                {
+                    //first node already answered
+                    result.close();
+                    return;
+                }
+                if (result.isSuccessful())
+                {
+                    finished = true;
+                    first.cancel();
+                }
+                hedgeResult = result;
+                notifyAll();
+            }
+        }
+
+        private Result attempt(Call call, RpcEndpointManager.Endpoint endpoint)
+        {
+            long start = System.currentTimeMillis();
+            try
+            {
+                okhttp3.Response response = call.execute();
+                recordResult(endpoint, response, start);
+                return new Result(response, null);
+            }
+            catch (IOException e)
+            {
+                if (!call.isCanceled()) endpoint.recordFailure(); //lost the race, not the node's fault
+                return new Result(null, e);
+            }
         }
     }
 
+    private static class Result
+    {
+        final okhttp3.Response response;
+        final IOException error;
+
+        Result(okhttp3.Response response, IOException error)
+        {
+            this.response = response;
+            this.error = error;
+        }
+
+        boolean isSuccessful()
+        {
+            return response != null && response.isSuccessful();
+        }
+
+        okhttp3.Response get() throws IOException
+        {
+            if (response != null) return response;
+            throw error;
+        }
+
+        void close()
+        {
+            if (response != null) response.close();
+        }
+    }
+
+    private static ThreadFactory daemonThreads(String name)
+    {
+        return runnable -> {
+            Thread thread = new Thread(runnable, name);
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    //JSON-RPC method name for metrics tagging, without parsing the whole request
+    private static String getMethod(String request)
+    {
+        int index = request.indexOf("\"method\"");
+        if (index < 0) return "unknown";
+        int start = request.indexOf('"', request.indexOf(':', index) + 1);
+        int end = start < 0 ? -1 : request.indexOf('"', start + 1);
+        return end > start ? request.substring(start + 1, end) : "unknown";
+    }
+
     protected void processHeaders(Headers headers) {
         // Default implementation is empty
     }
@@ -198,6 +492,14 @@ public class AWHttpService extends HttpService
         return headers;
     }
 
+    public long getRequestCount() {
+        return requestCount.get();
+    }
+
+    public long getErrorCount() {
+        return errorCount.get();
+    }
+
     @Override
     public void close() throws IOException {}
 }
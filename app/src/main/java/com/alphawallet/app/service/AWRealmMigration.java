@@ -1,8 +1,16 @@
 package com.alphawallet.app.service;
 
+import com.alphawallet.app.entity.ContractType;
 import com.alphawallet.app.repository.entity.RealmCertificateData;
+import com.alphawallet.token.tools.Numeric;
+import com.alphawallet.token.tools.TokenIdCodec;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
 
 import io.realm.DynamicRealm;
+import io.realm.DynamicRealmObject;
 import io.realm.FieldAttribute;
 import io.realm.RealmMigration;
 import io.realm.RealmObjectSchema;
@@ -42,6 +50,96 @@ public class AWRealmMigration implements RealmMigration
                     .addField("type", int.class);
             oldVersion++;
         }
+
+        //Version 7
+        if (oldVersion == 7)
+        {
+            schema.create("RealmBlockHeader")
+                    .addField("instanceKey", String.class, FieldAttribute.PRIMARY_KEY)
+                    .addField("blockNumber", long.class)
+                    .addField("chainId", int.class)
+                    .addField("timeStamp", long.class);
+            oldVersion++;
+        }
+
+        //Version 8
+        if (oldVersion == 8)
+        {
+            //block number to long, and index the transaction columns we filter and sort on
+            RealmObjectSchema realmTx = schema.get("RealmTransaction");
+            realmTx.addField("blockNumberTmp", long.class)
+                    .transform(obj -> {
+                        obj.setLong("blockNumberTmp", parseBlockNumber(obj.getString("blockNumber")));
+                        //token is the contract a decoded operation refers to, so relatedness can be queried
+                        if (obj.getString("token") == null && obj.getList("operations").size() > 0)
+                        {
+                            DynamicRealmObject contract = obj.getList("operations").get(0).getObject("contract");
+                            if (contract != null) obj.setString("token", contract.getString("address"));
+                        }
+                    })
+                    .removeField("blockNumber")
+                    .renameField("blockNumberTmp", "blockNumber")
+                    .addIndex("blockNumber");
+
+            for (String field : new String[] { "timeStamp", "from", "to", "chainId", "token" })
+            {
+                if (!realmTx.hasIndex(field)) realmTx.addIndex(field);
+            }
+            oldVersion++;
+        }
+
+        //Version 9
+        if (oldVersion == 9)
+        {
+            //ticket balances move from a CSV of hex ids to the packed binary form
+            RealmObjectSchema realmToken = schema.get("RealmToken");
+            if (!realmToken.hasField("balanceData")) realmToken.addField("balanceData", byte[].class);
+            realmToken.transform(obj -> {
+                if (isTicketBalance(obj.getInt("interfaceSpec")))
+                {
+                    obj.setBlob("balanceData", TokenIdCodec.encode(parseIdList(obj.getString("balance"))));
+                    obj.setString("balance", "");
+                }
+            });
+            oldVersion++;
+        }
+    }
+
+    private static boolean isTicketBalance(int interfaceSpec)
+    {
+        return interfaceSpec == ContractType.ERC875.ordinal()
+                || interfaceSpec == ContractType.ERC875_LEGACY.ordinal()
+                || interfaceSpec == ContractType.ERC721_TICKET.ordinal();
+    }
+
+    private static List<BigInteger> parseIdList(String balance)
+    {
+        List<BigInteger> ids = new ArrayList<>();
+        if (balance == null || balance.length() == 0) return ids;
+        try
+        {
+            for (String id : balance.split(","))
+            {
+                ids.add(Numeric.toBigInt(id.trim()));
+            }
+        }
+        catch (Exception e)
+        {
+            ids.clear(); //balance is refreshed from the contract on next update
+        }
+        return ids;
+    }
+
+    private static long parseBlockNumber(String blockNumber)
+    {
+        try
+        {
+            return Long.parseLong(blockNumber);
+        }
+        catch (NumberFormatException e)
+        {
+            return 0; //treat as pending; will be replaced when the transaction is next fetched
+        }
     }
 
     @Override
@@ -4,8 +4,10 @@ import com.alphawallet.app.entity.Wallet;
 import com.alphawallet.app.entity.cryptokeys.SignatureFromKey;
 
 import java.math.BigInteger;
+import java.util.List;
 
 import io.reactivex.Completable;
+import io.reactivex.Observable;
 import io.reactivex.Single;
 
 public interface AccountKeystoreService {
@@ -69,6 +71,17 @@ public interface AccountKeystoreService {
 			byte[] message,
 			long chainId);
 
+	/**
+	 * Sign each message with the same key, decrypting it once for the whole list.
+	 * Signatures may be made in parallel, but are emitted as they complete in message order
+	 * @return signatures in message order
+	 */
+	Observable<byte[]> signTransactionsFast(
+			Wallet signer,
+			String password,
+			List<byte[]> messages,
+			long chainId);
+
 	/**
 	 * Check if there is an address in the keystore
 	 * @param address {@link Wallet} address
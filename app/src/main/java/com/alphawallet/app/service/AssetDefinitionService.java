@@ -13,6 +13,7 @@ import android.support.annotation.Nullable;
 import android.support.v4.app.NotificationCompat;
 import android.support.v4.content.ContextCompat;
 import android.text.TextUtils;
+import android.util.Pair;
 import android.util.SparseArray;
 
 import com.alphawallet.app.BuildConfig;
@@ -38,6 +39,8 @@ import com.alphawallet.app.repository.entity.RealmAuxData;
 import com.alphawallet.app.repository.entity.RealmCertificateData;
 import com.alphawallet.app.ui.HomeActivity;
 import com.alphawallet.app.util.Utils;
+import com.alphawallet.app.util.Metrics;
+import com.alphawallet.app.util.StartupPipeline;
 import com.alphawallet.app.viewmodel.HomeViewModel;
 import com.alphawallet.app.web3j.FunctionEncoder;
 import com.alphawallet.app.web3j.datatypes.Function;
@@ -65,7 +68,6 @@ import org.jetbrains.annotations.NotNull;
 import org.web3j.crypto.WalletUtils;
 import org.web3j.protocol.Web3j;
 import org.web3j.protocol.core.methods.request.EthFilter;
-import org.web3j.protocol.core.methods.response.EthBlock;
 import org.web3j.protocol.core.methods.response.EthLog;
 import org.web3j.protocol.core.methods.response.Log;
 import org.xml.sax.SAXException;
@@ -94,8 +96,10 @@ import java.util.TimeZone;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import io.reactivex.Completable;
+import io.reactivex.Flowable;
 import io.reactivex.Observable;
 import io.reactivex.Single;
 import io.reactivex.android.schedulers.AndroidSchedulers;
@@ -128,6 +132,7 @@ public class AssetDefinitionService implements ParseResult, AttributeInterface
 
     private static final String CERTIFICATE_DB = "CERTIFICATE_CACHE-db.realm";
     private static final long CHECK_TX_LOGS_INTERVAL = 15;
+    private static final int EVENT_SCAN_MAX_CHAINS = 4;    //maximum number of chains scanned for events in parallel
     private final Context context;
     private final OkHttpClient okHttpClient;
 
@@ -145,14 +150,16 @@ public class AssetDefinitionService implements ParseResult, AttributeInterface
     private final SparseArray<Map<String, SparseArray<String>>> tokenTypeName;
     private final List<EventDefinition> eventList = new ArrayList<>(); //List of events built during file load
     private final Semaphore assetLoadingLock;  // used to block if someone calls getAssetDefinitionASync() while loading
+    private final AtomicBoolean loadStarted = new AtomicBoolean(false);
     private Disposable eventListener;           // timer thread that periodically checks event logs for scripts that require events
     private ActionEventCallback eventCallback;
     private boolean requireEventSend = false;
-    private final Semaphore eventConnection;
+    private final AtomicBoolean eventScanInProgress = new AtomicBoolean(false); //prevent overlapping event scans if a scan outlasts the check interval
     private FragmentMessenger homeMessenger;
 
     private final TokenscriptFunction tokenscriptUtility;
     private final EventUtils eventUtils;
+    private final BlockTimestampCache blockTimestampCache;
 
     /* Designed with the assmuption that only a single instance of this class at any given time
     *  ^^ The "service" part of AssetDefinitionService is the keyword here.
@@ -160,7 +167,7 @@ public class AssetDefinitionService implements ParseResult, AttributeInterface
     *  This is the design pattern of the app. See class RepositoriesModule for constructors which are called at App init only */
     public AssetDefinitionService(OkHttpClient client, Context ctx, NotificationService svs,
                                   RealmManager rm, EthereumNetworkRepositoryType eth, TokensService tokensService,
-                                  TokenLocalSource trs, AlphaWalletService alphaService)
+                                  TokenLocalSource trs, AlphaWalletService alphaService, BlockTimestampCache blockCache)
     {
         context = ctx;
         okHttpClient = client;
@@ -175,9 +182,11 @@ public class AssetDefinitionService implements ParseResult, AttributeInterface
         this.eventUtils = new EventUtils() { }; //no overridden functions
         tokenscriptUtility = new TokenscriptFunction() { }; //no overridden functions
         tokenLocalSource = trs;
-        assetLoadingLock = new Semaphore(1);
-        eventConnection = new Semaphore(1);
-        loadAssetScripts();
+        blockTimestampCache = blockCache;
+        assetLoadingLock = new Semaphore(0); //held until the scripts are loaded, released in finishLoading()
+
+        //script loading is deferred until the first frame is drawn; anyone waiting on the scripts before then starts it
+        StartupPipeline.schedule(StartupPipeline.Phase.FIRST_FRAME, "tokenscript_load", this::loadAssetScripts);
     }
 
     /**
@@ -190,15 +199,7 @@ public class AssetDefinitionService implements ParseResult, AttributeInterface
      */
     private void loadAssetScripts()
     {
-        try
-        {
-            assetLoadingLock.acquire(); // acquire the semaphore here to prevent attributes from being fetched until loading is complete
-            // See flow above for details
-        }
-        catch (InterruptedException e)
-        {
-            e.printStackTrace();
-        }
+        if (!loadStarted.compareAndSet(false, true)) return;
 
         loadInternalAssets();
         checkDownloadedFiles();
@@ -408,6 +409,7 @@ public class AssetDefinitionService implements ParseResult, AttributeInterface
     {
         TokenScriptResult.Attribute result = null;
         AttributeType attrtype = td.attributeTypes.get(attribute);
+        Metrics.Timer timer = Metrics.start("tokenscript_attr", token.tokenInfo.chainId, attributeSource(attrtype));
         try
         {
             if (attrtype == null)
@@ -432,12 +434,26 @@ public class AssetDefinitionService implements ParseResult, AttributeInterface
         }
         catch (Exception e)
         {
+            timer.fail();
             result = new TokenScriptResult.Attribute(attrtype.id, attrtype.name, tokenId, "unsupported encoding");
         }
+        finally
+        {
+            timer.stop();
+        }
 
         return result;
     }
 
+    //metrics tag for where an attribute's value comes from
+    private static String attributeSource(AttributeType attrtype)
+    {
+        if (attrtype == null) return "unknown";
+        else if (attrtype.event != null) return "event";
+        else if (attrtype.function != null) return "function";
+        else return "bitfield";
+    }
+
     public TokenScriptResult.Attribute getAttribute(Token token, BigInteger tokenId, String attribute)
     {
         TokenDefinition definition = getAssetDefinition(token.tokenInfo.chainId, token.tokenInfo.address);
@@ -451,6 +467,15 @@ public class AssetDefinitionService implements ParseResult, AttributeInterface
         }
     }
 
+    /**
+     * Attribute definition from the token's TokenScript, or null if there is no script or no such attribute
+     */
+    public AttributeType getAttributeType(Token token, String attribute)
+    {
+        TokenDefinition definition = getAssetDefinition(token.tokenInfo.chainId, token.tokenInfo.address);
+        return definition != null ? definition.attributeTypes.get(attribute) : null;
+    }
+
     private boolean checkReadPermission() {
         return ContextCompat.checkSelfPermission(context, Manifest.permission.READ_EXTERNAL_STORAGE)
                 == PackageManager.PERMISSION_GRANTED;
@@ -567,6 +592,7 @@ public class AssetDefinitionService implements ParseResult, AttributeInterface
 
     private void waitForAssets()
     {
+        loadAssetScripts();
         try
         {
             assetLoadingLock.acquire();
@@ -724,8 +750,21 @@ public class AssetDefinitionService implements ParseResult, AttributeInterface
             locale = context.getResources().getConfiguration().locale;
         }
 
-        return new TokenDefinition(
-                xmlInputStream, locale, this);
+        Metrics.Timer timer = Metrics.start("tokenscript_parse");
+        try
+        {
+            return new TokenDefinition(
+                    xmlInputStream, locale, this);
+        }
+        catch (Exception e)
+        {
+            timer.fail();
+            throw e;
+        }
+        finally
+        {
+            timer.stop();
+        }
     }
 
     private String handleFileLoad(File newFile) throws Exception
@@ -1004,47 +1043,71 @@ public class AssetDefinitionService implements ParseResult, AttributeInterface
 
     private Completable checkEvents()
     {
-        //check events for corresponding tokens
-        return Completable.fromAction(() -> {
-            for (EventDefinition ev : eventList)
+        //check events for corresponding tokens. Each chain is scanned sequentially on its own worker,
+        //so a slow node only holds up the events on its own chain
+        return Completable.defer(() -> {
+            if (!eventScanInProgress.compareAndSet(false, true)) return Completable.complete(); //previous scan still running
+
+            return Flowable.fromIterable(buildEventScanList().entrySet())
+                    .flatMapCompletable(chainScan -> Completable.fromAction(() -> scanChainEvents(chainScan.getKey(), chainScan.getValue()))
+                            .subscribeOn(Schedulers.io())
+                            .doOnError(this::onLogError)
+                            .onErrorComplete(), false, EVENT_SCAN_MAX_CHAINS)
+                    .doFinally(() -> eventScanInProgress.set(false));
+        });
+    }
+
+    private Map<Integer, List<Pair<EventDefinition, Token>>> buildEventScanList()
+    {
+        Map<Integer, List<Pair<EventDefinition, Token>>> scanList = new HashMap<>();
+        for (EventDefinition ev : eventList)
+        {
+            ContractInfo originContracts = ev.originContract;
+            for (int chainId : originContracts.addresses.keySet())
             {
-                ContractInfo originContracts = ev.originContract;
-                for (int chainId : originContracts.addresses.keySet())
+                for (String addr : originContracts.addresses.get(chainId))
                 {
-                    for (String addr : originContracts.addresses.get(chainId))
+                    //have corresponding token?
+                    Token originToken = tokensService.getToken(chainId, addr);
+                    if (originToken != null && originToken.hasPositiveBalance())
                     {
-                        //have corresponding token?
-                        Token originToken = tokensService.getToken(chainId, addr);
-                        if (originToken != null && originToken.hasPositiveBalance())
-                        {
-                            //initiate listener
-                            getEvents(ev, originToken);
-                        }
+                        if (!scanList.containsKey(chainId)) scanList.put(chainId, new ArrayList<>());
+                        scanList.get(chainId).add(new Pair<>(ev, originToken));
                     }
                 }
             }
-        });
+        }
+
+        return scanList;
     }
 
-    private void getEvents(EventDefinition ev, Token originToken)
+    private void scanChainEvents(int chainId, List<Pair<EventDefinition, Token>> chainScanList) throws IOException
     {
-        Web3j web3j = getWeb3jService(originToken.tokenInfo.chainId);
-        final EthFilter filter = eventUtils.generateLogFilter(ev, originToken);
+        Web3j web3j = getWeb3jService(chainId);
+        BigInteger currentBlock = web3j.ethBlockNumber().send().getBlockNumber();
 
-        try
-        {
-            eventConnection.acquire(); //prevent overlapping event calls
-            EthLog ethLogs = web3j.ethGetLogs(filter).send();
-            processLogs(ev, ethLogs.getLogs(), originToken);
-        }
-        catch (Exception e)
-        {
-            e.printStackTrace();
-        }
-        finally
+        for (Pair<EventDefinition, Token> scan : chainScanList)
         {
-            eventConnection.release();
+            try
+            {
+                getEvents(web3j, scan.first, scan.second, currentBlock);
+            }
+            catch (Exception e)
+            {
+                onLogError(e); //don't let one event block the rest on this chain; it will be retried from its checkpoint next time
+            }
         }
+    }
+
+    private void getEvents(Web3j web3j, EventDefinition ev, Token originToken, BigInteger currentBlock) throws IOException
+    {
+        String filterSignature = eventUtils.getFilterSignature(ev, originToken);
+        BigInteger startBlock = getEventCheckpoint(ev, originToken, filterSignature).add(BigInteger.ONE);
+        if (startBlock.compareTo(currentBlock) > 0) return; //no new blocks since last scan
+
+        List<EthLog.LogResult> logs = eventUtils.getLogsInRange(web3j, ev, originToken, startBlock, currentBlock);
+        processLogs(web3j, ev, logs, originToken);
+        storeEventCheckpoint(ev, originToken, filterSignature, currentBlock);
 
         //More elegant, but requires a private node
 //        return web3j.ethLogFlowable(filter)
@@ -1056,20 +1119,21 @@ public class AssetDefinitionService implements ParseResult, AttributeInterface
 //        }, this::onLogError);
     }
 
-    private void processLogs(EventDefinition ev, List<EthLog.LogResult> logs, Token originToken)
+    private void processLogs(Web3j web3j, EventDefinition ev, List<EthLog.LogResult> logs, Token originToken)
     {
         if (logs.size() == 0) return; //early return
 
-        Web3j web3j = getWeb3jService(originToken.tokenInfo.chainId);
         TokenDefinition td = getAssetDefinition(originToken.tokenInfo.chainId, originToken.getAddress());
         AttributeType attrType = td.attributeTypes.get(ev.attributeId);
 
         for (EthLog.LogResult ethLog : logs)
         {
+            Log log = (Log)ethLog.get();
             String selectVal = eventUtils.getSelectVal(ev, ethLog);
-            EthBlock txBlock = eventUtils.getTransactionDetails(((Log)ethLog.get()).getBlockHash(), web3j).blockingGet();
+            //blocks often carry several logs; the cache ensures we only fetch each block once.
+            //Throws if the block can't be fetched, which fails the batch before its checkpoint is stored
+            long blockTime = blockTimestampCache.getBlockTimestamp(originToken.tokenInfo.chainId, log.getBlockHash(), web3j).blockingGet();
 
-            long blockTime = txBlock.getBlock().getTimestamp().longValue();
             if (eventCallback != null) eventCallback.receivedEvent(ev.attributeId, attrType.getSyntaxVal(selectVal), blockTime, originToken.tokenInfo.chainId);
             storeEventValue(ev, ethLog, attrType, originToken, blockTime, selectVal);
         }
@@ -1115,7 +1179,7 @@ public class AssetDefinitionService implements ParseResult, AttributeInterface
         }
 
         txResult.resultTime = blockTime;
-        txResult.result = attr.getSyntaxVal(selectVal) + "," + ev.readBlock.toString(16); //store block time as well as block number
+        txResult.result = attr.getSyntaxVal(selectVal) + "," + ((Log)log.get()).getBlockNumber().toString(16); //store block time as well as block number
         storeAuxData(txResult); //store the event itself
     }
 
@@ -1765,6 +1829,70 @@ public class AssetDefinitionService implements ParseResult, AttributeInterface
         return cAddr.address + "-" + tokenId.toString(Character.MAX_RADIX) + "-" + cAddr.chainId + "-" + attrId;
     }
 
+    private String eventCheckpointKey(EventDefinition ev, Token originToken)
+    {
+        return originToken.getAddress().toLowerCase() + "-" + originToken.tokenInfo.chainId + "-" + ev.attributeId + "-" + ev.eventName + "-scan";
+    }
+
+    /**
+     * Last block scanned for this event/token pair, or -1 if it has never been scanned or the
+     * filter has changed since the last scan (eg the token received a new tokenId).
+     */
+    private BigInteger getEventCheckpoint(EventDefinition ev, Token originToken, String filterSignature)
+    {
+        BigInteger checkpoint = BigInteger.ONE.negate();
+        try (Realm realm = realmManager.getAuxRealmInstance(tokensService.getCurrentAddress()))
+        {
+            RealmAuxData realmCheckpoint = realm.where(RealmAuxData.class)
+                    .equalTo("instanceKey", eventCheckpointKey(ev, originToken))
+                    .findFirst();
+
+            if (realmCheckpoint != null && filterSignature.equals(realmCheckpoint.getResult()))
+            {
+                checkpoint = BigInteger.valueOf(realmCheckpoint.getResultTime());
+            }
+        }
+        catch (Exception e)
+        {
+            e.printStackTrace();
+        }
+
+        return checkpoint;
+    }
+
+    private void storeEventCheckpoint(EventDefinition ev, Token originToken, String filterSignature, BigInteger blockNumber)
+    {
+        TransactionsRealmCache.addRealm();
+        try (Realm realm = realmManager.getAuxRealmInstance(tokensService.getCurrentAddress()))
+        {
+            String databaseKey = eventCheckpointKey(ev, originToken);
+            realm.beginTransaction();
+            RealmAuxData realmCheckpoint = realm.where(RealmAuxData.class)
+                    .equalTo("instanceKey", databaseKey)
+                    .findFirst();
+
+            if (realmCheckpoint == null)
+            {
+                realmCheckpoint = realm.createObject(RealmAuxData.class, databaseKey);
+                realmCheckpoint.setChainId(originToken.tokenInfo.chainId);
+                realmCheckpoint.setFunctionId(ev.attributeId);
+                realmCheckpoint.setTokenId(BigInteger.ZERO.toString(Character.MAX_RADIX));
+            }
+
+            realmCheckpoint.setResult(filterSignature);
+            realmCheckpoint.setResultTime(blockNumber.longValue()); //checkpoint block is stored in the result time field
+            realm.commitTransaction();
+        }
+        catch (Exception e)
+        {
+            e.printStackTrace();
+        }
+        finally
+        {
+            TransactionsRealmCache.subRealm();
+        }
+    }
+
     private String eventKey(TransactionResult tResult)
     {
         return tResult.contractAddress + "-" + tResult.tokenId.toString(Character.MAX_RADIX) + "-" + tResult.contractChainId + "-" + tResult.attrId + tResult.resultTime + "-log";
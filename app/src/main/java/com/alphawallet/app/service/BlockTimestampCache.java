@@ -0,0 +1,145 @@
+package com.alphawallet.app.service;
+
+import android.util.LruCache;
+import android.util.SparseArray;
+
+import com.alphawallet.app.repository.TransactionsRealmCache;
+import com.alphawallet.app.repository.entity.RealmBlockHeader;
+
+import org.web3j.protocol.Web3j;
+import org.web3j.protocol.core.methods.response.EthBlock;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import io.reactivex.Single;
+import io.realm.Realm;
+
+/**
+ * Chain scoped cache of block timestamps.
+ *
+ * Many event logs share a block, but each needs the block time. Lookups go
+ * memory (LRU per chain) -> Realm -> node. Blocks are fetched without their transaction bodies,
+ * and concurrent requests for the same block share a single node call.
+ */
+public class BlockTimestampCache
+{
+    private static final String BLOCK_HEADER_DB = "BlockHeaders-db.realm";
+    private static final int MEMORY_CACHE_SIZE = 1024; //block entries per chain
+
+    private final RealmManager realmManager;
+    private final SparseArray<LruCache<String, Long>> memoryCache = new SparseArray<>();
+    private final Map<String, Single<Long>> pendingFetches = new ConcurrentHashMap<>();
+
+    public BlockTimestampCache(RealmManager realmManager)
+    {
+        this.realmManager = realmManager;
+    }
+
+    /**
+     * Fetch timestamp (seconds) of the block with this hash
+     */
+    public Single<Long> getBlockTimestamp(int chainId, String blockHash, Web3j web3j)
+    {
+        final String hash = blockHash.trim().toLowerCase();
+        Long timeStamp = getChainCache(chainId).get(hash);
+        if (timeStamp != null) return Single.just(timeStamp);
+
+        return coalesce(chainId + "-" + hash, Single.fromCallable(() -> {
+            Long storedTime = loadBlockTime(chainId, hash);
+            if (storedTime != null) return storedTime;
+            return fetchBlock(chainId, web3j.ethGetBlockByHash(hash, false).send());
+        }));
+    }
+
+    private Single<Long> coalesce(String key, Single<Long> fetch)
+    {
+        //if there's already a request in flight for this block, join it
+        return pendingFetches.computeIfAbsent(key, k -> fetch
+                .doFinally(() -> pendingFetches.remove(k))
+                .cache());
+    }
+
+    private long fetchBlock(int chainId, EthBlock ethBlock) throws IOException
+    {
+        EthBlock.Block block = ethBlock.getBlock();
+        if (ethBlock.hasError() || block == null || block.getTimestamp() == null)
+        {
+            throw new IOException("Unable to fetch block: " + (ethBlock.hasError() ? ethBlock.getError().getMessage() : "not found"));
+        }
+
+        long timeStamp = block.getTimestamp().longValue();
+        String hash = block.getHash().toLowerCase();
+        long blockNumber = block.getNumber().longValue();
+        getChainCache(chainId).put(hash, timeStamp);
+        storeBlockTime(chainId, hash, blockNumber, timeStamp);
+        return timeStamp;
+    }
+
+    private Long loadBlockTime(int chainId, String hash)
+    {
+        try (Realm realm = realmManager.getRealmInstance(BLOCK_HEADER_DB))
+        {
+            RealmBlockHeader header = realm.where(RealmBlockHeader.class)
+                    .equalTo("instanceKey", databaseKey(chainId, hash))
+                    .findFirst();
+
+            if (header != null)
+            {
+                getChainCache(chainId).put(hash, header.getTimeStamp());
+                return header.getTimeStamp();
+            }
+        }
+        catch (Exception e)
+        {
+            e.printStackTrace();
+        }
+
+        return null;
+    }
+
+    private void storeBlockTime(int chainId, String hash, long blockNumber, long timeStamp)
+    {
+        TransactionsRealmCache.addRealm();
+        try (Realm realm = realmManager.getRealmInstance(BLOCK_HEADER_DB))
+        {
+            realm.beginTransaction();
+            RealmBlockHeader header = realm.where(RealmBlockHeader.class)
+                    .equalTo("instanceKey", databaseKey(chainId, hash))
+                    .findFirst();
+            if (header == null) header = realm.createObject(RealmBlockHeader.class, databaseKey(chainId, hash));
+            header.setChainId(chainId);
+            header.setBlockNumber(blockNumber);
+            header.setTimeStamp(timeStamp);
+            realm.commitTransaction();
+        }
+        catch (Exception e)
+        {
+            e.printStackTrace();
+        }
+        finally
+        {
+            TransactionsRealmCache.subRealm();
+        }
+    }
+
+    private LruCache<String, Long> getChainCache(int chainId)
+    {
+        synchronized (memoryCache)
+        {
+            LruCache<String, Long> chainCache = memoryCache.get(chainId);
+            if (chainCache == null)
+            {
+                chainCache = new LruCache<>(MEMORY_CACHE_SIZE);
+                memoryCache.put(chainId, chainCache);
+            }
+            return chainCache;
+        }
+    }
+
+    private static String databaseKey(int chainId, String hash)
+    {
+        return chainId + "-" + hash;
+    }
+}
@@ -0,0 +1,118 @@
+package com.alphawallet.app.service;
+
+import org.web3j.utils.Numeric;
+
+import java.math.BigInteger;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Gas limits for contract functions, keyed by chain, contract and 4-byte function selector.
+ *
+ * Completed transactions give the gas a call actually used; functions we haven't seen called yet take the node's
+ * eth_estimateGas instead. Each source has its own safety margin and the highest limit is kept, since gas use
+ * depends on contract state (eg a token transfer to a new holder costs more) and unused gas is refunded anyway.
+ */
+public class GasEstimateCache
+{
+    private static final int MAX_ENTRIES = 512;
+    private static final BigInteger ROUNDING = BigInteger.valueOf(1000);
+    private static final BigInteger HUNDRED = BigInteger.valueOf(100);
+
+    private final int usedMarginPercent;
+    private final int estimateMarginPercent;
+    private final Map<String, BigInteger> limits = new LinkedHashMap<String, BigInteger>(16, 0.75f, true)
+    {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, BigInteger> eldest)
+        {
+            return size() > MAX_ENTRIES;
+        }
+    };
+
+    /**
+     * @param usedMarginPercent added to the gas used by completed transactions
+     * @param estimateMarginPercent added to the node's gas estimate
+     */
+    public GasEstimateCache(int usedMarginPercent, int estimateMarginPercent)
+    {
+        this.usedMarginPercent = usedMarginPercent;
+        this.estimateMarginPercent = estimateMarginPercent;
+    }
+
+    /**
+     * @return gas limit for this call, or null if the function hasn't been seen on this contract
+     */
+    public synchronized BigInteger getGasLimit(int chainId, String to, byte[] data)
+    {
+        String key = key(chainId, to, selector(data));
+        return key != null ? limits.get(key) : null;
+    }
+
+    /**
+     * Learn from a completed, successful transaction
+     */
+    public void putGasUsed(int chainId, String to, String input, BigInteger gasUsed)
+    {
+        put(key(chainId, to, selector(input)), gasUsed, usedMarginPercent);
+    }
+
+    /**
+     * Learn from eth_estimateGas
+     * @return gas limit to use for the call
+     */
+    public BigInteger putEstimate(int chainId, String to, byte[] data, BigInteger estimate)
+    {
+        return putEstimate(chainId, to, BigInteger.ZERO, data, estimate);
+    }
+
+    /**
+     * Learn from eth_estimateGas for a call sending value; only estimates for calls sending no ether are kept, since
+     * a payable function can take another path when it's sent ether
+     * @return gas limit to use for the call
+     */
+    public BigInteger putEstimate(int chainId, String to, BigInteger value, byte[] data, BigInteger estimate)
+    {
+        String key = (value == null || value.signum() == 0) ? key(chainId, to, selector(data)) : null;
+        BigInteger limit = put(key, estimate, estimateMarginPercent);
+        return limit != null ? limit : withMargin(estimate, estimateMarginPercent);
+    }
+
+    private synchronized BigInteger put(String key, BigInteger gas, int marginPercent)
+    {
+        if (key == null || gas == null || gas.signum() <= 0) return null;
+
+        BigInteger limit = withMargin(gas, marginPercent);
+        BigInteger current = limits.get(key);
+        if (current != null && current.compareTo(limit) >= 0) return current;
+        limits.put(key, limit);
+        return limit;
+    }
+
+    //add the margin and round up to the next thousand
+    private static BigInteger withMargin(BigInteger gas, int marginPercent)
+    {
+        BigInteger limit = gas.multiply(BigInteger.valueOf(100 + marginPercent)).divide(HUNDRED);
+        return limit.divide(ROUNDING).add(BigInteger.ONE).multiply(ROUNDING);
+    }
+
+    private static String key(int chainId, String to, String selector)
+    {
+        //no contract (constructor) or no function to key on
+        if (selector == null || to == null || to.matches("^(0x)?0*$")) return null;
+        return chainId + "-" + to.toLowerCase() + "-" + selector;
+    }
+
+    private static String selector(byte[] data)
+    {
+        if (data == null || data.length < 4) return null;
+        return Numeric.toHexString(data, 0, 4, false);
+    }
+
+    private static String selector(String input)
+    {
+        if (input == null) return null;
+        String hex = Numeric.cleanHexPrefix(input);
+        return hex.length() >= 8 ? hex.substring(0, 8).toLowerCase() : null;
+    }
+}
@@ -0,0 +1,113 @@
+package com.alphawallet.app.service;
+
+import com.alphawallet.app.entity.GasPriceEstimate;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Rolling window of recent block gas prices for each chain.
+ *
+ * Each block contributes the cheapest prices it accepted (its lowest SAMPLES_PER_BLOCK non-zero transaction prices),
+ * which is what a new transaction has to beat to be included; slow/standard/fast are percentiles of the samples
+ * from the last WINDOW_BLOCKS blocks. Blocks are kept by number, so a block seen twice or replaced by a re-org
+ * counts once.
+ */
+public class GasPriceOracle
+{
+    public static final int WINDOW_BLOCKS = 20;
+    private static final int SAMPLES_PER_BLOCK = 3;
+
+    private static final int SLOW_PERCENTILE = 25;
+    private static final int STANDARD_PERCENTILE = 60;
+    private static final int FAST_PERCENTILE = 90;
+
+    private final Map<Integer, ChainWindow> windows = new ConcurrentHashMap<>();
+
+    /**
+     * @param gasPrices prices of the block's transactions, excluding any sent by the block's miner
+     * @return true if this changed the window
+     */
+    public boolean addBlock(int chainId, long blockNumber, List<BigInteger> gasPrices)
+    {
+        List<BigInteger> samples = new ArrayList<>();
+        for (BigInteger price : gasPrices)
+        {
+            if (price != null && price.signum() > 0) samples.add(price);
+        }
+        Collections.sort(samples);
+        if (samples.size() > SAMPLES_PER_BLOCK) samples = new ArrayList<>(samples.subList(0, SAMPLES_PER_BLOCK));
+
+        ChainWindow window = windows.get(chainId);
+        if (window == null)
+        {
+            windows.putIfAbsent(chainId, new ChainWindow());
+            window = windows.get(chainId);
+        }
+
+        return window.add(chainId, blockNumber, samples);
+    }
+
+    /**
+     * @return highest block seen for the chain, or -1 if none
+     */
+    public long getLatestBlock(int chainId)
+    {
+        ChainWindow window = windows.get(chainId);
+        return window != null ? window.latestBlock() : -1;
+    }
+
+    /**
+     * @return estimate from the current window; null if the recent blocks had no priced transactions
+     */
+    public GasPriceEstimate getEstimate(int chainId)
+    {
+        ChainWindow window = windows.get(chainId);
+        return window != null ? window.estimate : null;
+    }
+
+    private static BigInteger percentile(List<BigInteger> sorted, int percent)
+    {
+        int index = (sorted.size() - 1) * percent / 100;
+        return sorted.get(index);
+    }
+
+    private static class ChainWindow
+    {
+        private final TreeMap<Long, List<BigInteger>> blocks = new TreeMap<>();
+        private volatile GasPriceEstimate estimate;
+
+        synchronized boolean add(int chainId, long blockNumber, List<BigInteger> samples)
+        {
+            //too old to be in the window
+            if (!blocks.isEmpty() && blockNumber <= blocks.lastKey() - WINDOW_BLOCKS) return false;
+            if (samples.equals(blocks.get(blockNumber))) return false;
+
+            blocks.put(blockNumber, samples);
+            while (blocks.firstKey() <= blocks.lastKey() - WINDOW_BLOCKS) blocks.pollFirstEntry();
+
+            List<BigInteger> all = new ArrayList<>();
+            for (List<BigInteger> blockSamples : blocks.values()) all.addAll(blockSamples);
+            if (all.isEmpty())
+            {
+                //only empty blocks: anything will be accepted, so keep the previous estimate
+                return true;
+            }
+
+            Collections.sort(all);
+            estimate = new GasPriceEstimate(chainId, blocks.lastKey(),
+                    percentile(all, SLOW_PERCENTILE), percentile(all, STANDARD_PERCENTILE), percentile(all, FAST_PERCENTILE));
+            return true;
+        }
+
+        synchronized long latestBlock()
+        {
+            return blocks.isEmpty() ? -1 : blocks.lastKey();
+        }
+    }
+}
@@ -8,17 +8,30 @@ import com.alphawallet.app.repository.EthereumNetworkRepositoryType;
 import com.alphawallet.app.util.BalanceUtils;
 
 import io.reactivex.Observable;
+import io.reactivex.Single;
 import io.reactivex.disposables.Disposable;
+import io.reactivex.schedulers.Schedulers;
 
+import com.alphawallet.app.entity.GasPriceEstimate;
 import com.alphawallet.app.entity.GasSettings;
 
 import org.web3j.protocol.Web3j;
+import org.web3j.protocol.core.DefaultBlockParameter;
+import org.web3j.protocol.core.methods.request.Transaction;
+import org.web3j.protocol.core.methods.response.EthBlock;
+import org.web3j.protocol.core.methods.response.EthEstimateGas;
 import org.web3j.protocol.core.methods.response.EthGasPrice;
 import org.web3j.protocol.http.HttpService;
 import org.web3j.tx.gas.ContractGasProvider;
+import org.web3j.utils.Numeric;
 
 import java.math.BigDecimal;
 import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.WeakHashMap;
 import java.util.concurrent.TimeUnit;
 
 import static com.alphawallet.app.repository.TokenRepository.getWeb3jService;
@@ -31,23 +44,33 @@ import static com.alphawallet.app.repository.TokenRepository.getWeb3jService;
  * It can be customised to provide specific gas limits for functions
  * It also provides the Web3j GasProvider interface so can be used in the new Web3j contract handling system
  *
+ * Gas price is taken from a GasPriceOracle window of recent blocks, which is only read when the chain has a new block
+ * and is kept across screens. Blocks are polled only while a screen holds the gas listener.
+ *
+ * Gas limits for contract calls come from a GasEstimateCache, which learns from completed transactions; calls it
+ * hasn't seen fall back to the defaults below until fetchGasLimit has asked the node.
+ *
  */
 public class GasService implements ContractGasProvider
 {
     private final EthereumNetworkRepositoryType networkRepository;
-    private final static long FETCH_GAS_PRICE_INTERVAL = 30;
+    private final GasEstimateCache gasEstimateCache;
+    private final static int INITIAL_BLOCKS = 5; //blocks to read when starting on a chain with no history
     private final MutableLiveData<BigInteger> gasPrice = new MutableLiveData<>();
+    private final MutableLiveData<GasPriceEstimate> gasPriceEstimate = new MutableLiveData<>();
+    private final GasPriceOracle gasPriceOracle = new GasPriceOracle();
+    private final Set<Object> listenerHolders = Collections.newSetFromMap(new WeakHashMap<>());
 
     private BigInteger currentGasPrice;
     private BigInteger currentGasPriceOverride;
     private BigInteger currentGasLimitOverride;
     private int currentChainId;
     private Disposable gasFetchDisposable;
-    private Web3j web3j;
 
-    public GasService(EthereumNetworkRepositoryType networkRepository)
+    public GasService(EthereumNetworkRepositoryType networkRepository, GasEstimateCache gasEstimateCache)
     {
         this.networkRepository = networkRepository;
+        this.gasEstimateCache = gasEstimateCache;
         currentChainId = 0;
         currentGasPrice = new BigInteger(C.DEFAULT_GAS_PRICE);
         currentGasLimitOverride = BigInteger.ZERO;
@@ -59,11 +82,31 @@ public class GasService implements ContractGasProvider
         return gasPrice;
     }
 
-    public void startGasListener(int chainId)
+    public MutableLiveData<GasPriceEstimate> gasPriceEstimateListener()
+    {
+        return gasPriceEstimate;
+    }
+
+    public GasPriceEstimate getGasPriceEstimate(int chainId)
+    {
+        return gasPriceOracle.getEstimate(chainId);
+    }
+
+    /**
+     * Poll for gas prices on this chain until every holder has stopped; a holder starting again is not counted twice
+     * @param holder the view model or screen that needs gas prices
+     */
+    public void startGasListener(Object holder, int chainId)
     {
+        synchronized (listenerHolders)
+        {
+            listenerHolders.add(holder);
+        }
+
         //check if checker is already running and is on the correct chain
         if (chainId != currentChainId || gasFetchDisposable == null || gasFetchDisposable.isDisposed())
         {
+            if (gasFetchDisposable != null && !gasFetchDisposable.isDisposed()) gasFetchDisposable.dispose();
             currentChainId = chainId;
             if (networkRepository.getNetworkByChain(currentChainId) == null)
             {
@@ -71,23 +114,86 @@ public class GasService implements ContractGasProvider
                 return;
             }
 
-            web3j = getWeb3jService(currentChainId);
+            Web3j chainWeb3j = getWeb3jService(currentChainId);
             setCurrentPrice(chainId);
-            gasFetchDisposable = Observable.interval(0, FETCH_GAS_PRICE_INTERVAL, TimeUnit.SECONDS)
-                    .doOnNext(l -> fetchCurrentGasPrice()).subscribe();
+            //the block history is kept between screens; resume from it rather than starting again
+            if (gasPriceOracle.getEstimate(chainId) != null) updateGasPrice(chainId);
+            gasFetchDisposable = Observable.interval(0, getBlockPollInterval(chainId), TimeUnit.SECONDS, Schedulers.io())
+                    .doOnNext(l -> fetchNewBlocks(chainId, chainWeb3j)).subscribe();
         }
     }
 
-    public void stopGasListener()
+    /**
+     * Stop polling once no holder needs gas prices; the overrides are kept until then, since a screen opened from
+     * a confirmation (eg gas settings) can close after the confirmation has taken its result.
+     */
+    public void stopGasListener(Object holder)
     {
+        synchronized (listenerHolders)
+        {
+            listenerHolders.remove(holder);
+            if (!listenerHolders.isEmpty()) return;
+        }
+
         if (gasFetchDisposable != null && !gasFetchDisposable.isDisposed()) gasFetchDisposable.dispose();
         currentChainId = 0;
         currentGasLimitOverride = BigInteger.ZERO;
         currentGasPriceOverride = BigInteger.ZERO;
-        web3j = null;
     }
 
-    private void fetchCurrentGasPrice()
+    /**
+     * Check for a new block and add any blocks we haven't seen to the gas price window.
+     * The node is only asked for blocks when the head has moved.
+     */
+    private void fetchNewBlocks(int chainId, Web3j web3j)
+    {
+        try
+        {
+            long head = web3j.ethBlockNumber().send().getBlockNumber().longValue();
+            long latest = gasPriceOracle.getLatestBlock(chainId);
+            if (head <= latest) return;
+
+            boolean updated = false;
+            long first = Math.max(latest + 1, head - (latest < 0 ? INITIAL_BLOCKS : GasPriceOracle.WINDOW_BLOCKS) + 1);
+            for (long blockNumber = first; blockNumber <= head; blockNumber++)
+            {
+                EthBlock.Block block = web3j.ethGetBlockByNumber(DefaultBlockParameter.valueOf(BigInteger.valueOf(blockNumber)), true)
+                        .send().getBlock();
+                if (block != null) updated |= gasPriceOracle.addBlock(chainId, blockNumber, getGasPrices(block));
+            }
+
+            if (gasPriceOracle.getEstimate(chainId) == null) fetchCurrentGasPrice(web3j); //recent blocks had no priced transactions
+            else if (updated) updateGasPrice(chainId);
+        }
+        catch (Exception ex)
+        {
+            gasPrice.postValue(currentGasPrice);
+        }
+    }
+
+    private static List<BigInteger> getGasPrices(EthBlock.Block block)
+    {
+        List<BigInteger> prices = new ArrayList<>();
+        for (EthBlock.TransactionResult result : block.getTransactions())
+        {
+            EthBlock.TransactionObject tx = (EthBlock.TransactionObject) result.get();
+            //miners include their own transactions at any price
+            if (tx.getFrom() != null && tx.getFrom().equalsIgnoreCase(block.getMiner())) continue;
+            prices.add(tx.getGasPrice());
+        }
+        return prices;
+    }
+
+    private void updateGasPrice(int chainId)
+    {
+        GasPriceEstimate estimate = gasPriceOracle.getEstimate(chainId);
+        if (estimate == null || chainId != currentChainId) return;
+        if (!EthereumNetworkRepository.hasGasOverride(chainId)) currentGasPrice = estimate.standard;
+        gasPriceEstimate.postValue(estimate);
+        gasPrice.postValue(currentGasPrice);
+    }
+
+    private void fetchCurrentGasPrice(Web3j web3j)
     {
         try
         {
@@ -110,6 +216,24 @@ public class GasService implements ContractGasProvider
         }
     }
 
+    //poll at about the chain's block time
+    private static long getBlockPollInterval(int chainId)
+    {
+        switch (chainId)
+        {
+            case EthereumNetworkRepository.KOVAN_ID:
+                return 4;
+            case EthereumNetworkRepository.XDAI_ID:
+            case EthereumNetworkRepository.POA_ID:
+            case EthereumNetworkRepository.SOKOL_ID:
+            case EthereumNetworkRepository.ARTIS_SIGMA1_ID:
+            case EthereumNetworkRepository.ARTIS_TAU1_ID:
+                return 5;
+            default:
+                return 15;
+        }
+    }
+
     //TODO: change the function to hash identifier and use that to determine gas limit
     @Override
     public BigInteger getGasLimit(String contractFunc)
@@ -213,11 +337,17 @@ public class GasService implements ContractGasProvider
         }
     }
 
-    public GasSettings getGasSettings(byte[] transactionBytes, boolean isNonFungible, int chainId)
+    public GasSettings getGasSettings(byte[] transactionBytes, String to, boolean isNonFungible, int chainId)
     {
         BigInteger gasLimit = getGasLimit();
         BigInteger gasPrice = getGasPrice();
-        if (transactionBytes != null) {
+        BigInteger cachedLimit = getCachedGasLimit(chainId, to, transactionBytes);
+        if (cachedLimit != null)
+        {
+            gasLimit = cachedLimit;
+            if (currentGasLimitOverride.equals(BigInteger.ZERO)) currentGasLimitOverride = gasLimit;
+        }
+        else if (transactionBytes != null) {
             if (isNonFungible)
             {
                 gasLimit = new BigInteger(C.DEFAULT_GAS_LIMIT_FOR_NONFUNGIBLE_TOKENS);
@@ -233,6 +363,40 @@ public class GasService implements ContractGasProvider
         return new GasSettings(gasPrice, gasLimit);
     }
 
+    /**
+     * @return gas limit learned for this contract function, or null if we haven't seen it called
+     */
+    public BigInteger getCachedGasLimit(int chainId, String to, byte[] data)
+    {
+        return gasEstimateCache.getGasLimit(chainId, to, data);
+    }
+
+    /**
+     * Gas limit for a contract call; only asks the node (eth_estimateGas) if the function hasn't been seen before.
+     * The node's estimate is cached, so repeating the call doesn't need another round trip. Calls sending ether
+     * can take another path through the contract, so those are always estimated and not cached.
+     */
+    public Single<BigInteger> fetchGasLimit(int chainId, String from, String to, BigInteger value, byte[] data)
+    {
+        BigInteger cachedLimit = value.signum() == 0 ? getCachedGasLimit(chainId, to, data) : null;
+        if (cachedLimit != null) return Single.just(cachedLimit);
+
+        return Single.fromCallable(() -> {
+            Transaction call = Transaction.createFunctionCallTransaction(from, null, null, null, to, value, Numeric.toHexString(data));
+            EthEstimateGas estimate = getWeb3jService(chainId).ethEstimateGas(call).send();
+            if (estimate.hasError()) throw new Exception(estimate.getError().getMessage());
+            return gasEstimateCache.putEstimate(chainId, to, value, data, estimate.getAmountUsed());
+        });
+    }
+
+    /**
+     * @return true if a transaction to this address deploys a contract
+     */
+    public static boolean isContractCreation(String to)
+    {
+        return to == null || to.matches("^(0x)?0*$");
+    }
+
     private BigInteger estimateGasLimit(byte[] data)
     {
         BigInteger roundingFactor = BigInteger.valueOf(10000);
@@ -5,7 +5,10 @@ import com.alphawallet.app.entity.cryptokeys.SignatureReturnType;
 import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import dagger.Lazy;
 import io.reactivex.Completable;
+import io.reactivex.Observable;
+import io.reactivex.Scheduler;
 import io.reactivex.Single;
 import io.reactivex.schedulers.Schedulers;
 
@@ -25,6 +28,8 @@ import java.io.File;
 import java.math.BigInteger;
 import java.text.SimpleDateFormat;
 import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import static com.alphawallet.app.entity.CryptoFunctions.sigFromByteArray;
 import static com.alphawallet.app.service.KeyService.FAILED_SIGNATURE;
@@ -33,13 +38,14 @@ public class KeystoreAccountService implements AccountKeystoreService
 {
     public static final String KEYSTORE_FOLDER = "keystore/keystore";
     private static final int PRIVATE_KEY_RADIX = 16;
+    private static final int SIGNING_QUEUE_DEPTH = 4; //signatures in flight per signing thread
 
     private final File keyFolder;
     private final File databaseFolder;
-    private final KeyService keyService;
+    private final Lazy<KeyService> keyService; //only needed to sign or delete, so not built on the launch path
     private static final ObjectMapper objectMapper = new ObjectMapper();
 
-    public KeystoreAccountService(File keyStoreFile, File baseFile, KeyService keyService) {
+    public KeystoreAccountService(File keyStoreFile, File baseFile, Lazy<KeyService> keyService) {
         keyFolder = keyStoreFile;
         databaseFolder = baseFile;
         this.keyService = keyService;
@@ -172,7 +178,7 @@ public class KeystoreAccountService implements AccountKeystoreService
             }
 
             //Now delete all traces of the key in Android keystore, encrypted bytes and iv file in private data area
-            keyService.deleteKey(address);
+            keyService.get().deleteKey(address);
         } );
     }
 
@@ -224,7 +230,7 @@ public class KeystoreAccountService implements AccountKeystoreService
                     );
 
             byte[] signData = TransactionEncoder.encode(rtx, chainId);
-            returnSig = keyService.signData(signer, signData);
+            returnSig = keyService.get().signData(signer, signData);
             sigData = sigFromByteArray(returnSig.signature);
             if (sigData == null) {
                 returnSig.sigType = SignatureReturnType.KEY_CIPHER_ERROR;
@@ -320,6 +326,29 @@ public class KeystoreAccountService implements AccountKeystoreService
         }).subscribeOn(Schedulers.io());
     }
 
+    @Override
+    public Observable<byte[]> signTransactionsFast(Wallet signer, String signerPassword, List<byte[]> messages, long chainId) {
+        //leave a core for the UI
+        int threads = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+        //the scrypt decrypt is the slow part, so only do it once
+        return Single.fromCallable(() -> getCredentials(keyFolder, signer.address, signerPassword).getEcKeyPair())
+                .flatMapObservable(keyPair -> Observable.using(
+                        () -> Executors.newFixedThreadPool(threads),
+                        pool -> signInOrder(messages, keyPair, Schedulers.from(pool), threads * SIGNING_QUEUE_DEPTH),
+                        ExecutorService::shutdown))
+                .subscribeOn(Schedulers.io());
+    }
+
+    //the decrypted key is immutable so it can sign on several threads; concatMapEager keeps a bounded window of
+    //signatures in flight and emits them in message order
+    private Observable<byte[]> signInOrder(List<byte[]> messages, ECKeyPair keyPair, Scheduler scheduler, int window)
+    {
+        return Observable.fromIterable(messages)
+                .concatMapEager(message -> Observable.fromCallable(
+                        () -> patchSignatureVComponent(bytesFromSignature(Sign.signMessage(message, keyPair))))
+                        .subscribeOn(scheduler), window, 1);
+    }
+
     //In all cases where we need to sign data the signature needs to be in Ethereum format
     //Geth gives us the pure EC function, but for hash signing
     @Override
@@ -327,7 +356,7 @@ public class KeystoreAccountService implements AccountKeystoreService
     {
         return Single.fromCallable(() -> {
             //byte[] messageHash = Hash.sha3(message);
-            SignatureFromKey returnSig = keyService.signData(signer, message);
+            SignatureFromKey returnSig = keyService.get().signData(signer, message);
             returnSig.signature = patchSignatureVComponent(returnSig.signature);
             return returnSig;
         }).subscribeOn(Schedulers.io());
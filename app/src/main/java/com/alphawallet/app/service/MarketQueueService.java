@@ -12,12 +12,13 @@ import org.json.JSONObject;
 import org.web3j.crypto.Keys;
 import org.web3j.crypto.Sign;
 
-import java.io.ByteArrayOutputStream;
-import java.io.DataOutputStream;
+import java.io.IOException;
 import java.io.UnsupportedEncodingException;
 import java.math.BigInteger;
 import java.net.URLEncoder;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import com.alphawallet.app.R;
@@ -30,6 +31,7 @@ import io.reactivex.Observable;
 import io.reactivex.Single;
 import io.reactivex.android.schedulers.AndroidSchedulers;
 import io.reactivex.disposables.Disposable;
+import io.reactivex.functions.Consumer;
 import io.reactivex.schedulers.Schedulers;
 import com.alphawallet.token.entity.MagicLinkData;
 import com.alphawallet.token.entity.MessageData;
@@ -38,6 +40,7 @@ import okhttp3.MediaType;
 import okhttp3.OkHttpClient;
 import okhttp3.Request;
 import okhttp3.RequestBody;
+import okio.BufferedSink;
 import retrofit2.Response;
 import retrofit2.http.Body;
 import retrofit2.http.POST;
@@ -51,6 +54,8 @@ import static com.alphawallet.app.entity.CryptoFunctions.sigFromByteArray;
 public class MarketQueueService {
     private static final long MARKET_INTERVAL = 10*60; // 10 minutes
     private static final int TRADE_AMOUNT = 1008;
+    private static final int SIGNATURE_LENGTH = 65;
+    private static final String SIGNED_ORDERS_TYPE = "application/vnd.awallet-signed-orders-v0";
     private static final String MARKET_QUEUE_URL = "https://482kdh4npg.execute-api.ap-southeast-1.amazonaws.com/dev/";
     private static final String MARKET_QUEUE_FETCH = MARKET_QUEUE_URL + "contract/";
 
@@ -87,14 +92,6 @@ public class MarketQueueService {
 
     }
 
-    private void processMarketTrades(TradeInstance trades)
-    {
-        marketQueueProcessing = sendSalesOrders(trades)
-                .subscribeOn(Schedulers.newThread())
-                .observeOn(AndroidSchedulers.mainThread())
-                .subscribe(this::handleResponse);
-    }
-
     //This is running on the main UI thread, so it's safe to push messages etc here
     private void handleResponse(String response)
     {
@@ -113,60 +110,59 @@ public class MarketQueueService {
         marketQueueProcessing.dispose();
     }
 
-    private Single<String> sendSalesOrders(TradeInstance trades)
+    private TradeInstance buildTrade(Wallet wallet, String password, BigInteger price, int[] tickets, String contractAddr, BigInteger firstTicketId, int chainId) throws Exception
+    {
+        long initialExpiry = (System.currentTimeMillis() / 1000L) + MARKET_INTERVAL;
+        //Recover public key
+        BigInteger recoveredKey = ecRecoverPublicKey(wallet, password, chainId);
+
+        return new TradeInstance(price, BigInteger.valueOf(initialExpiry), tickets, contractAddr, recoveredKey, firstTicketId);
+    }
+
+    private Single<TradeInstance> signTrade(Wallet wallet, String password, BigInteger price, int[] tickets, String contractAddr, BigInteger firstTicketId, int chainId)
     {
         return Single.fromCallable(() -> {
-            if (trades == null || trades.getSignatures().size() == 0)
-            {
-                return null;
-            }
+            TradeInstance trade = buildTrade(wallet, password, price, tickets, contractAddr, firstTicketId, chainId);
+            new OrderSigner(wallet, password, trade, chainId).signAll(trade::addSignature);
+            return trade;
+        });
+    }
 
-            String response = null;
+    /**
+     * Sign the orders for each expiry step and upload them. Signatures are written to the upload as they're
+     * produced, so signing and the upload overlap.
+     */
+    private Single<String> sendSalesOrders(Wallet wallet, String password, BigInteger price, int[] tickets, String contractAddr, BigInteger firstTicketId, int chainId)
+    {
+        return Single.fromCallable(() -> {
+            TradeInstance trade = buildTrade(wallet, password, price, tickets, contractAddr, firstTicketId, chainId);
 
-            try
-            {
-                byte[] trade = trades.getTradeBytes();
-
-                ByteArrayOutputStream buffer = new ByteArrayOutputStream();
-                DataOutputStream ds = new DataOutputStream(buffer);
-                ds.write(trade);
-                trades.addSignatures(ds);
-                ds.flush();
-
-                Map<String, String> prologData = new HashMap<>();
-                prologData.put("public-key", trades.publicKey)  ;
-                String urlProlog = formPrologData(prologData)   ;
-
-                Map<String, String> paramData = new HashMap<>();
-                paramData.put("start", String.valueOf(trades.ticketStart)); //start ticket ID
-                paramData.put("count", String.valueOf(trades.tickets.length));
-                String args = formEncodedData(paramData);
-                String url = MARKET_QUEUE_URL + urlProlog + args;
-                response = writeToQueue(url, buffer.toByteArray(), true);
-            }
-            catch (Exception e)
-            {
-                e.printStackTrace();
-            }
+            Map<String, String> prologData = new HashMap<>();
+            prologData.put("public-key", trade.publicKey);
+            String urlProlog = formPrologData(prologData);
 
-            return response;
+            Map<String, String> paramData = new HashMap<>();
+            paramData.put("start", String.valueOf(trade.ticketStart)); //start ticket ID
+            paramData.put("count", String.valueOf(trade.tickets.length));
+            String args = formEncodedData(paramData);
+            String url = MARKET_QUEUE_URL + urlProlog + args;
+
+            OrderSigner signer = new OrderSigner(wallet, password, trade, chainId);
+            String response = writeToQueue(url, new SalesOrderBody(signer));
+            return response != null ? response : "";
         });
     }
 
     //TODO: Refactor this using
-    private String writeToQueue(final String writeURL, final byte[] data, final boolean post)
+    private String writeToQueue(final String writeURL, final RequestBody body)
     {
         String result = null;
         try
         {
-            final MediaType DATA
-                    = MediaType.parse("application/vnd.awallet-signed-orders-v0");
-
-            RequestBody body = RequestBody.create(DATA, data);
             Request request = new Request.Builder()
                     .url(writeURL)
                     .put(body)
-                    .addHeader("Content-Type", "application/vnd.awallet-signed-orders-v0")
+                    .addHeader("Content-Type", SIGNED_ORDERS_TYPE)
                     .build();
 
             okhttp3.Response response = httpClient.newCall(request).execute();
@@ -220,42 +216,8 @@ public class MarketQueueService {
         return transactionRepository.getSignature(wallet, data, chainId);
     }
 
-    private Single<TradeInstance> tradesInnerLoop(Wallet wallet, String password, BigInteger price, int[] tickets, String contractAddr, BigInteger firstTicketId, int chainId) {
-        return Single.fromCallable(() ->
-        {
-            long initialExpiry = (System.currentTimeMillis() / 1000L) + MARKET_INTERVAL;
-            //Recover public key
-            BigInteger recoveredKey = ecRecoverPublicKey(wallet, password, chainId);
-
-            TradeInstance trade = new TradeInstance(price, BigInteger.valueOf(initialExpiry), tickets, contractAddr, recoveredKey, firstTicketId);
-
-            for (int i = 0; i < TRADE_AMOUNT; i++)
-            {
-                trade.expiry =  BigInteger.valueOf(initialExpiry + (i * MARKET_INTERVAL));
-                trade.addSignature(getTradeSignature(wallet, password, trade, chainId).blockingGet());
-                float upd = ((float)i/TRADE_AMOUNT)*100.0f;
-                messageCallback.queueUpdate((int)upd);
-            }
-            trade.expiry = BigInteger.valueOf(initialExpiry); //ensure expiry of first order is correct
-            return trade;
-        });
-    }
-
-    private Single<TradeInstance> getTradeMessages(Wallet wallet, BigInteger price, int[] tickets, String contractAddr, BigInteger firstTicketId, int chainId) {
-        return tradesInnerLoop(wallet, "password", price, tickets, contractAddr, firstTicketId, chainId);
-    }
-
-    private Single<byte[]> getTradeSignature(Wallet wallet, String password, TradeInstance trade, int chainId) {
-        return encodeMessageForTrade(trade)
-                .flatMap(tradeBytes -> transactionRepository.getSignatureFast(wallet, password, tradeBytes, chainId));
-    }
-
-    private Single<byte[]> encodeMessageForTrade(TradeInstance trade) {
-        return Single.fromCallable(trade::getTradeBytes);
-    }
-
     public Observable<TradeInstance> getTradeInstances(Wallet wallet, BigInteger price, int[] tickets, String contractAddr, BigInteger firstTicketId, int chainId) {
-        return getTradeMessages(wallet, price, tickets, contractAddr, firstTicketId, chainId).toObservable()
+        return signTrade(wallet, "password", price, tickets, contractAddr, firstTicketId, chainId).toObservable()
                 .subscribeOn(Schedulers.io())
                 .observeOn(AndroidSchedulers.mainThread());
     }
@@ -267,8 +229,10 @@ public class MarketQueueService {
 
     public void createSalesOrders(Wallet wallet, BigInteger price, int[] ticketIDs, String contractAddr, BigInteger firstTicketId, BaseViewCallback callback, int chainId) {
         messageCallback = callback;
-        marketQueueProcessing = getTradeInstances(wallet, price, ticketIDs, contractAddr, firstTicketId, chainId)
-                .subscribe(this::processMarketTrades, this::onError, this::onAllTransactions);
+        marketQueueProcessing = sendSalesOrders(wallet, "password", price, ticketIDs, contractAddr, firstTicketId, chainId)
+                .subscribeOn(Schedulers.io())
+                .observeOn(AndroidSchedulers.mainThread())
+                .subscribe(this::handleResponse, this::onError);
     }
 
     public Observable<MagicLinkData[]> fetchSalesOrders(String contractAddress) {
@@ -311,11 +275,6 @@ public class MarketQueueService {
         //something went wrong
     }
 
-    private void onAllTransactions()
-    {
-
-    }
-
     private String formPrologData(Map<String, String> data)
     {
         StringBuilder sb = new StringBuilder();
@@ -384,4 +343,102 @@ public class MarketQueueService {
 
         return recoveredKey;
     }
+
+    /**
+     * Signs the order for each expiry step, in expiry order. Each order is the shared trade bytes with the expiry
+     * patched in. The key is decrypted once for the whole set and the keystore signs on a bounded pool, handing
+     * back each signature in order as soon as it and those before it are ready.
+     */
+    private class OrderSigner
+    {
+        private final Wallet wallet;
+        private final String password;
+        private final byte[] tradeBytes;
+        private final long initialExpiry;
+        private final int chainId;
+
+        OrderSigner(Wallet wallet, String password, TradeInstance trade, int chainId)
+        {
+            this.wallet = wallet;
+            this.password = password;
+            this.tradeBytes = trade.getTradeBytes();
+            this.initialExpiry = trade.expiry.longValue();
+            this.chainId = chainId;
+        }
+
+        void signAll(Consumer<byte[]> output) throws Exception
+        {
+            List<byte[]> orders = new ArrayList<>(TRADE_AMOUNT);
+            for (int i = 0; i < TRADE_AMOUNT; i++)
+            {
+                byte[] order = tradeBytes.clone();
+                TradeInstance.setExpiry(order, initialExpiry + (i * MARKET_INTERVAL));
+                orders.add(order);
+            }
+
+            int signed = 0;
+            for (byte[] sig : transactionRepository.getSignaturesFast(wallet, password, orders, chainId).blockingIterable())
+            {
+                if (sig.length != SIGNATURE_LENGTH) throw new Exception("Incorrect signature length");
+                output.accept(sig);
+                signed++;
+                messageCallback.queueUpdate((int) (((float) signed / TRADE_AMOUNT) * 100.0f));
+            }
+
+            if (signed != TRADE_AMOUNT) throw new Exception("Orders not all signed");
+        }
+    }
+
+    /**
+     * Upload body of the trade bytes followed by one signature per expiry step; the length is known up front, so
+     * it streams without chunked encoding.
+     */
+    private static class SalesOrderBody extends RequestBody
+    {
+        private final byte[] tradeBytes;
+        private final OrderSigner signer;
+
+        SalesOrderBody(OrderSigner signer)
+        {
+            this.tradeBytes = signer.tradeBytes;
+            this.signer = signer;
+        }
+
+        @Override
+        public MediaType contentType()
+        {
+            return MediaType.parse(SIGNED_ORDERS_TYPE);
+        }
+
+        @Override
+        public long contentLength()
+        {
+            return tradeBytes.length + (long) TRADE_AMOUNT * SIGNATURE_LENGTH;
+        }
+
+        @Override
+        public boolean isOneShot()
+        {
+            //a retry would sign everything again
+            return true;
+        }
+
+        @Override
+        public void writeTo(BufferedSink sink) throws IOException
+        {
+            sink.write(tradeBytes);
+            try
+            {
+                signer.signAll(sink::write);
+            }
+            catch (IOException e)
+            {
+                throw e;
+            }
+            catch (Exception e)
+            {
+                throw new IOException("Unable to sign order", e);
+            }
+        }
+    }
 }
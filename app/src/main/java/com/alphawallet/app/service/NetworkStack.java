@@ -0,0 +1,74 @@
+package com.alphawallet.app.service;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.ConnectionPool;
+import okhttp3.Dispatcher;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+
+/**
+ * The one OkHttp stack for the app. Every client is derived from the base client with newBuilder(), so they
+ * all share a single connection pool and dispatcher - connections to a node are reused across the balance
+ * checker, ticker and TokenScript fetches, and HTTP/2 hosts (eg Infura) multiplex on one connection.
+ *
+ * The dispatcher limits only apply to enqueue()d calls. Node RPC is executed synchronously by AWHttpService, so
+ * its concurrency is bounded separately by RpcEndpointManager, using the same per-host limit.
+ *
+ * OkHttp requests gzip transparently, so response compression needs no interceptor here.
+ */
+public final class NetworkStack
+{
+    //sized for parallel balance batches against a single node
+    private static final int MAX_REQUESTS = 64;
+    static final int MAX_REQUESTS_PER_HOST = 16;
+    private static final int MAX_IDLE_CONNECTIONS = 8;
+    private static final long KEEP_ALIVE_MINUTES = 5;
+    private static final long DEFAULT_TIMEOUT_SECONDS = 10;
+
+    private static volatile OkHttpClient baseClient;
+
+    private NetworkStack() { }
+
+    /**
+     * Shared client with the default node timeouts
+     */
+    public static OkHttpClient getClient()
+    {
+        if (baseClient == null)
+        {
+            synchronized (NetworkStack.class)
+            {
+                if (baseClient == null) baseClient = buildBaseClient();
+            }
+        }
+        return baseClient;
+    }
+
+    /**
+     * Builder for a client with its own timeouts or interceptors that still shares the pool and dispatcher
+     */
+    public static OkHttpClient.Builder newBuilder()
+    {
+        return getClient().newBuilder();
+    }
+
+    private static OkHttpClient buildBaseClient()
+    {
+        Dispatcher dispatcher = new Dispatcher();
+        dispatcher.setMaxRequests(MAX_REQUESTS);
+        dispatcher.setMaxRequestsPerHost(MAX_REQUESTS_PER_HOST);
+
+        return new OkHttpClient.Builder()
+                //.addInterceptor(new LogInterceptor())
+                .dispatcher(dispatcher)
+                .connectionPool(new ConnectionPool(MAX_IDLE_CONNECTIONS, KEEP_ALIVE_MINUTES, TimeUnit.MINUTES))
+                .protocols(Arrays.asList(Protocol.HTTP_2, Protocol.HTTP_1_1))
+                .connectTimeout(DEFAULT_TIMEOUT_SECONDS, TimeUnit.SECONDS)
+                .readTimeout(DEFAULT_TIMEOUT_SECONDS, TimeUnit.SECONDS)
+                .writeTimeout(DEFAULT_TIMEOUT_SECONDS, TimeUnit.SECONDS)
+                .retryOnConnectionFailure(false)
+                .build();
+    }
+}
@@ -24,7 +24,6 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.TimeUnit;
 
 /**
  * Created by James on 2/10/2018.
@@ -45,10 +44,7 @@ public class OpenseaService {
         context = ctx;
         tokensService = tService;
         balanceAccess.clear();
-        httpClient = new OkHttpClient.Builder()
-                .connectTimeout(10, TimeUnit.SECONDS)
-                .readTimeout(10, TimeUnit.SECONDS)
-                .writeTimeout(10, TimeUnit.SECONDS)
+        httpClient = NetworkStack.newBuilder()
                 .retryOnConnectionFailure(true)
                 .build();
     }
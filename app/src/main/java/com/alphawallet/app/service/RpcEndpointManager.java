@@ -0,0 +1,156 @@
+package com.alphawallet.app.service;
+
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Tracks the health of each RPC node for a chain so AWHttpService can route to the best one.
+ *
+ * Each endpoint keeps a rolling window of latencies and a decaying error rate. Endpoints are ranked by
+ * latency inflated by error rate; stats that haven't been refreshed recently are ignored so a node that
+ * recovers gets another chance. The hedge delay (how long to wait on the first node before racing a read
+ * against the second) is the p90 latency of the best endpoint.
+ *
+ * Calls to a chain's nodes are executed synchronously, outside the OkHttp dispatcher's limits, so each manager
+ * also bounds how many are in flight at once.
+ */
+public class RpcEndpointManager
+{
+    private static final long DEFAULT_LATENCY_MS = 500;
+    private static final long DEFAULT_HEDGE_DELAY_MS = 1000;
+    private static final long MIN_HEDGE_DELAY_MS = 100;
+    private static final long MAX_HEDGE_DELAY_MS = 3000;
+    private static final long STALE_STATS_MS = 60 * 1000;
+    private static final int MIN_SAMPLES_FOR_HEDGE = 8;
+
+    //reads that are safe to send to two nodes at once
+    private static final List<String> HEDGEABLE_METHODS = Arrays.asList("eth_call", "eth_getBalance", "eth_blockNumber");
+
+    private static final ConcurrentHashMap<String, RpcEndpointManager> managers = new ConcurrentHashMap<>();
+
+    private final List<Endpoint> endpoints;
+    private final Semaphore callPermits = new Semaphore(NetworkStack.MAX_REQUESTS_PER_HOST);
+
+    public static RpcEndpointManager getManager(int chainId, String primaryUrl, String secondaryUrl)
+    {
+        String key = chainId + "-" + primaryUrl + "-" + secondaryUrl;
+        RpcEndpointManager manager = managers.get(key);
+        if (manager == null)
+        {
+            manager = new RpcEndpointManager(primaryUrl, secondaryUrl);
+            RpcEndpointManager existing = managers.putIfAbsent(key, manager);
+            if (existing != null) manager = existing;
+        }
+        return manager;
+    }
+
+    public static boolean isHedgeable(String method)
+    {
+        return HEDGEABLE_METHODS.contains(method);
+    }
+
+    RpcEndpointManager(String primaryUrl, String secondaryUrl)
+    {
+        List<Endpoint> list = new ArrayList<>();
+        list.add(new Endpoint(primaryUrl));
+        if (secondaryUrl != null && !secondaryUrl.equals(primaryUrl)) list.add(new Endpoint(secondaryUrl));
+        endpoints = Collections.unmodifiableList(list);
+    }
+
+    /**
+     * Endpoints healthiest first; ties keep the configured order so the primary is preferred
+     */
+    public void acquireCall() throws InterruptedIOException
+    {
+        try
+        {
+            callPermits.acquire();
+        }
+        catch (InterruptedException e)
+        {
+            throw new InterruptedIOException("RPC call interrupted");
+        }
+    }
+
+    /**
+     * For hedged calls, which are dropped rather than queued if the chain is at its limit
+     */
+    public boolean tryAcquireCall()
+    {
+        return callPermits.tryAcquire();
+    }
+
+    public void releaseCall()
+    {
+        callPermits.release();
+    }
+
+    public List<Endpoint> getRankedEndpoints()
+    {
+        List<Endpoint> ranked = new ArrayList<>(endpoints);
+        long now = System.currentTimeMillis();
+        Collections.sort(ranked, (e1, e2) -> Double.compare(e1.score(now), e2.score(now)));
+        return ranked;
+    }
+
+    public long getHedgeDelay(Endpoint endpoint)
+    {
+        long p90 = endpoint.percentile(0.9, MIN_SAMPLES_FOR_HEDGE);
+        if (p90 < 0) return DEFAULT_HEDGE_DELAY_MS;
+        return Math.max(MIN_HEDGE_DELAY_MS, Math.min(MAX_HEDGE_DELAY_MS, p90));
+    }
+
+    public static class Endpoint
+    {
+        private static final int WINDOW = 32;
+        private static final double ERROR_DECAY = 0.2;
+
+        public final String url;
+        private final long[] latencies = new long[WINDOW];
+        private int sampleCount;
+        private int nextSample;
+        private double errorRate;
+        private long lastUpdate;
+
+        Endpoint(String url)
+        {
+            this.url = url;
+        }
+
+        public synchronized void recordSuccess(long latencyMs)
+        {
+            latencies[nextSample] = latencyMs;
+            nextSample = (nextSample + 1) % WINDOW;
+            if (sampleCount < WINDOW) sampleCount++;
+            errorRate = errorRate * (1 - ERROR_DECAY);
+            lastUpdate = System.currentTimeMillis();
+        }
+
+        public synchronized void recordFailure()
+        {
+            errorRate = errorRate * (1 - ERROR_DECAY) + ERROR_DECAY;
+            lastUpdate = System.currentTimeMillis();
+        }
+
+        synchronized double score(long now)
+        {
+            if (lastUpdate == 0 || now - lastUpdate > STALE_STATS_MS) return DEFAULT_LATENCY_MS;
+            long latency = sampleCount > 0 ? percentile(0.5, 1) : DEFAULT_LATENCY_MS;
+            return latency / (1.0 - Math.min(errorRate, 0.95));
+        }
+
+        synchronized long percentile(double fraction, int minSamples)
+        {
+            if (sampleCount < minSamples || sampleCount == 0) return -1;
+            long[] sorted = Arrays.copyOf(latencies, sampleCount);
+            Arrays.sort(sorted);
+            int index = (int) Math.ceil(fraction * sampleCount) - 1;
+            return sorted[Math.max(0, index)];
+        }
+    }
+}
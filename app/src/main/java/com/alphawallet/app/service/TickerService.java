@@ -15,6 +15,8 @@ import com.alphawallet.app.entity.tokens.TokenFactory;
 import com.alphawallet.app.entity.tokens.TokenInfo;
 import com.alphawallet.app.entity.tokens.TokenTicker;
 import com.alphawallet.app.repository.TokenRepository;
+import com.alphawallet.app.util.Metrics;
+import com.alphawallet.app.util.StartupPipeline;
 import com.alphawallet.app.web3j.FunctionEncoder;
 import com.alphawallet.app.web3j.FunctionReturnDecoder;
 import com.alphawallet.app.web3j.TypeReference;
@@ -95,7 +97,8 @@ public class TickerService implements TickerServiceInterface
         this.gson = gson;
         this.context = ctx;
 
-        updateTickers(false);
+        //first fetch waits until the wallet has drawn
+        StartupPipeline.schedule(StartupPipeline.Phase.FIRST_FRAME, "ticker_start", () -> updateTickers(false));
     }
 
     public void updateTickers(boolean forceUpdate)
@@ -136,6 +139,7 @@ public class TickerService implements TickerServiceInterface
         ethTickers.put(ARTIS_TAU1_ID, artisTicker);
         final String keyAPI = getCMCKey();
         return Single.fromCallable(() -> {
+            Metrics.Timer timer = Metrics.start("ticker", "coinmarketcap");
             try
             {
                 Request request = new Request.Builder()
@@ -169,8 +173,18 @@ public class TickerService implements TickerServiceInterface
             }
             catch (IOException e)
             {
+                timer.fail();
                 e.printStackTrace();
             }
+            catch (Exception e)
+            {
+                timer.fail();
+                throw e;
+            }
+            finally
+            {
+                timer.stop();
+            }
 
             return ethTickers;
         }).flatMap(this::fetchAmberData)
@@ -8,6 +8,7 @@ import com.alphawallet.app.entity.ContractType;
 import com.alphawallet.app.entity.NetworkInfo;
 import com.alphawallet.app.entity.Wallet;
 import com.alphawallet.app.entity.tokens.Token;
+import com.alphawallet.app.entity.tokens.TokenChange;
 import com.alphawallet.app.entity.tokens.TokenTicker;
 import com.alphawallet.app.repository.EthereumNetworkRepositoryType;
 import com.alphawallet.app.repository.PreferenceRepositoryType;
@@ -17,8 +18,12 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.concurrent.ConcurrentHashMap;
 
+import io.reactivex.Observable;
+import io.reactivex.subjects.PublishSubject;
+import io.reactivex.subjects.Subject;
 import okhttp3.OkHttpClient;
 
 public class TokensService
@@ -33,6 +38,7 @@ public class TokensService
     private ContractLocator focusToken;
     private final OkHttpClient okHttpClient;
     private int currencyCheckCount;
+    private final Subject<TokenChange> tokenChanges = PublishSubject.<TokenChange>create().toSerialized();
 
     public TokensService(EthereumNetworkRepositoryType ethereumNetworkRepository,
                          TokenRepositoryType tokenRepository,
@@ -55,6 +61,11 @@ public class TokensService
      * @return
      */
     public Token addToken(Token t)
+    {
+        return addToken(t, true);
+    }
+
+    private Token addToken(Token t, boolean emitChange)
     {
         if (t.checkTokenWallet(currentAddress))
         {
@@ -64,7 +75,9 @@ public class TokensService
             }
 
             if (!t.isEthereum()) t.ticker = ethereumNetworkRepository.getTokenTicker(t);
+            Token previous = getCachedToken(t.tokenInfo.chainId, t.getAddress());
             addToken(t.tokenInfo.chainId, t);
+            if (emitChange) emitChange(previous, t);
             return t;
         }
         else
@@ -100,6 +113,79 @@ public class TokensService
         tokenAddr.put(chainId, t);
     }
 
+    /**
+     * Changes to the token set as they happen; the wallet list applies these instead of reloading every token
+     */
+    public Observable<TokenChange> getTokenChanges()
+    {
+        return tokenChanges;
+    }
+
+    private void emitChange(Token previous, Token t)
+    {
+        TokenChange.Type type;
+        if (t.isTerminated() || (!t.isEthereum() && !t.tokenInfo.isEnabled))
+        {
+            if (previous == null) return;
+            type = TokenChange.Type.REMOVED;
+        }
+        else if (previous == null)
+        {
+            type = TokenChange.Type.ADDED;
+        }
+        else if (previous == t //caller modified the stored token in place
+                || t.checkBalanceChange(previous)
+                || !Objects.equals(t.pendingBalance, previous.pendingBalance)
+                || t.getInterfaceSpec() != previous.getInterfaceSpec())
+        {
+            type = TokenChange.Type.BALANCE;
+        }
+        else if (t.checkTickerChange(previous))
+        {
+            type = TokenChange.Type.TICKER;
+        }
+        else
+        {
+            return;
+        }
+
+        tokenChanges.onNext(new TokenChange(type, t));
+    }
+
+    private Token getCachedToken(int chainId, String addr)
+    {
+        SparseArray<Token> locals = tokenMap.get(addr);
+        return locals != null ? locals.get(chainId) : null;
+    }
+
+    /**
+     * Attach the latest tickers to the live tokens
+     * @return tokens whose ticker changed
+     */
+    public Token[] refreshTickers()
+    {
+        List<Token> changed = new ArrayList<>();
+        for (Token t : getAllLiveTokens())
+        {
+            TokenTicker ticker = ethereumNetworkRepository.getTokenTicker(t);
+            if (ticker != null && tickerChanged(t.ticker, ticker))
+            {
+                t.ticker = ticker;
+                changed.add(t);
+                tokenChanges.onNext(new TokenChange(TokenChange.Type.TICKER, t));
+            }
+        }
+        return changed.toArray(new Token[0]);
+    }
+
+    //the repository hands out a new ticker object on each read, so compare what's displayed
+    private static boolean tickerChanged(TokenTicker current, TokenTicker latest)
+    {
+        return current == null
+                || !Objects.equals(current.price, latest.price)
+                || !Objects.equals(current.percentChange24h, latest.percentChange24h);
+    }
+
     public Token getToken(int chainId, String addr)
     {
         Token token = null;
@@ -240,6 +326,19 @@ public class TokensService
      * @return
      */
     public Token[] addTokens(Token[] tokens)
+    {
+        return addTokens(tokens, true);
+    }
+
+    /**
+     * As addTokens, but without posting a change per token; for when the caller displays the full list itself
+     */
+    public Token[] loadTokens(Token[] tokens)
+    {
+        return addTokens(tokens, false);
+    }
+
+    private Token[] addTokens(Token[] tokens, boolean emitChanges)
     {
         List<Token> changedTokens = new ArrayList<>();
         for (Token t : tokens)
@@ -250,7 +349,7 @@ public class TokensService
             {
                 changedTokens.add(t);
             }
-            addToken(t);
+            addToken(t, emitChanges);
         }
 
         loaded = true;
@@ -50,6 +50,7 @@ import dagger.android.AndroidInjection;
 import static com.alphawallet.app.C.ETH_SYMBOL;
 import static com.alphawallet.app.C.PRUNE_ACTIVITY;
 import static com.alphawallet.app.entity.ConfirmationType.ETH;
+import static com.alphawallet.app.entity.ConfirmationType.TOKENSCRIPT;
 import static com.alphawallet.app.entity.ConfirmationType.WEB3TRANSACTION;
 import static com.alphawallet.app.entity.Operation.SIGN_DATA;
 import static com.alphawallet.app.widget.AWalletAlertDialog.ERROR;
@@ -476,14 +477,20 @@ public class ConfirmationActivity extends BaseActivity implements SignAuthentica
 
     private void getGasSettings()
     {
+        //'to' may hold a display name; gas is looked up by the contract called
+        String txTo = confirmationType == WEB3TRANSACTION ? transaction.recipient.toString() : contractAddress;
+        BigInteger txValue = BigInteger.ZERO;
+        if (confirmationType == WEB3TRANSACTION && transaction.value != null) txValue = transaction.value;
+        else if (confirmationType == TOKENSCRIPT && amount != null) txValue = amount.toBigInteger();
+
         switch (confirmationType)
         {
             case ERC875:
             case ERC721:
-                viewModel.calculateGasSettings(transactionBytes, true, chainId);
+                viewModel.calculateGasSettings(transactionBytes, txTo, txValue, true, chainId);
                 break;
             default:
-                viewModel.calculateGasSettings(transactionBytes, false, chainId);
+                viewModel.calculateGasSettings(transactionBytes, txTo, txValue, false, chainId);
                 break;
         }
     }
@@ -36,6 +36,7 @@ public class GasSettingsActivity extends BaseActivity implements StandardFunctio
     GasSettingsViewModel viewModel;
 
     private GasSliderView gasSliderView;
+    private int chainId;
 
     @Override
     protected void onCreate(@Nullable Bundle savedInstanceState) {
@@ -59,11 +60,12 @@ public class GasSettingsActivity extends BaseActivity implements StandardFunctio
 
         BigDecimal gasPrice = new BigDecimal(getIntent().getStringExtra(C.EXTRA_GAS_PRICE));
         BigInteger gasLimit = new BigInteger(getIntent().getStringExtra(C.EXTRA_GAS_LIMIT));
-        int chainId = getIntent().getIntExtra(C.EXTRA_NETWORKID, EthereumNetworkRepository.MAINNET_ID);
+        chainId = getIntent().getIntExtra(C.EXTRA_NETWORKID, EthereumNetworkRepository.MAINNET_ID);
 
         gasSliderView.initGasLimit(gasLimit);
         gasSliderView.initGasPrice(Convert.fromWei(gasPrice, Convert.Unit.GWEI));
         gasSliderView.setChainId(chainId);
+        viewModel.gasPriceEstimate().observe(this, gasSliderView::setGasPriceEstimate);
     }
 
     @Override
@@ -71,7 +73,7 @@ public class GasSettingsActivity extends BaseActivity implements StandardFunctio
 
         super.onResume();
 
-        viewModel.prepare();
+        viewModel.prepare(chainId);
     }
 
     @Override
@@ -86,9 +86,9 @@ public class TransactionDetailActivity extends BaseActivity implements View.OnCl
         ((TextView) findViewById(R.id.block_number)).setText(blockNumber);
         findViewById(R.id.more_detail).setOnClickListener(this);
 
-        if (transaction.operations != null && transaction.operations.length > 0)
+        if (transaction.getOperations().length > 0)
         {
-            TransactionOperation op = transaction.operations[0];
+            TransactionOperation op = transaction.getOperations()[0];
             if (op != null && op.to != null) ((TextView) findViewById(R.id.to)).setText(op.to);
         }
 
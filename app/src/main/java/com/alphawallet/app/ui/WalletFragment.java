@@ -35,6 +35,7 @@ import com.alphawallet.app.entity.ErrorEnvelope;
 import com.alphawallet.app.entity.VisibilityFilter;
 import com.alphawallet.app.entity.Wallet;
 import com.alphawallet.app.entity.tokens.Token;
+import com.alphawallet.app.entity.tokens.TokenChange;
 import com.alphawallet.app.entity.tokens.TokenInterface;
 import com.alphawallet.app.entity.tokens.TokensReceiver;
 import com.alphawallet.app.interact.GenericWalletInteract;
@@ -45,6 +46,7 @@ import com.alphawallet.app.ui.widget.holder.ManageTokensHolder;
 import com.alphawallet.app.ui.widget.holder.TokenGridHolder;
 import com.alphawallet.app.ui.widget.holder.TokenHolder;
 import com.alphawallet.app.ui.widget.holder.WarningHolder;
+import com.alphawallet.app.util.StartupPipeline;
 import com.alphawallet.app.util.TabUtils;
 import com.alphawallet.app.viewmodel.WalletViewModel;
 import com.alphawallet.app.viewmodel.WalletViewModelFactory;
@@ -158,6 +160,7 @@ public class WalletFragment extends BaseFragment implements
         viewModel.currentWalletBalance().observe(this, this::onBalanceChanged);
         viewModel.refreshTokens().observe(this, this::refreshTokens);
         viewModel.tokenUpdate().observe(this, this::onToken);
+        viewModel.tokenChanges().observe(this, this::onTokenChanges);
         viewModel.tokensReady().observe(this, this::tokensReady);
         viewModel.backupEvent().observe(this, this::backupEvent);
         viewModel.defaultWallet().observe(this, this::onDefaultWallet);
@@ -207,6 +210,7 @@ public class WalletFragment extends BaseFragment implements
     {
         super.onPause();
         viewModel.setVisibility(false);
+        viewModel.storeSnapshot();
     }
 
     private void onToken(Token token)
@@ -214,6 +218,22 @@ public class WalletFragment extends BaseFragment implements
         adapter.updateToken(token, false);
     }
 
+    private void onTokenChanges(List<TokenChange> changes)
+    {
+        adapter.applyChanges(changes);
+        checkScrollPosition();
+        if (hasShownToken(changes)) StartupPipeline.onWalletRendered();
+    }
+
+    private static boolean hasShownToken(List<TokenChange> changes)
+    {
+        for (TokenChange change : changes)
+        {
+            if (change.type != TokenChange.Type.REMOVED) return true;
+        }
+        return false;
+    }
+
     private void initTabLayout(View view)
     {
         TabLayout tabLayout = view.findViewById(R.id.tab_layout);
@@ -337,6 +357,7 @@ public class WalletFragment extends BaseFragment implements
         {
             adapter.setTokens(tokens);
             checkScrollPosition();
+            if (tokens.length > 0) StartupPipeline.onWalletRendered();
         }
     }
 
@@ -456,8 +477,8 @@ public class WalletFragment extends BaseFragment implements
     @Override
     public void refreshTokens()
     {
-        //only update the tokens in place if something has changed, using TokenSortedItem rules.
-        viewModel.fetchTokens();
+        //new tickers; only the tokens whose ticker changed are updated
+        viewModel.refreshTickers();
         systemView.showProgress(false); //indicate update complete
     }
 
@@ -1,7 +1,6 @@
 package com.alphawallet.app.ui.widget.adapter;
 
 import android.content.Context;
-import android.support.v7.util.SortedList;
 import android.support.v7.widget.AppCompatRadioButton;
 import android.view.ViewGroup;
 
@@ -34,7 +33,7 @@ import io.reactivex.schedulers.Schedulers;
 import com.alphawallet.token.entity.TicketRange;
 import com.alphawallet.app.R;
 import com.alphawallet.app.entity.tokens.ERC721Token;
-import com.alphawallet.app.entity.TicketRangeElement;
+import com.alphawallet.app.entity.TicketRangeIndex;
 import com.alphawallet.app.entity.tokens.Token;
 import com.alphawallet.app.entity.opensea.Asset;
 import com.alphawallet.app.service.AssetDefinitionService;
@@ -135,8 +134,7 @@ public class NonFungibleTokenAdapter extends TokensAdapter {
         //TokenScript view for ERC721 overrides OpenSea display
         if (assetService.hasTokenView(t.tokenInfo.chainId, t.getAddress(), ASSET_SUMMARY_VIEW_NAME)) holderType = AssetInstanceScriptHolder.VIEW_TYPE;
 
-        List<TicketRangeElement> sortedList = generateSortedList(assetService, token, tokenIds); //generate sorted list
-        addSortedItems(sortedList, t, holderType); //insert sorted items into view
+        addRanges(t, tokenIds, holderType);
 
         items.endBatchedUpdates();
     }
@@ -152,28 +150,20 @@ public class NonFungibleTokenAdapter extends TokensAdapter {
         //TokenScript view for ERC721 overrides OpenSea display
         if (assetService.hasTokenView(t.tokenInfo.chainId, t.getAddress(), ASSET_SUMMARY_VIEW_NAME)) holderType = AssetInstanceScriptHolder.VIEW_TYPE;
 
-        addRanges(t, holderType);
+        addRanges(t, t.getArrayBalance(), holderType);
         items.endBatchedUpdates();
     }
 
-    private void addRanges(Token t, int holderType)
+    private void addRanges(Token t, List<BigInteger> idList, int holderType)
     {
         currentRange = null;
-        List<TicketRangeElement> sortedList = generateSortedList(assetService, t, t.getArrayBalance());
-        addSortedItems(sortedList, t, holderType);
-    }
-
-    protected List<TicketRangeElement> generateSortedList(AssetDefinitionService assetService, Token token, List<BigInteger> idList)
-    {
-        List<TicketRangeElement> sortedList = new ArrayList<>();
-        for (BigInteger v : idList)
+        //grouping is cached against the balance, so only the row items are built here
+        List<TicketRange> ranges = TicketRangeIndex.getIndex(assetService, t, idList).getRanges(t);
+        for (int i = 0; i < ranges.size(); i++)
         {
-            if (v.compareTo(BigInteger.ZERO) == 0) continue;
-            TicketRangeElement e = new TicketRangeElement(assetService, token, v);
-            sortedList.add(e);
+            currentRange = ranges.get(i);
+            items.add(generateType(currentRange, 10 + i, holderType));
         }
-        TicketRangeElement.sortElements(sortedList);
-        return sortedList;
     }
 
     @SuppressWarnings("unchecked")
@@ -200,28 +190,6 @@ public class NonFungibleTokenAdapter extends TokensAdapter {
         return item;
     }
 
-    protected <T> SortedList<T> addSortedItems(List<TicketRangeElement> sortedList, Token t, int id)
-    {
-        long currentTime = 0;
-        for (int i = 0; i < sortedList.size(); i++)
-        {
-            TicketRangeElement e = sortedList.get(i);
-            if (currentRange != null && t.groupWithToken(currentRange, e, currentTime))
-            {
-                currentRange.tokenIds.add(e.id);
-            }
-            else
-            {
-                currentRange = new TicketRange(e.id, t.getAddress());
-                final T item = generateType(currentRange, 10 + i, id);
-                items.add((SortedItem)item);
-                currentTime = e.time;
-            }
-        }
-
-        return null;
-    }
-
     private Single<Boolean> clearCache(Context ctx)
     {
         return Single.fromCallable(() -> {
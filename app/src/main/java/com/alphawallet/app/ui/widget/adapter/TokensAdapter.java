@@ -9,6 +9,7 @@ import com.alphawallet.app.R;
 import com.alphawallet.app.entity.ContractLocator;
 import com.alphawallet.app.entity.VisibilityFilter;
 import com.alphawallet.app.entity.tokens.Token;
+import com.alphawallet.app.entity.tokens.TokenChange;
 import com.alphawallet.app.service.AssetDefinitionService;
 import com.alphawallet.app.service.TokensService;
 import com.alphawallet.app.ui.widget.OnTokenClickListener;
@@ -208,6 +209,40 @@ public class TokensAdapter extends RecyclerView.Adapter<BinderViewHolder> {
         populateTokens(tokens, false);
     }
 
+    /**
+     * Apply a batch of token changes. Only the affected rows are inserted, moved, removed or rebound.
+     *
+     * @param changes coalesced changes from TokensService
+     */
+    public void applyChanges(List<TokenChange> changes)
+    {
+        List<Token> inPlace = new ArrayList<>();
+        items.beginBatchedUpdates();
+        for (TokenChange change : changes)
+        {
+            if (change.type == TokenChange.Type.REMOVED)
+            {
+                removeToken(change.token);
+                continue;
+            }
+
+            int index = items.indexOf(createSortedItem(change.token));
+            if (index != SortedList.INVALID_POSITION && change.isInPlace((Token) items.get(index).value))
+            {
+                //the displayed token was modified directly so the SortedList can't detect the change
+                inPlace.add(change.token);
+            }
+            updateToken(change.token, true);
+        }
+        items.endBatchedUpdates();
+
+        for (Token token : inPlace)
+        {
+            int index = items.indexOf(createSortedItem(token));
+            if (index != SortedList.INVALID_POSITION) notifyItemChanged(index);
+        }
+    }
+
     /**
      * Update a single item in the recycler view
      *
@@ -219,11 +254,7 @@ public class TokensAdapter extends RecyclerView.Adapter<BinderViewHolder> {
         if (tokensService != null) tokensService.markTokenUpdated(token);
         if (canDisplayToken(token))
         {
-            if (gridFlag) {
-                items.add(new TokenSortedItem(TokenGridHolder.VIEW_TYPE, token, token.getNameWeight()));
-            } else {
-                items.add(new TokenSortedItem(TokenHolder.VIEW_TYPE,token, token.getNameWeight()));
-            }
+            items.add(createSortedItem(token));
         }
         else
         {
@@ -231,6 +262,11 @@ public class TokensAdapter extends RecyclerView.Adapter<BinderViewHolder> {
         }
     }
 
+    private TokenSortedItem createSortedItem(Token token)
+    {
+        return new TokenSortedItem(gridFlag ? TokenGridHolder.VIEW_TYPE : TokenHolder.VIEW_TYPE, token, token.getNameWeight());
+    }
+
     public void removeToken(Token token) {
         for (int i = 0; i < items.size(); i++) {
             Object si = items.get(i);
@@ -308,8 +344,7 @@ public class TokensAdapter extends RecyclerView.Adapter<BinderViewHolder> {
         {
             updateToken(token, true);
         }
-        items.endBatchedUpdates();
-        notifyDataSetChanged();
+        items.endBatchedUpdates(); //SortedList notifies only the rows that changed
     }
 
     public void setTotal(BigDecimal totalInCurrency) {
@@ -330,36 +365,37 @@ public class TokensAdapter extends RecyclerView.Adapter<BinderViewHolder> {
         items.endBatchedUpdates();
     }
 
-    private void filterAdapterItems()
+    private void filterAdapterItems(boolean viewTypeChanged)
     {
-        //now filter all the tokens accordingly and refresh display
-        List<Token> filterTokens = new ArrayList<>();
+        //filter from the full token set so tokens hidden by the previous filter can come back
+        List<Token> filterTokens = tokensService != null ? tokensService.getAllLiveTokens() : new ArrayList<>();
 
-        for (int i = 0; i < items.size(); i++)
+        if (filterTokens.isEmpty())
         {
-            Object si = items.get(i);
-            if (si instanceof TokenSortedItem)
+            for (int i = 0; i < items.size(); i++)
             {
-                TokenSortedItem tsi = (TokenSortedItem) si;
-                if (tsi.value != null && canDisplayToken(tsi.value))
+                Object si = items.get(i);
+                if (si instanceof TokenSortedItem && ((TokenSortedItem) si).value != null)
                 {
-                    filterTokens.add(tsi.value);
+                    filterTokens.add(((TokenSortedItem) si).value);
                 }
             }
         }
 
-        populateTokens(filterTokens.toArray(new Token[0]), true);
+        //updateToken adds tokens that pass the new filter and removes those that don't; only a view type change needs a rebuild
+        populateTokens(filterTokens.toArray(new Token[0]), viewTypeChanged);
     }
 
     public void setFilterType(int filterType)
     {
         this.filterType = filterType;
+        boolean wasGrid = gridFlag;
         if (filterType == FILTER_COLLECTIBLES) {
             gridFlag = true;
         } else {
             gridFlag = false;
         }
-        filterAdapterItems();
+        filterAdapterItems(wasGrid != gridFlag);
     }
 
     public void clear()
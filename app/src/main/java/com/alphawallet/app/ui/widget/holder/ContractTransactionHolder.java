@@ -66,8 +66,7 @@ public class ContractTransactionHolder extends BinderViewHolder<Transaction> imp
 
         String networkSymbol = addition.getString(DEFAULT_SYMBOL_ADDITIONAL);
         // If operations include token transfer, display token transfer instead
-        TransactionOperation operation = transaction.operations == null
-                || transaction.operations.length == 0 ? null : transaction.operations[0];
+        TransactionOperation operation = transaction.getOperations().length == 0 ? null : transaction.getOperations()[0];
 
         if (operation == null || operation.contract == null) {
             // default to ether transaction
@@ -4,8 +4,15 @@ import android.text.TextUtils;
 
 import com.alphawallet.app.entity.Wallet;
 
+import org.web3j.ens.EnsResolutionException;
 import org.web3j.protocol.Web3j;
 
+import java.util.AbstractMap;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Map;
+
+import io.reactivex.Observable;
 import io.reactivex.Single;
 import io.reactivex.schedulers.Schedulers;
 
@@ -16,6 +23,7 @@ import io.reactivex.schedulers.Schedulers;
 public class AWEnsResolver extends EnsResolver
 {
     static final long DEFAULT_SYNC_THRESHOLD = 1000 * 60 * 3;
+    private static final int MAX_CONCURRENT_LOOKUPS = 8;
 
     public AWEnsResolver(Web3j web3j, long syncThreshold) {
         super(web3j, syncThreshold);
@@ -32,31 +40,59 @@ public class AWEnsResolver extends EnsResolver
      */
     public Single<String> resolveEnsName(String address)
     {
-        return Single.fromCallable(() -> {
-            String ensName = "";
-            try
+        return Single.fromCallable(() -> getEnsName(address));
+    }
+
+    /**
+     * Find ENS names for many addresses at once, eg to label a list of counterparties. Cached names are returned
+     * without any node calls; the rest are looked up a few at a time.
+     * @param addresses Ethereum addresses
+     * @return map of address to ENS name; addresses without a verified name map to empty string
+     */
+    public Single<Map<String, String>> resolveEnsNames(Collection<String> addresses)
+    {
+        return Observable.fromIterable(new LinkedHashSet<>(addresses))
+                .flatMap(address -> Observable.fromCallable(() -> new AbstractMap.SimpleImmutableEntry<>(address, getEnsName(address)))
+                        .subscribeOn(Schedulers.io()), MAX_CONCURRENT_LOOKUPS)
+                .toMap(Map.Entry::getKey, Map.Entry::getValue);
+    }
+
+    private String getEnsName(String address)
+    {
+        String cached = EnsCache.getName(address);
+        if (cached != null) return cached;
+
+        String ensName = "";
+        try
+        {
+            ensName = reverseResolve(address);
+            if (!TextUtils.isEmpty(ensName))
             {
-                ensName = reverseResolve(address);
-                if (!TextUtils.isEmpty(ensName))
-                {
-                    //check ENS name integrity - it must point to the wallet address
-                    String resolveAddress = resolve(ensName);
-                    if (!resolveAddress.equalsIgnoreCase(address))
-                    {
-                        ensName = "";
-                    }
-                }
-                else
+                //check ENS name integrity - it must point to the wallet address
+                String resolveAddress = resolve(ensName);
+                if (!resolveAddress.equalsIgnoreCase(address))
                 {
                     ensName = "";
                 }
             }
-            catch (Exception e)
+            else
             {
-                // no action
+                ensName = "";
             }
-            return ensName;
-        });
+            EnsCache.putName(address, ensName);
+        }
+        catch (EnsResolutionException e)
+        {
+            //no name, or the name doesn't resolve back to this address
+            ensName = "";
+            EnsCache.putName(address, ensName);
+        }
+        catch (Exception e)
+        {
+            // node unavailable; don't cache
+            ensName = "";
+        }
+        return ensName;
     }
 
     /**
@@ -0,0 +1,227 @@
+package com.alphawallet.app.util;
+
+import android.content.Context;
+
+import com.google.gson.Gson;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import io.reactivex.schedulers.Schedulers;
+
+/**
+ * Process-wide cache of ENS lookups, persisted to the app's files directory.
+ *
+ * Forward (name -> address) and reverse (address -> name) results are stored with the time and mainnet block they
+ * were resolved at. An entry expires after its TTL or once the chain has moved MAX_BLOCK_AGE blocks past it.
+ * Names that don't resolve are cached too, with a shorter TTL, so unnamed counterparties don't cost an RPC each
+ * time they're displayed. A reverse entry is only returned if the forward entry for that name points back to the
+ * same address.
+ *
+ * Resolver contract addresses are cached per name hash with a longer TTL; they rarely change.
+ */
+public final class EnsCache
+{
+    private static final String CACHE_FILE = "ens_cache.json";
+    private static final long NAME_TTL = TimeUnit.HOURS.toMillis(6);
+    private static final long NEGATIVE_TTL = TimeUnit.MINUTES.toMillis(30);
+    private static final long RESOLVER_TTL = TimeUnit.DAYS.toMillis(1);
+    private static final long MAX_BLOCK_AGE = 2000; //about 8 hours of mainnet blocks
+    private static final long SAVE_DELAY_SECONDS = 2;
+
+    private static volatile File cacheFile;
+    private static volatile boolean loaded;
+    private static final AtomicBoolean saveScheduled = new AtomicBoolean(false);
+    private static volatile long currentBlock;
+
+    private static final Map<String, Entry> forward = new ConcurrentHashMap<>();
+    private static final Map<String, Entry> reverse = new ConcurrentHashMap<>();
+    private static final Map<String, Entry> resolvers = new ConcurrentHashMap<>();
+
+    private EnsCache() { }
+
+    /**
+     * Enable persistence; until this is called the cache is memory only
+     */
+    public static void init(Context context)
+    {
+        cacheFile = new File(context.getFilesDir(), CACHE_FILE);
+    }
+
+    /**
+     * Latest mainnet block seen by the resolver, used to age entries
+     */
+    public static void setCurrentBlock(long block)
+    {
+        if (block > currentBlock) currentBlock = block;
+    }
+
+    /**
+     * @return cached address for the name, "" if the name is known not to resolve, or null if not cached
+     */
+    public static String getAddress(String ensName)
+    {
+        load();
+        return getValid(forward, ensName.toLowerCase(), NAME_TTL, true);
+    }
+
+    /**
+     * @return cached name for the address, "" if the address is known to have no name, or null if not cached
+     */
+    public static String getName(String address)
+    {
+        load();
+        String key = address.toLowerCase();
+        String name = getValid(reverse, key, NAME_TTL, true);
+        if (name == null || name.isEmpty()) return name;
+
+        //reverse records can be set to any name; only trust it if the name resolves back to this address
+        String forwardAddress = getAddress(name);
+        if (forwardAddress == null) return null;
+        if (!forwardAddress.equalsIgnoreCase(address))
+        {
+            reverse.remove(key);
+            return null;
+        }
+        return name;
+    }
+
+    public static void putAddress(String ensName, String address)
+    {
+        String key = ensName.toLowerCase();
+        Entry previous = forward.put(key, new Entry(address != null ? address.toLowerCase() : "", currentBlock));
+        //name now points elsewhere; any reverse entry naming the old address is stale
+        if (previous != null && !previous.value.isEmpty() && !previous.value.equalsIgnoreCase(address))
+        {
+            reverse.remove(previous.value);
+        }
+        scheduleSave();
+    }
+
+    public static void putName(String address, String ensName)
+    {
+        reverse.put(address.toLowerCase(), new Entry(ensName != null ? ensName : "", currentBlock));
+        scheduleSave();
+    }
+
+    public static String getResolver(String nameHash)
+    {
+        load();
+        String resolver = getValid(resolvers, nameHash, RESOLVER_TTL, false);
+        return resolver == null || resolver.isEmpty() ? null : resolver;
+    }
+
+    public static void putResolver(String nameHash, String resolverAddress)
+    {
+        if (resolverAddress == null || resolverAddress.isEmpty()) return;
+        resolvers.put(nameHash, new Entry(resolverAddress, currentBlock));
+        scheduleSave();
+    }
+
+    public static void clear()
+    {
+        forward.clear();
+        reverse.clear();
+        resolvers.clear();
+        scheduleSave();
+    }
+
+    private static String getValid(Map<String, Entry> map, String key, long ttl, boolean checkBlockAge)
+    {
+        Entry entry = map.get(key);
+        if (entry == null) return null;
+        long age = System.currentTimeMillis() - entry.time;
+        boolean expired = age > (entry.value.isEmpty() ? Math.min(ttl, NEGATIVE_TTL) : ttl)
+                || (checkBlockAge && currentBlock > 0 && entry.block > 0 && currentBlock - entry.block > MAX_BLOCK_AGE);
+        if (expired)
+        {
+            map.remove(key);
+            return null;
+        }
+        return entry.value;
+    }
+
+    private static synchronized void load()
+    {
+        if (loaded || cacheFile == null) return;
+        loaded = true;
+        if (!cacheFile.exists()) return;
+
+        try (Reader reader = new InputStreamReader(new FileInputStream(cacheFile), StandardCharsets.UTF_8))
+        {
+            Stored stored = new Gson().fromJson(reader, Stored.class);
+            if (stored != null)
+            {
+                if (stored.forward != null) forward.putAll(stored.forward);
+                if (stored.reverse != null) reverse.putAll(stored.reverse);
+                if (stored.resolvers != null) resolvers.putAll(stored.resolvers);
+            }
+        }
+        catch (Exception e)
+        {
+            e.printStackTrace();
+            cacheFile.delete();
+        }
+    }
+
+    private static void scheduleSave()
+    {
+        if (cacheFile == null || !saveScheduled.compareAndSet(false, true)) return;
+        Schedulers.io().scheduleDirect(() -> {
+            saveScheduled.set(false);
+            save();
+        }, SAVE_DELAY_SECONDS, TimeUnit.SECONDS);
+    }
+
+    private static synchronized void save()
+    {
+        load(); //don't overwrite entries that haven't been read yet
+        Stored stored = new Stored();
+        stored.forward = forward;
+        stored.reverse = reverse;
+        stored.resolvers = resolvers;
+
+        File temp = new File(cacheFile.getParentFile(), CACHE_FILE + ".tmp");
+        try (Writer writer = new OutputStreamWriter(new FileOutputStream(temp), StandardCharsets.UTF_8))
+        {
+            new Gson().toJson(stored, writer);
+        }
+        catch (Exception e)
+        {
+            e.printStackTrace();
+            return;
+        }
+        if (!temp.renameTo(cacheFile)) temp.delete();
+    }
+
+    private static class Entry
+    {
+        final String value;
+        final long time;
+        final long block;
+
+        Entry(String value, long block)
+        {
+            this.value = value;
+            this.time = System.currentTimeMillis();
+            this.block = block;
+        }
+    }
+
+    private static class Stored
+    {
+        Map<String, Entry> forward;
+        Map<String, Entry> reverse;
+        Map<String, Entry> resolvers;
+    }
+}
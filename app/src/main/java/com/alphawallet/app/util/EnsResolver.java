@@ -5,8 +5,6 @@ import android.text.TextUtils;
 import com.alphawallet.app.entity.NetworkInfo;
 import com.alphawallet.app.entity.Wallet;
 import com.alphawallet.app.entity.tokenscript.TokenscriptFunction;
-import com.alphawallet.app.repository.EthereumNetworkBase;
-import com.alphawallet.app.repository.TokenRepository;
 import com.alphawallet.app.web3j.FunctionEncoder;
 import com.alphawallet.app.web3j.FunctionReturnDecoder;
 import com.alphawallet.app.web3j.TypeReference;
@@ -33,8 +31,7 @@ import org.web3j.tx.TransactionManager;
 import org.web3j.tx.gas.DefaultGasProvider;
 import org.web3j.utils.Numeric;
 
-import java.io.InterruptedIOException;
-import java.net.UnknownHostException;
+import java.math.BigInteger;
 import java.util.Arrays;
 import java.util.List;
 
@@ -47,6 +44,12 @@ public class EnsResolver {
 
     public static final long DEFAULT_SYNC_THRESHOLD = 1000 * 60 * 3;
     public static final String REVERSE_NAME_SUFFIX = ".addr.reverse";
+    private static final long SYNC_CHECK_INTERVAL = 60 * 1000;
+
+    //shared by all resolvers; ENS lookups always go to mainnet, through the web3j this resolver is built with
+    private static volatile String registryContract;
+    private static long lastSyncCheck;
+    private static boolean lastSyncResult;
 
     private final Web3j web3j;
     private final int addressLength;
@@ -85,6 +88,13 @@ public class EnsResolver {
         String contractAddress = contractId;
         if (isValidEnsName(contractId, addressLength))
         {
+            String cached = EnsCache.getAddress(contractId);
+            if (cached != null)
+            {
+                if (cached.isEmpty()) throw new EnsResolutionException("Unable to resolve address for name: " + contractId);
+                return cached;
+            }
+
             try
             {
                 if (!isSynced()) //ensure node is synced
@@ -98,7 +108,7 @@ public class EnsResolver {
                     {
                         byte[] nameHash = NameHash.nameHashAsBytes(contractId);
                         //now attempt to get the address of this ENS
-                        contractAddress = getContractData(EthereumNetworkBase.MAINNET_ID, resolverAddress, getAddr(nameHash));
+                        contractAddress = getContractData(resolverAddress, getAddr(nameHash));
                     }
                 }
             }
@@ -109,10 +119,12 @@ public class EnsResolver {
 
             if (!WalletUtils.isValidAddress(contractAddress))
             {
-                throw new RuntimeException("Unable to resolve address for name: " + contractId);
+                EnsCache.putAddress(contractId, ""); //name doesn't resolve
+                throw new EnsResolutionException("Unable to resolve address for name: " + contractId);
             }
             else
             {
+                EnsCache.putAddress(contractId, contractAddress);
                 return contractAddress;
             }
         }
@@ -139,7 +151,7 @@ public class EnsResolver {
             {
                 String resolverAddress = lookupResolver(reverseName);
                 byte[] nameHash = NameHash.nameHashAsBytes(reverseName);
-                name = getContractData(EthereumNetworkBase.MAINNET_ID, resolverAddress, getName(nameHash));
+                name = getContractData(resolverAddress, getName(nameHash));
             }
             catch (Exception e)
             {
@@ -148,7 +160,7 @@ public class EnsResolver {
 
             if (!isValidEnsName(name, addressLength))
             {
-                throw new RuntimeException("Unable to resolve name for address: " + address);
+                throw new EnsResolutionException("Unable to resolve name for address: " + address);
             }
             else
             {
@@ -162,11 +174,24 @@ public class EnsResolver {
     }
 
     private String lookupResolver(String ensName) throws Exception {
-        NetVersion netVersion = web3j.netVersion().send();
-        String registryContract = Contracts.resolveRegistryContract(netVersion.getNetVersion());
+        if (registryContract == null)
+        {
+            NetVersion netVersion = web3j.netVersion().send();
+            registryContract = Contracts.resolveRegistryContract(netVersion.getNetVersion());
+        }
         byte[] nameHash = NameHash.nameHashAsBytes(ensName);
-        Function resolver = getResolver(nameHash);
-        return getContractData(EthereumNetworkBase.MAINNET_ID, registryContract, resolver);
+        String nameHashHex = Numeric.toHexString(nameHash);
+        String resolverAddress = EnsCache.getResolver(nameHashHex);
+        if (resolverAddress == null)
+        {
+            Function resolver = getResolver(nameHash);
+            resolverAddress = getContractData(registryContract, resolver);
+            if (resolverAddress != null && !Numeric.toBigInt(resolverAddress).equals(BigInteger.ZERO))
+            {
+                EnsCache.putResolver(nameHashHex, resolverAddress);
+            }
+        }
+        return resolverAddress;
     }
 
     private Function getResolver(byte[] nameHash)
@@ -197,41 +222,47 @@ public class EnsResolver {
     }
 
     boolean isSynced() throws Exception {
+        synchronized (EnsResolver.class) {
+            //a batch of lookups shares one sync check
+            if (System.currentTimeMillis() - lastSyncCheck < SYNC_CHECK_INTERVAL) return lastSyncResult;
+        }
+
+        boolean synced;
         EthSyncing ethSyncing = web3j.ethSyncing().send();
         if (ethSyncing.isSyncing()) {
-            return false;
+            synced = false;
         } else {
             EthBlock ethBlock =
                     web3j.ethGetBlockByNumber(DefaultBlockParameterName.LATEST, false).send();
             long timestamp = ethBlock.getBlock().getTimestamp().longValue() * 1000;
+            EnsCache.setCurrentBlock(ethBlock.getBlock().getNumber().longValue());
+
+            synced = System.currentTimeMillis() - syncThreshold < timestamp;
+        }
 
-            return System.currentTimeMillis() - syncThreshold < timestamp;
+        synchronized (EnsResolver.class) {
+            lastSyncCheck = System.currentTimeMillis();
+            lastSyncResult = synced;
         }
+        return synced;
     }
 
+    //a timeout or lost connection is thrown rather than read as an empty result, so it isn't cached as "no name"
     private String callSmartContractFunction(
-            Function function, String contractAddress, int chainId) throws Exception
+            Function function, String contractAddress) throws Exception
     {
-        try
-        {
-            String encodedFunction = FunctionEncoder.encode(function);
+        String encodedFunction = FunctionEncoder.encode(function);
 
-            org.web3j.protocol.core.methods.request.Transaction transaction
-                    = createEthCallTransaction(TokenscriptFunction.ZERO_ADDRESS, contractAddress, encodedFunction);
-            EthCall response = TokenRepository.getWeb3jService(chainId).ethCall(transaction, DefaultBlockParameterName.LATEST).send();
+        org.web3j.protocol.core.methods.request.Transaction transaction
+                = createEthCallTransaction(TokenscriptFunction.ZERO_ADDRESS, contractAddress, encodedFunction);
+        EthCall response = web3j.ethCall(transaction, DefaultBlockParameterName.LATEST).send();
 
-            return response.getValue();
-        }
-        catch (InterruptedIOException | UnknownHostException e)
-        {
-            //expected to happen when user switches wallets
-            return "0x";
-        }
+        return response.getValue();
     }
 
-    private <T> T getContractData(int chainId, String address, Function function) throws Exception
+    private <T> T getContractData(String address, Function function) throws Exception
     {
-        String responseValue = callSmartContractFunction(function, address, chainId);
+        String responseValue = callSmartContractFunction(function, address);
 
         if (TextUtils.isEmpty(responseValue))
         {
@@ -0,0 +1,258 @@
+package com.alphawallet.app.util;
+
+import android.content.BroadcastReceiver;
+import android.content.Context;
+import android.content.Intent;
+import android.util.Log;
+
+import com.alphawallet.app.BuildConfig;
+import com.alphawallet.app.repository.Web3jRegistry;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lightweight timing and counting for the hot paths: RPC calls, balance updates, Realm reads/writes and
+ * TokenScript attribute resolution. Each operation is tagged (eg chainId and RPC method) and keeps a call count,
+ * error count, in-flight gauge and a latency histogram.
+ *
+ * Usage:
+ *   Metrics.Timer timer = Metrics.start("rpc", chainId, method);
+ *   try { ... } catch (Exception e) { timer.fail(); throw e; } finally { timer.stop(); }
+ * stop() after fail() is ignored, so the finally block always closes the in-flight gauge.
+ *
+ * Debug builds can dump a JSON snapshot by broadcasting {@link #ACTION_DUMP}:
+ *   adb shell am broadcast -a &lt;applicationId&gt;.DUMP_METRICS
+ * which writes metrics.json to the app's external files directory and logs it under the "METRICS" tag.
+ */
+public final class Metrics
+{
+    public static final String ACTION_DUMP = BuildConfig.APPLICATION_ID + ".DUMP_METRICS";
+    private static final String TAG = "METRICS";
+    private static final String DUMP_FILE = "metrics.json";
+
+    //histogram bucket upper bounds in milliseconds; the last bucket counts everything slower
+    private static final long[] BUCKET_BOUNDS_MS = { 1, 2, 5, 10, 20, 50, 100, 200, 500, 1000, 2000, 5000, 10000 };
+
+    private static final ConcurrentHashMap<String, Stat> stats = new ConcurrentHashMap<>();
+
+    private Metrics() { }
+
+    public static Timer start(String operation, Object... tags)
+    {
+        Stat stat = getStat(operation, tags);
+        stat.inFlight.incrementAndGet();
+        return new Timer(stat);
+    }
+
+    public static void count(String operation, Object... tags)
+    {
+        getStat(operation, tags).count.incrementAndGet();
+    }
+
+    /**
+     * Record a duration measured elsewhere, eg from process start
+     */
+    public static void record(String operation, long elapsedMs, Object... tags)
+    {
+        Stat stat = getStat(operation, tags);
+        stat.inFlight.incrementAndGet();
+        stat.record(elapsedMs * 1000000, false);
+    }
+
+    public static void reset()
+    {
+        stats.clear();
+    }
+
+    public static String snapshotJson()
+    {
+        Map<String, Snapshot> snapshot = new TreeMap<>();
+        for (Map.Entry<String, Stat> entry : stats.entrySet())
+        {
+            snapshot.put(entry.getKey(), entry.getValue().snapshot());
+        }
+
+        Gson gson = new GsonBuilder().setPrettyPrinting().create();
+        return gson.toJson(snapshot);
+    }
+
+    public static File dumpToFile(Context context) throws IOException
+    {
+        File dir = context.getExternalFilesDir(null);
+        File file = new File(dir != null ? dir : context.getFilesDir(), DUMP_FILE);
+        try (FileOutputStream fos = new FileOutputStream(file))
+        {
+            fos.write(snapshotJson().getBytes(StandardCharsets.UTF_8));
+        }
+        return file;
+    }
+
+    private static Stat getStat(String operation, Object... tags)
+    {
+        String key = tags.length == 0 ? operation : operation + Arrays.toString(tags);
+        Stat stat = stats.get(key);
+        if (stat == null)
+        {
+            stat = new Stat();
+            Stat existing = stats.putIfAbsent(key, stat);
+            if (existing != null) stat = existing;
+        }
+        return stat;
+    }
+
+    public static final class Timer
+    {
+        private final Stat stat;
+        private final long startTime;
+        private boolean stopped;
+
+        private Timer(Stat stat)
+        {
+            this.stat = stat;
+            this.startTime = System.nanoTime();
+        }
+
+        public long stop()
+        {
+            return finish(false);
+        }
+
+        public long fail()
+        {
+            return finish(true);
+        }
+
+        private long finish(boolean error)
+        {
+            long elapsed = System.nanoTime() - startTime;
+            if (stopped) return elapsed;
+            stopped = true;
+            stat.record(elapsed, error);
+            return elapsed;
+        }
+    }
+
+    /**
+     * Debug builds register this from App to dump the snapshot on request
+     */
+    public static class DumpReceiver extends BroadcastReceiver
+    {
+        @Override
+        public void onReceive(Context context, Intent intent)
+        {
+            try
+            {
+                File file = dumpToFile(context);
+                Log.d(TAG, "Metrics written to " + file.getAbsolutePath());
+                Log.d(TAG, snapshotJson());
+                Log.d(TAG, "Web3j clients: " + Web3jRegistry.getClientStats());
+            }
+            catch (IOException e)
+            {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    private static final class Stat
+    {
+        final AtomicLong count = new AtomicLong();
+        final AtomicLong errors = new AtomicLong();
+        final AtomicLong totalNanos = new AtomicLong();
+        final AtomicLong maxNanos = new AtomicLong();
+        final AtomicInteger inFlight = new AtomicInteger();
+        final AtomicLongArray buckets = new AtomicLongArray(BUCKET_BOUNDS_MS.length + 1);
+
+        void record(long elapsedNanos, boolean error)
+        {
+            inFlight.decrementAndGet();
+            count.incrementAndGet();
+            if (error) errors.incrementAndGet();
+            totalNanos.addAndGet(elapsedNanos);
+
+            long max = maxNanos.get();
+            while (elapsedNanos > max && !maxNanos.compareAndSet(max, elapsedNanos)) max = maxNanos.get();
+
+            long elapsedMs = elapsedNanos / 1000000;
+            int bucket = 0;
+            while (bucket < BUCKET_BOUNDS_MS.length && elapsedMs >= BUCKET_BOUNDS_MS[bucket]) bucket++;
+            buckets.incrementAndGet(bucket);
+        }
+
+        Snapshot snapshot()
+        {
+            Snapshot s = new Snapshot();
+            s.count = count.get();
+            s.errors = errors.get();
+            s.inFlight = inFlight.get();
+            long timed = 0;
+            long[] counts = new long[buckets.length()];
+            for (int i = 0; i < counts.length; i++)
+            {
+                counts[i] = buckets.get(i);
+                timed += counts[i];
+            }
+
+            if (timed > 0)
+            {
+                s.meanMs = (totalNanos.get() / timed) / 1000000.0;
+                s.maxMs = maxNanos.get() / 1000000.0;
+                s.p50Ms = percentile(counts, timed, 0.50);
+                s.p90Ms = percentile(counts, timed, 0.90);
+                s.p99Ms = percentile(counts, timed, 0.99);
+                s.histogram = new ArrayList<>();
+                for (int i = 0; i < counts.length; i++)
+                {
+                    if (counts[i] > 0) s.histogram.add(bucketLabel(i) + ": " + counts[i]);
+                }
+            }
+            return s;
+        }
+
+        //upper bound of the bucket holding this rank; -1 if in the overflow bucket
+        private static long percentile(long[] counts, long total, double fraction)
+        {
+            long rank = (long) Math.ceil(total * fraction);
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++)
+            {
+                seen += counts[i];
+                if (seen >= rank) return i < BUCKET_BOUNDS_MS.length ? BUCKET_BOUNDS_MS[i] : -1;
+            }
+            return -1;
+        }
+
+        private static String bucketLabel(int index)
+        {
+            return index < BUCKET_BOUNDS_MS.length ? "<" + BUCKET_BOUNDS_MS[index] + "ms" : ">=" + BUCKET_BOUNDS_MS[BUCKET_BOUNDS_MS.length - 1] + "ms";
+        }
+    }
+
+    @SuppressWarnings("unused") //serialised by Gson
+    private static final class Snapshot
+    {
+        long count;
+        long errors;
+        int inFlight;
+        double meanMs;
+        double maxMs;
+        long p50Ms;
+        long p90Ms;
+        long p99Ms;
+        List<String> histogram;
+    }
+}
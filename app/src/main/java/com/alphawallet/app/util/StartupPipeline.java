@@ -0,0 +1,215 @@
+package com.alphawallet.app.util;
+
+import android.app.Activity;
+import android.app.Application;
+import android.os.Bundle;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.util.Log;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Orders the work done at app start so the first wallet frame isn't waiting on services it doesn't need.
+ *
+ * CRITICAL: runs immediately, inline - only what's needed to draw the first screen (Realm, Dagger graph).
+ * FIRST_FRAME: runs once the first activity has drawn - TokenScript loading, ticker fetch.
+ * IDLE: runs when the main thread's queue is empty after that - debug tools and other housekeeping.
+ *
+ * Tasks scheduled after their phase has started run straight away. Each task and phase is timed through
+ * Metrics ("startup_task" and "startup_phase"). Time from process start to the first frame and to the first
+ * wallet render are recorded as "startup_first_frame" and "startup_wallet_render".
+ */
+public final class StartupPipeline
+{
+    private static final String TAG = "STARTUP";
+
+    public enum Phase { CRITICAL, FIRST_FRAME, IDLE }
+
+    private static final List<Task> pending = new ArrayList<>();
+    private static Phase currentPhase = Phase.CRITICAL;
+    private static long startTime;
+    private static long firstFrameTime;
+    private static long walletRenderTime;
+
+    private StartupPipeline() { }
+
+    /**
+     * Called first thing in Application.onCreate
+     */
+    public static synchronized void begin()
+    {
+        startTime = SystemClock.elapsedRealtime();
+        currentPhase = Phase.CRITICAL;
+        firstFrameTime = 0;
+        walletRenderTime = 0;
+        pending.clear();
+    }
+
+    public static void schedule(Phase phase, String name, Runnable work)
+    {
+        Task task = new Task(phase, name, work);
+        synchronized (StartupPipeline.class)
+        {
+            if (phase.ordinal() > currentPhase.ordinal())
+            {
+                pending.add(task);
+                return;
+            }
+        }
+        task.run();
+    }
+
+    /**
+     * Called from Application.onCreate. Whichever activity the process starts into - the launcher, or any
+     * activity restored after the process was killed - moves the pipeline to FIRST_FRAME once its window has drawn
+     */
+    public static void register(Application application)
+    {
+        application.registerActivityLifecycleCallbacks(new FirstActivityCallbacks(application));
+    }
+
+    private static void onFirstActivity(Activity activity)
+    {
+        synchronized (StartupPipeline.class)
+        {
+            if (currentPhase != Phase.CRITICAL) return;
+        }
+
+        //a post to the decor view runs after its first layout and draw pass
+        activity.getWindow().getDecorView().post(() -> {
+            synchronized (StartupPipeline.class)
+            {
+                if (firstFrameTime != 0) return;
+                firstFrameTime = SystemClock.elapsedRealtime() - startTime;
+            }
+            Metrics.record("startup_first_frame", firstFrameTime);
+            Log.d(TAG, "First frame: " + firstFrameTime + "ms");
+            runPhase(Phase.FIRST_FRAME);
+            Looper.myQueue().addIdleHandler(() -> {
+                runPhase(Phase.IDLE);
+                return false;
+            });
+        });
+    }
+
+    /**
+     * Called when the wallet token list first has tokens on screen
+     */
+    public static void onWalletRendered()
+    {
+        synchronized (StartupPipeline.class)
+        {
+            if (walletRenderTime != 0 || startTime == 0) return;
+            walletRenderTime = SystemClock.elapsedRealtime() - startTime;
+        }
+        Metrics.record("startup_wallet_render", walletRenderTime);
+        Log.d(TAG, "Wallet rendered: " + walletRenderTime + "ms");
+    }
+
+    public static synchronized long getFirstFrameTime() { return firstFrameTime; }
+    public static synchronized long getWalletRenderTime() { return walletRenderTime; }
+    public static synchronized Phase getCurrentPhase() { return currentPhase; }
+
+    private static void runPhase(Phase phase)
+    {
+        List<Task> tasks = new ArrayList<>();
+        synchronized (StartupPipeline.class)
+        {
+            currentPhase = phase;
+            for (Task task : pending)
+            {
+                if (task.phase == phase) tasks.add(task);
+            }
+            pending.removeAll(tasks);
+        }
+
+        Metrics.Timer timer = Metrics.start("startup_phase", phase);
+        try
+        {
+            for (Task task : tasks)
+            {
+                task.run();
+            }
+        }
+        catch (RuntimeException e)
+        {
+            timer.fail();
+            throw e;
+        }
+        finally
+        {
+            long elapsed = timer.stop() / 1000000;
+            Log.d(TAG, phase + ": " + tasks.size() + " tasks in " + elapsed + "ms");
+        }
+    }
+
+    private static class FirstActivityCallbacks implements Application.ActivityLifecycleCallbacks
+    {
+        private final Application application;
+
+        FirstActivityCallbacks(Application application)
+        {
+            this.application = application;
+        }
+
+        @Override
+        public void onActivityResumed(Activity activity)
+        {
+            //window is set up by now, so looking up the decor view can't pre-empt the activity's window features
+            application.unregisterActivityLifecycleCallbacks(this);
+            onFirstActivity(activity);
+        }
+
+        @Override
+        public void onActivityCreated(Activity activity, Bundle savedInstanceState) { }
+
+        @Override
+        public void onActivityStarted(Activity activity) { }
+
+        @Override
+        public void onActivityPaused(Activity activity) { }
+
+        @Override
+        public void onActivityStopped(Activity activity) { }
+
+        @Override
+        public void onActivitySaveInstanceState(Activity activity, Bundle outState) { }
+
+        @Override
+        public void onActivityDestroyed(Activity activity) { }
+    }
+
+    private static class Task
+    {
+        final Phase phase;
+        final String name;
+        final Runnable work;
+
+        Task(Phase phase, String name, Runnable work)
+        {
+            this.phase = phase;
+            this.name = name;
+            this.work = work;
+        }
+
+        void run()
+        {
+            Metrics.Timer timer = Metrics.start("startup_task", name);
+            try
+            {
+                work.run();
+            }
+            catch (RuntimeException e)
+            {
+                timer.fail();
+                throw e;
+            }
+            finally
+            {
+                timer.stop();
+            }
+        }
+    }
+}
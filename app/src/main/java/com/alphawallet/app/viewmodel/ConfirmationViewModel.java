@@ -32,6 +32,10 @@ import com.alphawallet.app.service.TokensService;
 import java.math.BigInteger;
 import java.util.List;
 
+import io.reactivex.android.schedulers.AndroidSchedulers;
+import io.reactivex.disposables.Disposable;
+import io.reactivex.schedulers.Schedulers;
+
 public class ConfirmationViewModel extends BaseViewModel {
     private final MutableLiveData<String> newTransaction = new MutableLiveData<>();
     private final MutableLiveData<Wallet> defaultWallet = new MutableLiveData<>();
@@ -47,6 +51,9 @@ public class ConfirmationViewModel extends BaseViewModel {
     private final GasSettingsRouter gasSettingsRouter;
     private final KeyService keyService;
 
+    private Disposable gasEstimateDisposable;
+    private boolean gasLimitOverridden; //user or dapp has set the gas limit
+
     ConfirmationViewModel(GenericWalletInteract genericWalletInteract,
                           GasService gasService,
                           CreateTransactionInteract createTransactionInteract,
@@ -105,6 +112,7 @@ public class ConfirmationViewModel extends BaseViewModel {
 
     public void overrideGasSettings(GasSettings settings)
     {
+        if (settings.gasLimit.compareTo(BigInteger.ZERO) > 0) gasLimitOverridden = true;
         gasService.setOverrideGasLimit(settings.gasLimit);
         gasService.setOverrideGasPrice(settings.gasPrice);
         gasSettings.postValue(settings);
@@ -127,15 +135,41 @@ public class ConfirmationViewModel extends BaseViewModel {
         defaultWallet.setValue(wallet);
     }
 
-    public void calculateGasSettings(byte[] transaction, boolean isNonFungible, int chainId)
+    public void calculateGasSettings(byte[] transaction, String to, BigInteger value, boolean isNonFungible, int chainId)
     {
         //start listening for gas if necessary
-        gasService.startGasListener(chainId);
+        gasService.startGasListener(this, chainId);
         if (gasSettings.getValue() == null)
         {
-            GasSettings gasSettings = gasService.getGasSettings(transaction, isNonFungible, chainId);
+            GasSettings gasSettings = gasService.getGasSettings(transaction, to, isNonFungible, chainId);
             onGasSettings(gasSettings);
         }
+
+        //first call to this contract function, or one sending ether; show the default limit while the node estimates it.
+        //Deployments keep the default, as they have no function to estimate against
+        if (transaction != null && !gasLimitOverridden && !GasService.isContractCreation(to)
+                && (value.signum() != 0 || gasService.getCachedGasLimit(chainId, to, transaction) == null))
+        {
+            gasEstimateDisposable = genericWalletInteract
+                    .find()
+                    .flatMap(wallet -> gasService.fetchGasLimit(chainId, wallet.address, to, value, transaction))
+                    .subscribeOn(Schedulers.io())
+                    .observeOn(AndroidSchedulers.mainThread())
+                    .subscribe(this::onGasLimitEstimate, this::onGasLimitEstimateError);
+        }
+    }
+
+    private void onGasLimitEstimate(BigInteger gasLimit)
+    {
+        if (gasLimitOverridden) return;
+        gasService.setOverrideGasLimit(gasLimit);
+        gasSettings.postValue(new GasSettings(gasService.getGasPrice(), gasLimit));
+    }
+
+    private void onGasLimitEstimateError(Throwable throwable)
+    {
+        //node couldn't estimate (eg the call would revert); keep the default limit
+        throwable.printStackTrace();
     }
 
     public void getGasForSending(ConfirmationType confirmationType, Activity context, int chainId)
@@ -278,4 +312,12 @@ public class ConfirmationViewModel extends BaseViewModel {
     {
         keyService.failedAuthentication(signData);
     }
+
+    @Override
+    protected void onCleared()
+    {
+        super.onCleared();
+        if (gasEstimateDisposable != null && !gasEstimateDisposable.isDisposed()) gasEstimateDisposable.dispose();
+        gasService.stopGasListener(this);
+    }
 }
@@ -263,13 +263,13 @@ public class DappBrowserViewModel extends BaseViewModel  {
     {
         if (defaultNetwork.getValue() != null)
         {
-            gasService.startGasListener(defaultNetwork.getValue().chainId);
+            gasService.startGasListener(this, defaultNetwork.getValue().chainId);
         }
     }
 
     public void stopGasPriceChecker()
     {
-        gasService.stopGasListener();
+        gasService.stopGasListener(this);
     }
 
     public void getAuthorisation(Wallet wallet, Activity activity, SignAuthenticationCallback callback)
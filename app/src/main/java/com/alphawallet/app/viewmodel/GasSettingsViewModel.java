@@ -4,8 +4,10 @@ package com.alphawallet.app.viewmodel;
 import android.arch.lifecycle.LiveData;
 import android.arch.lifecycle.MutableLiveData;
 
+import com.alphawallet.app.entity.GasPriceEstimate;
 import com.alphawallet.app.entity.NetworkInfo;
 import com.alphawallet.app.interact.FindDefaultNetworkInteract;
+import com.alphawallet.app.service.GasService;
 
 import java.math.BigDecimal;
 import java.math.BigInteger;
@@ -15,21 +17,29 @@ public class GasSettingsViewModel extends BaseViewModel {
     public static final int SET_GAS_SETTINGS = 1;
 
     private FindDefaultNetworkInteract findDefaultNetworkInteract;
+    private GasService gasService;
 
     private MutableLiveData<BigInteger> gasPrice = new MutableLiveData<>();
     private MutableLiveData<BigInteger> gasLimit = new MutableLiveData<>();
     private MutableLiveData<NetworkInfo> defaultNetwork = new MutableLiveData<>();
 
-    public GasSettingsViewModel(FindDefaultNetworkInteract findDefaultNetworkInteract) {
+    public GasSettingsViewModel(FindDefaultNetworkInteract findDefaultNetworkInteract, GasService gasService) {
         this.findDefaultNetworkInteract = findDefaultNetworkInteract;
+        this.gasService = gasService;
         gasPrice.setValue(BigInteger.ZERO);
         gasLimit.setValue(BigInteger.ZERO);
     }
 
-    public void prepare() {
+    public void prepare(int chainId) {
         findDefaultNetworkInteract
                 .find()
                 .subscribe(this::onDefaultNetwork, this::onError);
+        //already running if opened from a confirmation on the same chain
+        gasService.startGasListener(this, chainId);
+    }
+
+    public LiveData<GasPriceEstimate> gasPriceEstimate() {
+        return gasService.gasPriceEstimateListener();
     }
 
     public MutableLiveData<BigInteger> gasPrice() {
@@ -52,4 +62,9 @@ public class GasSettingsViewModel extends BaseViewModel {
         return new BigDecimal(gasPrice.getValue().multiply(gasLimit.getValue()));
     }
 
+    @Override
+    protected void onCleared() {
+        super.onCleared();
+        gasService.stopGasListener(this);
+    }
 }
@@ -6,18 +6,21 @@ import android.arch.lifecycle.ViewModelProvider;
 import android.support.annotation.NonNull;
 
 import com.alphawallet.app.interact.FindDefaultNetworkInteract;
+import com.alphawallet.app.service.GasService;
 
 public class GasSettingsViewModelFactory implements ViewModelProvider.Factory {
 
     FindDefaultNetworkInteract findDefaultNetworkInteract;
+    GasService gasService;
 
-    public GasSettingsViewModelFactory(FindDefaultNetworkInteract findDefaultNetworkInteract) {
+    public GasSettingsViewModelFactory(FindDefaultNetworkInteract findDefaultNetworkInteract, GasService gasService) {
         this.findDefaultNetworkInteract = findDefaultNetworkInteract;
+        this.gasService = gasService;
     }
 
     @NonNull
     @Override
     public <T extends ViewModel> T create(@NonNull Class<T> modelClass) {
-        return (T) new GasSettingsViewModel(findDefaultNetworkInteract);
+        return (T) new GasSettingsViewModel(findDefaultNetworkInteract, gasService);
     }
 }
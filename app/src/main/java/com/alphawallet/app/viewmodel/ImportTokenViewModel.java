@@ -228,7 +228,7 @@ public class ImportTokenViewModel extends BaseViewModel
                 break;
         }
 
-        gasService.startGasListener(importOrder.chainId); //start fetching gas price
+        gasService.startGasListener(this, importOrder.chainId); //start fetching gas price
     }
 
     //2. Fetch all cached tokens and get eth price
@@ -452,7 +452,7 @@ public class ImportTokenViewModel extends BaseViewModel
             MagicLinkData order = parser.parseUniversalLink(universalImportLink);
             //calculate gas settings
             final byte[] tradeData = generateReverseTradeData(order, importToken, wallet.getValue().address);
-            GasSettings settings = gasService.getGasSettings(tradeData, true, importOrder.chainId);
+            GasSettings settings = gasService.getGasSettings(tradeData, importOrder.contractAddress, true, importOrder.chainId);
             performImportFinal(settings);
         }
         catch (Exception e)
@@ -679,7 +679,7 @@ public class ImportTokenViewModel extends BaseViewModel
 
     public void stopGasPriceChecker()
     {
-        gasService.stopGasListener();
+        gasService.stopGasListener(this);
     }
 
     public void getAuthorisation(Activity activity, SignAuthenticationCallback callback)
@@ -127,11 +127,11 @@ public class SendViewModel extends BaseViewModel {
 
     public void startGasPriceChecker(int chainId)
     {
-        gasService.startGasListener(chainId);
+        gasService.startGasListener(this, chainId);
     }
 
     public void stopGasPriceChecker()
     {
-        gasService.stopGasListener();
+        gasService.stopGasListener(this);
     }
 }
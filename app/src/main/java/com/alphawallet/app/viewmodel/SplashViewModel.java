@@ -25,6 +25,7 @@ import com.alphawallet.app.repository.PreferenceRepositoryType;
 import com.alphawallet.app.ui.SplashActivity;
 import com.alphawallet.app.util.Utils;
 
+import dagger.Lazy;
 import io.reactivex.Single;
 import io.reactivex.android.schedulers.AndroidSchedulers;
 import io.reactivex.schedulers.Schedulers;
@@ -60,8 +61,8 @@ public class SplashViewModel extends ViewModel
     private final FetchWalletsInteract fetchWalletsInteract;
     private final PreferenceRepositoryType preferenceRepository;
     private final LocaleRepositoryType localeRepository;
-    private final AssetDefinitionService assetDefinitionService;
-    private final KeyService keyService;
+    private final Lazy<AssetDefinitionService> assetDefinitionService;
+    private final Lazy<KeyService> keyService; //not needed until a wallet is created, so not built on the launch path
     private final CurrencyRepositoryType currencyRepository;
 
     private MutableLiveData<Wallet[]> wallets = new MutableLiveData<>();
@@ -70,8 +71,8 @@ public class SplashViewModel extends ViewModel
     SplashViewModel(FetchWalletsInteract fetchWalletsInteract,
                     PreferenceRepositoryType preferenceRepository,
                     LocaleRepositoryType localeRepository,
-                    KeyService keyService,
-                    AssetDefinitionService assetDefinitionService,
+                    Lazy<KeyService> keyService,
+                    Lazy<AssetDefinitionService> assetDefinitionService,
                     CurrencyRepositoryType currencyRepository) {
         this.fetchWalletsInteract = fetchWalletsInteract;
         this.preferenceRepository = preferenceRepository;
@@ -107,7 +108,7 @@ public class SplashViewModel extends ViewModel
 
     public void createNewWallet(Activity ctx, CreateWalletCallbackInterface createCallback)
     {
-        keyService.createNewHDKey(ctx, createCallback);
+        keyService.get().createNewHDKey(ctx, createCallback);
     }
 
     public void checkVersionUpdate(Context ctx, long updateTime)
@@ -308,12 +309,12 @@ public class SplashViewModel extends ViewModel
 
     public void completeAuthentication(Operation taskCode)
     {
-        keyService.completeAuthentication(taskCode);
+        keyService.get().completeAuthentication(taskCode);
     }
 
     public void failedAuthentication(Operation taskCode)
     {
-        keyService.failedAuthentication(taskCode);
+        keyService.get().failedAuthentication(taskCode);
     }
 
     public void setCurrency() {
@@ -11,20 +11,22 @@ import com.alphawallet.app.interact.FetchWalletsInteract;
 import com.alphawallet.app.service.AssetDefinitionService;
 import com.alphawallet.app.service.KeyService;
 
+import dagger.Lazy;
+
 public class SplashViewModelFactory implements ViewModelProvider.Factory {
 
     private final FetchWalletsInteract fetchWalletsInteract;
     private final PreferenceRepositoryType preferenceRepository;
     private final LocaleRepositoryType localeRepository;
-    private final KeyService keyService;
-    private final AssetDefinitionService assetDefinitionService;
+    private final Lazy<KeyService> keyService;
+    private final Lazy<AssetDefinitionService> assetDefinitionService;
     private final CurrencyRepositoryType currencyRepository;
 
     public SplashViewModelFactory(FetchWalletsInteract fetchWalletsInteract,
                                   PreferenceRepositoryType preferenceRepository,
                                   LocaleRepositoryType localeRepository,
-                                  KeyService keyService,
-                                  AssetDefinitionService assetDefinitionService,
+                                  Lazy<KeyService> keyService,
+                                  Lazy<AssetDefinitionService> assetDefinitionService,
                                   CurrencyRepositoryType currencyRepository) {
         this.fetchWalletsInteract = fetchWalletsInteract;
         this.preferenceRepository = preferenceRepository;
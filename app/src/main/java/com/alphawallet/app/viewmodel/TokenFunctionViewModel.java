@@ -170,7 +170,7 @@ public class TokenFunctionViewModel extends BaseViewModel
 
     public void startGasPriceUpdate(int chainId)
     {
-        gasService.startGasListener(chainId);
+        gasService.startGasListener(this, chainId);
     }
 
     public void showTransferToken(Context ctx, Token token, List<BigInteger> selection)
@@ -286,7 +286,7 @@ public class TokenFunctionViewModel extends BaseViewModel
 
     public void stopGasSettingsFetch()
     {
-        gasService.stopGasListener();
+        gasService.stopGasListener(this);
     }
 
     public void getAuthorisation(Activity activity, SignAuthenticationCallback callback)
@@ -113,7 +113,7 @@ public class TransferTicketDetailViewModel extends BaseViewModel {
                 .find()
                 .subscribe(this::onDefaultWallet, this::onError);
 
-        gasService.startGasListener(token.tokenInfo.chainId);
+        gasService.startGasListener(this, token.tokenInfo.chainId);
     }
 
     private void onDefaultWallet(Wallet wallet) {
@@ -200,7 +200,7 @@ public class TransferTicketDetailViewModel extends BaseViewModel {
         else
         {
             final byte[] data = TokenRepository.createTicketTransferData(to, transferList, token);
-            GasSettings settings = gasService.getGasSettings(data, true, token.tokenInfo.chainId);
+            GasSettings settings = gasService.getGasSettings(data, token.getAddress(), true, token.tokenInfo.chainId);
             disposable = createTransactionInteract
                     .create(defaultWallet.getValue(), token.getAddress(), BigInteger.valueOf(0), settings.gasPrice, settings.gasLimit, data, token.tokenInfo.chainId)
                     .subscribe(this::onCreateTransaction, this::onError);
@@ -256,7 +256,7 @@ public class TransferTicketDetailViewModel extends BaseViewModel {
 
     public void stopGasSettingsFetch()
     {
-        gasService.stopGasListener();
+        gasService.stopGasListener(this);
     }
 
     public void getAuthorisation(Activity activity, SignAuthenticationCallback callback)
@@ -16,6 +16,7 @@ import com.alphawallet.app.entity.Wallet;
 import com.alphawallet.app.interact.DeleteWalletInteract;
 import com.alphawallet.app.interact.ExportWalletInteract;
 import com.alphawallet.app.interact.FetchWalletsInteract;
+import com.alphawallet.app.repository.TokenSnapshotCache;
 import com.alphawallet.app.router.HomeRouter;
 
 public class WalletActionsViewModel extends BaseViewModel {
@@ -25,6 +26,7 @@ public class WalletActionsViewModel extends BaseViewModel {
     private final DeleteWalletInteract deleteWalletInteract;
     private final ExportWalletInteract exportWalletInteract;
     private final FetchWalletsInteract fetchWalletsInteract;
+    private final TokenSnapshotCache tokenSnapshotCache;
 
     private final MutableLiveData<Integer> saved = new MutableLiveData<>();
     private final MutableLiveData<Boolean> deleted = new MutableLiveData<>();
@@ -37,11 +39,13 @@ public class WalletActionsViewModel extends BaseViewModel {
             HomeRouter homeRouter,
             DeleteWalletInteract deleteWalletInteract,
             ExportWalletInteract exportWalletInteract,
-            FetchWalletsInteract fetchWalletsInteract) {
+            FetchWalletsInteract fetchWalletsInteract,
+            TokenSnapshotCache tokenSnapshotCache) {
         this.deleteWalletInteract = deleteWalletInteract;
         this.exportWalletInteract = exportWalletInteract;
         this.fetchWalletsInteract = fetchWalletsInteract;
         this.homeRouter = homeRouter;
+        this.tokenSnapshotCache = tokenSnapshotCache;
     }
 
     public LiveData<ErrorEnvelope> exportWalletError() {
@@ -72,6 +76,7 @@ public class WalletActionsViewModel extends BaseViewModel {
         isTaskRunning.postValue(true);
         disposable = deleteWalletInteract
                 .delete(wallet)
+                .doOnSuccess(wallets -> tokenSnapshotCache.delete(wallet.address)) //don't leave the token list on disk
                 .subscribe(this::onDelete, this::onDeleteWalletError);
     }
 
@@ -9,6 +9,7 @@ import javax.inject.Inject;
 import com.alphawallet.app.interact.DeleteWalletInteract;
 import com.alphawallet.app.interact.ExportWalletInteract;
 import com.alphawallet.app.interact.FetchWalletsInteract;
+import com.alphawallet.app.repository.TokenSnapshotCache;
 import com.alphawallet.app.router.HomeRouter;
 
 public class WalletActionsViewModelFactory implements ViewModelProvider.Factory {
@@ -16,17 +17,20 @@ public class WalletActionsViewModelFactory implements ViewModelProvider.Factory
     private final DeleteWalletInteract deleteWalletInteract;
     private final ExportWalletInteract exportWalletInteract;
     private final FetchWalletsInteract fetchWalletsInteract;
+    private final TokenSnapshotCache tokenSnapshotCache;
 
     @Inject
     public WalletActionsViewModelFactory(
             HomeRouter homeRouter,
             DeleteWalletInteract deleteWalletInteract,
             ExportWalletInteract exportWalletInteract,
-            FetchWalletsInteract fetchWalletsInteract) {
+            FetchWalletsInteract fetchWalletsInteract,
+            TokenSnapshotCache tokenSnapshotCache) {
         this.homeRouter = homeRouter;
         this.deleteWalletInteract = deleteWalletInteract;
         this.exportWalletInteract = exportWalletInteract;
         this.fetchWalletsInteract = fetchWalletsInteract;
+        this.tokenSnapshotCache = tokenSnapshotCache;
     }
 
     @NonNull
@@ -36,6 +40,7 @@ public class WalletActionsViewModelFactory implements ViewModelProvider.Factory
                 homeRouter,
                 deleteWalletInteract,
                 exportWalletInteract,
-                fetchWalletsInteract);
+                fetchWalletsInteract,
+                tokenSnapshotCache);
     }
 }
@@ -15,6 +15,7 @@ import com.alphawallet.app.BuildConfig;
 import com.alphawallet.app.entity.ContractLocator;
 import com.alphawallet.app.entity.NetworkInfo;
 import com.alphawallet.app.entity.tokens.Token;
+import com.alphawallet.app.entity.tokens.TokenChange;
 import com.alphawallet.app.entity.Wallet;
 import com.alphawallet.app.entity.WalletType;
 import com.alphawallet.app.interact.AddTokenInteract;
@@ -23,8 +24,10 @@ import com.alphawallet.app.interact.FetchTransactionsInteract;
 import com.alphawallet.app.interact.GenericWalletInteract;
 import com.alphawallet.app.interact.SetupTokensInteract;
 import com.alphawallet.app.repository.EthereumNetworkRepositoryType;
+import com.alphawallet.app.repository.TokenSnapshotCache;
 
 import io.reactivex.Observable;
+import io.reactivex.Single;
 import io.reactivex.android.schedulers.AndroidSchedulers;
 import io.reactivex.disposables.Disposable;
 import io.reactivex.schedulers.Schedulers;
@@ -53,10 +56,12 @@ public class WalletViewModel extends BaseViewModel
     private static final int OPENSEA_RINKEBY_CHECK = 3; //check Rinkeby opensea once per XX opensea checks (ie if interval time is 25 and rinkeby check is 1 in 6, rinkeby refresh time is once per 300 seconds).
     public static double VALUE_THRESHOLD = 200.0; //$200 USD value is difference between red and grey backup warnings
     private static final int BALANCE_UPDATE_CORRECTION_FACTOR = 1000 / BALANCE_CHECK_INTERVAL_MILLIS;
+    private static final int TOKEN_CHANGE_BATCH_MILLIS = 250; //collect token changes for this long before updating the list
 
     private final MutableLiveData<Token[]> tokens = new MutableLiveData<>();
     private final MutableLiveData<BigDecimal> total = new MutableLiveData<>();
     private final MutableLiveData<Token> tokenUpdate = new MutableLiveData<>();
+    private final MutableLiveData<List<TokenChange>> tokenChanges = new MutableLiveData<>();
     private final MutableLiveData<Boolean> tokensReady = new MutableLiveData<>();
     private final MutableLiveData<Wallet> defaultWallet = new MutableLiveData<>();
     private final MutableLiveData<GenericWalletInteract.BackupLevel> backupEvent = new MutableLiveData<>();
@@ -75,6 +80,7 @@ public class WalletViewModel extends BaseViewModel
     private final FetchTransactionsInteract fetchTransactionsInteract;
     private final EthereumNetworkRepositoryType ethereumNetworkRepository;
     private final ChangeTokenEnableInteract changeTokenEnableInteract;
+    private final TokenSnapshotCache tokenSnapshotCache;
 
     private final MutableLiveData<Map<String, String>> currentWalletBalance = new MutableLiveData<>();
 
@@ -91,6 +97,7 @@ public class WalletViewModel extends BaseViewModel
     private Disposable updateTokens;
     @Nullable
     private Disposable balanceCheckDisposable;
+    private final Disposable tokenChangeDisposable;
 
     WalletViewModel(
             FetchTokensInteract fetchTokensInteract,
@@ -106,7 +113,8 @@ public class WalletViewModel extends BaseViewModel
             OpenseaService openseaService,
             FetchTransactionsInteract fetchTransactionsInteract,
             EthereumNetworkRepositoryType ethereumNetworkRepository,
-            ChangeTokenEnableInteract changeTokenEnableInteract)
+            ChangeTokenEnableInteract changeTokenEnableInteract,
+            TokenSnapshotCache tokenSnapshotCache)
     {
         this.fetchTokensInteract = fetchTokensInteract;
         this.addTokenRouter = addTokenRouter;
@@ -122,6 +130,15 @@ public class WalletViewModel extends BaseViewModel
         this.fetchTransactionsInteract = fetchTransactionsInteract;
         this.ethereumNetworkRepository = ethereumNetworkRepository;
         this.changeTokenEnableInteract = changeTokenEnableInteract;
+        this.tokenSnapshotCache = tokenSnapshotCache;
+
+        //batch and de-duplicate token changes off the main thread; the list applies each batch in one pass
+        tokenChangeDisposable = tokensService.getTokenChanges()
+                .buffer(TOKEN_CHANGE_BATCH_MILLIS, TimeUnit.MILLISECONDS, Schedulers.computation())
+                .filter(changes -> !changes.isEmpty())
+                .map(TokenChange::coalesce)
+                .observeOn(AndroidSchedulers.mainThread())
+                .subscribe(tokenChanges::setValue, this::onError);
     }
 
     public LiveData<Token[]> tokens() {
@@ -131,6 +148,7 @@ public class WalletViewModel extends BaseViewModel
         return total;
     }
     public LiveData<Token> tokenUpdate() { return tokenUpdate; }
+    public LiveData<List<TokenChange>> tokenChanges() { return tokenChanges; }
     public LiveData<Boolean> tokensReady() { return tokensReady; }
     public LiveData<Wallet> defaultWallet() { return defaultWallet; }
     public LiveData<GenericWalletInteract.BackupLevel> backupEvent() { return backupEvent; }
@@ -141,6 +159,7 @@ public class WalletViewModel extends BaseViewModel
     @Override
     protected void onCleared() {
         super.onCleared();
+        tokenChangeDisposable.dispose();
     }
 
     //we changed wallets or network, ensure we clean up before displaying new data
@@ -182,8 +201,12 @@ public class WalletViewModel extends BaseViewModel
             openSeaCheckCounter = CHECK_OPENSEA_INTERVAL_TIME * BALANCE_UPDATE_CORRECTION_FACTOR - 10; //schedule opensea check soon after refresh
             backupCheckVal = 0;
             tokensService.setCurrentAddress(currentWallet.address);
-            updateTokens = fetchTokensInteract.fetchStoredWithEth(currentWallet)
-                    .subscribeOn(Schedulers.newThread())
+            //draw the last snapshot first, then replace it with the Realm tokens
+            updateTokens = tokenSnapshotCache.load(currentWallet.address)
+                    .subscribeOn(Schedulers.io())
+                    .observeOn(AndroidSchedulers.mainThread())
+                    .doOnSuccess(this::onSnapshot)
+                    .flatMapObservable(snapshot -> fetchTokensInteract.fetchStoredWithEth(currentWallet))
                     .observeOn(AndroidSchedulers.mainThread())
                     .subscribe(this::onTokens, this::onTokenFetchError, this::startBalanceUpdate);
         }
@@ -194,6 +217,40 @@ public class WalletViewModel extends BaseViewModel
         }
     }
 
+    /**
+     * New tickers have arrived; update only the tokens whose ticker changed and store those tickers
+     */
+    public void refreshTickers()
+    {
+        if (currentWallet == null) return;
+        Single.fromCallable(tokensService::refreshTickers)
+                .filter(changed -> changed.length > 0)
+                .flatMapSingle(changed -> fetchTokensInteract.storeTickers(currentWallet, changed))
+                .subscribeOn(Schedulers.io())
+                .subscribe(stored -> { }, this::onTokenBalanceError)
+                .isDisposed();
+    }
+
+    private void onSnapshot(Token[] snapshotTokens)
+    {
+        //display only; these aren't added to TokensService as the Realm tokens replace them shortly
+        if (snapshotTokens.length > 0) tokens.postValue(snapshotTokens);
+    }
+
+    /**
+     * Store the displayed token list so the next cold start can draw it before Realm loads
+     */
+    public void storeSnapshot()
+    {
+        if (currentWallet == null) return;
+        List<Token> liveTokens = tokensService.getAllLiveTokens();
+        if (liveTokens.isEmpty()) return;
+        tokenSnapshotCache.store(currentWallet.address, liveTokens.toArray(new Token[0]))
+                .subscribeOn(Schedulers.io())
+                .subscribe(() -> { }, Throwable::printStackTrace)
+                .isDisposed();
+    }
+
     private void onTokens(Token[] cachedTokens)
     {
         if (cachedTokens.length == 0) //require another reset
@@ -201,7 +258,7 @@ public class WalletViewModel extends BaseViewModel
             currentWallet = null;
             prepare();
         }
-        tokensService.addTokens(cachedTokens);
+        tokensService.loadTokens(cachedTokens); //the full list is posted below, so no change per token as well
         tokensService.requireTokensRefresh();
         tokens.postValue(tokensService.getAllLiveTokens().toArray(new Token[0]));
     }
@@ -244,8 +301,7 @@ public class WalletViewModel extends BaseViewModel
     private void gotOpenseaTokens(int chainId, Token[] openSeaTokens)
     {
         ContractType[] filterTypes = { ContractType.ERC721, ContractType.ERC721_LEGACY, ContractType.ERC721_TICKET, ContractType.ERC721_UNDETERMINED };
-        List<Token> erc721Tokens = tokensService.getChangedTokenBalance(chainId, openSeaTokens, filterTypes);
-        tokens.postValue(tokensService.getAllTokens(filterTypes)); //update ERC721 types using balances from appropriate source. ERC721 Ticket balance fetch from opensea is usually wrong
+        List<Token> erc721Tokens = tokensService.getChangedTokenBalance(chainId, openSeaTokens, filterTypes); //changed tokens reach the list through TokensService
 
         if (erc721Tokens.size() > 0)
         {
@@ -282,9 +338,7 @@ public class WalletViewModel extends BaseViewModel
 
     private void receiveNetworkTokens(Token[] receivedTokens)
     {
-        Token[] updatedTokens = tokensService.addTokens(receivedTokens); 
-        //add these tokens to the display
-        tokens.postValue(updatedTokens); //Note: return from addTokens filters out the ContractType.OTHER tokens
+        Token[] updatedTokens = tokensService.addTokens(receivedTokens); //Note: return from addTokens filters out the ContractType.OTHER tokens; the display is updated through TokensService changes
 
         for (Token t : receivedTokens) //Now add unrecognised tokens to scan list
         {
@@ -403,11 +457,7 @@ public class WalletViewModel extends BaseViewModel
         }
         balanceCheckDisposable = null;
         if (token == null) return;
-        Token update = tokensService.addToken(token);
-        if (update != null)
-        {
-            tokenUpdate.postValue(update);
-        }
+        tokensService.addToken(token); //any displayed change is posted through TokensService
     }
 
     public AssetDefinitionService getAssetDefinitionService()
@@ -485,7 +535,6 @@ public class WalletViewModel extends BaseViewModel
     private void finishedImport(Token token)
     {
         tokensService.addToken(token);
-        if (EthereumNetworkRepository.isPriorityToken(token)) tokenUpdate.postValue(token);
     }
 
     private void onTokenAddError(Throwable throwable)
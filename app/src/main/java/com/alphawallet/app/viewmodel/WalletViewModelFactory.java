@@ -12,6 +12,7 @@ import com.alphawallet.app.interact.FetchTransactionsInteract;
 import com.alphawallet.app.interact.GenericWalletInteract;
 import com.alphawallet.app.interact.SetupTokensInteract;
 import com.alphawallet.app.repository.EthereumNetworkRepositoryType;
+import com.alphawallet.app.repository.TokenSnapshotCache;
 
 import com.alphawallet.app.router.AddTokenRouter;
 import com.alphawallet.app.router.AssetDisplayRouter;
@@ -36,6 +37,7 @@ public class WalletViewModelFactory implements ViewModelProvider.Factory {
     private final FetchTransactionsInteract fetchTransactionsInteract;
     private final EthereumNetworkRepositoryType ethereumNetworkRepository;
     private final ChangeTokenEnableInteract changeTokenEnableInteract;
+    private final TokenSnapshotCache tokenSnapshotCache;
 
     public WalletViewModelFactory(FetchTokensInteract fetchTokensInteract,
                                   AddTokenRouter addTokenRouter,
@@ -50,7 +52,8 @@ public class WalletViewModelFactory implements ViewModelProvider.Factory {
                                   OpenseaService openseaService,
                                   FetchTransactionsInteract fetchTransactionsInteract,
                                   EthereumNetworkRepositoryType ethereumNetworkRepository,
-                                  ChangeTokenEnableInteract changeTokenEnableInteract) {
+                                  ChangeTokenEnableInteract changeTokenEnableInteract,
+                                  TokenSnapshotCache tokenSnapshotCache) {
         this.fetchTokensInteract = fetchTokensInteract;
         this.addTokenRouter = addTokenRouter;
         this.sendTokenRouter = sendTokenRouter;
@@ -65,6 +68,7 @@ public class WalletViewModelFactory implements ViewModelProvider.Factory {
         this.fetchTransactionsInteract = fetchTransactionsInteract;
         this.ethereumNetworkRepository = ethereumNetworkRepository;
         this.changeTokenEnableInteract = changeTokenEnableInteract;
+        this.tokenSnapshotCache = tokenSnapshotCache;
     }
 
     @NonNull
@@ -84,6 +88,7 @@ public class WalletViewModelFactory implements ViewModelProvider.Factory {
                 openseaService,
                 fetchTransactionsInteract,
                 ethereumNetworkRepository,
-                changeTokenEnableInteract);
+                changeTokenEnableInteract,
+                tokenSnapshotCache);
     }
 }
@@ -30,7 +30,9 @@ import com.alphawallet.app.service.KeyService;
 import com.alphawallet.app.service.TokensService;
 import com.alphawallet.app.util.AWEnsResolver;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import io.reactivex.Observable;
@@ -185,21 +187,42 @@ public class WalletsViewModel extends BaseViewModel
         walletBalances.clear();
         //check for updates
         //check names first
-        disposable = fetchWalletsInteract.fetch().toObservable()
-                .flatMap(Observable::fromArray)
-                .forEach(wallet -> ensResolver.resolveEnsName(wallet.address)
-                        .subscribeOn(Schedulers.io())
-                        .observeOn(AndroidSchedulers.mainThread())
-                        .subscribe(ensName -> updateOnName(wallet, ensName), this::onError));
+        disposable = fetchWalletsInteract.fetch()
+                .flatMap(wallets -> ensResolver.resolveEnsNames(getAddresses(wallets))
+                        .map(names -> getNamedWallets(wallets, names)))
+                .subscribeOn(Schedulers.io())
+                .observeOn(AndroidSchedulers.mainThread())
+                .subscribe(this::updateOnNames, this::onError);
 
         progress.postValue(false);
     }
 
-    private void updateOnName(Wallet wallet, String ensName)
+    private List<String> getAddresses(Wallet[] wallets)
+    {
+        List<String> addresses = new ArrayList<>();
+        for (Wallet wallet : wallets) addresses.add(wallet.address);
+        return addresses;
+    }
+
+    private List<Wallet> getNamedWallets(Wallet[] wallets, Map<String, String> names)
+    {
+        List<Wallet> named = new ArrayList<>();
+        for (Wallet wallet : wallets)
+        {
+            String ensName = names.get(wallet.address);
+            if (!TextUtils.isEmpty(ensName))
+            {
+                wallet.ENSname = ensName;
+                named.add(wallet);
+            }
+        }
+        return named;
+    }
+
+    private void updateOnNames(List<Wallet> wallets)
     {
-        if (!TextUtils.isEmpty(ensName))
+        for (Wallet wallet : wallets)
         {
-            wallet.ENSname = ensName;
             disposable = fetchWalletsInteract.updateWalletData(wallet)
                     .subscribeOn(Schedulers.io())
                     .observeOn(AndroidSchedulers.mainThread())
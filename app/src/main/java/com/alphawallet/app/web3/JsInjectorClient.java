@@ -8,6 +8,7 @@ import android.util.Log;
 
 import com.alphawallet.app.repository.EthereumNetworkBase;
 import com.alphawallet.app.repository.EthereumNetworkRepository;
+import com.alphawallet.app.service.NetworkStack;
 import com.alphawallet.app.web3.entity.Address;
 
 import java.io.IOException;
@@ -272,8 +273,10 @@ public class JsInjectorClient {
     }
 
     private OkHttpClient createHttpClient() {
-        return new OkHttpClient.Builder()
+        //page loads retry a dropped connection, unlike the node calls the shared stack is set up for
+        return NetworkStack.newBuilder()
                 .cookieJar(new WebViewCookieJar())
+                .retryOnConnectionFailure(true)
                 .build();
     }
 }
@@ -23,7 +23,9 @@ import android.widget.TextView;
 
 import com.alphawallet.app.C;
 import com.alphawallet.app.R;
+import com.alphawallet.app.entity.GasPriceEstimate;
 import com.alphawallet.app.entity.GasTransactionResponse;
+import com.alphawallet.app.service.NetworkStack;
 import com.alphawallet.app.util.BalanceUtils;
 import com.google.gson.Gson;
 
@@ -71,6 +73,7 @@ public class GasSliderView extends RelativeLayout implements LifecycleObserver {
     private float scaleFactor; //used to convert slider value (0-100) into gas price
     private float minimumPrice = 4.0f;
     private boolean isMainNet = true;
+    private int chainId;
     private float gasLimitScaleFactor;
 
     /**
@@ -232,8 +235,7 @@ public class GasSliderView extends RelativeLayout implements LifecycleObserver {
             }
         });
 
-        okHttpClient = new OkHttpClient.Builder()
-                //.addInterceptor(new LogInterceptor())
+        okHttpClient = NetworkStack.newBuilder()
                 .connectTimeout(5, TimeUnit.SECONDS)
                 .readTimeout(5, TimeUnit.SECONDS)
                 .writeTimeout(5, TimeUnit.SECONDS)
@@ -404,6 +406,33 @@ public class GasSliderView extends RelativeLayout implements LifecycleObserver {
         gasPriceSlider.setProgress(progress);
     }
 
+    /**
+     * Set the slider range from the chain's recent block prices, until the ethgasstation price range
+     * (mainnet only) is available
+     * @param estimate prices from GasService
+     */
+    public void setGasPriceEstimate(GasPriceEstimate estimate)
+    {
+        if (estimate == null || estimate.chainId != chainId || gasTransactionResponse != null) return;
+
+        float currentPrice = gasPrice.getValue().floatValue() * 10.0f;
+        float slowPrice = toSliderPrice(estimate.slow);
+        float fastPrice = toSliderPrice(estimate.fast);
+        minimumPrice = Math.min(slowPrice, currentPrice);
+        maxDefaultPrice = Math.max(fastPrice * 2.0f, currentPrice);
+        if (maxDefaultPrice <= minimumPrice) maxDefaultPrice = minimumPrice + 10.0f;
+        calculateStaticScaleFactor();
+
+        int progress = (int)((currentPrice - minimumPrice)/scaleFactor);
+        gasPriceSlider.setProgress(progress);
+    }
+
+    //slider prices are in tenths of a Gwei
+    private float toSliderPrice(BigInteger weiPrice)
+    {
+        return new BigDecimal(weiPrice).divide(BigDecimal.TEN.pow(8), 2, RoundingMode.HALF_DOWN).floatValue();
+    }
+
     public void initGasLimit(BigInteger limit)
     {
         startGasLimit = limit;
@@ -547,6 +576,7 @@ public class GasSliderView extends RelativeLayout implements LifecycleObserver {
     public void setChainId(int chainId)
     {
         //TODO: Add tx fee in FIAT for network transactions. Requires token or ticker.
+        this.chainId = chainId;
         if (chainId != ChainId.MAINNET)
         {
             isMainNet = false;
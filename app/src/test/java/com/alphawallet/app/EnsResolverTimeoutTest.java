@@ -0,0 +1,96 @@
+package com.alphawallet.app;
+
+import com.alphawallet.app.util.AWEnsResolver;
+import com.alphawallet.app.util.EnsCache;
+
+import org.junit.Test;
+import org.web3j.ens.EnsResolutionException;
+import org.web3j.protocol.Service;
+import org.web3j.protocol.Web3j;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * A node that times out on contract calls must not leave "no name" entries in the ENS cache.
+ */
+public class EnsResolverTimeoutTest
+{
+    private static final String ADDRESS = "0x5aaeb6053f3e94c9b9a09f33669435e7ef1beaed";
+
+    @Test
+    public void TimeoutIsNotCachedAsUnresolved()
+    {
+        AWEnsResolver resolver = new AWEnsResolver(Web3j.build(new TimeoutNode()));
+
+        try
+        {
+            resolver.resolve("timeout-test.eth");
+            assertTrue("Expected the timeout to be thrown", false);
+        }
+        catch (EnsResolutionException e)
+        {
+            assertTrue("Timeout reported as an unresolvable name", false);
+        }
+        catch (RuntimeException e)
+        {
+            assertTrue(e.getCause() instanceof SocketTimeoutException);
+        }
+        assertNull(EnsCache.getAddress("timeout-test.eth"));
+    }
+
+    @Test
+    public void TimeoutIsNotCachedAsNoName()
+    {
+        TimeoutNode node = new TimeoutNode();
+        AWEnsResolver resolver = new AWEnsResolver(Web3j.build(node));
+
+        assertEquals("", resolver.resolveEnsName(ADDRESS).blockingGet());
+        assertTrue(node.callCount > 0);
+        assertNull(EnsCache.getName(ADDRESS));
+    }
+
+    /**
+     * Synced mainnet node whose eth_call always times out
+     */
+    private static class TimeoutNode extends Service
+    {
+        int callCount;
+
+        TimeoutNode()
+        {
+            super(false);
+        }
+
+        @Override
+        protected InputStream performIO(String request) throws IOException
+        {
+            String result;
+            if (request.contains("\"net_version\"")) result = "\"1\"";
+            else if (request.contains("\"eth_syncing\"")) result = "false";
+            else if (request.contains("\"eth_getBlockByNumber\""))
+            {
+                result = "{\"number\":\"0x989680\",\"timestamp\":\"0x" + Long.toHexString(System.currentTimeMillis() / 1000)
+                        + "\",\"transactions\":[],\"uncles\":[]}";
+            }
+            else
+            {
+                callCount++;
+                throw new SocketTimeoutException("timeout");
+            }
+
+            String response = "{\"jsonrpc\":\"2.0\",\"id\":1,\"result\":" + result + "}";
+            return new ByteArrayInputStream(response.getBytes(StandardCharsets.UTF_8));
+        }
+
+        @Override
+        public void close() { }
+    }
+}
@@ -0,0 +1,85 @@
+package com.alphawallet.app;
+
+import com.alphawallet.app.service.GasEstimateCache;
+
+import org.junit.Test;
+import org.web3j.utils.Numeric;
+
+import java.math.BigInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class GasEstimateCacheTest
+{
+    private static final String TOKEN = "0x6B175474E89094C44Da98b954EedeAC495271d0F";
+    private static final String TRANSFER = "0xa9059cbb000000000000000000000000"
+            + "5aaeb6053f3e94c9b9a09f33669435e7ef1beaed0000000000000000000000000000000000000000000000000de0b6b3a7640000";
+    private static final String APPROVE = "0x095ea7b3000000000000000000000000"
+            + "5aaeb6053f3e94c9b9a09f33669435e7ef1beaed0000000000000000000000000000000000000000000000000000000000000000";
+
+    @Test
+    public void LearnsFromCompletedTransactions()
+    {
+        GasEstimateCache cache = new GasEstimateCache(50, 20);
+        byte[] transfer = Numeric.hexStringToByteArray(TRANSFER);
+        assertNull(cache.getGasLimit(1, TOKEN, transfer));
+
+        //transfer to an existing holder, then to a new holder; the larger one is kept
+        cache.putGasUsed(1, TOKEN.toLowerCase(), TRANSFER, BigInteger.valueOf(36000));
+        assertEquals(BigInteger.valueOf(55000), cache.getGasLimit(1, TOKEN, transfer));
+        cache.putGasUsed(1, TOKEN, TRANSFER, BigInteger.valueOf(51000));
+        cache.putGasUsed(1, TOKEN, TRANSFER, BigInteger.valueOf(36000));
+        assertEquals(BigInteger.valueOf(77000), cache.getGasLimit(1, TOKEN, transfer));
+
+        //other functions, contracts and chains are separate
+        assertNull(cache.getGasLimit(1, TOKEN, Numeric.hexStringToByteArray(APPROVE)));
+        assertNull(cache.getGasLimit(100, TOKEN, transfer));
+        assertNull(cache.getGasLimit(1, "0x5aaeb6053f3e94c9b9a09f33669435e7ef1beaed", transfer));
+    }
+
+    @Test
+    public void NodeEstimateUsesItsOwnMargin()
+    {
+        GasEstimateCache cache = new GasEstimateCache(50, 20);
+        byte[] approve = Numeric.hexStringToByteArray(APPROVE);
+
+        assertEquals(BigInteger.valueOf(56000), cache.putEstimate(1, TOKEN, approve, BigInteger.valueOf(46000)));
+        assertEquals(BigInteger.valueOf(56000), cache.getGasLimit(1, TOKEN, approve));
+
+        //a completed call that needed more replaces the estimate
+        cache.putGasUsed(1, TOKEN, APPROVE, BigInteger.valueOf(46000));
+        assertEquals(BigInteger.valueOf(70000), cache.getGasLimit(1, TOKEN, approve));
+    }
+
+    @Test
+    public void IgnoresCallsWithoutContractOrFunction()
+    {
+        GasEstimateCache cache = new GasEstimateCache(50, 20);
+
+        //plain ETH transfer, and contract creation
+        cache.putGasUsed(1, TOKEN, "0x", BigInteger.valueOf(21000));
+        cache.putGasUsed(1, "", TRANSFER, BigInteger.valueOf(900000));
+        assertNull(cache.getGasLimit(1, TOKEN, new byte[0]));
+        assertNull(cache.getGasLimit(1, "0x0", Numeric.hexStringToByteArray(TRANSFER)));
+
+        //not cached, but still given a limit to use
+        assertEquals(BigInteger.valueOf(121000), cache.putEstimate(1, "0x0000000000000000000000000000000000000000",
+                Numeric.hexStringToByteArray(TRANSFER), BigInteger.valueOf(100000)));
+        assertNull(cache.getGasLimit(1, "0x0000000000000000000000000000000000000000", Numeric.hexStringToByteArray(TRANSFER)));
+    }
+
+    @Test
+    public void EstimatesSendingEtherAreNotCached()
+    {
+        GasEstimateCache cache = new GasEstimateCache(50, 20);
+        byte[] approve = Numeric.hexStringToByteArray(APPROVE);
+
+        //payable call sending ether gets its limit, but it isn't used for calls that send none
+        assertEquals(BigInteger.valueOf(56000), cache.putEstimate(1, TOKEN, BigInteger.TEN, approve, BigInteger.valueOf(46000)));
+        assertNull(cache.getGasLimit(1, TOKEN, approve));
+
+        assertEquals(BigInteger.valueOf(50000), cache.putEstimate(1, TOKEN, BigInteger.ZERO, approve, BigInteger.valueOf(41000)));
+        assertEquals(BigInteger.valueOf(50000), cache.getGasLimit(1, TOKEN, approve));
+    }
+}
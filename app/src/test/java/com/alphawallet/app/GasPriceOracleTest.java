@@ -0,0 +1,131 @@
+package com.alphawallet.app;
+
+import com.alphawallet.app.entity.GasPriceEstimate;
+import com.alphawallet.app.service.GasPriceOracle;
+
+import org.junit.Test;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Replays block gas prices through the oracle and checks the window and percentiles.
+ */
+public class GasPriceOracleTest
+{
+    private static final int CHAIN_ID = 1;
+
+    //block number followed by its transaction gas prices in Gwei, as read from mainnet
+    private static final String[] RECORDED_BLOCKS = {
+            "9200000: 10 10 12 15 20 41 0",
+            "9200001: 8 9 9 10 12",
+            "9200002: ",
+            "9200003: 11 11 11 30",
+            "9200004: 9 10 20 22 25 60",
+    };
+
+    @Test
+    public void ReplaysRecordedBlocks()
+    {
+        GasPriceOracle oracle = new GasPriceOracle();
+        assertNull(oracle.getEstimate(CHAIN_ID));
+        assertEquals(-1, oracle.getLatestBlock(CHAIN_ID));
+
+        replay(oracle, RECORDED_BLOCKS);
+
+        //samples are the cheapest three of each block: 10 10 12, 8 9 9, 11 11 11, 9 10 20
+        GasPriceEstimate estimate = oracle.getEstimate(CHAIN_ID);
+        assertEquals(9200004, estimate.blockNumber);
+        assertEquals(gwei(9), estimate.slow);
+        assertEquals(gwei(10), estimate.standard);
+        assertEquals(gwei(11), estimate.fast);
+        assertEquals(9200004, oracle.getLatestBlock(CHAIN_ID));
+
+        //other chains are separate
+        assertNull(oracle.getEstimate(100));
+    }
+
+    @Test
+    public void WindowKeepsRecentBlocks()
+    {
+        GasPriceOracle oracle = new GasPriceOracle();
+        for (int i = 0; i < 25; i++)
+        {
+            oracle.addBlock(CHAIN_ID, 1000 + i, Arrays.asList(gwei(100), gwei(i + 3), gwei(i + 1), gwei(i + 2), BigInteger.ZERO));
+        }
+
+        //blocks 1005 to 1024 remain, giving samples 6 to 27
+        GasPriceEstimate estimate = oracle.getEstimate(CHAIN_ID);
+        assertEquals(1024, estimate.blockNumber);
+        assertEquals(gwei(11), estimate.slow);
+        assertEquals(gwei(18), estimate.standard);
+        assertEquals(gwei(24), estimate.fast);
+
+        //a block from before the window doesn't count
+        assertFalse(oracle.addBlock(CHAIN_ID, 1000, Collections.singletonList(gwei(1))));
+        assertEquals(gwei(11), oracle.getEstimate(CHAIN_ID).slow);
+    }
+
+    @Test
+    public void RepeatedAndReorgedBlocks()
+    {
+        GasPriceOracle oracle = new GasPriceOracle();
+        replay(oracle, RECORDED_BLOCKS);
+
+        //the same head again changes nothing
+        assertFalse(oracle.addBlock(CHAIN_ID, 9200004, prices("9 10 20 22 25 60")));
+
+        //a re-org replaces the block rather than adding to it
+        assertTrue(oracle.addBlock(CHAIN_ID, 9200004, prices("30 30 30")));
+        GasPriceEstimate estimate = oracle.getEstimate(CHAIN_ID);
+        assertEquals(gwei(9), estimate.slow);
+        assertEquals(gwei(11), estimate.standard);
+        assertEquals(gwei(30), estimate.fast);
+    }
+
+    @Test
+    public void EmptyBlocksKeepLastEstimate()
+    {
+        GasPriceOracle oracle = new GasPriceOracle();
+        replay(oracle, new String[] { "500: ", "501: 0" });
+        assertNull(oracle.getEstimate(CHAIN_ID));
+        assertEquals(501, oracle.getLatestBlock(CHAIN_ID));
+
+        oracle.addBlock(CHAIN_ID, 502, prices("4"));
+        for (int i = 503; i < 530; i++) oracle.addBlock(CHAIN_ID, i, Collections.emptyList());
+        assertEquals(gwei(4), oracle.getEstimate(CHAIN_ID).standard);
+        assertEquals(529, oracle.getLatestBlock(CHAIN_ID));
+    }
+
+    private static void replay(GasPriceOracle oracle, String[] blocks)
+    {
+        for (String block : blocks)
+        {
+            String[] parts = block.split(":");
+            oracle.addBlock(CHAIN_ID, Long.parseLong(parts[0]), prices(parts.length > 1 ? parts[1] : ""));
+        }
+    }
+
+    private static List<BigInteger> prices(String gweiPrices)
+    {
+        List<BigInteger> prices = new ArrayList<>();
+        for (String price : gweiPrices.trim().split(" "))
+        {
+            if (price.length() > 0) prices.add(gwei(Long.parseLong(price)));
+        }
+        return prices;
+    }
+
+    private static BigInteger gwei(long value)
+    {
+        return BigInteger.valueOf(value).multiply(BigInteger.TEN.pow(9));
+    }
+}
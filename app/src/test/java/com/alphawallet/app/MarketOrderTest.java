@@ -36,6 +36,8 @@ import io.reactivex.internal.schedulers.ExecutorScheduler;
 import io.reactivex.plugins.RxJavaPlugins;
 import com.alphawallet.token.entity.SalesOrderMalformed;
 
+import static com.alphawallet.app.entity.CryptoFunctions.sigFromByteArray;
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 
 /**
@@ -137,6 +139,12 @@ public class MarketOrderTest
                 });
             }
 
+            @Override
+            public Observable<byte[]> getSignaturesFast(Wallet wallet, String password, List<byte[]> messages, int chainId) {
+                return Observable.fromIterable(messages)
+                        .map(message -> getSignatureFast(wallet, password, message, chainId).blockingGet());
+            }
+
             @Override
             public Single<Transaction[]> storeTransactions(Wallet wallet, Transaction[] txList)
             {
@@ -179,6 +187,39 @@ public class MarketOrderTest
         marketService.getTradeInstances(wallet, price, tickets, contractAddress, firstTicketId, 1)
                 .subscribeOn(AndroidSchedulers.mainThread())
                 .subscribe(this::processMarketTrades, this::onError, this::onAllTransactions);
+
+        //2. each signature is for the order at its expiry step
+        assertEquals(1008, generatedTrade.getSignatures().size());
+        for (int i : new int[] { 0, 1, 1007 })
+        {
+            TradeInstance order = new TradeInstance(price, generatedTrade.expiry.add(BigInteger.valueOf(i * 600)), tickets,
+                    contractAddress, testKey.getPublicKey(), firstTicketId);
+            BigInteger signer = Sign.signedMessageToKey(order.getTradeBytes(), sigFromByteArray(generatedTrade.getSignatureBytes(i)));
+            assertEquals(testKey.getPublicKey(), signer);
+        }
+    }
+
+    @Test
+    public void expiryPatchMatchesTradeEncoding() throws Exception
+    {
+        BigInteger price = BigInteger.valueOf(1234567);
+        int[] tickets = { 12, 13, 14, 300 };
+        String contractAddress = "0x007bee82bdd9e866b2bd114780a47f2261c684e3";
+        BigInteger firstTicketId = BigInteger.valueOf(1024);
+        long initialExpiry = 1546300800L;
+
+        byte[] tradeBytes = new TradeInstance(price, BigInteger.valueOf(initialExpiry), tickets, contractAddress,
+                testKey.getPublicKey(), firstTicketId).getTradeBytes();
+
+        //patched bytes must match a TradeInstance built at each expiry, including expiries wider than 32 bits
+        for (long expiry : new long[] { initialExpiry, initialExpiry + 600, initialExpiry + 1007 * 600, 0, 0x1FFFFFFFFL, Long.MAX_VALUE })
+        {
+            byte[] order = tradeBytes.clone();
+            TradeInstance.setExpiry(order, expiry);
+            byte[] expected = new TradeInstance(price, BigInteger.valueOf(expiry), tickets, contractAddress,
+                    testKey.getPublicKey(), firstTicketId).getTradeBytes();
+            assertArrayEquals(expected, order);
+        }
     }
 
     private void onAllTransactions()
@@ -125,6 +125,12 @@ public class QRSelectionTest
                 });
             }
 
+            @Override
+            public Observable<byte[]> getSignaturesFast(Wallet wallet, String pass, List<byte[]> messages, int chainId)
+            {
+                return null;
+            }
+
             @Override
             public Single<Transaction[]> storeTransactions(Wallet wallet, Transaction[] txList)
             {
@@ -0,0 +1,168 @@
+package com.alphawallet.app;
+
+import com.alphawallet.app.service.AWHttpService;
+import com.sun.net.httpserver.HttpServer;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.web3j.protocol.Web3j;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import okhttp3.OkHttpClient;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Two local stub nodes with injected delays; checks reads are routed to the healthy node and hedged when the
+ * preferred node stalls.
+ */
+public class RpcHedgingTest {
+    private HttpServer primary;
+    private HttpServer secondary;
+    private volatile long primaryDelay;
+    private volatile long secondaryDelay;
+    private volatile int primaryCode = 200;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+    private Web3j web3j;
+    private Web3j otherChain;
+
+    @Before
+    public void setUp() throws IOException {
+        primary = stubNode(1, true);
+        secondary = stubNode(2, false);
+        OkHttpClient client = new OkHttpClient.Builder()
+                .readTimeout(10, TimeUnit.SECONDS)
+                .build();
+        //distinct chainId per run so endpoint stats don't carry over between tests
+        int chainId = (int) (System.nanoTime() & 0xFFFFFF);
+        web3j = Web3j.build(new AWHttpService(url(primary), url(secondary), chainId, client, false));
+        otherChain = Web3j.build(new AWHttpService(url(primary), url(secondary), chainId + 1, client, false));
+    }
+
+    @After
+    public void tearDown() {
+        primary.stop(0);
+        secondary.stop(0);
+    }
+
+    @Test
+    public void PrefersPrimaryWhenHealthy() throws IOException {
+        for (int i = 0; i < 10; i++) {
+            assertEquals(BigInteger.ONE, web3j.ethBlockNumber().send().getBlockNumber());
+        }
+    }
+
+    @Test
+    public void HedgesSlowPrimary() throws IOException {
+        for (int i = 0; i < 10; i++) web3j.ethBlockNumber().send(); //establish a latency baseline
+
+        primaryDelay = 5000;
+        long start = System.currentTimeMillis();
+        BigInteger result = web3j.ethBlockNumber().send().getBlockNumber();
+        long elapsed = System.currentTimeMillis() - start;
+
+        assertEquals(BigInteger.valueOf(2), result);
+        assertTrue("Hedged read took " + elapsed + "ms", elapsed < 2000);
+    }
+
+    @Test
+    public void RoutesAwayFromFailingPrimary() throws IOException {
+        primaryCode = 500;
+        for (int i = 0; i < 5; i++) {
+            assertEquals(BigInteger.valueOf(2), web3j.ethBlockNumber().send().getBlockNumber());
+        }
+
+        //non-idempotent calls aren't hedged but still go to the healthiest node
+        assertEquals("0x2", web3j.ethSendRawTransaction("0x00").send().getTransactionHash());
+    }
+
+    @Test
+    public void SkipsHedgeWhenPoolIsFull() throws Exception {
+        for (int i = 0; i < 10; i++) {
+            web3j.ethBlockNumber().send();
+            otherChain.ethBlockNumber().send();
+        }
+
+        //more concurrent slow reads than the shared hedge pool can take, spread over two chains so neither is at
+        //its own call limit; the rest must still be answered by the first node
+        primaryDelay = 2000;
+        secondaryDelay = 1000;
+        int reads = 16;
+        ExecutorService callers = Executors.newFixedThreadPool(reads);
+        List<Future<BigInteger>> results = new ArrayList<>();
+        for (int i = 0; i < reads; i++) {
+            Web3j chain = i % 2 == 0 ? web3j : otherChain;
+            results.add(callers.submit(() -> chain.ethBlockNumber().send().getBlockNumber()));
+        }
+
+        int fromPrimary = 0;
+        for (Future<BigInteger> result : results) {
+            if (result.get(10, TimeUnit.SECONDS).equals(BigInteger.ONE)) fromPrimary++;
+        }
+        callers.shutdown();
+
+        //the hedge pool runs 4 and queues 4
+        assertTrue("Only " + fromPrimary + " reads skipped the hedge", fromPrimary >= reads - 8);
+    }
+
+    @Test
+    public void BoundsConcurrentCalls() throws Exception {
+        //calls run synchronously, outside the OkHttp dispatcher, so only the chain's own limit of 16 bounds them
+        primaryDelay = 200;
+        int calls = 48;
+        ExecutorService callers = Executors.newFixedThreadPool(calls);
+        List<Future<String>> results = new ArrayList<>();
+        for (int i = 0; i < calls; i++) {
+            results.add(callers.submit(() -> web3j.ethSendRawTransaction("0x00").send().getTransactionHash()));
+        }
+        for (Future<String> result : results) {
+            assertEquals("0x1", result.get(10, TimeUnit.SECONDS));
+        }
+        callers.shutdown();
+
+        assertTrue("Nodes saw " + maxInFlight.get() + " concurrent calls", maxInFlight.get() <= 16);
+    }
+
+    private HttpServer stubNode(int result, boolean isPrimary) throws IOException {
+        HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", exchange -> {
+            int current = inFlight.incrementAndGet();
+            maxInFlight.accumulateAndGet(current, Math::max);
+            try {
+                Thread.sleep(isPrimary ? primaryDelay : secondaryDelay);
+            } catch (InterruptedException e) {
+                //
+            } finally {
+                inFlight.decrementAndGet();
+            }
+            byte[] response = ("{\"jsonrpc\":\"2.0\",\"id\":1,\"result\":\"0x" + result + "\"}").getBytes();
+            exchange.sendResponseHeaders(isPrimary ? primaryCode : 200, response.length);
+            try {
+                exchange.getResponseBody().write(response);
+            } catch (IOException e) {
+                //caller cancelled after the hedge won
+            }
+            exchange.close();
+        });
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.start();
+        return server;
+    }
+
+    private String url(HttpServer server) {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + "/";
+    }
+}
@@ -0,0 +1,138 @@
+package com.alphawallet.app;
+
+import com.alphawallet.app.entity.ContractType;
+import com.alphawallet.app.entity.TicketRangeElement;
+import com.alphawallet.app.entity.TicketRangeIndex;
+import com.alphawallet.app.entity.tokens.Ticket;
+import com.alphawallet.app.entity.tokens.Token;
+import com.alphawallet.app.entity.tokens.TokenInfo;
+import com.alphawallet.token.entity.TicketRange;
+
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Checks the bucketed grouping against sorting an element per id and walking the list, as the asset view used to.
+ */
+public class TicketRangeIndexTest
+{
+    private static final String CONTRACT = "0x63cCEF733a093E5Bd773b41C96D3eCE361464942";
+    private static final BigInteger TIME_MASK = BigInteger.valueOf(0xFF00);
+
+    //ids with a time in the masked bits, untimed ids (repeated, as ERC875 allows) and zero (burned) entries
+    private static final long[] MIXED_BALANCE = {
+            0x0301, 0x0102, 0x0007, 0, 0x0302, 0x0005, 0x0103, 0x0007, 0x0201, 0, 0x0003, 0x0104, 0x0303, 0x0005
+    };
+
+    @Test
+    public void GroupsTimedTicketsLikeSortedList()
+    {
+        Map<BigInteger, Integer> lookups = new TreeMap<>();
+        TicketRangeIndex.TimeResolver resolver = TicketRangeIndexTest::dayTime;
+        TicketRangeIndex.TimeResolver countingResolver = id -> {
+            lookups.merge(id.and(TIME_MASK), 1, Integer::sum);
+            return dayTime(id);
+        };
+
+        List<BigInteger> balance = balance(MIXED_BALANCE);
+        Token ticket = new Ticket(tokenInfo(), balance, 0, "ETH", ContractType.ERC875);
+
+        List<TicketRange> ranges = TicketRangeIndex.build(balance, TIME_MASK, countingResolver).getRanges(ticket);
+        assertSameRanges(sortedListRanges(ticket, balance, resolver), ranges);
+
+        //untimed ids are each shown apart, then one row per date
+        assertEquals(6, ranges.size());
+
+        //the bitfield time is looked up once per distinct value
+        assertEquals(4, lookups.size());
+        for (int count : lookups.values()) assertEquals(1, count);
+    }
+
+    @Test
+    public void GroupsWithoutTimeOrGroupingLikeSortedList()
+    {
+        List<BigInteger> balance = balance(MIXED_BALANCE);
+        TicketRangeIndex.TimeResolver resolver = TicketRangeIndexTest::dayTime;
+        Token ticket = new Ticket(tokenInfo(), balance, 0, "ETH", ContractType.ERC875);
+        Token plain = new Token(tokenInfo(), BigDecimal.ZERO, 0, "ETH", ContractType.OTHER);
+
+        //no time attribute: repeated ids still group together
+        assertSameRanges(sortedListRanges(ticket, balance, null),
+                TicketRangeIndex.build(balance, null, null).getRanges(ticket));
+
+        //time resolved per id, as for a function attribute
+        assertSameRanges(sortedListRanges(ticket, balance, resolver),
+                TicketRangeIndex.build(balance, null, resolver).getRanges(ticket));
+
+        //a token that doesn't group gets a row per id
+        List<TicketRange> ranges = TicketRangeIndex.build(balance, TIME_MASK, resolver).getRanges(plain);
+        assertSameRanges(sortedListRanges(plain, balance, resolver), ranges);
+        assertEquals(12, ranges.size());
+    }
+
+    //previous asset view grouping: an element per id, sorted, then walked with groupWithToken
+    private static List<TicketRange> sortedListRanges(Token t, List<BigInteger> idList, TicketRangeIndex.TimeResolver resolver)
+    {
+        List<TicketRangeElement> sortedList = new ArrayList<>();
+        for (BigInteger v : idList)
+        {
+            if (v.compareTo(BigInteger.ZERO) == 0) continue;
+            sortedList.add(new TicketRangeElement(v, resolver != null ? resolver.getTime(v) : 0));
+        }
+        TicketRangeElement.sortElements(sortedList);
+
+        List<TicketRange> ranges = new ArrayList<>();
+        TicketRange currentRange = null;
+        long currentTime = 0;
+        for (TicketRangeElement e : sortedList)
+        {
+            if (currentRange != null && t.groupWithToken(currentRange, e, currentTime))
+            {
+                currentRange.tokenIds.add(e.id);
+            }
+            else
+            {
+                currentRange = new TicketRange(e.id, t.getAddress());
+                ranges.add(currentRange);
+                currentTime = e.time;
+            }
+        }
+        return ranges;
+    }
+
+    private static void assertSameRanges(List<TicketRange> expected, List<TicketRange> actual)
+    {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++)
+        {
+            assertEquals(expected.get(i).tokenIds, actual.get(i).tokenIds);
+            assertEquals(expected.get(i).contractAddress, actual.get(i).contractAddress);
+        }
+    }
+
+    //day number held in the masked bits, zero for untimed ids
+    private static long dayTime(BigInteger id)
+    {
+        return id.and(TIME_MASK).shiftRight(8).longValue() * 86400;
+    }
+
+    private static List<BigInteger> balance(long[] ids)
+    {
+        List<BigInteger> balance = new ArrayList<>();
+        for (long id : ids) balance.add(BigInteger.valueOf(id));
+        return balance;
+    }
+
+    private static TokenInfo tokenInfo()
+    {
+        return new TokenInfo(CONTRACT, "Tickets", "TKT", 0, true, 1);
+    }
+}
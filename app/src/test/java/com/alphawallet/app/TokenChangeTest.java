@@ -0,0 +1,69 @@
+package com.alphawallet.app;
+
+import com.alphawallet.app.entity.ContractType;
+import com.alphawallet.app.entity.tokens.Token;
+import com.alphawallet.app.entity.tokens.TokenChange;
+import com.alphawallet.app.entity.tokens.TokenInfo;
+
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class TokenChangeTest
+{
+    private static final String DAI = "0x6B175474E89094C44Da98b954EedeAC495271d0F";
+    private static final String USDC = "0xa0b86991c6218b36c1d19d4a2e9eb0ce3606eb48";
+
+    @Test
+    public void KeepsLatestChangePerToken()
+    {
+        Token dai = token(DAI, 1);
+        Token daiUpdated = token(DAI.toLowerCase(), 1);
+        Token usdc = token(USDC, 1);
+
+        List<TokenChange> coalesced = TokenChange.coalesce(Arrays.asList(
+                new TokenChange(TokenChange.Type.ADDED, dai),
+                new TokenChange(TokenChange.Type.ADDED, usdc),
+                new TokenChange(TokenChange.Type.TICKER, dai),
+                new TokenChange(TokenChange.Type.BALANCE, daiUpdated)));
+
+        //one change per token, in the order each token first changed; address case doesn't matter
+        assertEquals(2, coalesced.size());
+        assertEquals(TokenChange.Type.BALANCE, coalesced.get(0).type);
+        assertSame(daiUpdated, coalesced.get(0).token);
+        assertEquals(TokenChange.Type.ADDED, coalesced.get(1).type);
+        assertSame(usdc, coalesced.get(1).token);
+    }
+
+    @Test
+    public void SeparatesChainsAndKeepsRemovals()
+    {
+        Token daiMainnet = token(DAI, 1);
+        Token daiXDai = token(DAI, 100);
+
+        List<TokenChange> coalesced = TokenChange.coalesce(Arrays.asList(
+                new TokenChange(TokenChange.Type.BALANCE, daiMainnet),
+                new TokenChange(TokenChange.Type.ADDED, daiXDai),
+                new TokenChange(TokenChange.Type.REMOVED, daiMainnet)));
+
+        assertEquals(2, coalesced.size());
+        assertEquals(TokenChange.Type.REMOVED, coalesced.get(0).type);
+        assertEquals(1, coalesced.get(0).token.tokenInfo.chainId);
+        assertEquals(TokenChange.Type.ADDED, coalesced.get(1).type);
+        assertEquals(100, coalesced.get(1).token.tokenInfo.chainId);
+
+        assertTrue(TokenChange.coalesce(Collections.emptyList()).isEmpty());
+    }
+
+    private static Token token(String address, int chainId)
+    {
+        return new Token(new TokenInfo(address, "Token", "TKN", 18, true, chainId), BigDecimal.ONE, 0, "ETH", ContractType.ERC20);
+    }
+}
@@ -0,0 +1,114 @@
+package com.alphawallet.app;
+
+import com.alphawallet.app.entity.ContractType;
+import com.alphawallet.app.entity.tokens.Ticket;
+import com.alphawallet.app.entity.tokens.Token;
+import com.alphawallet.app.entity.tokens.TokenInfo;
+import com.alphawallet.app.entity.tokens.TokenTicker;
+import com.alphawallet.app.repository.TokenSnapshotCache;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Writes a token list to the snapshot file and reads it back as the wallet would on cold start.
+ */
+public class TokenSnapshotCacheTest
+{
+    private static final String WALLET = "0xFBcA5D9C5eb3A8A0dD9aE6e5c8B4A7E6a5C1b3E2";
+
+    private File filesDir;
+    private TokenSnapshotCache cache;
+
+    @Before
+    public void setUp() throws IOException
+    {
+        filesDir = Files.createTempDirectory("snapshot").toFile();
+        cache = new TokenSnapshotCache(filesDir);
+    }
+
+    @After
+    public void tearDown()
+    {
+        cache.delete(WALLET);
+        new File(filesDir, "snapshots").delete();
+        filesDir.delete();
+    }
+
+    @Test
+    public void StoresAndLoadsTokens()
+    {
+        Token eth = new Token(new TokenInfo("0x0000000000000000000000000000000000000000", "Ethereum", "ETH", 18, true, 1),
+                new BigDecimal("1234500000000000000"), 1590000000000L, "ETH", ContractType.ETHEREUM);
+        eth.ticker = new TokenTicker("210.50", "-1.25", "USD", null, 1590000001000L);
+        eth.lastBlockCheck = 10040000;
+
+        Token dai = new Token(new TokenInfo("0x6B175474E89094C44Da98b954EedeAC495271d0F", "Dai Stablecoin", "DAI", 18, true, 1),
+                new BigDecimal("50000000000000000000"), 1590000000000L, "ETH", ContractType.ERC20);
+
+        List<BigInteger> ids = Arrays.asList(BigInteger.ZERO, new BigInteger("0100000000000000000000000000000000000000000000000000000000000005", 16),
+                new BigInteger("0100000000000000000000000000000000000000000000000000000000000005", 16), BigInteger.valueOf(7));
+        Token tickets = new Ticket(new TokenInfo("0x63cCEF733a093E5Bd773b41C96D3eCE361464942", "Tickets", "TKT", 0, true, 3),
+                ids, 1590000000000L, "ROP", ContractType.ERC875);
+
+        cache.store(WALLET, new Token[] { eth, dai, tickets }).blockingAwait();
+        Token[] loaded = cache.load(WALLET).blockingGet();
+
+        assertEquals(3, loaded.length);
+        assertSameToken(eth, loaded[0]);
+        assertSameToken(dai, loaded[1]);
+        assertSameToken(tickets, loaded[2]);
+
+        assertEquals(0, new BigDecimal("1234500000000000000").compareTo(loaded[0].balance));
+        assertEquals(10040000, loaded[0].lastBlockCheck);
+        assertEquals("210.50", loaded[0].ticker.price);
+        assertEquals("-1.25", loaded[0].ticker.percentChange24h);
+        assertEquals("USD", loaded[0].ticker.priceSymbol);
+        assertNull(loaded[0].ticker.image);
+        assertEquals(1590000001000L, loaded[0].ticker.updateTime);
+        assertNull(loaded[1].ticker);
+
+        assertTrue(loaded[2] instanceof Ticket);
+        assertEquals(ids, loaded[2].getArrayBalance());
+    }
+
+    @Test
+    public void DeletedSnapshotLoadsEmpty()
+    {
+        Token dai = new Token(new TokenInfo("0x6B175474E89094C44Da98b954EedeAC495271d0F", "Dai Stablecoin", "DAI", 18, true, 1),
+                BigDecimal.TEN, 1590000000000L, "ETH", ContractType.ERC20);
+        cache.store(WALLET, new Token[] { dai }).blockingAwait();
+        assertEquals(1, cache.load(WALLET.toLowerCase()).blockingGet().length);
+
+        cache.delete(WALLET);
+        assertEquals(0, cache.load(WALLET).blockingGet().length);
+        assertFalse(new File(new File(filesDir, "snapshots"), "tokens-" + WALLET.toLowerCase() + ".bin").exists());
+    }
+
+    private static void assertSameToken(Token expected, Token actual)
+    {
+        assertEquals(expected.tokenInfo.chainId, actual.tokenInfo.chainId);
+        assertEquals(expected.tokenInfo.address, actual.tokenInfo.address);
+        assertEquals(expected.tokenInfo.name, actual.tokenInfo.name);
+        assertEquals(expected.tokenInfo.symbol, actual.tokenInfo.symbol);
+        assertEquals(expected.tokenInfo.decimals, actual.tokenInfo.decimals);
+        assertEquals(expected.getInterfaceSpec(), actual.getInterfaceSpec());
+        assertEquals(expected.getNetworkName(), actual.getNetworkName());
+        assertEquals(expected.updateBlancaTime, actual.updateBlancaTime);
+        if (!expected.hasArrayBalance()) assertEquals(0, expected.balance.compareTo(actual.balance));
+    }
+}
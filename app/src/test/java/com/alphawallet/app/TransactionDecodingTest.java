@@ -3,8 +3,14 @@ package com.alphawallet.app;
 import com.alphawallet.app.entity.TransactionDecoder;
 import com.alphawallet.app.entity.TransactionInput;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 import org.junit.Test;
 import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
 
 /**
  * Created by weiwu on 7/3/18.
@@ -83,6 +89,79 @@ public class TransactionDecodingTest {
         }
     }
 
+    /**
+     * Decode the historical corpus with a single shared decoder and check it against the decodes
+     * recorded from the original string-slicing decoder.
+     */
+    @Test
+    public void DecodesHistoricalBatch() {
+        TransactionDecoder shared = new TransactionDecoder();
+        Map<String, Integer> functionCount = new TreeMap<>();
+        int addressCount = 0;
+        int paramCount = 0;
+        int sigCount = 0;
+        int miscCount = 0;
+        BigInteger paramSum = BigInteger.ZERO;
+        for (String testInput : inputTestList) {
+            TransactionInput i = shared.decodeInput(testInput);
+            String name = i.functionData.functionFullName;
+            functionCount.put(name, functionCount.containsKey(name) ? functionCount.get(name) + 1 : 1);
+            addressCount += i.addresses.size();
+            paramCount += i.paramValues.size();
+            sigCount += i.sigData.size();
+            miscCount += i.miscData.size();
+            for (BigInteger value : i.paramValues) paramSum = paramSum.add(value);
+        }
+
+        Map<String, Integer> expectedCount = new TreeMap<>();
+        expectedCount.put("N/A", 301);
+        expectedCount.put("endContract()", 2);
+        expectedCount.put("trade(uint256,uint16[],uint8,bytes32,bytes32)", 25);
+        expectedCount.put("transfer(address,uint16[])", 74);
+        expectedCount.put("transfer(address,uint256)", 6);
+        expectedCount.put("transferFrom(address,address,uint16[])", 127);
+        expectedCount.put("transferFrom(address,address,uint256)", 299);
+        assertEquals(expectedCount, functionCount);
+        assertEquals(932, addressCount);
+        assertEquals(562, paramCount);
+        assertEquals(75, sigCount);
+        assertEquals(330, miscCount);
+        assertEquals(BigInteger.valueOf(27682), paramSum);
+
+        TransactionInput i = shared.decodeInput(inputTestList[0]);
+        assertEquals("trade(uint256,uint16[],uint8,bytes32,bytes32)", i.functionData.functionFullName);
+        assertEquals(Arrays.asList(BigInteger.valueOf(33), BigInteger.valueOf(34), BigInteger.valueOf(35), BigInteger.valueOf(36)), i.paramValues);
+        assertEquals(Arrays.asList("000000000000000000000000000000000000000000000000000000000000001b",
+                "3b001a70e389356e7bb9dcf89ae132771fbebb0aadc84d2da54083a9f84a52c3",
+                "79d0ba25d819da836204269eb742e777fe27e3364220bc07bb7ebb8f3b55260a"), i.sigData);
+        assertEquals(Collections.singletonList("000000000000000000000000000000000000000000000000000000005aab55ba"), i.miscData);
+        assertTrue(i.addresses.isEmpty());
+
+        i = shared.decodeInput(inputTestList[3]);
+        assertEquals("transferFrom(address,address,uint16[])", i.functionData.functionFullName);
+        assertEquals(Arrays.asList("0x007bee82bdd9e866b2bd114780a47f2261c684e3", "0x000000000000000000000000000000000000dead"), i.addresses);
+        assertEquals(Collections.singletonList(BigInteger.valueOf(28)), i.paramValues);
+
+        //contract creation
+        assertEquals("N/A", shared.decodeInput(inputTestList[37]).functionData.functionName);
+    }
+
+    @Test
+    public void SelectorTableLookup() {
+        TransactionDecoder t = new TransactionDecoder();
+        assertEquals("transfer(address,uint256)", t.getFunction("0xa9059cbb").functionFullName);
+        assertNull(t.getFunction("0x12345678"));
+        assertNull(t.getFunction("0xa9059c"));
+
+        TransactionInput i = t.decodeInput("0xa9059cbb000000000000000000000000fe6d4bc2de2d0b0e6fe47f08a28ed52f9d052a020000000000000000000000000000000000000000000000000de0b6b3a7640000");
+        assertEquals("0xfe6d4bc2de2d0b0e6fe47f08a28ed52f9d052a02", i.getFirstAddress());
+        assertEquals("0000000000000000000000000000000000000000000000000de0b6b3a7640000", i.miscData.get(0));
+
+        t.addScanFunction("isStormBird()", false);
+        assertEquals("isStormBird", t.getFunction(TransactionDecoder.buildMethodId("isStormBird()")).functionName);
+        assertNull(new TransactionDecoder().getFunction(TransactionDecoder.buildMethodId("isStormBird()")));
+    }
+
 
 
 
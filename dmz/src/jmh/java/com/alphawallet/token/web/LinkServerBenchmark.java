@@ -0,0 +1,88 @@
+package com.alphawallet.token.web;
+
+import com.alphawallet.token.web.Service.BenchmarkLinks;
+import com.alphawallet.token.web.Service.EthRPCNodes;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Magic link pages served per second by concurrent clients as the node's response time grows, against a local
+ * stub RPC node. With on-chain checks off the request thread and rendered pages reused, throughput should stay
+ * roughly flat rather than falling in proportion to the node delay.
+ *
+ * With pageCache off, rendered pages are dropped before each request so every request does the on-chain checks
+ * (or falls back once the render timeout passes); this is the cost of a page seen for the first time. With it on,
+ * the links are all re-served from the page cache after warmup.
+ *
+ * Run with ./gradlew :dmz:jmh
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Threads(64)
+public class LinkServerBenchmark
+{
+    private static final int LINK_COUNT = 256;
+
+    @Param({ "0", "100", "500", "2000" })
+    public int nodeDelayMs;
+
+    @Param({ "false", "true" })
+    public boolean pageCache;
+
+    private final AtomicInteger next = new AtomicInteger();
+    private StubRpcNode node;
+    private AppSiteController controller;
+    private List<String> links;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception
+    {
+        node = new StubRpcNode(nodeDelayMs);
+        EthRPCNodes.setNodeOverride(node.getUrl());
+        controller = new AppSiteController();
+        links = BenchmarkLinks.create(LINK_COUNT);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown()
+    {
+        EthRPCNodes.setNodeOverride(null);
+        node.stop();
+    }
+
+    @Benchmark
+    public Object renderLink() throws Exception
+    {
+        String link = links.get(Math.floorMod(next.getAndIncrement(), LINK_COUNT));
+        if (!pageCache) AppSiteController.clearRenderedPages();
+        DeferredResult<ResponseEntity<String>> result = controller.renderLink(link, "aw.app", null);
+
+        CountDownLatch done = new CountDownLatch(1);
+        AtomicReference<Object> page = new AtomicReference<>();
+        result.setResultHandler(value -> {
+            page.set(value);
+            done.countDown();
+        });
+        done.await();
+        return page.get();
+    }
+}
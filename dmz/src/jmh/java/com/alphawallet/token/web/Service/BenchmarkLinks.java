@@ -0,0 +1,75 @@
+package com.alphawallet.token.web.Service;
+
+import com.alphawallet.token.entity.MagicLinkSigner;
+import com.alphawallet.token.tools.MagicLinkBatchGenerator;
+
+import org.web3j.crypto.ECKeyPair;
+import org.web3j.crypto.Keys;
+import org.web3j.crypto.Sign;
+
+import java.math.BigInteger;
+import java.security.SignatureException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Working set of valid magic links for the dmz benchmarks, signed by a throwaway key
+ */
+public class BenchmarkLinks
+{
+    public static final String CONTRACT = "0xbc9a1026a4bc6f0ba8bbe486d1d09da5732b39e4";
+
+    //link i transfers indices i and i + 1
+    public static List<String> create(int count) throws Exception
+    {
+        CryptoFunctions cryptoFunctions = new CryptoFunctions();
+        MagicLinkSigner signer = new LinkSigner(Keys.createEcKeyPair(), cryptoFunctions);
+
+        List<MagicLinkBatchGenerator.LinkRequest> requests = new ArrayList<>();
+        long expiry = System.currentTimeMillis() / 1000L + 86400;
+        for (int i = 0; i < count; i++)
+        {
+            requests.add(MagicLinkBatchGenerator.LinkRequest.normal(new int[] { i, i + 1 }, expiry));
+        }
+
+        List<String> links = new ArrayList<>();
+        new MagicLinkBatchGenerator(signer, null, 1, CONTRACT, BigInteger.ZERO, 4)
+                .generate(requests, (index, request, link) -> links.add(link));
+        return links;
+    }
+
+    private static class LinkSigner implements MagicLinkSigner
+    {
+        private final ECKeyPair keyPair;
+        private final CryptoFunctions cryptoFunctions;
+
+        LinkSigner(ECKeyPair keyPair, CryptoFunctions cryptoFunctions)
+        {
+            this.keyPair = keyPair;
+            this.cryptoFunctions = cryptoFunctions;
+        }
+
+        @Override
+        public byte[] signMessage(byte[] message)
+        {
+            Sign.SignatureData sigData = Sign.signMessage(message, keyPair);
+            byte[] sig = new byte[65];
+            System.arraycopy(sigData.getR(), 0, sig, 0, 32);
+            System.arraycopy(sigData.getS(), 0, sig, 32, 32);
+            sig[64] = sigData.getV()[0];
+            return sig;
+        }
+
+        @Override
+        public byte[] Base64Decode(String message) { return cryptoFunctions.Base64Decode(message); }
+        @Override
+        public byte[] Base64Encode(byte[] data) { return cryptoFunctions.Base64Encode(data); }
+        @Override
+        public BigInteger signedMessageToKey(byte[] data, byte[] signature) throws SignatureException
+        {
+            return cryptoFunctions.signedMessageToKey(data, signature);
+        }
+        @Override
+        public String getAddressFromKey(BigInteger recoveredKey) { return cryptoFunctions.getAddressFromKey(recoveredKey); }
+    }
+}
@@ -0,0 +1,82 @@
+package com.alphawallet.token.web.Service;
+
+import com.alphawallet.token.entity.MagicLinkData;
+import com.alphawallet.token.tools.ParseMagicLink;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Magic link verifications per second: the previous per-request parser and key recovery, the verifier on links it
+ * hasn't seen (every call recovers), and the verifier on a working set of popular links (every call hits the cache).
+ *
+ * Run with ./gradlew :dmz:jmh
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class MagicLinkVerifierBenchmark
+{
+    private static final int LINK_COUNT = 256;
+
+    private final CryptoFunctions cryptoFunctions = new CryptoFunctions();
+    private List<String> links;
+    private MagicLinkVerifier uncachedVerifier;
+    private MagicLinkVerifier cachedVerifier;
+    private int next;
+
+    @Setup
+    public void setup() throws Exception
+    {
+        links = BenchmarkLinks.create(LINK_COUNT);
+
+        uncachedVerifier = new MagicLinkVerifier(cryptoFunctions, 1);
+        cachedVerifier = new MagicLinkVerifier(cryptoFunctions, LINK_COUNT);
+        for (String link : links) cachedVerifier.verify(link);
+    }
+
+    @Benchmark
+    public Object parserPerRequest() throws Exception
+    {
+        ParseMagicLink parser = new ParseMagicLink(cryptoFunctions, null);
+        MagicLinkData data = parser.parseUniversalLink(nextLink());
+        parser.getOwnerKey(data);
+        return data;
+    }
+
+    @Benchmark
+    public Object verifyCacheMiss() throws Exception
+    {
+        return uncachedVerifier.verify(nextLink());
+    }
+
+    @Benchmark
+    public Object verifyCacheHit() throws Exception
+    {
+        return cachedVerifier.verify(nextLink());
+    }
+
+    @Benchmark
+    @Threads(4)
+    public Object verifyCacheHitContended() throws Exception
+    {
+        return cachedVerifier.verify(nextLink());
+    }
+
+    private String nextLink()
+    {
+        //benign race between benchmark threads; any link from the set will do
+        int index = next;
+        next = (index + 1) % LINK_COUNT;
+        return links.get(index);
+    }
+}
@@ -0,0 +1,86 @@
+package com.alphawallet.token.web.Service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.InputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Link page render cost without the on-chain calls: the previous per-request template load plus String.format of
+ * the card script and page shell, against the compiled templates with the card view bound once.
+ *
+ * Run with ./gradlew :dmz:jmh
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class PageRenderBenchmark
+{
+    private static final String SHELL = "templates/tokenscriptTemplate.html";
+    private static final String CARD = "templates/token_inject.js.tokenscript";
+
+    private String view;
+    private String style;
+    private String tokenData;
+    private PageTemplate pageShell;
+    private PageTemplate cardView;
+
+    @Setup
+    public void setup()
+    {
+        //typical TokenScript card: a few KB of view markup
+        StringBuilder sb = new StringBuilder("<div class=\"card\">");
+        for (int i = 0; i < 40; i++)
+        {
+            sb.append("<div class=\"row\"><span class=\"label\">Attribute ").append(i)
+                    .append("</span><span class=\"value\" id=\"attr").append(i).append("\"></span></div>\n");
+        }
+        view = sb.append("</div>").toString();
+        style = "<style>.card { font-family: sans-serif; } .row { display: flex; }</style>";
+        tokenData = "name: \"Stub Token\",\nsymbol: \"STUB\",\n_count: \"2\",\nlocality: \"Moscow\",\nvenue: \"Stadium\",\n";
+
+        pageShell = PageTemplate.fromResource(SHELL);
+        cardView = PageTemplate.fromResource(CARD).bind(2, view);
+    }
+
+    @Benchmark
+    public String formatPerRequest() throws Exception
+    {
+        String tokenView = String.format(loadFile(CARD), tokenData, view);
+        return String.format(loadFile(SHELL), pageArgs(tokenView));
+    }
+
+    @Benchmark
+    public String compiledTemplates()
+    {
+        return pageShell.render(pageArgs(cardView.with(tokenData)));
+    }
+
+    private Object[] pageArgs(Object tokenView)
+    {
+        return new Object[] {
+                "2 Tokens available", style, "2", "Stub Token(STUB)", "", "0 ETH", "available", 2, "Stub Token",
+                tokenView, "<span title=\"Unix Time is 1600000000\">Sun Sep 13 12:26:40 UTC 2020</span>",
+                "\"AQAAAAAAAAA\"", "\"https://aw.app/AQAAAAAAAAA\"", "https://etherscan.io/address/0x0",
+                "0x0000000000000000000000000000000000000000", "https://etherscan.io/address/0x1",
+                "0xbc9a1026a4bc6f0ba8bbe486d1d09da5732b39e4"
+        };
+    }
+
+    //as the controller used to load templates
+    private String loadFile(String fileName) throws Exception
+    {
+        try (InputStream in = getClass().getClassLoader().getResourceAsStream(fileName))
+        {
+            byte[] buffer = new byte[in.available()];
+            int len = in.read(buffer);
+            return new String(buffer, 0, len);
+        }
+    }
+}
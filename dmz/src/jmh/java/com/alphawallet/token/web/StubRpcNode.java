@@ -0,0 +1,113 @@
+package com.alphawallet.token.web;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.Executors;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Minimal local JSON-RPC node that answers after a fixed delay, standing in for a slow Ethereum node.
+ *
+ * Answers web3_clientVersion and the eth_calls the link server makes: name(), symbol() and balanceOf(address)
+ * returning a uint256[] in which every index up to BALANCE_COUNT holds a token.
+ */
+public class StubRpcNode
+{
+    public static final int BALANCE_COUNT = 300;
+
+    private static final Pattern ID = Pattern.compile("\"id\"\\s*:\\s*(\\d+)");
+    private static final String NAME = "0x06fdde03";
+    private static final String SYMBOL = "0x95d89b41";
+    private static final String BALANCE_OF = "0x70a08231";
+
+    private final HttpServer server;
+    private final int delayMs;
+    private final String balanceResult;
+
+    public StubRpcNode(int delayMs) throws IOException
+    {
+        this.delayMs = delayMs;
+        StringBuilder sb = new StringBuilder("0x").append(word(32)).append(word(BALANCE_COUNT));
+        for (int i = 1; i <= BALANCE_COUNT; i++) sb.append(word(i));
+        balanceResult = sb.toString();
+
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", this::handle);
+        //one thread per waiting call so the delay models node latency, not stub queueing
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.start();
+    }
+
+    public String getUrl()
+    {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    public void stop()
+    {
+        server.stop(0);
+    }
+
+    private void handle(HttpExchange exchange) throws IOException
+    {
+        String request = readBody(exchange.getRequestBody());
+        Matcher m = ID.matcher(request);
+        String id = m.find() ? m.group(1) : "1";
+
+        String result;
+        if (request.contains("web3_clientVersion")) result = "\"StubRpcNode\"";
+        else if (request.contains(NAME)) result = "\"" + encodeString("Stub Token") + "\"";
+        else if (request.contains(SYMBOL)) result = "\"" + encodeString("STUB") + "\"";
+        else if (request.contains(BALANCE_OF)) result = "\"" + balanceResult + "\"";
+        else result = "\"0x\"";
+
+        try
+        {
+            if (delayMs > 0) Thread.sleep(delayMs);
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+        }
+
+        byte[] response = ("{\"jsonrpc\":\"2.0\",\"id\":" + id + ",\"result\":" + result + "}").getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, response.length);
+        try (OutputStream os = exchange.getResponseBody())
+        {
+            os.write(response);
+        }
+    }
+
+    private static String readBody(InputStream in) throws IOException
+    {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[1024];
+        int read;
+        while ((read = in.read(buffer)) != -1) out.write(buffer, 0, read);
+        return new String(out.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    private static String encodeString(String value)
+    {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        StringBuilder sb = new StringBuilder("0x").append(word(32)).append(word(bytes.length));
+        StringBuilder data = new StringBuilder();
+        for (byte b : bytes) data.append(String.format("%02x", b));
+        while (data.length() % 64 != 0 || data.length() == 0) data.append('0');
+        return sb.append(data).toString();
+    }
+
+    private static String word(long value)
+    {
+        return String.format("%064x", value);
+    }
+}
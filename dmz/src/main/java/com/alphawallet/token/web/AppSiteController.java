@@ -6,7 +6,9 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
@@ -16,10 +18,12 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseBody;
+import org.springframework.web.context.request.async.DeferredResult;
 import org.springframework.web.multipart.MultipartFile;
 import org.springframework.web.servlet.NoHandlerFoundException;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 import org.springframework.web.servlet.view.RedirectView;
+import org.web3j.crypto.Hash;
 import org.xml.sax.SAXException;
 
 import java.io.File;
@@ -34,13 +38,23 @@ import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Calendar;
+import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import javax.servlet.http.HttpServletRequest;
@@ -56,12 +70,15 @@ import com.alphawallet.token.entity.SalesOrderMalformed;
 import com.alphawallet.token.entity.XMLDsigVerificationResult;
 import com.alphawallet.token.entity.TokenScriptResult;
 import com.alphawallet.token.entity.TransactionResult;
-import com.alphawallet.token.tools.ParseMagicLink;
+import com.alphawallet.token.tools.AttributeEngine;
 import com.alphawallet.token.tools.TokenDefinition;
 import com.alphawallet.token.tools.XMLDSigVerifier;
 import com.alphawallet.token.web.Ethereum.TokenscriptFunction;
 import com.alphawallet.token.web.Ethereum.TransactionHandler;
 import com.alphawallet.token.web.Service.CryptoFunctions;
+import com.alphawallet.token.web.Service.EthRPCNodes;
+import com.alphawallet.token.web.Service.MagicLinkVerifier;
+import com.alphawallet.token.web.Service.PageTemplate;
 import static com.alphawallet.token.tools.Convert.getEthString;
 import static com.alphawallet.token.tools.ParseMagicLink.normal;
 import static com.alphawallet.token.tools.ParseMagicLink.spawnable;
@@ -73,7 +90,31 @@ import static com.alphawallet.token.web.Ethereum.TokenscriptFunction.ZERO_ADDRES
 public class AppSiteController implements AttributeInterface
 {
     private static CryptoFunctions cryptoFunctions = new CryptoFunctions();
-    private static Map<Integer, Map<String, File>> addresses;
+    private static final MagicLinkVerifier linkVerifier = new MagicLinkVerifier(cryptoFunctions);
+
+    //on-chain checks for link pages; bounded so a slow node can't pile up work without limit
+    private static final int CHAIN_THREADS = 32;
+    private static final int CHAIN_QUEUE = 256;
+    private static final long RENDER_TIMEOUT_MS = 8000;
+    private static final long PAGE_CACHE_MS = 30 * 1000;
+    private static final int PAGE_CACHE_SIZE = 1000;
+    private static final ExecutorService chainExecutor = new ThreadPoolExecutor(CHAIN_THREADS, CHAIN_THREADS,
+            60, TimeUnit.SECONDS, new ArrayBlockingQueue<>(CHAIN_QUEUE));
+    private static final ScheduledExecutorService timeoutScheduler = Executors.newSingleThreadScheduledExecutor();
+    private static final Map<String, CachedPage> renderedPages = Collections.synchronizedMap(
+            new LinkedHashMap<String, CachedPage>(PAGE_CACHE_SIZE, 0.75f, true)
+            {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, CachedPage> eldest)
+                {
+                    return size() > PAGE_CACHE_SIZE;
+                }
+            });
+    private static Map<Integer, Map<String, File>> addresses = new HashMap<>();
+    private static final Map<File, TokenCard> tokenCards = new ConcurrentHashMap<>();
+    //page shell and the card script, compiled once
+    private static final PageTemplate pageShell = PageTemplate.fromResource("templates/tokenscriptTemplate.html");
+    private static final PageTemplate cardScript = PageTemplate.fromResource("templates/token_inject.js.tokenscript");
     private static Map<Integer, Map<String, Map<BigInteger, CachedResult>>> transactionResults = new ConcurrentHashMap<>();  //optimisation results
     private static final String appleAssociationConfig = "{\n" +
             "  \"applinks\": {\n" +
@@ -97,47 +138,170 @@ public class AppSiteController implements AttributeInterface
         return appleAssociationConfig;
     }
 
+    @GetMapping(value = "/api/v1/magicLinkStats", produces = "application/json")
+    @ResponseBody
+    public String getMagicLinkStats() {
+        JsonObject stats = linkVerifier.getStats();
+        AttributeEngine.Stats engineStats = TokenscriptFunction.getEngine().getStats();
+        JsonObject attributeCalls = new JsonObject();
+        attributeCalls.put("requests", engineStats.requests);
+        attributeCalls.put("memoHits", engineStats.memoHits);
+        attributeCalls.put("sharedCalls", engineStats.sharedCalls);
+        attributeCalls.put("nodeCalls", engineStats.transportCalls);
+        attributeCalls.put("failures", engineStats.failures);
+        attributeCalls.put("avgCallMicros", engineStats.avgCallMicros);
+        stats.put("attributeCalls", attributeCalls);
+        return stats.toJson();
+    }
+
     @GetMapping("/")
     public RedirectView home(RedirectAttributes attributes){
         return new RedirectView("http://alphawallet.com");
     }
 
     @GetMapping(value = "/{UniversalLink}")
-    public @ResponseBody String handleUniversalLink(
+    public DeferredResult<ResponseEntity<String>> handleUniversalLink(
             @PathVariable("UniversalLink") String universalLink,
             Model model,
             HttpServletRequest request
     )
-            throws IOException, SAXException, NoHandlerFoundException
     {
-        String domain = request.getServerName();
-        ParseMagicLink parser = new ParseMagicLink(cryptoFunctions, null);
-        MagicLinkData data;
         model.addAttribute("base64", universalLink);
+        return renderLink(universalLink, request.getServerName(), request.getHeader(HttpHeaders.IF_NONE_MATCH));
+    }
+
+    /**
+     * Render the link page off the servlet thread. On-chain checks run on chainExecutor; if they haven't finished
+     * within RENDER_TIMEOUT_MS, or the executor is saturated, the last page rendered for the link is served, or
+     * failing that a page built without the on-chain checks. A rendered page is reused for PAGE_CACHE_MS.
+     *
+     * Rendered pages carry an ETag derived from the link and the on-chain state shown on the page, so a client
+     * revalidating an unchanged page gets a 304 without the body.
+     */
+    DeferredResult<ResponseEntity<String>> renderLink(String universalLink, String domain, String ifNoneMatch)
+    {
+        //the container timeout is only a backstop; the render timeout below serves the fallback first
+        DeferredResult<ResponseEntity<String>> result = new DeferredResult<>(RENDER_TIMEOUT_MS * 2);
+        MagicLinkData data;
 
         try
         {
-            data = parser.parseUniversalLink(universalLink);
+            data = linkVerifier.verify(universalLink);
             data.chainId = MagicLinkInfo.getNetworkIdFromDomain(domain);
-            model.addAttribute("domain", MagicLinkInfo.getMagicLinkDomainFromNetworkId(data.chainId));
         }
         catch (SalesOrderMalformed e)
         {
-            return "error: " + e;
+            result.setResult(ResponseEntity.ok("error: " + e));
+            return result;
+        }
+
+        String pageKey = data.chainId + "-" + universalLink;
+        CachedPage cached = renderedPages.get(pageKey);
+        if (cached != null && System.currentTimeMillis() - cached.renderTime < PAGE_CACHE_MS)
+        {
+            result.setResult(pageResponse(cached, ifNoneMatch));
+            return result;
+        }
+
+        result.onTimeout(() -> result.setResult(pageResponse(fallbackPage(data, universalLink, cached), ifNoneMatch)));
+        ScheduledFuture<?> timeout = timeoutScheduler.schedule(
+                () -> result.setResult(pageResponse(fallbackPage(data, universalLink, cached), ifNoneMatch)),
+                RENDER_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+
+        try
+        {
+            chainExecutor.execute(() -> {
+                try
+                {
+                    CachedPage page = handleTokenLink(data, universalLink);
+                    renderedPages.put(pageKey, page);
+                    result.setResult(pageResponse(page, ifNoneMatch));
+                }
+                catch (Exception e)
+                {
+                    result.setErrorResult(e);
+                }
+                timeout.cancel(false);
+            });
         }
-        parser.getOwnerKey(data);
-        return handleTokenLink(data, universalLink);
+        catch (RejectedExecutionException e)
+        {
+            //node calls are backed up; don't queue more behind them
+            timeout.cancel(false);
+            result.setResult(pageResponse(fallbackPage(data, universalLink, cached), ifNoneMatch));
+        }
+
+        return result;
+    }
+
+    //drop reusable pages so the next render of each link does the on-chain checks; for benchmarks
+    static void clearRenderedPages()
+    {
+        renderedPages.clear();
     }
 
-    private String handleTokenLink(MagicLinkData data, String universalLink
+    private CachedPage fallbackPage(MagicLinkData data, String universalLink, CachedPage stale)
+    {
+        if (stale != null) return stale;
+
+        String tokenName = TransactionHandler.getCachedString(data.chainId, data.contractAddress, "name");
+        String symbol = TransactionHandler.getCachedString(data.chainId, data.contractAddress, "symbol");
+        String available = Calendar.getInstance().getTime().after(new Date(data.expiry*1000)) ? "expired" : "unconfirmed";
+        //not cached and no ETag: the page will change once the node answers
+        return new CachedPage(formWebPage(tokenName != null ? tokenName : "", symbol != null ? symbol : "",
+                                          data, universalLink, available, "", ""), null);
+    }
+
+    private static ResponseEntity<String> pageResponse(CachedPage page, String ifNoneMatch)
+    {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok().contentType(MediaType.TEXT_HTML);
+        if (page.etag == null)
+        {
+            return response.cacheControl(CacheControl.noCache()).body(page.page);
+        }
+        else if (etagMatches(page.etag, ifNoneMatch))
+        {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(page.etag).build();
+        }
+        else
+        {
+            return response.eTag(page.etag).body(page.page);
+        }
+    }
+
+    private static boolean etagMatches(String etag, String ifNoneMatch)
+    {
+        if (ifNoneMatch == null) return false;
+        for (String tag : ifNoneMatch.split(","))
+        {
+            tag = tag.trim();
+            //compression may have weakened the tag
+            if (tag.startsWith("W/")) tag = tag.substring(2);
+            if (tag.equals(etag) || tag.equals("*")) return true;
+        }
+        return false;
+    }
+
+    /**
+     * ETag for a page: the link plus everything read from the chain that the page shows
+     */
+    private static String pageETag(String universalLink, int chainId, String... state)
+    {
+        StringBuilder sb = new StringBuilder(universalLink).append('|').append(chainId);
+        for (String s : state) sb.append('|').append(s);
+        return "\"" + Hash.sha3String(sb.toString()).substring(2, 34) + "\"";
+    }
+
+    private CachedPage handleTokenLink(MagicLinkData data, String universalLink
     ) throws IOException, SAXException, NoHandlerFoundException
     {
-        TokenDefinition definition = getTokenDefinition(data.chainId, data.contractAddress);
+        TokenCard card = getTokenCard(data.chainId, data.contractAddress);
 
-        if (definition == null)
+        if (card == null)
         {
             return renderTokenWithoutTokenScript(data, universalLink);
         }
+        TokenDefinition definition = card.definition;
         String available = "available";
         try
         {
@@ -191,16 +355,13 @@ public class AppSiteController implements AttributeInterface
             available = "expired";
         }
 
-        String view = definition.getCardData("view");
-        String style = definition.getCardData("style");
-
-        String scriptData = loadFile("templates/token_inject.js.tokenscript");
-        String tokenView = String.format(scriptData, tokenData.toString(), view);
-
-        return formWebPage(txHandler, data, universalLink, available, style, tokenView);
+        String page = formWebPage(tokenName, symbol, data, universalLink, available, card.style,
+                                  card.view.with(tokenData));
+        return new CachedPage(page, pageETag(universalLink, data.chainId, available, tokenData.toString(),
+                                             String.valueOf(card.version)));
     }
 
-    private String renderTokenWithoutTokenScript(MagicLinkData data, String universalLink)
+    private CachedPage renderTokenWithoutTokenScript(MagicLinkData data, String universalLink)
     {
         TransactionHandler txHandler = new TransactionHandler(data.chainId);
         String available = "available";
@@ -226,28 +387,28 @@ public class AppSiteController implements AttributeInterface
             available = "unavailable";
         }
 
-        return formWebPage(txHandler, data, universalLink, available, "", "");
+        String tokenName = txHandler.getName(data.contractAddress);
+        String symbol = txHandler.getSymbolOnly(data.contractAddress);
+        String page = formWebPage(tokenName, symbol, data, universalLink, available, "", "");
+        return new CachedPage(page, pageETag(universalLink, data.chainId, available, tokenName, symbol));
     }
 
     private String formWebPage(
-            TransactionHandler txHandler,
+            String tokenName,
+            String symbol,
             MagicLinkData data,
             String universalLink,
             String available,
             String style,
-            String tokenView
+            Object tokenView
     )
     {
-        String tokenName = txHandler.getName(data.contractAddress);
-        String symbol = txHandler.getSymbolOnly(data.contractAddress);
         String nameWithSymbol = tokenName + "(" + symbol + ")";
 
         String price = getEthString(data.price) + " " + MagicLinkInfo.getNetworkNameById(data.chainId);
 
         String title = data.ticketCount + " Tokens " + available;
 
-        String initHTML = loadFile("templates/tokenscriptTemplate.html");
-
         String expiry = new java.util.Date(data.expiry * 1000).toString();
 
         String availableUntil = "<span title=\"Unix Time is " + data.expiry + "\">" + expiry + "</span>";
@@ -257,8 +418,7 @@ public class AppSiteController implements AttributeInterface
         String etherscanAccountLink = MagicLinkInfo.getEtherscanURLbyNetwork(data.chainId) + "address/" + data.ownerAddress;
         String etherscanTokenLink = MagicLinkInfo.getEtherscanURLbyNetwork(data.chainId) + "address/" + data.contractAddress;
 
-        return String.format(
-                initHTML,
+        return pageShell.render(
                 title,
                 style,
                 String.valueOf(data.ticketCount),
@@ -279,10 +439,13 @@ public class AppSiteController implements AttributeInterface
         );
     }
 
-    private TokenDefinition getTokenDefinition(int chainId, String contractAddress) throws IOException, SAXException, NoHandlerFoundException
+    /**
+     * Parsed TokenScript and its compiled card for the contract, reparsed only when the file changes
+     */
+    private TokenCard getTokenCard(int chainId, String contractAddress) throws IOException, SAXException, NoHandlerFoundException
     {
         File xml = null;
-        TokenDefinition definition = null;
+        TokenCard card = null;
         if (addresses.containsKey(chainId) && addresses.get(chainId).containsKey(contractAddress))
         {
             xml = addresses.get(chainId).get(contractAddress);
@@ -290,13 +453,19 @@ public class AppSiteController implements AttributeInterface
                 /* this is impossible to happen, because at least 1 xml should present or main() bails out */
                 throw new NoHandlerFoundException("GET", "/" + contractAddress, new HttpHeaders());
             }
-            try(FileInputStream in = new FileInputStream(xml)) {
-                // TODO: give more detail in the error
-                // TODO: reflect on this: should the page bail out for contracts with completely no matching XML?
-                definition = new TokenDefinition(in, new Locale("en"), null);
+            card = tokenCards.get(xml);
+            if (card == null || card.version != xml.lastModified())
+            {
+                long version = xml.lastModified();
+                try(FileInputStream in = new FileInputStream(xml)) {
+                    // TODO: give more detail in the error
+                    // TODO: reflect on this: should the page bail out for contracts with completely no matching XML?
+                    card = new TokenCard(new TokenDefinition(in, new Locale("en"), null), version);
+                }
+                tokenCards.put(xml, card);
             }
         }
-        return definition;
+        return card;
     }
 
     private void checkTokensClaimableSpawnable(MagicLinkData data) throws Exception {
@@ -373,6 +542,11 @@ public class AppSiteController implements AttributeInterface
         repoDir = Paths.get(value);
     }
 
+    @Value("${node.override:}")
+    public void setNodeOverride(String value) {
+        EthRPCNodes.setNodeOverride(value);
+    }
+
     public static void main(String[] args) throws IOException { // TODO: should run System.exit() if IOException
         addresses = new HashMap<Integer, Map<String, File>>();
         SpringApplication.run(AppSiteController.class, args);
@@ -444,22 +618,6 @@ public class AppSiteController implements AttributeInterface
         return addrMap;
     }
 
-    private String loadFile(String fileName) {
-        byte[] buffer = new byte[0];
-        try {
-            InputStream in = getClass()
-                    .getClassLoader().getResourceAsStream(fileName);
-            buffer = new byte[in.available()];
-            int len = in.read(buffer);
-            if (len < 1) {
-                throw new IOException("Nothing is read.");
-            }
-        } catch (Exception ex) {
-            ex.printStackTrace();
-        }
-        return new String(buffer);
-    }
-
     //These functions are for caching and restoring results for optimsation.
     //TODO: rather than a simple time invalidation method, periodically scan transactions for token contracts which have entries in this mapping
     //      if any of those contracts has had a transaction written to it, then refresh all the cached entries
@@ -510,6 +668,36 @@ public class AppSiteController implements AttributeInterface
         return ZERO_ADDRESS;
     }
 
+    private static class CachedPage
+    {
+        final String page;
+        final String etag;
+        final long renderTime;
+
+        CachedPage(String page, String etag)
+        {
+            this.page = page;
+            this.etag = etag;
+            this.renderTime = System.currentTimeMillis();
+        }
+    }
+
+    private static class TokenCard
+    {
+        final TokenDefinition definition;
+        final String style;
+        final PageTemplate view;   //card script with the TokenScript view inlined; slot 1 is the token data
+        final long version;
+
+        TokenCard(TokenDefinition definition, long version)
+        {
+            this.definition = definition;
+            this.style = definition.getCardData("style");
+            this.view = cardScript.bind(2, definition.getCardData("view"));
+            this.version = version;
+        }
+    }
+
     /**
      * Can ditch this class once we have the transaction optimisation working as detailed in the "TO-DO" above
      */
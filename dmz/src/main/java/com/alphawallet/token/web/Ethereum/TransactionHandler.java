@@ -12,15 +12,18 @@ import org.web3j.abi.datatypes.generated.Uint256;
 import org.web3j.protocol.Web3j;
 import org.web3j.protocol.core.DefaultBlockParameterName;
 import org.web3j.protocol.core.methods.request.Transaction;
-import org.web3j.protocol.core.methods.response.Web3ClientVersion;
 import org.web3j.protocol.http.HttpService;
 
+import java.io.IOException;
 import java.math.BigInteger;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 import com.alphawallet.token.entity.BadContract;
 import com.alphawallet.token.tools.Numeric;
@@ -30,25 +33,56 @@ import okhttp3.OkHttpClient;
 
 public class TransactionHandler
 {
-    private static Web3j mWeb3;
+    private static final long NODE_TIMEOUT_SECONDS = 5;
+
+    //one connection pool per node, shared by all requests
+    private static final Map<String, Web3j> nodes = new ConcurrentHashMap<>();
+    //token names and symbols don't change; avoid a node call per page view
+    private static final Map<String, String> contractStrings = new ConcurrentHashMap<>();
+
+    private final Web3j mWeb3;
+    private final int networkId;
 
     public TransactionHandler(int networkId)
     {
-        String nodeURL = EthRPCNodes.getNodeURLByNetworkId(networkId);
+        this.networkId = networkId;
+        mWeb3 = getWeb3j(networkId);
+    }
+
+    public static Web3j getWeb3j(int networkId)
+    {
+        return nodes.computeIfAbsent(EthRPCNodes.getNodeURLByNetworkId(networkId), TransactionHandler::buildNode);
+    }
+
+    private static Web3j buildNode(String nodeURL)
+    {
         OkHttpClient.Builder builder = new OkHttpClient.Builder();
-        builder.connectTimeout(20, TimeUnit.SECONDS);
-        builder.readTimeout(20, TimeUnit.SECONDS);
+        builder.connectTimeout(NODE_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        builder.readTimeout(NODE_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        builder.writeTimeout(NODE_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        builder.retryOnConnectionFailure(false);
         HttpService service = new HttpService(nodeURL, builder.build(), false);
-        mWeb3 = Web3j.build(service);
-        try
-        {
-            Web3ClientVersion web3ClientVersion = mWeb3.web3ClientVersion().sendAsync().get();
-            System.out.println(web3ClientVersion.getWeb3ClientVersion());
-        }
-        catch (Exception e)
-        {
-            e.printStackTrace();
-        }
+        Web3j web3 = Web3j.build(service);
+        web3.web3ClientVersion().sendAsync()
+                .thenAccept(version -> System.out.println(nodeURL + ": " + version.getWeb3ClientVersion()));
+        return web3;
+    }
+
+    /**
+     * Name (or symbol) from an earlier call, without touching the node; null if not seen yet
+     */
+    public static String getCachedString(int networkId, String address, String param)
+    {
+        return contractStrings.get(networkId + "-" + address.toLowerCase() + "-" + param);
+    }
+
+    /**
+     * eth_call on the shared connection for the chain; transport for the TokenScript AttributeEngine
+     */
+    public static String ethCall(int networkId, String from, String to, String data) throws IOException
+    {
+        Transaction transaction = Transaction.createEthCallTransaction(from, to, data);
+        return getWeb3j(networkId).ethCall(transaction, DefaultBlockParameterName.LATEST).send().getValue();
     }
 
     public List<BigInteger> getBalanceArray(String address, String contractAddress) throws Exception
@@ -69,7 +103,7 @@ public class TransactionHandler
         String name = "";
         try
         {
-            name = callSmartContractAndGetResult(address, stringParam("name"));
+            name = getContractString(address, "name");
         }
         catch (Exception e)
         {
@@ -84,7 +118,7 @@ public class TransactionHandler
         String symbol = "";
         try
         {
-            symbol = callSmartContractAndGetResult(address, stringParam("symbol"));
+            symbol = getContractString(address, "symbol");
         }
         catch (Exception e)
         {
@@ -99,7 +133,7 @@ public class TransactionHandler
         String name = "";
         try
         {
-            name = callSmartContractAndGetResult(address, stringParam("name"));
+            name = getContractString(address, "name");
         }
         catch (Exception e)
         {
@@ -138,6 +172,18 @@ public class TransactionHandler
         return castBalances;
     }
 
+    private String getContractString(String address, String param) throws Exception
+    {
+        String key = networkId + "-" + address.toLowerCase() + "-" + param;
+        String value = contractStrings.get(key);
+        if (value == null)
+        {
+            value = callSmartContractAndGetResult(address, stringParam(param));
+            if (value != null && value.length() > 0) contractStrings.put(key, value);
+        }
+        return value;
+    }
+
     private <T> T callSmartContractAndGetResult(String address, org.web3j.abi.datatypes.Function function) throws Exception
     {
         String responseValue = callSmartContractFunction(function, address);
@@ -162,11 +208,11 @@ public class TransactionHandler
                         .createEthCallTransaction(null, contractAddress, encodedFunction));
     }
 
-    private String makeEthCall(Transaction transaction) throws ExecutionException, InterruptedException
+    private String makeEthCall(Transaction transaction) throws ExecutionException, InterruptedException, TimeoutException
     {
         org.web3j.protocol.core.methods.response.EthCall ethCall = mWeb3.ethCall(transaction,
                 DefaultBlockParameterName.LATEST)
-                .sendAsync().get();
+                .sendAsync().get(NODE_TIMEOUT_SECONDS, TimeUnit.SECONDS);
         return ethCall.getValue();
     }
 
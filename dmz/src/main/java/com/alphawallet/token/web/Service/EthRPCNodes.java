@@ -28,7 +28,16 @@ public class EthRPCNodes
     private static final String ARTIS_TAU1_RPC_URL = "https://rpc.tau1.artis.network";
 
 
+    //when set, all chains are served by this node; for local testing against a stub RPC
+    private static volatile String nodeOverride;
+
+    public static void setNodeOverride(String url)
+    {
+        nodeOverride = (url == null || url.isEmpty()) ? null : url;
+    }
+
     public static String getNodeURLByNetworkId(int networkId) {
+        if (nodeOverride != null) return nodeOverride;
         switch (networkId) {
             case MAINNET_NETWORK_ID:
                 return MAINNET_RPC_URL;
@@ -0,0 +1,123 @@
+package com.alphawallet.token.web.Service;
+
+import com.alphawallet.token.entity.CryptoFunctionsInterface;
+import com.alphawallet.token.entity.MagicLinkData;
+import com.alphawallet.token.entity.SalesOrderMalformed;
+import com.alphawallet.token.tools.ParseMagicLink;
+import com.github.cliftonlabs.json_simple.JsonObject;
+
+import java.nio.ByteBuffer;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Parses magic links and recovers the signer's address, caching the recovered address by signed message.
+ *
+ * EC key recovery is the most expensive step of serving a link, and popular links are opened many times, so the
+ * last CACHE_SIZE (message, signature) pairs are kept in an LRU map. A single ParseMagicLink is shared by all
+ * request threads; parsing only reads its chain list.
+ */
+public class MagicLinkVerifier
+{
+    private static final int CACHE_SIZE = 10000;
+
+    private final ParseMagicLink parser;
+    private final Map<ByteBuffer, String> ownerCache;
+
+    private final long startTime = System.nanoTime();
+    private final LongAdder verified = new LongAdder();
+    private final LongAdder malformed = new LongAdder();
+    private final LongAdder cacheHits = new LongAdder();
+    private final LongAdder recoveries = new LongAdder();
+    private final LongAdder recoveryNanos = new LongAdder();
+
+    public MagicLinkVerifier(CryptoFunctionsInterface cryptoFunctions)
+    {
+        this(cryptoFunctions, CACHE_SIZE);
+    }
+
+    public MagicLinkVerifier(CryptoFunctionsInterface cryptoFunctions, int cacheSize)
+    {
+        parser = new ParseMagicLink(cryptoFunctions, null);
+        ownerCache = Collections.synchronizedMap(new LinkedHashMap<ByteBuffer, String>(cacheSize, 0.75f, true)
+        {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<ByteBuffer, String> eldest)
+            {
+                return size() > cacheSize;
+            }
+        });
+    }
+
+    /**
+     * Parse the link and fill in the owner address
+     */
+    public MagicLinkData verify(String universalLink) throws SalesOrderMalformed
+    {
+        MagicLinkData data;
+        try
+        {
+            data = parser.parseUniversalLink(universalLink);
+        }
+        catch (SalesOrderMalformed e)
+        {
+            malformed.increment();
+            throw e;
+        }
+
+        ByteBuffer key = signedMessageKey(data);
+        String owner = ownerCache.get(key);
+        if (owner != null)
+        {
+            cacheHits.increment();
+            data.ownerAddress = owner;
+        }
+        else
+        {
+            long start = System.nanoTime();
+            parser.getOwnerKey(data);
+            recoveryNanos.add(System.nanoTime() - start);
+            recoveries.increment();
+            //a failed recovery leaves "0x"; don't cache that
+            if (data.ownerAddress.length() == 42) ownerCache.put(key, data.ownerAddress);
+        }
+
+        verified.increment();
+        return data;
+    }
+
+    public JsonObject getStats()
+    {
+        double uptimeSeconds = (System.nanoTime() - startTime) / 1e9;
+        long count = verified.sum();
+        long hits = cacheHits.sum();
+        long recovered = recoveries.sum();
+
+        JsonObject stats = new JsonObject();
+        stats.put("verified", count);
+        stats.put("malformed", malformed.sum());
+        stats.put("cacheHits", hits);
+        stats.put("cacheSize", ownerCache.size());
+        stats.put("hitRatio", count > 0 ? (double) hits / count : 0.0);
+        stats.put("recoveries", recovered);
+        stats.put("avgRecoveryMicros", recovered > 0 ? recoveryNanos.sum() / recovered / 1000 : 0);
+        stats.put("verifiedPerSecond", uptimeSeconds > 0 ? count / uptimeSeconds : 0.0);
+        return stats;
+    }
+
+    public void clearCache()
+    {
+        ownerCache.clear();
+    }
+
+    //the recovered key depends only on the signed message and the signature
+    private static ByteBuffer signedMessageKey(MagicLinkData data)
+    {
+        ByteBuffer key = ByteBuffer.allocate(data.message.length + data.signature.length);
+        key.put(data.message).put(data.signature);
+        key.flip();
+        return key;
+    }
+}
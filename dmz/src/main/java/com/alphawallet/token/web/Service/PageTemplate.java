@@ -0,0 +1,185 @@
+package com.alphawallet.token.web.Service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A page template compiled once into literal segments and numbered slots.
+ *
+ * Templates use the String.format subset the dmz pages already use: positional slots "%1$s" and the escape "%%".
+ * Rendering appends the literals and slot values into a per-thread buffer, with the same output as String.format,
+ * without re-reading or re-parsing the template for each request. A slot value may itself be a Fragment, which is
+ * rendered straight into the same buffer.
+ */
+public class PageTemplate
+{
+    private static final int MAX_BUFFER = 1024 * 1024;
+    private static final ThreadLocal<StringBuilder> buffer = ThreadLocal.withInitial(() -> new StringBuilder(32 * 1024));
+
+    /**
+     * Slot value that renders itself into the page buffer
+     */
+    public interface Fragment
+    {
+        void appendTo(StringBuilder out);
+    }
+
+    //each segment is either literal text or the index of an argument
+    private final String[] literals;
+    private final int[] slots;
+    private final int slotCount;
+    private final int literalLength;
+
+    private PageTemplate(String[] literals, int[] slots)
+    {
+        this.literals = literals;
+        this.slots = slots;
+        int count = 0;
+        int length = 0;
+        for (int i = 0; i < slots.length; i++)
+        {
+            if (literals[i] != null) length += literals[i].length();
+            else count = Math.max(count, slots[i] + 1);
+        }
+        this.slotCount = count;
+        this.literalLength = length;
+    }
+
+    public static PageTemplate compile(String template)
+    {
+        List<String> literals = new ArrayList<>();
+        List<Integer> slots = new ArrayList<>();
+        StringBuilder text = new StringBuilder();
+        int i = 0;
+        while (i < template.length())
+        {
+            char c = template.charAt(i++);
+            if (c != '%')
+            {
+                text.append(c);
+                continue;
+            }
+            if (i < template.length() && template.charAt(i) == '%')
+            {
+                text.append('%');
+                i++;
+                continue;
+            }
+
+            //positional slot: %<n>$s
+            int end = template.indexOf("$s", i);
+            int index;
+            try
+            {
+                index = end > i ? Integer.parseInt(template.substring(i, end)) - 1 : -1;
+            }
+            catch (NumberFormatException e)
+            {
+                index = -1;
+            }
+            if (index < 0)
+            {
+                throw new IllegalArgumentException("Unsupported format specifier at " + (i - 1));
+            }
+
+            if (text.length() > 0)
+            {
+                literals.add(text.toString());
+                slots.add(-1);
+                text.setLength(0);
+            }
+            literals.add(null);
+            slots.add(index);
+            i = end + 2;
+        }
+        if (text.length() > 0)
+        {
+            literals.add(text.toString());
+            slots.add(-1);
+        }
+
+        int[] slotArray = new int[slots.size()];
+        for (int j = 0; j < slotArray.length; j++) slotArray[j] = slots.get(j);
+        return new PageTemplate(literals.toArray(new String[0]), slotArray);
+    }
+
+    public static PageTemplate fromResource(String resourceName)
+    {
+        try (InputStream in = PageTemplate.class.getClassLoader().getResourceAsStream(resourceName))
+        {
+            if (in == null) throw new IOException("Template not found: " + resourceName);
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buf = new byte[8192];
+            int len;
+            while ((len = in.read(buf)) != -1) out.write(buf, 0, len);
+            return compile(new String(out.toByteArray(), StandardCharsets.UTF_8));
+        }
+        catch (IOException e)
+        {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * New template with the given slot fixed to a literal, eg a TokenScript view inlined into the card script
+     */
+    public PageTemplate bind(int slot, String value)
+    {
+        String[] newLiterals = literals.clone();
+        int[] newSlots = slots.clone();
+        for (int i = 0; i < newSlots.length; i++)
+        {
+            if (newLiterals[i] == null && newSlots[i] == slot - 1)
+            {
+                newLiterals[i] = value;
+                newSlots[i] = -1;
+            }
+        }
+        return new PageTemplate(newLiterals, newSlots);
+    }
+
+    public String render(Object... args)
+    {
+        StringBuilder sb = buffer.get();
+        sb.setLength(0);
+        appendTo(sb, args);
+        String page = sb.toString();
+        //don't let one huge page pin memory for the life of the thread
+        if (sb.capacity() > MAX_BUFFER) buffer.remove();
+        return page;
+    }
+
+    /**
+     * Fragment for use as another template's slot value
+     */
+    public Fragment with(Object... args)
+    {
+        return out -> appendTo(out, args);
+    }
+
+    public void appendTo(StringBuilder out, Object... args)
+    {
+        if (args.length < slotCount)
+        {
+            throw new IllegalArgumentException("Template needs " + slotCount + " arguments, got " + args.length);
+        }
+        out.ensureCapacity(out.length() + literalLength);
+        for (int i = 0; i < slots.length; i++)
+        {
+            if (literals[i] != null)
+            {
+                out.append(literals[i]);
+            }
+            else
+            {
+                Object arg = args[slots[i]];
+                if (arg instanceof Fragment) ((Fragment) arg).appendTo(out);
+                else out.append(arg);
+            }
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package com.alphawallet.token.tools;
+
+import com.alphawallet.token.entity.Module;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.web3j.abi.FunctionEncoder;
+import org.web3j.abi.FunctionReturnDecoder;
+import org.web3j.abi.TypeReference;
+import org.web3j.abi.datatypes.Address;
+import org.web3j.abi.datatypes.DynamicArray;
+import org.web3j.abi.datatypes.Function;
+import org.web3j.abi.datatypes.Type;
+import org.web3j.abi.datatypes.generated.Uint256;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares AbiCodec against the reflective web3j encoder/decoder on the payloads we see most:
+ * ERC20 balanceOf, ERC875 balance arrays and ERC721 transfer event topics.
+ *
+ * Run with ./gradlew :lib:jmh
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class AbiCodecBenchmark
+{
+    private static final String OWNER = "0x5aaeb6053f3e94c9b9a09f33669435e7ef1beaed";
+
+    private String erc20Result;
+    private byte[] erc20ResultBytes;
+    private String erc875Result;
+    private byte[] erc875ResultBytes;
+    private String erc721Topic;
+    private byte[] erc721TopicBytes;
+
+    private AbiCodec balanceCodec;
+    private AbiCodec balanceArrayCodec;
+    private AbiCodec transferEventCodec;
+
+    @Setup
+    public void setup()
+    {
+        balanceCodec = AbiCodec.getCodec("balanceOf", "address", "uint256");
+        balanceArrayCodec = AbiCodec.getCodec("balanceOf", "address", "uint256[]");
+        Module transfer = new Module(null);
+        for (String arg : new String[] { "from", "to", "tokenId" })
+        {
+            Module.SequenceElement se = transfer.new SequenceElement();
+            se.name = arg;
+            se.type = arg.equals("tokenId") ? "uint256" : "address";
+            se.indexed = true;
+            transfer.sequence.add(se);
+        }
+        transferEventCodec = AbiCodec.getEventCodec("Transfer", transfer.getSequenceArgs());
+
+        erc20ResultBytes = Numeric.hexStringToByteArray("0x00000000000000000000000000000000000000000000000000470de4df820000");
+        erc20Result = Numeric.toHexString(erc20ResultBytes);
+
+        //typical ERC875 balance: 64 tickets
+        List<BigInteger> balance = new ArrayList<>();
+        for (int i = 0; i < 64; i++) balance.add(BigInteger.ONE.shiftLeft(128).add(BigInteger.valueOf(i)));
+        byte[] encoded = AbiCodec.getCodec("setBalance", Collections.singletonList("uint256[]"), Collections.emptyList())
+                .encodeFunctionCall(Collections.singletonList(balance));
+        erc875ResultBytes = Arrays.copyOfRange(encoded, 4, encoded.length);
+        erc875Result = Numeric.toHexString(erc875ResultBytes);
+
+        erc721TopicBytes = Numeric.hexStringToByteArray("0x0000000000000000000000000000000000000000000000000000000000001f4a");
+        erc721Topic = Numeric.toHexString(erc721TopicBytes);
+    }
+
+    @Benchmark
+    public Object erc20EncodeCodec()
+    {
+        return balanceCodec.encodeFunctionCall(Collections.singletonList(OWNER));
+    }
+
+    @Benchmark
+    public Object erc20EncodeWeb3j()
+    {
+        Function function = new Function("balanceOf",
+                Collections.singletonList(new Address(OWNER)),
+                Collections.singletonList(new TypeReference<Uint256>() {}));
+        return FunctionEncoder.encode(function);
+    }
+
+    @Benchmark
+    public Object erc20DecodeCodec()
+    {
+        return balanceCodec.decodeOutputs(erc20ResultBytes);
+    }
+
+    @Benchmark
+    public Object erc20DecodeWeb3j()
+    {
+        List<TypeReference<?>> out = Collections.singletonList(new TypeReference<Uint256>() {});
+        return FunctionReturnDecoder.decode(erc20Result, convert(out));
+    }
+
+    @Benchmark
+    public Object erc875DecodeCodec()
+    {
+        return balanceArrayCodec.decodeOutputs(erc875ResultBytes);
+    }
+
+    @Benchmark
+    public Object erc875DecodeWeb3j()
+    {
+        List<TypeReference<?>> out = Collections.singletonList(new TypeReference<DynamicArray<Uint256>>() {});
+        return FunctionReturnDecoder.decode(erc875Result, convert(out));
+    }
+
+    @Benchmark
+    public Object erc721TopicCodec()
+    {
+        return transferEventCodec.decodeTopic(2, erc721TopicBytes);
+    }
+
+    @Benchmark
+    public Object erc721TopicWeb3j()
+    {
+        return FunctionReturnDecoder.decodeIndexedValue(erc721Topic, new TypeReference<Uint256>() {});
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<TypeReference<Type>> convert(List<TypeReference<?>> input)
+    {
+        List<TypeReference<Type>> result = new ArrayList<>(input.size());
+        for (TypeReference<?> ref : input) result.add((TypeReference<Type>) ref);
+        return result;
+    }
+}
@@ -0,0 +1,147 @@
+package com.alphawallet.token.tools;
+
+import com.alphawallet.token.entity.AttributeType;
+import com.alphawallet.token.entity.ContractAddress;
+import com.alphawallet.token.entity.TimeSource;
+import com.alphawallet.token.entity.TokenScriptResult;
+import com.alphawallet.token.entity.TransactionResult;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token views evaluated per second: every function attribute of the EntryToken script for one token, against
+ * recorded node responses. Compares the engine without a memo (the app), with a memo (dmz and the script tool), and
+ * many threads opening the same tokens, where identical calls in flight are shared.
+ *
+ * Run with ./gradlew :lib:jmh
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class AttributeEngineBenchmark
+{
+    private static final int TOKEN_COUNT = 64;
+    private static final String OWNER = "0x5aaeb6053f3e94c9b9a09f33669435e7ef1beaed";
+
+    //simulated node round trip
+    @Param({ "0", "1000" })
+    public long delayMicros;
+
+    private final List<AttributeType> attrs = new ArrayList<>();
+    private final List<BigInteger> tokenIds = new ArrayList<>();
+    private RecordedTransport transport;
+    private AttributeEngine engine;
+    private AttributeEngine memoEngine;
+    private int next;
+
+    @Setup
+    public void setup() throws Exception
+    {
+        TokenDefinition td = new TokenDefinition(new FileInputStream(new File("src/test/ts/entrytoken.canonicalized.xml")),
+                new Locale("en"), result -> { });
+        for (AttributeType attr : td.attributeTypes.values())
+        {
+            if (attr.function != null) attrs.add(attr);
+        }
+
+        transport = new RecordedTransport(delayMicros);
+        for (int i = 0; i < TOKEN_COUNT; i++)
+        {
+            BigInteger tokenId = BigInteger.valueOf(0x5c3f1a00L + i).shiftLeft(128);
+            tokenIds.add(tokenId);
+            for (AttributeType attr : attrs)
+            {
+                AbiCodec codec = AbiCodec.getCodec(attr.function);
+                String data = Numeric.toHexString(codec.encodeFunctionCall(arguments(attr, tokenId)));
+                String returnType = codec.getOutputType(0);
+                Object value = returnType.equals("string") ? attr.id + " " + i : BigInteger.valueOf(i % 2);
+                ContractAddress cAddr = new ContractAddress(attr.function);
+                transport.record(cAddr.chainId, cAddr.address, data, encodeReturn(returnType, value));
+            }
+        }
+
+        engine = new AttributeEngine(transport);
+        memoEngine = new AttributeEngine(transport, TimeSource.SYSTEM, TimeUnit.MINUTES.toMillis(10));
+    }
+
+    @TearDown
+    public void tearDown()
+    {
+        System.out.println();
+        System.out.println("engine: " + engine.getStats());
+        System.out.println("memo engine: " + memoEngine.getStats());
+    }
+
+    @Benchmark
+    public int evaluate()
+    {
+        return evaluate(engine, nextToken());
+    }
+
+    @Benchmark
+    public int evaluateMemo()
+    {
+        return evaluate(memoEngine, nextToken());
+    }
+
+    @Benchmark
+    @Threads(16)
+    public int evaluateShared()
+    {
+        return evaluate(engine, nextToken());
+    }
+
+    private int evaluate(AttributeEngine attrEngine, BigInteger tokenId)
+    {
+        int length = 0;
+        for (AttributeType attr : attrs)
+        {
+            TransactionResult result = attrEngine.callFunction(new ContractAddress(attr.function), attr, tokenId,
+                    arguments(attr, tokenId), attrEngine.currentTime());
+            TokenScriptResult.Attribute attribute = AttributeEngine.parseFunctionResult(result, attr);
+            length += attribute.text.length();
+        }
+        return length;
+    }
+
+    private static List<Object> arguments(AttributeType attr, BigInteger tokenId)
+    {
+        //the EntryToken functions take only tokenId references
+        return AttributeEngine.argumentValues(attr.function,
+                Collections.nCopies(attr.function.parameters.size(), null), tokenId, OWNER);
+    }
+
+    private static String encodeReturn(String type, Object value)
+    {
+        byte[] encoded = AbiCodec.getCodec("result", Collections.singletonList(type), Collections.emptyList())
+                .encodeFunctionCall(Collections.singletonList(value));
+        return Numeric.toHexString(Arrays.copyOfRange(encoded, 4, encoded.length));
+    }
+
+    private BigInteger nextToken()
+    {
+        //benign race between benchmark threads; any token from the set will do
+        int index = next;
+        next = (index + 1) % TOKEN_COUNT;
+        return tokenIds.get(index);
+    }
+}
@@ -0,0 +1,56 @@
+package com.alphawallet.token.tools;
+
+import com.alphawallet.token.entity.EthCallTransport;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Replays recorded eth_call responses, with an optional fixed delay standing in for the node round trip.
+ * Calls that weren't recorded fail as a connection error would.
+ */
+public class RecordedTransport implements EthCallTransport
+{
+    private final Map<String, String> responses = new ConcurrentHashMap<>();
+    private final long delayMicros;
+    public final LongAdder calls = new LongAdder();
+
+    public RecordedTransport(long delayMicros)
+    {
+        this.delayMicros = delayMicros;
+    }
+
+    public void record(int chainId, String to, String data, String response)
+    {
+        responses.put(key(chainId, to, data), response);
+    }
+
+    @Override
+    public String ethCall(int chainId, String from, String to, String data) throws IOException
+    {
+        calls.increment();
+        if (delayMicros > 0)
+        {
+            try
+            {
+                TimeUnit.MICROSECONDS.sleep(delayMicros);
+            }
+            catch (InterruptedException e)
+            {
+                throw new IOException(e);
+            }
+        }
+
+        String response = responses.get(key(chainId, to, data));
+        if (response == null) throw new IOException("No recorded response for " + to + " " + data);
+        return response;
+    }
+
+    private static String key(int chainId, String to, String data)
+    {
+        return chainId + ":" + to.toLowerCase() + ":" + data;
+    }
+}
@@ -0,0 +1,22 @@
+package com.alphawallet.token.entity;
+
+import java.io.IOException;
+
+/**
+ * Node connection used by the AttributeEngine to make eth_call requests.
+ * Each platform plugs in its own transport; the app, the dmz server and the script tool all hold their web3j
+ * connections differently.
+ */
+public interface EthCallTransport
+{
+    /**
+     * Call a contract function at the latest block
+     * @param chainId network to call on
+     * @param from calling address
+     * @param to contract address
+     * @param data ABI encoded call, 0x prefixed
+     * @return 0x prefixed return data; null or "0x" if the call reverted
+     * @throws IOException on connection failure, so the caller can fall back to a cached value
+     */
+    String ethCall(int chainId, String from, String to, String data) throws IOException;
+}
@@ -0,0 +1,18 @@
+package com.alphawallet.token.entity;
+
+import java.security.SignatureException;
+
+/**
+ * Signs magic link trade bytes with the issuer's key. Extends CryptoFunctionsInterface so a single object supplies
+ * both the signature and the encoding used to complete the link.
+ *
+ * Implementations must be safe to call from several threads at once; MagicLinkBatchGenerator signs in parallel.
+ */
+public interface MagicLinkSigner extends CryptoFunctionsInterface
+{
+    /**
+     * @param message trade bytes, as built by ParseMagicLink.getTradeBytes / getSpawnableBytes
+     * @return 65 byte Ethereum signature (r, s, v) of the message
+     */
+    byte[] signMessage(byte[] message) throws SignatureException;
+}
@@ -0,0 +1,11 @@
+package com.alphawallet.token.entity;
+
+/**
+ * Clock used to timestamp attribute results and expire memoised calls; replaceable for tests and benchmarks
+ */
+public interface TimeSource
+{
+    TimeSource SYSTEM = System::currentTimeMillis;
+
+    long currentTimeMillis();
+}
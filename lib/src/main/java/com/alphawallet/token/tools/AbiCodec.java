@@ -0,0 +1,585 @@
+package com.alphawallet.token.tools;
+
+import com.alphawallet.token.entity.As;
+import com.alphawallet.token.entity.FunctionDefinition;
+import com.alphawallet.token.entity.MethodArg;
+import com.alphawallet.token.entity.Module;
+
+import org.bouncycastle.jcajce.provider.digest.Keccak;
+
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Pre-compiled ABI encoder/decoder for a single function or event signature.
+ *
+ * The web3j TypeEncoder/TypeDecoder resolve every value's type reflectively from its TypeReference
+ * and go through hex Strings on the way. For TokenScript calls we know the signature up front, so
+ * here it is parsed once into a flat list of types, and values are then encoded and decoded
+ * directly between Java objects and byte[].
+ *
+ * Value mapping:
+ *   uintN, intN - BigInteger
+ *   address     - String, 0x prefixed lower case hex
+ *   bool        - Boolean
+ *   bytesN      - byte[N]
+ *   bytes       - byte[]
+ *   string      - String
+ *   T[], T[k]   - List of the element values
+ *
+ * Codecs are immutable and cached by signature so they can be shared freely between threads.
+ */
+public class AbiCodec
+{
+    private static final int WORD = 32;
+    private static final Map<String, AbiCodec> codecCache = new ConcurrentHashMap<>();
+
+    public final String name;
+    public final String signature;           // canonical form, eg transfer(address,uint256)
+    private final byte[] selector;           // first 4 bytes of keccak(signature)
+    private final byte[] topic;              // keccak(signature); topic[0] for events
+    private final AbiType[] inputs;
+    private final AbiType[] outputs;         // function return types, or non-indexed args for events
+    private final AbiType[] indexedInputs;   // event args carried in the log topics
+
+    private AbiCodec(String name, AbiType[] inputs, AbiType[] outputs, AbiType[] indexedInputs)
+    {
+        this.name = name;
+        this.inputs = inputs;
+        this.outputs = outputs;
+        this.indexedInputs = indexedInputs;
+
+        StringBuilder sb = new StringBuilder(name).append("(");
+        for (int i = 0; i < inputs.length; i++)
+        {
+            if (i > 0) sb.append(",");
+            sb.append(inputs[i].canonicalName);
+        }
+        signature = sb.append(")").toString();
+        Keccak.Digest256 digest = new Keccak.Digest256();
+        topic = digest.digest(signature.getBytes(StandardCharsets.UTF_8));
+        selector = Arrays.copyOfRange(topic, 0, 4);
+    }
+
+    /**
+     * Fetch compiled codec for a function
+     * @param method function name eg 'balanceOf'
+     * @param inputTypes solidity type names of the parameters
+     * @param outputTypes solidity type names of the return values
+     */
+    public static AbiCodec getCodec(String method, List<String> inputTypes, List<String> outputTypes)
+    {
+        String key = method + inputTypes.toString() + outputTypes.toString();
+        AbiCodec codec = codecCache.get(key);
+        if (codec == null)
+        {
+            codec = new AbiCodec(method, parseTypes(inputTypes), parseTypes(outputTypes), new AbiType[0]);
+            codecCache.put(key, codec);
+        }
+
+        return codec;
+    }
+
+    public static AbiCodec getCodec(String method, String inputType, String outputType)
+    {
+        return getCodec(method,
+                inputType != null ? Collections.singletonList(inputType) : Collections.emptyList(),
+                outputType != null ? Collections.singletonList(outputType) : Collections.emptyList());
+    }
+
+    /**
+     * Codec for a TokenScript function call; return type is determined by the 'as' of the function.
+     * Parameter and return type interpretation mirrors TokenscriptFunction.generateTransactionFunction.
+     */
+    public static AbiCodec getCodec(FunctionDefinition fd)
+    {
+        List<String> inputTypes = new ArrayList<>();
+        for (MethodArg arg : fd.parameters)
+        {
+            //TokenScript 'bytes' params are passed as bytes32
+            inputTypes.add(arg.parameterType.equals("bytes") ? "bytes32" : arg.parameterType);
+        }
+
+        String returnType;
+        switch (fd.as != null ? fd.as : As.Bytes)
+        {
+            case UTF8:
+                returnType = "string";
+                break;
+            case Signed:
+            case Unsigned:
+            case UnsignedInput:
+            case TokenId:
+                returnType = "uint256";
+                break;
+            case Address:
+                returnType = "address";
+                break;
+            case Mapping:
+            case Boolean:
+            default:
+                returnType = "bytes32";
+                break;
+        }
+
+        return getCodec(fd.method, inputTypes, Collections.singletonList(returnType));
+    }
+
+    /**
+     * Codec for an event. Inputs are all event arguments (for the topic hash), outputs are the non-indexed
+     * arguments which are ABI encoded in the log data.
+     */
+    public static AbiCodec getEventCodec(String eventName, List<Module.SequenceElement> args)
+    {
+        StringBuilder key = new StringBuilder("event:").append(eventName);
+        for (Module.SequenceElement se : args)
+        {
+            key.append(",").append(se.indexed ? "i:" : "").append(se.type);
+        }
+
+        AbiCodec codec = codecCache.get(key.toString());
+        if (codec == null)
+        {
+            List<AbiType> all = new ArrayList<>();
+            List<AbiType> data = new ArrayList<>();
+            List<AbiType> indexed = new ArrayList<>();
+            for (Module.SequenceElement se : args)
+            {
+                AbiType type = AbiType.parse(se.type);
+                all.add(type);
+                if (se.indexed) indexed.add(type);
+                else data.add(type);
+            }
+            codec = new AbiCodec(eventName, all.toArray(new AbiType[0]), data.toArray(new AbiType[0]), indexed.toArray(new AbiType[0]));
+            codecCache.put(key.toString(), codec);
+        }
+
+        return codec;
+    }
+
+    public byte[] getSelector()
+    {
+        return selector.clone();
+    }
+
+    public String getEventTopic()
+    {
+        return Numeric.toHexString(topic);
+    }
+
+    public int getInputCount()
+    {
+        return inputs.length;
+    }
+
+    public String getOutputType(int index)
+    {
+        return outputs[index].canonicalName;
+    }
+
+    public String getIndexedType(int index)
+    {
+        return indexedInputs[index].canonicalName;
+    }
+
+    /**
+     * @return selector followed by the ABI encoded values
+     */
+    public byte[] encodeFunctionCall(List<?> values)
+    {
+        checkCount(inputs, values);
+        byte[] out = new byte[4 + tupleSize(inputs, values)];
+        System.arraycopy(selector, 0, out, 0, 4);
+        encodeTuple(inputs, values, out, 4);
+        return out;
+    }
+
+    /**
+     * Decode function return data. Empty data (eg '0x' returned by a non-existent function) decodes to an empty list.
+     */
+    public List<Object> decodeOutputs(byte[] data)
+    {
+        if (data == null || data.length == 0) return Collections.emptyList();
+        return decodeTuple(outputs, data, 0);
+    }
+
+    /**
+     * Decode call data; offset should point to the first byte after the selector
+     */
+    public List<Object> decodeInputs(byte[] data, int offset)
+    {
+        return decodeTuple(inputs, data, offset);
+    }
+
+    /**
+     * Decode an indexed event argument from its topic. Dynamic types can't be recovered from a topic;
+     * these return the 32 byte keccak hash of the value.
+     * @param indexedPosition position amongst the indexed arguments (topic index - 1)
+     */
+    public Object decodeTopic(int indexedPosition, byte[] topicData)
+    {
+        AbiType type = indexedInputs[indexedPosition];
+        if (type.dynamic || type.kind == AbiType.ARRAY)
+        {
+            return Arrays.copyOf(topicData, WORD);
+        }
+        return decodeValue(type, topicData, 0);
+    }
+
+    private static AbiType[] parseTypes(List<String> typeNames)
+    {
+        AbiType[] types = new AbiType[typeNames.size()];
+        for (int i = 0; i < types.length; i++)
+        {
+            types[i] = AbiType.parse(typeNames.get(i));
+        }
+        return types;
+    }
+
+    private static void checkCount(AbiType[] types, List<?> values)
+    {
+        if (values.size() != types.length)
+        {
+            throw new IllegalArgumentException("Expected " + types.length + " values, received " + values.size());
+        }
+    }
+
+    /* Encoding */
+
+    private static int tupleSize(AbiType[] types, List<?> values)
+    {
+        int size = 0;
+        for (int i = 0; i < types.length; i++)
+        {
+            size += types[i].dynamic ? WORD + valueSize(types[i], values.get(i)) : types[i].headWords * WORD;
+        }
+        return size;
+    }
+
+    private static int valueSize(AbiType type, Object value)
+    {
+        switch (type.kind)
+        {
+            case AbiType.BYTES:
+                return WORD + padded(toBytes(value).length);
+            case AbiType.STRING:
+                return WORD + padded(((String) value).getBytes(StandardCharsets.UTF_8).length);
+            case AbiType.ARRAY:
+                List<?> elements = toList(value);
+                int size = tupleSize(repeat(type.element, elements.size()), elements);
+                return type.length < 0 ? WORD + size : size;
+            default:
+                return type.headWords * WORD;
+        }
+    }
+
+    private static int encodeTuple(AbiType[] types, List<?> values, byte[] out, int offset)
+    {
+        int headPos = offset;
+        int tailPos = offset;
+        for (AbiType type : types) tailPos += type.dynamic ? WORD : type.headWords * WORD;
+
+        for (int i = 0; i < types.length; i++)
+        {
+            AbiType type = types[i];
+            if (type.dynamic)
+            {
+                writeInt(out, headPos, tailPos - offset);
+                tailPos += encodeValue(type, values.get(i), out, tailPos);
+                headPos += WORD;
+            }
+            else
+            {
+                encodeValue(type, values.get(i), out, headPos);
+                headPos += type.headWords * WORD;
+            }
+        }
+
+        return tailPos - offset;
+    }
+
+    private static int encodeValue(AbiType type, Object value, byte[] out, int pos)
+    {
+        switch (type.kind)
+        {
+            case AbiType.UINT:
+            case AbiType.INT:
+                writeBigInteger(out, pos, toBigInteger(value));
+                return WORD;
+            case AbiType.ADDRESS:
+                byte[] address = value instanceof String ? Numeric.hexStringToByteArray((String) value) : toBytes(value);
+                int addrLen = Math.min(address.length, 20);
+                System.arraycopy(address, address.length - addrLen, out, pos + WORD - addrLen, addrLen);
+                return WORD;
+            case AbiType.BOOL:
+                out[pos + WORD - 1] = (byte)(Boolean.TRUE.equals(value) ? 1 : 0);
+                return WORD;
+            case AbiType.BYTES_FIXED:
+                byte[] fixed = toBytes(value);
+                System.arraycopy(fixed, 0, out, pos, Math.min(fixed.length, type.length));
+                return WORD;
+            case AbiType.BYTES:
+            case AbiType.STRING:
+                byte[] data = type.kind == AbiType.STRING ? ((String) value).getBytes(StandardCharsets.UTF_8) : toBytes(value);
+                writeInt(out, pos, data.length);
+                System.arraycopy(data, 0, out, pos + WORD, data.length);
+                return WORD + padded(data.length);
+            case AbiType.ARRAY:
+                List<?> elements = toList(value);
+                AbiType[] elementTypes = repeat(type.element, elements.size());
+                if (type.length < 0)
+                {
+                    writeInt(out, pos, elements.size());
+                    return WORD + encodeTuple(elementTypes, elements, out, pos + WORD);
+                }
+                else
+                {
+                    if (elements.size() != type.length) throw new IllegalArgumentException("Expected " + type.length + " elements for " + type.canonicalName);
+                    return encodeTuple(elementTypes, elements, out, pos);
+                }
+            default:
+                throw new IllegalArgumentException("Unsupported type: " + type.canonicalName);
+        }
+    }
+
+    private static void writeInt(byte[] out, int pos, int value)
+    {
+        out[pos + WORD - 4] = (byte)(value >>> 24);
+        out[pos + WORD - 3] = (byte)(value >>> 16);
+        out[pos + WORD - 2] = (byte)(value >>> 8);
+        out[pos + WORD - 1] = (byte)value;
+    }
+
+    private static void writeBigInteger(byte[] out, int pos, BigInteger value)
+    {
+        byte[] raw = value.toByteArray();
+        int len = Math.min(raw.length, WORD);
+        if (value.signum() < 0) Arrays.fill(out, pos, pos + WORD - len, (byte)0xFF); //sign extend
+        System.arraycopy(raw, raw.length - len, out, pos + WORD - len, len);
+    }
+
+    /* Decoding */
+
+    private static List<Object> decodeTuple(AbiType[] types, byte[] data, int offset)
+    {
+        List<Object> values = new ArrayList<>(types.length);
+        int headPos = offset;
+        for (AbiType type : types)
+        {
+            if (type.dynamic)
+            {
+                values.add(decodeValue(type, data, offset + readInt(data, headPos)));
+                headPos += WORD;
+            }
+            else
+            {
+                values.add(decodeValue(type, data, headPos));
+                headPos += type.headWords * WORD;
+            }
+        }
+
+        return values;
+    }
+
+    private static Object decodeValue(AbiType type, byte[] data, int pos)
+    {
+        checkBounds(data, pos, WORD);
+        switch (type.kind)
+        {
+            case AbiType.UINT:
+                return new BigInteger(1, Arrays.copyOfRange(data, pos, pos + WORD));
+            case AbiType.INT:
+                return new BigInteger(Arrays.copyOfRange(data, pos, pos + WORD));
+            case AbiType.ADDRESS:
+                return Numeric.toHexString(data, pos + WORD - 20, 20, true);
+            case AbiType.BOOL:
+                return data[pos + WORD - 1] != 0;
+            case AbiType.BYTES_FIXED:
+                return Arrays.copyOfRange(data, pos, pos + type.length);
+            case AbiType.BYTES:
+            case AbiType.STRING:
+                int len = readInt(data, pos);
+                checkBounds(data, pos + WORD, len);
+                if (type.kind == AbiType.STRING) return new String(data, pos + WORD, len, StandardCharsets.UTF_8);
+                else return Arrays.copyOfRange(data, pos + WORD, pos + WORD + len);
+            case AbiType.ARRAY:
+                if (type.length < 0)
+                {
+                    int count = readInt(data, pos);
+                    if (count > (data.length - pos) / WORD) throw new IllegalArgumentException("ABI array length out of range");
+                    return decodeTuple(repeat(type.element, count), data, pos + WORD);
+                }
+                else
+                {
+                    return decodeTuple(repeat(type.element, type.length), data, pos);
+                }
+            default:
+                throw new IllegalArgumentException("Unsupported type: " + type.canonicalName);
+        }
+    }
+
+    private static int readInt(byte[] data, int pos)
+    {
+        checkBounds(data, pos, WORD);
+        for (int i = pos; i < pos + WORD - 4; i++)
+        {
+            if (data[i] != 0) throw new IllegalArgumentException("ABI offset or length out of range");
+        }
+        int value = ((data[pos + 28] & 0xFF) << 24) | ((data[pos + 29] & 0xFF) << 16)
+                | ((data[pos + 30] & 0xFF) << 8) | (data[pos + 31] & 0xFF);
+        if (value < 0) throw new IllegalArgumentException("ABI offset or length out of range");
+        return value;
+    }
+
+    private static void checkBounds(byte[] data, int pos, int len)
+    {
+        if (pos < 0 || len < 0 || pos + len > data.length) throw new IllegalArgumentException("ABI data too short");
+    }
+
+    /* Helpers */
+
+    private static int padded(int length)
+    {
+        return ((length + WORD - 1) / WORD) * WORD;
+    }
+
+    private static AbiType[] repeat(AbiType type, int count)
+    {
+        AbiType[] types = new AbiType[count];
+        Arrays.fill(types, type);
+        return types;
+    }
+
+    private static BigInteger toBigInteger(Object value)
+    {
+        if (value instanceof BigInteger) return (BigInteger) value;
+        else if (value instanceof Number) return BigInteger.valueOf(((Number) value).longValue());
+        else if (value instanceof String) return Numeric.containsHexPrefix((String) value) ? Numeric.toBigInt((String) value) : new BigInteger((String) value);
+        else if (value instanceof byte[]) return new BigInteger(1, (byte[]) value);
+        throw new IllegalArgumentException("Cannot encode " + value + " as integer");
+    }
+
+    private static byte[] toBytes(Object value)
+    {
+        if (value instanceof byte[]) return (byte[]) value;
+        else if (value instanceof String) return Numeric.hexStringToByteArray((String) value);
+        else if (value instanceof BigInteger) return Numeric.toBytesPadded((BigInteger) value, WORD);
+        throw new IllegalArgumentException("Cannot encode " + value + " as bytes");
+    }
+
+    private static List<?> toList(Object value)
+    {
+        if (value instanceof List) return (List<?>) value;
+        else if (value instanceof Object[]) return Arrays.asList((Object[]) value);
+        throw new IllegalArgumentException("Cannot encode " + value + " as array");
+    }
+
+    /**
+     * Parsed solidity type
+     */
+    private static class AbiType
+    {
+        static final int UINT = 0;
+        static final int INT = 1;
+        static final int ADDRESS = 2;
+        static final int BOOL = 3;
+        static final int BYTES_FIXED = 4;
+        static final int BYTES = 5;
+        static final int STRING = 6;
+        static final int ARRAY = 7;
+
+        final int kind;
+        final int length;           // bytesN size, array length (-1 if dynamic), int bit size
+        final AbiType element;      // array element type
+        final boolean dynamic;
+        final int headWords;        // words taken inline in the head of a tuple if static
+        final String canonicalName;
+
+        private AbiType(int kind, int length, AbiType element, String canonicalName)
+        {
+            this.kind = kind;
+            this.length = length;
+            this.element = element;
+            this.canonicalName = canonicalName;
+            switch (kind)
+            {
+                case BYTES:
+                case STRING:
+                    dynamic = true;
+                    break;
+                case ARRAY:
+                    dynamic = length < 0 || element.dynamic;
+                    break;
+                default:
+                    dynamic = false;
+                    break;
+            }
+            headWords = (kind == ARRAY && !dynamic) ? length * element.headWords : 1;
+        }
+
+        static AbiType parse(String typeName)
+        {
+            String type = typeName.trim();
+            if (type.endsWith("]"))
+            {
+                int open = type.lastIndexOf('[');
+                AbiType element = parse(type.substring(0, open));
+                String size = type.substring(open + 1, type.length() - 1);
+                int length = size.isEmpty() ? -1 : Integer.parseInt(size);
+                return new AbiType(ARRAY, length, element, element.canonicalName + "[" + size + "]");
+            }
+
+            switch (type)
+            {
+                case "address":
+                    return new AbiType(ADDRESS, 20, null, type);
+                case "bool":
+                    return new AbiType(BOOL, 1, null, type);
+                case "string":
+                    return new AbiType(STRING, -1, null, type);
+                case "bytes":
+                    return new AbiType(BYTES, -1, null, type);
+                case "uint":
+                    return new AbiType(UINT, 256, null, "uint256");
+                case "int":
+                    return new AbiType(INT, 256, null, "int256");
+                default:
+                    break;
+            }
+
+            try
+            {
+                if (type.startsWith("uint"))
+                {
+                    return new AbiType(UINT, checkRange(Integer.parseInt(type.substring(4)), 8, 256, 8, type), null, type);
+                }
+                else if (type.startsWith("int"))
+                {
+                    return new AbiType(INT, checkRange(Integer.parseInt(type.substring(3)), 8, 256, 8, type), null, type);
+                }
+                else if (type.startsWith("bytes"))
+                {
+                    return new AbiType(BYTES_FIXED, checkRange(Integer.parseInt(type.substring(5)), 1, 32, 1, type), null, type);
+                }
+            }
+            catch (NumberFormatException e)
+            {
+                //fall through to error
+            }
+
+            throw new IllegalArgumentException("Unsupported ABI type: " + typeName);
+        }
+
+        private static int checkRange(int value, int min, int max, int step, String type)
+        {
+            if (value < min || value > max || value % step != 0) throw new IllegalArgumentException("Unsupported ABI type: " + type);
+            return value;
+        }
+    }
+}
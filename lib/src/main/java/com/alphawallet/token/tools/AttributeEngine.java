@@ -0,0 +1,532 @@
+package com.alphawallet.token.tools;
+
+import com.alphawallet.token.entity.As;
+import com.alphawallet.token.entity.AttributeInterface;
+import com.alphawallet.token.entity.AttributeType;
+import com.alphawallet.token.entity.ContractAddress;
+import com.alphawallet.token.entity.EthCallTransport;
+import com.alphawallet.token.entity.FunctionDefinition;
+import com.alphawallet.token.entity.MethodArg;
+import com.alphawallet.token.entity.TimeSource;
+import com.alphawallet.token.entity.TokenScriptResult;
+import com.alphawallet.token.entity.TransactionResult;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Evaluates TokenScript function attributes: encodes the call, sends it through the platform's transport and
+ * interprets the return value according to the attribute's syntax.
+ *
+ * This is the part of TokenscriptFunction shared by the app, the dmz server and the script tool; each of those
+ * resolves the argument values its own way and supplies the EthCallTransport, TimeSource and result cache
+ * (AttributeInterface) for its platform.
+ *
+ * Identical calls in flight at the same time are sent once and the result shared. With a memo time set, successful
+ * results are also reused for that long, which suits servers answering for many holders of the same token; the app
+ * uses 0 since it invalidates results from the token's transaction history instead.
+ */
+public class AttributeEngine
+{
+    public static final String ZERO_ADDRESS = "0x0000000000000000000000000000000000000000";
+
+    private static final int MAX_MEMO_ENTRIES = 4096;
+
+    private final EthCallTransport transport;
+    private final TimeSource clock;
+    private final long memoTime;
+    private final Map<String, PendingCall> calls = new ConcurrentHashMap<>();
+
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder memoHits = new LongAdder();
+    private final LongAdder sharedCalls = new LongAdder();
+    private final LongAdder transportCalls = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder transportNanos = new LongAdder();
+
+    public AttributeEngine(EthCallTransport transport)
+    {
+        this(transport, TimeSource.SYSTEM, 0);
+    }
+
+    /**
+     * @param memoTime how long in milliseconds to reuse a successful call result; 0 only shares calls in flight
+     */
+    public AttributeEngine(EthCallTransport transport, TimeSource clock, long memoTime)
+    {
+        this.transport = transport;
+        this.clock = clock;
+        this.memoTime = memoTime;
+    }
+
+    public long currentTime()
+    {
+        return clock.currentTimeMillis();
+    }
+
+    /**
+     * Call the attribute's function and decode the result.
+     *
+     * @param contract contract and chain to call
+     * @param argValues values for the function parameters, as returned by argumentValues; null if they couldn't all be resolved
+     * @param resultTime time to stamp on a successful result
+     * @return result with resultTime 0 and a null result if the call failed, or -1 if the call couldn't be made
+     */
+    public TransactionResult callFunction(ContractAddress contract, AttributeType attr, BigInteger tokenId, List<Object> argValues, long resultTime)
+    {
+        TransactionResult result = new TransactionResult(contract.chainId, contract.address, tokenId, attr);
+        AbiCodec codec = getCodec(attr.function);
+        if (argValues == null || codec == null)
+        {
+            //couldn't validate all the input param values, or the function signature uses an unsupported type
+            result.resultTime = -1;
+            return result;
+        }
+
+        String response = null;
+        try
+        {
+            String data = Numeric.toHexString(codec.encodeFunctionCall(argValues));
+            response = ethCall(contract.chainId, contract.address, data);
+        }
+        catch (Exception e)
+        {
+            e.printStackTrace();
+        }
+
+        if (response != null)
+        {
+            result.result = decodeResult(result, codec, response, attr, resultTime);
+        }
+
+        return result;
+    }
+
+    /**
+     * Can we use the cached result rather than calling the contract?
+     * @param lastTxUpdate time of the contract's last transaction; 0 or -1 if unknown
+     */
+    public boolean useCachedResult(ContractAddress contract, AttributeType attr, TransactionResult cachedResult, AttributeInterface attrIf, long lastTxUpdate)
+    {
+        return !attr.isVolatile()
+                && (attrIf.resolveOptimisedAttr(contract, attr, cachedResult) || !cachedResult.needsUpdating(lastTxUpdate));
+    }
+
+    private String ethCall(int chainId, String contractAddress, String data)
+    {
+        requests.increment();
+        String key = chainId + ":" + contractAddress.toLowerCase() + ":" + data;
+        long now = clock.currentTimeMillis();
+        PendingCall call = new PendingCall(now);
+
+        for (;;)
+        {
+            PendingCall existing = calls.get(key);
+            if (existing != null)
+            {
+                if (!existing.response.isDone())
+                {
+                    sharedCalls.increment();
+                    return existing.response.join();
+                }
+                else if (now - existing.startTime < memoTime)
+                {
+                    memoHits.increment();
+                    return existing.response.join();
+                }
+                calls.remove(key, existing);
+            }
+            else if (calls.putIfAbsent(key, call) == null)
+            {
+                break;
+            }
+        }
+
+        String response = null;
+        long start = System.nanoTime();
+        try
+        {
+            transportCalls.increment();
+            response = transport.ethCall(chainId, ZERO_ADDRESS, contractAddress, data);
+        }
+        catch (IOException e)
+        {
+            //Connection error. Use cached value
+            failures.increment();
+        }
+        catch (Exception e)
+        {
+            failures.increment();
+            e.printStackTrace();
+        }
+        finally
+        {
+            transportNanos.add(System.nanoTime() - start);
+            call.response.complete(response);
+            //only remember good results
+            if (memoTime <= 0 || response == null) calls.remove(key, call);
+            else if (calls.size() > MAX_MEMO_ENTRIES) purgeMemo(now);
+        }
+
+        return response;
+    }
+
+    private void purgeMemo(long now)
+    {
+        Iterator<PendingCall> iterator = calls.values().iterator();
+        while (iterator.hasNext())
+        {
+            PendingCall call = iterator.next();
+            if (call.response.isDone() && (now - call.startTime >= memoTime || calls.size() > MAX_MEMO_ENTRIES))
+            {
+                iterator.remove();
+            }
+        }
+    }
+
+    public void clearMemo()
+    {
+        calls.clear();
+    }
+
+    private static AbiCodec getCodec(FunctionDefinition function)
+    {
+        try
+        {
+            return AbiCodec.getCodec(function);
+        }
+        catch (IllegalArgumentException e)
+        {
+            System.out.println("NOT IMPLEMENTED: " + e.getMessage());
+            return null;
+        }
+    }
+
+    private static String decodeResult(TransactionResult result, AbiCodec codec, String responseValue, AttributeType attr, long resultTime)
+    {
+        String transResult = null;
+        try
+        {
+            //try to interpret the value. For now, just use the raw return value - this is more reliable until we need to interpret arrays
+            List<Object> response = codec.decodeOutputs(Numeric.hexStringToByteArray(responseValue));
+            if (response.size() > 0)
+            {
+                result.resultTime = resultTime;
+                Object val = response.get(0);
+                String returnType = codec.getOutputType(0);
+
+                BigInteger value;
+                byte[] bytes = trimLeadingZeroes(Numeric.hexStringToByteArray(responseValue));
+                String hexBytes = Numeric.toHexString(bytes);
+
+                switch (attr.syntax)
+                {
+                    case Boolean:
+                        value = Numeric.toBigInt(hexBytes);
+                        transResult = value.signum() == 0 ? "FALSE" : "TRUE";
+                        break;
+                    case Integer:
+                        value = Numeric.toBigInt(hexBytes);
+                        transResult = value.toString();
+                        break;
+                    case BitString:
+                    case NumericString:
+                        if (returnType.equals("string"))
+                        {
+                            transResult = (String)val;
+                            if (responseValue.length() > 2 && transResult.length() == 0)
+                            {
+                                transResult = checkBytesString(responseValue);
+                            }
+                        }
+                        else
+                        {
+                            //should be a decimal string
+                            value = Numeric.toBigInt(hexBytes);
+                            transResult = value.toString();
+                        }
+                        break;
+                    case IA5String:
+                    case DirectoryString:
+                    case GeneralizedTime:
+                    case CountryString:
+                        if (returnType.equals("string"))
+                        {
+                            transResult = (String)val;
+                            if (responseValue.length() > 2 && transResult.length() == 0)
+                            {
+                                transResult = checkBytesString(responseValue);
+                            }
+                        }
+                        else if (returnType.equals("address"))
+                        {
+                            transResult = (String)val;
+                        }
+                        else
+                        {
+                            transResult = hexBytes;
+                        }
+                        break;
+                    default:
+                        transResult = hexBytes;
+                        break;
+                }
+            }
+            else
+            {
+                result.resultTime = resultTime == -1 ? -1 : 0;
+            }
+        }
+        catch (Exception e)
+        {
+            e.printStackTrace();
+        }
+
+        return transResult;
+    }
+
+    public static String checkBytesString(String responseValue)
+    {
+        String name = "";
+        if (responseValue.length() > 0)
+        {
+            //try raw bytes
+            byte[] data = Numeric.hexStringToByteArray(responseValue);
+            //check leading bytes for non-zero
+            if (data.length > 0 && data[0] != 0)
+            {
+                //truncate zeros
+                int index = data.length - 1;
+                while (data[index] == 0 && index > 0)
+                    index--;
+                if (index != (data.length - 1))
+                {
+                    data = Arrays.copyOfRange(data, 0, index + 1);
+                }
+                name = new String(data, StandardCharsets.UTF_8);
+            }
+        }
+
+        return name;
+    }
+
+    private static byte[] trimLeadingZeroes(byte[] bytes)
+    {
+        int offset = 0;
+        while (offset < bytes.length - 1 && bytes[offset] == 0) offset++;
+        return Arrays.copyOfRange(bytes, offset, bytes.length);
+    }
+
+    /**
+     * Convert resolved argument strings into the values AbiCodec expects for the function's parameters
+     * @param values resolved value for each parameter, in order; tokenId and ownerAddress references are filled in here
+     * @return argument values, or null if any of them couldn't be converted
+     */
+    public static List<Object> argumentValues(FunctionDefinition function, List<String> values, BigInteger tokenId, String walletAddr)
+    {
+        //pre-parse tokenId.
+        if (tokenId.bitCount() > 256) tokenId = tokenId.or(BigInteger.ONE.shiftLeft(256).subtract(BigInteger.ONE)); //truncate tokenId too large
+
+        List<Object> argValues = new ArrayList<>(function.parameters.size());
+        for (int i = 0; i < function.parameters.size(); i++)
+        {
+            try
+            {
+                argValues.add(argumentValue(function.parameters.get(i), values.get(i), tokenId, walletAddr));
+            }
+            catch (Exception e)
+            {
+                //attempting to use unformed value
+                return null;
+            }
+        }
+
+        return argValues;
+    }
+
+    private static Object argumentValue(MethodArg arg, String value, BigInteger tokenId, String walletAddr)
+    {
+        String ref = arg.element.ref != null ? arg.element.ref : "";
+        if (arg.parameterType.equals("uint256") && ref.equals("tokenId")) return tokenId;
+        if (arg.parameterType.equals("address") && ref.equals("ownerAddress")) return walletAddr;
+        if (arg.parameterType.equals("bytes32") && ref.equals("tokenId")) return Numeric.toBytesPadded(tokenId, 32);
+        if (value == null) throw new IllegalArgumentException("Attempt to use null value");
+
+        switch (arg.parameterType)
+        {
+            case "string":
+                return value;
+            case "bytes":
+                return Numeric.hexStringToByteArray(value);
+            case "bool":
+                return value.equalsIgnoreCase("true") || value.equals("1");
+            case "address":
+                return Numeric.toHexString(convertArgToBytes(value));
+            case "bytes32": //sometimes tokenId can be passed as bytes32
+                byte[] argBytes = convertArgToBytes(value);
+                return ref.equals("value") ? argBytes : Numeric.toBytesPadded(new BigInteger(1, argBytes), 32);
+            default:
+                if (arg.parameterType.startsWith("bytes")) return convertArgToBytes(value);
+                else return new BigInteger(1, convertArgToBytes(value));
+        }
+    }
+
+    public static byte[] convertArgToBytes(String inputValue)
+    {
+        byte[] argBytes = new byte[1];
+        try
+        {
+            String hexValue = inputValue;
+            if (!Numeric.containsHexPrefix(inputValue))
+            {
+                BigInteger value;
+                try
+                {
+                    value = new BigInteger(inputValue);
+                }
+                catch (NumberFormatException e)
+                {
+                    value = new BigInteger(inputValue, 16);
+                }
+
+                hexValue = Numeric.toHexStringNoPrefix(value.toByteArray());
+                //fix sign condition
+                if (hexValue.length() > 64 && hexValue.startsWith("00"))
+                {
+                    hexValue = hexValue.substring(2);
+                }
+            }
+
+            argBytes = Numeric.hexStringToByteArray(hexValue);
+        }
+        catch (Exception e)
+        {
+            //no action
+        }
+
+        return argBytes;
+    }
+
+    public static TokenScriptResult.Attribute parseFunctionResult(TransactionResult transactionResult, AttributeType attr)
+    {
+        String res = attr.getSyntaxVal(transactionResult.result);
+        BigInteger val = transactionResult.tokenId; //?
+
+        if (attr.syntax == TokenDefinition.Syntax.Boolean)
+        {
+            if (res.equalsIgnoreCase("TRUE")) val = BigInteger.ONE;
+            else val = BigInteger.ZERO;
+        }
+        else if (attr.syntax == TokenDefinition.Syntax.NumericString && attr.as != As.Address)
+        {
+            if (transactionResult.result == null)
+            {
+                res = "0";
+            }
+            else if (transactionResult.result.startsWith("0x"))
+            {
+                res = res.substring(2);
+            }
+            try
+            {
+                val = new BigInteger(res, 16);
+            }
+            catch (NumberFormatException e)
+            {
+                val = BigInteger.ZERO;
+            }
+        }
+        return new TokenScriptResult.Attribute(attr.id, attr.name, val, res);
+    }
+
+    /**
+     * Attribute derived from the tokenId alone (eg city mapping from tokenId)
+     */
+    public static TokenScriptResult.Attribute staticAttribute(AttributeType attr, BigInteger tokenId)
+    {
+        try
+        {
+            if (attr.userInput)
+            {
+                return new TokenScriptResult.Attribute(attr.id, attr.name, BigInteger.ZERO, "", true);
+            }
+            else
+            {
+                BigInteger val = tokenId.and(attr.bitmask).shiftRight(attr.bitshift);
+                return new TokenScriptResult.Attribute(attr.id, attr.name, val, attr.getSyntaxVal(attr.toString(val)));
+            }
+        }
+        catch (Exception e)
+        {
+            return new TokenScriptResult.Attribute(attr.id, attr.name, tokenId, "unsupported encoding");
+        }
+    }
+
+    /**
+     * Restore result from cache if required (eg connection failure), and if there was a cached value to restore
+     * @param result return from calling contract function
+     * @param cachedResult previous return value
+     */
+    public static TransactionResult restoreFromCache(TransactionResult result, TransactionResult cachedResult)
+    {
+        if (result.resultTime == 0 && cachedResult != null && result.result == null)
+        {
+            result.result = cachedResult.result;
+            result.resultTime = cachedResult.resultTime;
+        }
+
+        return result;
+    }
+
+    public Stats getStats()
+    {
+        return new Stats(requests.sum(), memoHits.sum(), sharedCalls.sum(), transportCalls.sum(), failures.sum(), transportNanos.sum());
+    }
+
+    public static class Stats
+    {
+        public final long requests;        // eth_calls asked of the engine
+        public final long memoHits;        // answered from a remembered result
+        public final long sharedCalls;     // answered by joining an identical call in flight
+        public final long transportCalls;  // sent to the node
+        public final long failures;        // transport calls that failed
+        public final long avgCallMicros;
+
+        private Stats(long requests, long memoHits, long sharedCalls, long transportCalls, long failures, long transportNanos)
+        {
+            this.requests = requests;
+            this.memoHits = memoHits;
+            this.sharedCalls = sharedCalls;
+            this.transportCalls = transportCalls;
+            this.failures = failures;
+            this.avgCallMicros = transportCalls > 0 ? transportNanos / transportCalls / 1000 : 0;
+        }
+
+        @Override
+        public String toString()
+        {
+            return "requests=" + requests + " memoHits=" + memoHits + " sharedCalls=" + sharedCalls
+                    + " transportCalls=" + transportCalls + " failures=" + failures + " avgCallMicros=" + avgCallMicros;
+        }
+    }
+
+    private static class PendingCall
+    {
+        final long startTime;
+        final CompletableFuture<String> response = new CompletableFuture<>();
+
+        PendingCall(long startTime)
+        {
+            this.startTime = startTime;
+        }
+    }
+}
@@ -0,0 +1,232 @@
+package com.alphawallet.token.tools;
+
+import com.alphawallet.token.entity.ChainSpec;
+import com.alphawallet.token.entity.EthereumWriteBuffer;
+import com.alphawallet.token.entity.MagicLinkSigner;
+import com.alphawallet.token.entity.SalesOrderMalformed;
+import com.alphawallet.token.entity.UnsignedLong;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigInteger;
+import java.security.SignatureException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Builds magic links in bulk, eg all the transfer links for an event's tickets.
+ *
+ * Every link in a batch shares the contract, chain and price, so those parts of the trade bytes and the leading
+ * link bytes are encoded once. Each worker thread encodes into its own reused buffers, signs through the
+ * MagicLinkSigner and completes the link; links are handed to the LinkSink on the calling thread in request order,
+ * with at most QUEUE_DEPTH links per worker held in memory.
+ *
+ * Output is identical to ParseMagicLink.generateLeadingLinkBytes + sign + completeUniversalLink for each request.
+ */
+public class MagicLinkBatchGenerator
+{
+    private static final int QUEUE_DEPTH = 4;
+
+    public interface LinkSink
+    {
+        void onLink(int index, LinkRequest request, String link) throws IOException;
+    }
+
+    public static class LinkRequest
+    {
+        public final int[] indices;             //ticket indices, for normal links
+        public final List<BigInteger> tokenIds; //token ids, for spawnable links
+        public final long expiry;
+
+        private LinkRequest(int[] indices, List<BigInteger> tokenIds, long expiry)
+        {
+            this.indices = indices;
+            this.tokenIds = tokenIds;
+            this.expiry = expiry;
+        }
+
+        public static LinkRequest normal(int[] indices, long expiry)
+        {
+            return new LinkRequest(indices, null, expiry);
+        }
+
+        public static LinkRequest spawnable(List<BigInteger> tokenIds, long expiry)
+        {
+            return new LinkRequest(null, tokenIds, expiry);
+        }
+
+        boolean isSpawnable()
+        {
+            return tokenIds != null;
+        }
+    }
+
+    private final ParseMagicLink parser;
+    private final MagicLinkSigner signer;
+    private final int chainId;
+    private final int threads;
+
+    //encoded once per batch
+    private final byte[] tradePrice;
+    private final byte[] tradeAddress;
+    private final byte[] linkPrice;
+    private final byte[] linkAddress;
+
+    private final ThreadLocal<LinkBuffers> buffers = ThreadLocal.withInitial(LinkBuffers::new);
+
+    public MagicLinkBatchGenerator(MagicLinkSigner signer, List<ChainSpec> chains, int chainId,
+                                   String contractAddress, BigInteger priceWei, int threads) throws SalesOrderMalformed
+    {
+        if (priceWei.compareTo(ParseMagicLink.maxPrice) > 0)
+        {
+            throw new SalesOrderMalformed("Order's price too high to be used in a link");
+        }
+
+        this.parser = new ParseMagicLink(signer, chains);
+        this.signer = signer;
+        this.chainId = chainId;
+        this.threads = Math.max(1, threads);
+
+        BigInteger addrBI = new BigInteger(Numeric.cleanHexPrefix(contractAddress), 16);
+        tradePrice = Numeric.toBytesPadded(priceWei, 32);
+        tradeAddress = Numeric.toBytesPadded(addrBI, 20);
+
+        try
+        {
+            LinkBuffers b = new LinkBuffers();
+            b.wb.write4ByteMicroEth(priceWei);
+            linkPrice = b.bytes.toByteArray();
+            b.bytes.reset();
+            b.wb.writeAddress(addrBI);
+            linkAddress = b.bytes.toByteArray();
+        }
+        catch (IOException e)
+        {
+            throw new SalesOrderMalformed(e.getMessage());
+        }
+    }
+
+    /**
+     * Generate and sign a link for each request, streaming them to the sink in request order
+     * @return number of links written
+     */
+    public int generate(List<LinkRequest> requests, LinkSink sink)
+            throws SalesOrderMalformed, SignatureException, IOException, InterruptedException
+    {
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        Deque<Future<String>> inFlight = new ArrayDeque<>();
+        int submitted = 0;
+        int written = 0;
+        try
+        {
+            while (written < requests.size())
+            {
+                //keep the workers busy while the sink drains completed links
+                while (submitted < requests.size() && inFlight.size() < threads * QUEUE_DEPTH)
+                {
+                    LinkRequest request = requests.get(submitted++);
+                    inFlight.add(pool.submit(() -> buildLink(request)));
+                }
+
+                String link = getResult(inFlight.poll());
+                sink.onLink(written, requests.get(written), link);
+                written++;
+            }
+        }
+        finally
+        {
+            pool.shutdownNow();
+        }
+
+        return written;
+    }
+
+    private String buildLink(LinkRequest request) throws SalesOrderMalformed, SignatureException
+    {
+        LinkBuffers b = buffers.get();
+        byte[] tradeBytes;
+        byte[] leadingBytes;
+        try
+        {
+            tradeBytes = encodeTradeBytes(b, request);
+            leadingBytes = encodeLeadingBytes(b, request);
+        }
+        catch (IOException e)
+        {
+            throw new SalesOrderMalformed(e.getMessage());
+        }
+
+        byte[] signature = signer.signMessage(tradeBytes);
+        return parser.completeUniversalLink(chainId, leadingBytes, signature);
+    }
+
+    //matches ParseMagicLink.getTradeBytes / getSpawnableBytes
+    private byte[] encodeTradeBytes(LinkBuffers b, LinkRequest request) throws IOException
+    {
+        b.bytes.reset();
+        b.wb.write(tradePrice);
+        b.wb.write(Numeric.toBytesPadded(UnsignedLong.create(request.expiry), 32));
+        b.wb.write(tradeAddress);
+        if (request.isSpawnable())
+        {
+            b.wb.writeTokenIds(request.tokenIds);
+        }
+        else
+        {
+            for (int i : request.indices)
+            {
+                b.wb.writeShort(i);
+            }
+        }
+        b.wb.flush();
+        return b.bytes.toByteArray();
+    }
+
+    //matches ParseMagicLink.generateLeadingLinkBytes
+    private byte[] encodeLeadingBytes(LinkBuffers b, LinkRequest request) throws IOException
+    {
+        b.bytes.reset();
+        b.wb.writeByte(request.isSpawnable() ? ParseMagicLink.spawnable : ParseMagicLink.normal);
+        b.wb.write(linkPrice);
+        b.wb.writeUnsigned4(request.expiry);
+        b.wb.write(linkAddress);
+        if (request.isSpawnable())
+        {
+            b.wb.writeTokenIds(request.tokenIds);
+        }
+        else
+        {
+            b.wb.writeCompressedIndices(request.indices);
+        }
+        b.wb.flush();
+        return b.bytes.toByteArray();
+    }
+
+    private static String getResult(Future<String> future)
+            throws SalesOrderMalformed, SignatureException, InterruptedException
+    {
+        try
+        {
+            return future.get();
+        }
+        catch (ExecutionException e)
+        {
+            Throwable cause = e.getCause();
+            if (cause instanceof SalesOrderMalformed) throw (SalesOrderMalformed) cause;
+            if (cause instanceof SignatureException) throw (SignatureException) cause;
+            if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+            throw new SignatureException(cause);
+        }
+    }
+
+    private static class LinkBuffers
+    {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        final EthereumWriteBuffer wb = new EthereumWriteBuffer(bytes);
+    }
+}
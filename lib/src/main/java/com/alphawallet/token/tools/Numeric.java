@@ -12,6 +12,17 @@ import java.util.Arrays;
 public final class Numeric {
 
     private static final String HEX_PREFIX = "0x";
+    private static final char[] HEX_CHARS = "0123456789abcdef".toCharArray();
+    private static final byte[] HEX_VALUES = new byte['g' + 1];
+
+    static {
+        Arrays.fill(HEX_VALUES, (byte) -1);
+        for (int i = 0; i < 10; i++) HEX_VALUES['0' + i] = (byte) i;
+        for (int i = 0; i < 6; i++) {
+            HEX_VALUES['a' + i] = (byte) (10 + i);
+            HEX_VALUES['A' + i] = (byte) (10 + i);
+        }
+    }
 
     private Numeric() {
     }
@@ -134,42 +145,47 @@ public final class Numeric {
     }
 
     public static byte[] hexStringToByteArray(String input) {
-        String cleanInput = cleanHexPrefix(input);
-
-        int len = cleanInput.length();
+        int startIdx = containsHexPrefix(input) ? 2 : 0;
+        int len = input.length() - startIdx;
 
         if (len == 0) {
             return new byte[] {};
         }
 
         byte[] data;
-        int startIdx;
+        int dataIdx = 0;
         if (len % 2 != 0) {
             data = new byte[(len / 2) + 1];
-            data[0] = (byte) Character.digit(cleanInput.charAt(0), 16);
-            startIdx = 1;
+            data[dataIdx++] = (byte) hexDigit(input.charAt(startIdx++));
         } else {
             data = new byte[len / 2];
-            startIdx = 0;
         }
 
-        for (int i = startIdx; i < len; i += 2) {
-            data[(i + 1) / 2] = (byte) ((Character.digit(cleanInput.charAt(i), 16) << 4)
-                    + Character.digit(cleanInput.charAt(i + 1), 16));
+        for (int i = startIdx; i < input.length(); i += 2) {
+            data[dataIdx++] = (byte) ((hexDigit(input.charAt(i)) << 4)
+                    + hexDigit(input.charAt(i + 1)));
         }
         return data;
     }
 
+    private static int hexDigit(char c) {
+        return c < HEX_VALUES.length ? HEX_VALUES[c] : Character.digit(c, 16);
+    }
+
     public static String toHexString(byte[] input, int offset, int length, boolean withPrefix) {
-        StringBuilder stringBuilder = new StringBuilder();
+        int prefixLength = withPrefix ? 2 : 0;
+        char[] hexChars = new char[prefixLength + length * 2];
         if (withPrefix) {
-            stringBuilder.append("0x");
+            hexChars[0] = '0';
+            hexChars[1] = 'x';
         }
-        for (int i = offset; i < offset + length; i++) {
-            stringBuilder.append(String.format("%02x", input[i] & 0xFF));
+        for (int i = 0; i < length; i++) {
+            int v = input[offset + i] & 0xFF;
+            hexChars[prefixLength + i * 2] = HEX_CHARS[v >>> 4];
+            hexChars[prefixLength + i * 2 + 1] = HEX_CHARS[v & 0x0F];
         }
 
-        return stringBuilder.toString();
+        return new String(hexChars);
     }
 
     public static String toHexString(byte[] input) {
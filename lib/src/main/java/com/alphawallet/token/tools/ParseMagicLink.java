@@ -20,7 +20,7 @@ import static com.alphawallet.token.entity.MagicLinkInfo.mainnetMagicLinkDomain;
 
 public class ParseMagicLink
 {
-    private final static BigInteger maxPrice = Convert.toWei(BigDecimal.valueOf(0xFFFFFFFFL),
+    final static BigInteger maxPrice = Convert.toWei(BigDecimal.valueOf(0xFFFFFFFFL),
             Convert.Unit.SZABO).toBigInteger();
 
     //link formats
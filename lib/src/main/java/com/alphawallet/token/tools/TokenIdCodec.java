@@ -0,0 +1,119 @@
+package com.alphawallet.token.tools;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compact binary encoding for ERC875 and ticket balances.
+ *
+ * A balance is an ordered list of uint256 ids where position matters (zero marks a spent or transferred slot),
+ * and ids issued together are usually consecutive. The list is written as runs:
+ *
+ *   [tag][value length][value bytes][run count]
+ *
+ * tag is RUN_REPEAT (the value repeated count times - covers runs of zeros) or RUN_INCREMENT (value, value+1, ...).
+ * Lengths and counts are unsigned varints; value is the minimal big-endian two's complement form, empty for zero.
+ * Runs are always taken greedily so the same list gives the same bytes, which means two balances can be
+ * compared directly with Arrays.equals.
+ */
+public final class TokenIdCodec
+{
+    private static final byte VERSION = 1;
+    private static final byte RUN_REPEAT = 0;
+    private static final byte RUN_INCREMENT = 1;
+
+    private TokenIdCodec() { }
+
+    public static byte[] encode(List<BigInteger> ids)
+    {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.write(VERSION);
+        if (ids == null) return out.toByteArray();
+
+        int index = 0;
+        while (index < ids.size())
+        {
+            BigInteger start = ids.get(index);
+            int count = 1;
+            byte tag = RUN_REPEAT;
+            if (index + 1 < ids.size() && ids.get(index + 1).equals(start.add(BigInteger.ONE)))
+            {
+                tag = RUN_INCREMENT;
+            }
+
+            BigInteger expected = (tag == RUN_INCREMENT) ? start.add(BigInteger.ONE) : start;
+            while (index + count < ids.size() && ids.get(index + count).equals(expected))
+            {
+                count++;
+                if (tag == RUN_INCREMENT) expected = expected.add(BigInteger.ONE);
+            }
+
+            byte[] value = start.signum() == 0 ? new byte[0] : start.toByteArray();
+            out.write(tag);
+            writeVarint(out, value.length);
+            out.write(value, 0, value.length);
+            writeVarint(out, count);
+            index += count;
+        }
+
+        return out.toByteArray();
+    }
+
+    public static List<BigInteger> decode(byte[] data)
+    {
+        List<BigInteger> ids = new ArrayList<>();
+        if (data == null || data.length == 0) return ids;
+        if (data[0] != VERSION) throw new IllegalArgumentException("Unknown balance encoding: " + data[0]);
+
+        int[] offset = { 1 };
+        while (offset[0] < data.length)
+        {
+            byte tag = data[offset[0]++];
+            int length = readVarint(data, offset);
+            if (offset[0] + length > data.length) throw new IllegalArgumentException("Truncated balance data");
+            BigInteger value = BigInteger.ZERO;
+            if (length > 0)
+            {
+                byte[] valueBytes = new byte[length];
+                System.arraycopy(data, offset[0], valueBytes, 0, length);
+                value = new BigInteger(valueBytes);
+            }
+            offset[0] += length;
+            int count = readVarint(data, offset);
+
+            for (int i = 0; i < count; i++)
+            {
+                ids.add(value);
+                if (tag == RUN_INCREMENT) value = value.add(BigInteger.ONE);
+            }
+        }
+
+        return ids;
+    }
+
+    private static void writeVarint(ByteArrayOutputStream out, int value)
+    {
+        while ((value & ~0x7F) != 0)
+        {
+            out.write((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write(value);
+    }
+
+    private static int readVarint(byte[] data, int[] offset)
+    {
+        int value = 0;
+        int shift = 0;
+        while (true)
+        {
+            if (offset[0] >= data.length || shift > 28) throw new IllegalArgumentException("Truncated balance data");
+            byte b = data[offset[0]++];
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) return value;
+            shift += 7;
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.alphawallet.token.tools;
+
+import com.alphawallet.token.entity.Module;
+
+import org.junit.Test;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class AbiCodecTest
+{
+    private static final String OWNER = "0x5aaeb6053f3e94c9b9a09f33669435e7ef1beaed";
+
+    @Test
+    public void EncodesERC20Transfer()
+    {
+        AbiCodec codec = AbiCodec.getCodec("transfer", Arrays.asList("address", "uint256"), Collections.singletonList("bool"));
+        assertEquals("transfer(address,uint256)", codec.signature);
+
+        byte[] encoded = codec.encodeFunctionCall(Arrays.asList(OWNER, BigInteger.TEN));
+        assertEquals("0xa9059cbb"
+                + "0000000000000000000000005aaeb6053f3e94c9b9a09f33669435e7ef1beaed"
+                + "000000000000000000000000000000000000000000000000000000000000000a", Numeric.toHexString(encoded));
+    }
+
+    @Test
+    public void DecodesUint256Balance()
+    {
+        AbiCodec codec = AbiCodec.getCodec("balanceOf", "address", "uint256");
+        byte[] response = Numeric.hexStringToByteArray("0x00000000000000000000000000000000000000000000000000470de4df820000");
+        List<Object> result = codec.decodeOutputs(response);
+        assertEquals(1, result.size());
+        assertEquals(new BigInteger("20000000000000000"), result.get(0));
+
+        //empty response from a non-existent function
+        assertTrue(codec.decodeOutputs(new byte[0]).isEmpty());
+    }
+
+    @Test
+    public void RoundTripsERC875BalanceArray()
+    {
+        List<BigInteger> balance = new ArrayList<>();
+        for (int i = 0; i < 16; i++) balance.add(BigInteger.ONE.shiftLeft(8 * i).add(BigInteger.valueOf(i)));
+
+        AbiCodec encoder = AbiCodec.getCodec("setBalance", Collections.singletonList("uint256[]"), Collections.emptyList());
+        byte[] encoded = encoder.encodeFunctionCall(Collections.singletonList(balance));
+
+        AbiCodec codec = AbiCodec.getCodec("balanceOf", "address", "uint256[]");
+        List<Object> result = codec.decodeOutputs(Arrays.copyOfRange(encoded, 4, encoded.length));
+        assertEquals(balance, result.get(0));
+    }
+
+    @Test
+    public void DecodesMixedStaticAndDynamicValues()
+    {
+        List<String> types = Arrays.asList("string", "address", "int8", "bytes4", "bool", "bytes");
+        List<Object> values = Arrays.asList("Ticket #1", OWNER, BigInteger.valueOf(-3),
+                new byte[] { 1, 2, 3, 4 }, Boolean.TRUE, new byte[] { 9, 8, 7 });
+
+        byte[] encoded = AbiCodec.getCodec("mixed", types, Collections.emptyList()).encodeFunctionCall(values);
+        List<Object> result = AbiCodec.getCodec("mixed", Collections.emptyList(), types).decodeOutputs(Arrays.copyOfRange(encoded, 4, encoded.length));
+
+        assertEquals("Ticket #1", result.get(0));
+        assertEquals(OWNER, result.get(1));
+        assertEquals(BigInteger.valueOf(-3), result.get(2));
+        assertArrayEquals(new byte[] { 1, 2, 3, 4 }, (byte[]) result.get(3));
+        assertEquals(Boolean.TRUE, result.get(4));
+        assertArrayEquals(new byte[] { 9, 8, 7 }, (byte[]) result.get(5));
+    }
+
+    @Test
+    public void DecodesERC721TransferEvent()
+    {
+        Module module = new Module(null);
+        module.sequence.add(sequenceElement(module, "from", "address", true));
+        module.sequence.add(sequenceElement(module, "to", "address", true));
+        module.sequence.add(sequenceElement(module, "tokenId", "uint256", true));
+
+        AbiCodec codec = AbiCodec.getEventCodec("Transfer", module.getSequenceArgs());
+        assertEquals("0xddf252ad1be2c89b69c2b068fc378daa952ba7f163c4a11628f55a4df523b3ef", codec.getEventTopic());
+        assertSame(codec, AbiCodec.getEventCodec("Transfer", module.getSequenceArgs()));
+
+        byte[] topic = Numeric.hexStringToByteArray("0x0000000000000000000000005aaeb6053f3e94c9b9a09f33669435e7ef1beaed");
+        assertEquals(OWNER, codec.decodeTopic(1, topic));
+        assertEquals(new BigInteger("5aaeb6053f3e94c9b9a09f33669435e7ef1beaed", 16), codec.decodeTopic(2, topic));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void RejectsTruncatedData()
+    {
+        AbiCodec.getCodec("name", Collections.emptyList(), Collections.singletonList("string"))
+                .decodeOutputs(Numeric.hexStringToByteArray("0x0000000000000000000000000000000000000000000000000000000000000020"));
+    }
+
+    private Module.SequenceElement sequenceElement(Module module, String name, String type, boolean indexed)
+    {
+        Module.SequenceElement se = module.new SequenceElement();
+        se.name = name;
+        se.type = type;
+        se.indexed = indexed;
+        return se;
+    }
+}
@@ -0,0 +1,129 @@
+package com.alphawallet.token.tools;
+
+import com.alphawallet.token.entity.AttributeType;
+import com.alphawallet.token.entity.ContractAddress;
+import com.alphawallet.token.entity.EthCallTransport;
+import com.alphawallet.token.entity.TransactionResult;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class AttributeEngineTest
+{
+    private static final BigInteger TOKEN_ID = new BigInteger("5c3f1a00", 16).shiftLeft(128);
+    private static final String OWNER = "0x5aaeb6053f3e94c9b9a09f33669435e7ef1beaed";
+
+    private final AtomicInteger calls = new AtomicInteger();
+    private long now = 1000;
+    private String locality;
+    private boolean offline;
+    private TokenDefinition entryToken;
+
+    private final EthCallTransport transport = (chainId, from, to, data) -> {
+        calls.incrementAndGet();
+        if (offline) throw new IOException("offline");
+        else if (data.startsWith(selector("isExpired"))) return encodeReturn("bytes32", BigInteger.ONE);
+        else return encodeReturn("string", locality);
+    };
+
+    @Before
+    public void setUp() throws Exception
+    {
+        entryToken = new TokenDefinition(new FileInputStream(new File("src/test/ts/entrytoken.canonicalized.xml")),
+                new Locale("en"), result -> { });
+        locality = "Sydney";
+    }
+
+    @Test
+    public void DecodesAttributeResults()
+    {
+        AttributeEngine engine = new AttributeEngine(transport, () -> now, 0);
+
+        TransactionResult result = call(engine, "locality");
+        assertEquals("Sydney", result.result);
+        assertEquals(now, result.resultTime);
+        assertEquals("Sydney", AttributeEngine.parseFunctionResult(result, attr("locality")).text);
+
+        //this script gives syntax in the older attribute form, which the parser doesn't read
+        attr("expired").syntax = TokenDefinition.Syntax.Boolean;
+        result = call(engine, "expired");
+        assertEquals("TRUE", result.result);
+        assertEquals(BigInteger.ONE, AttributeEngine.parseFunctionResult(result, attr("expired")).value);
+    }
+
+    @Test
+    public void MemoisesResultsUntilExpiry()
+    {
+        AttributeEngine engine = new AttributeEngine(transport, () -> now, 500);
+
+        call(engine, "locality");
+        locality = "Singapore";
+        assertEquals("Sydney", call(engine, "locality").result);
+        assertEquals(1, calls.get());
+
+        now += 500;
+        assertEquals("Singapore", call(engine, "locality").result);
+        assertEquals(2, calls.get());
+        assertEquals(1, engine.getStats().memoHits);
+    }
+
+    @Test
+    public void FailedCallRestoresCachedResult()
+    {
+        AttributeEngine engine = new AttributeEngine(transport, () -> now, 500);
+        TransactionResult cached = call(engine, "locality");
+
+        offline = true;
+        engine.clearMemo();
+        TransactionResult result = call(engine, "locality");
+        assertNull(result.result);
+        assertEquals(0, result.resultTime);
+
+        AttributeEngine.restoreFromCache(result, cached);
+        assertEquals("Sydney", result.result);
+        assertEquals(1, engine.getStats().failures);
+
+        //failures aren't memoised
+        offline = false;
+        assertEquals("Sydney", call(engine, "locality").result);
+        assertEquals(3, calls.get());
+    }
+
+    private TransactionResult call(AttributeEngine engine, String attrId)
+    {
+        AttributeType attr = attr(attrId);
+        List<Object> args = AttributeEngine.argumentValues(attr.function,
+                Collections.nCopies(attr.function.parameters.size(), null), TOKEN_ID, OWNER);
+        return engine.callFunction(new ContractAddress(attr.function), attr, TOKEN_ID, args, engine.currentTime());
+    }
+
+    private AttributeType attr(String attrId)
+    {
+        return entryToken.attributeTypes.get(attrId);
+    }
+
+    private static String selector(String function)
+    {
+        return Numeric.toHexString(AbiCodec.getCodec(function, "uint256", null).encodeFunctionCall(Collections.singletonList(BigInteger.ZERO)), 0, 4, true);
+    }
+
+    private static String encodeReturn(String type, Object value)
+    {
+        byte[] encoded = AbiCodec.getCodec("result", Collections.singletonList(type), Collections.emptyList())
+                .encodeFunctionCall(Collections.singletonList(value));
+        return Numeric.toHexString(Arrays.copyOfRange(encoded, 4, encoded.length));
+    }
+}
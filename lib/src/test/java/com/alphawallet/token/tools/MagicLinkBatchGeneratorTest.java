@@ -0,0 +1,91 @@
+package com.alphawallet.token.tools;
+
+import com.alphawallet.token.entity.MagicLinkSigner;
+
+import org.junit.Test;
+
+import java.math.BigInteger;
+import java.security.MessageDigest;
+import java.security.SignatureException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public class MagicLinkBatchGeneratorTest
+{
+    private static final String CONTRACT = "0xbc9a1026a4bc6f0ba8bbe486d1d09da5732b39e4";
+    private static final int CHAIN_ID = 1;
+
+    //deterministic stand-in for a key: 65 bytes derived from the message
+    private final MagicLinkSigner signer = new MagicLinkSigner()
+    {
+        @Override
+        public byte[] signMessage(byte[] message) throws SignatureException
+        {
+            try
+            {
+                MessageDigest digest = MessageDigest.getInstance("SHA-512");
+                return Arrays.copyOf(digest.digest(message), 65);
+            }
+            catch (Exception e)
+            {
+                throw new SignatureException(e);
+            }
+        }
+
+        @Override
+        public byte[] Base64Decode(String message) { return Base64.getUrlDecoder().decode(message); }
+        @Override
+        public byte[] Base64Encode(byte[] data) { return Base64.getUrlEncoder().encode(data); }
+        @Override
+        public BigInteger signedMessageToKey(byte[] data, byte[] signature) { return BigInteger.ZERO; }
+        @Override
+        public String getAddressFromKey(BigInteger recoveredKey) { return ""; }
+    };
+
+    @Test
+    public void MatchesSingleLinkGeneration() throws Exception
+    {
+        BigInteger price = BigInteger.ZERO;
+        List<MagicLinkBatchGenerator.LinkRequest> requests = new ArrayList<>();
+        for (int i = 0; i < 300; i++)
+        {
+            //mix of one and two byte compressed indices
+            requests.add(MagicLinkBatchGenerator.LinkRequest.normal(new int[] { i, i + 200 }, 1600000000L + i));
+        }
+        List<BigInteger> tokenIds = Arrays.asList(BigInteger.valueOf(0x1234), new BigInteger("010b000000000000000000000000000000000000000000000000000000000010", 16));
+        requests.add(MagicLinkBatchGenerator.LinkRequest.spawnable(tokenIds, 1700000000L));
+
+        MagicLinkBatchGenerator generator = new MagicLinkBatchGenerator(signer, null, CHAIN_ID, CONTRACT, price, 4);
+        List<String> links = new ArrayList<>();
+        int count = generator.generate(requests, (index, request, link) -> {
+            assertEquals(links.size(), index);
+            links.add(link);
+        });
+
+        assertEquals(requests.size(), count);
+
+        ParseMagicLink parser = new ParseMagicLink(signer, null);
+        for (int i = 0; i < requests.size(); i++)
+        {
+            MagicLinkBatchGenerator.LinkRequest request = requests.get(i);
+            byte[] tradeBytes;
+            byte[] leading;
+            if (request.tokenIds != null)
+            {
+                tradeBytes = parser.getSpawnableBytes(request.tokenIds, CONTRACT, price, request.expiry);
+                leading = ParseMagicLink.generateSpawnableLeadingLinkBytes(request.tokenIds, CONTRACT, price, request.expiry);
+            }
+            else
+            {
+                tradeBytes = parser.getTradeBytes(request.indices, CONTRACT, price, request.expiry);
+                leading = ParseMagicLink.generateLeadingLinkBytes(request.indices, CONTRACT, price, request.expiry);
+            }
+            String expected = parser.completeUniversalLink(CHAIN_ID, leading, signer.signMessage(tradeBytes));
+            assertEquals(expected, links.get(i));
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.alphawallet.token.tools;
+
+import org.junit.Test;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class TokenIdCodecTest
+{
+    @Test
+    public void RoundTripsTicketBalance()
+    {
+        //spent slots, a block of consecutive tickets and some one-off ids
+        BigInteger base = new BigInteger("010b000000000000000000000000000000000000000000000000000000000010", 16);
+        List<BigInteger> balance = new ArrayList<>();
+        balance.add(BigInteger.ZERO);
+        balance.add(BigInteger.ZERO);
+        for (int i = 0; i < 500; i++) balance.add(base.add(BigInteger.valueOf(i)));
+        balance.add(BigInteger.ZERO);
+        balance.add(BigInteger.valueOf(7));
+        balance.add(BigInteger.valueOf(7));
+        balance.add(BigInteger.valueOf(-2));
+        balance.add(base);
+
+        byte[] packed = TokenIdCodec.encode(balance);
+        assertEquals(balance, TokenIdCodec.decode(packed));
+        assertTrue(packed.length < 100);
+    }
+
+    @Test
+    public void EncodingIsCanonical()
+    {
+        List<BigInteger> a = Arrays.asList(BigInteger.ONE, BigInteger.valueOf(2), BigInteger.valueOf(3), BigInteger.ZERO);
+        List<BigInteger> b = new ArrayList<>(a);
+        assertArrayEquals(TokenIdCodec.encode(a), TokenIdCodec.encode(b));
+
+        b.set(3, BigInteger.valueOf(4));
+        assertTrue(!Arrays.equals(TokenIdCodec.encode(a), TokenIdCodec.encode(b)));
+    }
+
+    @Test
+    public void DecodesEmptyBalance()
+    {
+        assertTrue(TokenIdCodec.decode(TokenIdCodec.encode(new ArrayList<>())).isEmpty());
+        assertTrue(TokenIdCodec.decode(null).isEmpty());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void RejectsTruncatedData()
+    {
+        byte[] packed = TokenIdCodec.encode(Arrays.asList(BigInteger.valueOf(1000), BigInteger.valueOf(1001)));
+        TokenIdCodec.decode(Arrays.copyOf(packed, packed.length - 2));
+    }
+}
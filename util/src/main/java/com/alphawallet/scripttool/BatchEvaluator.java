@@ -0,0 +1,441 @@
+package com.alphawallet.scripttool;
+
+import com.alphawallet.scripttool.Entity.CachedResult;
+import com.alphawallet.scripttool.Entity.TokenscriptFunction;
+import com.alphawallet.scripttool.Ethereum.TransactionHandler;
+import com.alphawallet.token.entity.AttributeInterface;
+import com.alphawallet.token.entity.AttributeType;
+import com.alphawallet.token.entity.ContractAddress;
+import com.alphawallet.token.entity.MethodArg;
+import com.alphawallet.token.entity.TransactionResult;
+import com.alphawallet.token.tools.TokenDefinition;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.web3j.protocol.ObjectMapperFactory;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.math.BigInteger;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static com.alphawallet.scripttool.Entity.TokenscriptFunction.ZERO_ADDRESS;
+
+/**
+ * Evaluates a TokenScript's attributes for every holder address or token id in an input file, eg to audit holdings.
+ *
+ * Input lines are holder addresses (every token the holder owns is evaluated), token ids, or token id ranges
+ * "first-last"; '#' starts a comment. Items are evaluated by a pool of workers, each with its own parse of the
+ * TokenScript since evaluation writes into the definition. Contract call results are shared by all workers for
+ * the whole run, so a call that doesn't depend on the holder is made once per token id rather than once per holder.
+ * Rows are written in input order as they complete, with at most QUEUE_DEPTH items per worker held in memory.
+ */
+public class BatchEvaluator
+{
+    public enum Format { CSV, JSONL }
+
+    private static final int QUEUE_DEPTH = 4;
+    private static final int PROGRESS_INTERVAL = 1000;
+
+    private final File tokenScriptFile;
+    private final ContractAddress cAddr;
+    private final boolean balanceArray;
+    private final int threads;
+    private final Format format;
+    private final List<String> attributeIds;
+    private final ThreadLocal<TokenDefinition> definitions;
+    private final TokenscriptFunction tokenscriptFunction = new TokenscriptFunction() { };
+    private final ObjectMapper mapper = ObjectMapperFactory.getObjectMapper();
+
+    //contract call results for the whole run; see BatchContext
+    private final Map<String, CachedResult> transactionResults = new ConcurrentHashMap<>();
+
+    private int items;
+    private int rows;
+    private int errors;
+
+    public BatchEvaluator(File tokenScriptFile, TokenDefinition definition, ContractAddress cAddr, int threads, Format format)
+    {
+        this.tokenScriptFile = tokenScriptFile;
+        this.cAddr = cAddr;
+        this.threads = Math.max(1, threads);
+        this.format = format;
+
+        String contractInterface = definition.contracts.get(definition.holdingToken).contractInterface;
+        balanceArray = contractInterface != null && contractInterface.equalsIgnoreCase("ERC875");
+
+        attributeIds = new ArrayList<>(definition.attributeTypes.keySet());
+        Collections.sort(attributeIds);
+
+        definitions = ThreadLocal.withInitial(() -> {
+            try (FileInputStream in = new FileInputStream(tokenScriptFile))
+            {
+                return new TokenDefinition(in, new Locale("en"), null);
+            }
+            catch (Exception e)
+            {
+                throw new IllegalStateException("Can't parse " + tokenScriptFile, e);
+            }
+        });
+    }
+
+    /**
+     * Evaluate every item in the input, writing one row per token
+     * @return number of rows written
+     */
+    public int evaluate(BufferedReader input, PrintWriter out) throws IOException, InterruptedException
+    {
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        Deque<Future<List<Row>>> inFlight = new ArrayDeque<>();
+        Iterator<BatchItem> itemReader = new ItemReader(input);
+        long startTime = System.currentTimeMillis();
+
+        if (format == Format.CSV) writeCsvHeader(out);
+
+        try
+        {
+            while (itemReader.hasNext() || !inFlight.isEmpty())
+            {
+                //keep the workers busy while the output drains
+                while (itemReader.hasNext() && inFlight.size() < threads * QUEUE_DEPTH)
+                {
+                    BatchItem item = itemReader.next();
+                    inFlight.add(pool.submit(() -> evaluateItem(item)));
+                }
+
+                for (Row row : getResult(inFlight.poll()))
+                {
+                    writeRow(out, row);
+                    rows++;
+                    if (row.error != null) errors++;
+                }
+
+                if (++items % PROGRESS_INTERVAL == 0)
+                {
+                    out.flush();
+                    long elapsed = Math.max(1, System.currentTimeMillis() - startTime);
+                    System.err.println(items + " items, " + rows + " rows, " + (items * 1000L / elapsed) + " items/s");
+                }
+            }
+        }
+        finally
+        {
+            pool.shutdownNow();
+            out.flush();
+        }
+
+        System.err.println("Evaluated " + items + " items into " + rows + " rows (" + errors + " errors) in "
+                                   + (System.currentTimeMillis() - startTime) + "ms; "
+                                   + transactionResults.size() + " distinct contract results");
+        System.err.println("Contract calls: " + TokenscriptFunction.getEngine().getStats());
+        return rows;
+    }
+
+    private List<Row> evaluateItem(BatchItem item)
+    {
+        String owner = item.owner != null ? item.owner : ZERO_ADDRESS;
+        List<Row> result = new ArrayList<>();
+        List<BigInteger> tokenIds;
+        try
+        {
+            tokenIds = item.owner != null ? heldTokens(item.owner) : Collections.singletonList(item.tokenId);
+        }
+        catch (Exception e)
+        {
+            result.add(new Row(owner, null, null, "balance: " + e.getMessage()));
+            return result;
+        }
+
+        TokenDefinition definition = definitions.get();
+        BatchContext context = new BatchContext(owner);
+        for (BigInteger tokenId : tokenIds)
+        {
+            Map<String, String> values = new LinkedHashMap<>();
+            try
+            {
+                tokenscriptFunction.resolveAttributes(owner, tokenId, context, cAddr, definition)
+                        .blockingForEach(attr -> values.put(attr.id, attr.text));
+                result.add(new Row(owner, tokenId, values, null));
+            }
+            catch (Exception e)
+            {
+                result.add(new Row(owner, tokenId, values, e.getMessage() != null ? e.getMessage() : e.toString()));
+            }
+        }
+        return result;
+    }
+
+    //tokens held by the owner; a holder with none still gets a row for owner based attributes
+    private List<BigInteger> heldTokens(String owner) throws Exception
+    {
+        List<BigInteger> tokenIds = new ArrayList<>();
+        if (balanceArray)
+        {
+            for (BigInteger tokenId : new TransactionHandler(cAddr.chainId).getBalanceArray(owner, cAddr.address))
+            {
+                if (tokenId.signum() != 0) tokenIds.add(tokenId);
+            }
+        }
+        if (tokenIds.isEmpty()) tokenIds.add(BigInteger.ZERO);
+        return tokenIds;
+    }
+
+    private void writeCsvHeader(PrintWriter out)
+    {
+        StringBuilder sb = new StringBuilder("owner,tokenId");
+        for (String id : attributeIds) sb.append(',').append(csvField(id));
+        out.println(sb.append(",error"));
+    }
+
+    private void writeRow(PrintWriter out, Row row) throws IOException
+    {
+        String tokenId = row.tokenId != null ? row.tokenId.toString() : "";
+        if (format == Format.CSV)
+        {
+            StringBuilder sb = new StringBuilder(row.owner).append(',').append(tokenId);
+            for (String id : attributeIds)
+            {
+                String value = row.values != null ? row.values.get(id) : null;
+                sb.append(',').append(value != null ? csvField(value) : "");
+            }
+            sb.append(',').append(row.error != null ? csvField(row.error) : "");
+            out.println(sb);
+        }
+        else
+        {
+            Map<String, Object> json = new LinkedHashMap<>();
+            json.put("owner", row.owner);
+            json.put("tokenId", tokenId);
+            json.put("attributes", row.values != null ? row.values : Collections.emptyMap());
+            if (row.error != null) json.put("error", row.error);
+            out.println(mapper.writeValueAsString(json));
+        }
+    }
+
+    private static String csvField(String value)
+    {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0)
+        {
+            return value;
+        }
+        return "\"" + value.replace("\"", "\"\"") + "\"";
+    }
+
+    private static List<Row> getResult(Future<List<Row>> future) throws InterruptedException
+    {
+        try
+        {
+            return future.get();
+        }
+        catch (ExecutionException e)
+        {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+            throw new IllegalStateException(cause);
+        }
+    }
+
+    /**
+     * Holder context for one item. Results of calls that take the owner address are cached per owner, all others
+     * per token id, and a result found in the cache is used without calling the node again.
+     */
+    private class BatchContext implements AttributeInterface
+    {
+        private final String owner;
+
+        BatchContext(String owner)
+        {
+            this.owner = owner;
+        }
+
+        @Override
+        public TransactionResult getFunctionResult(ContractAddress contract, AttributeType attr, BigInteger tokenId)
+        {
+            TransactionResult tr = new TransactionResult(contract.chainId, contract.address, tokenId, attr);
+            CachedResult cached = transactionResults.get(resultKey(contract.chainId, contract.address, attr, tokenId));
+            if (cached != null)
+            {
+                tr.resultTime = cached.resultTime;
+                tr.result = cached.result;
+            }
+            return tr;
+        }
+
+        @Override
+        public TransactionResult storeAuxData(TransactionResult tResult)
+        {
+            if (tResult.resultTime > 0)
+            {
+                AttributeType attr = definitions.get().attributeTypes.get(tResult.attrId);
+                transactionResults.put(resultKey(tResult.contractChainId, tResult.contractAddress, attr, tResult.tokenId),
+                                       new CachedResult(tResult.resultTime, tResult.result));
+            }
+            return tResult;
+        }
+
+        @Override
+        public boolean resolveOptimisedAttr(ContractAddress contract, AttributeType attr, TransactionResult transactionResult)
+        {
+            //already fetched during this run
+            return transactionResult.resultTime > 0;
+        }
+
+        @Override
+        public String getWalletAddr()
+        {
+            return owner;
+        }
+
+        private String resultKey(int chainId, String address, AttributeType attr, BigInteger tokenId)
+        {
+            String attrId = attr != null ? attr.id : "";
+            String key = chainId + "-" + address.toLowerCase() + "-" + attrId + "-" + tokenId;
+            return dependsOnOwner(attr) ? key + "-" + owner : key;
+        }
+    }
+
+    //only literal values and token ids are safe to share between holders
+    private static boolean dependsOnOwner(AttributeType attr)
+    {
+        if (attr == null || attr.function == null) return true;
+        for (MethodArg arg : attr.function.parameters)
+        {
+            String ref = arg.element != null ? arg.element.ref : null;
+            if (ref != null && !ref.equals("value") && !arg.isTokenId()) return true;
+        }
+        return false;
+    }
+
+    private static class BatchItem
+    {
+        final String owner;         //holder address, or
+        final BigInteger tokenId;   //a single token id
+
+        BatchItem(String owner, BigInteger tokenId)
+        {
+            this.owner = owner;
+            this.tokenId = tokenId;
+        }
+    }
+
+    private static class Row
+    {
+        final String owner;
+        final BigInteger tokenId;
+        final Map<String, String> values;
+        final String error;
+
+        Row(String owner, BigInteger tokenId, Map<String, String> values, String error)
+        {
+            this.owner = owner;
+            this.tokenId = tokenId;
+            this.values = values;
+            this.error = error;
+        }
+    }
+
+    /**
+     * Reads items lazily so large token id ranges aren't expanded in memory
+     */
+    private static class ItemReader implements Iterator<BatchItem>
+    {
+        private final BufferedReader reader;
+        private BatchItem nextItem;
+        private BigInteger rangeNext;
+        private BigInteger rangeLast;
+
+        ItemReader(BufferedReader reader)
+        {
+            this.reader = reader;
+        }
+
+        @Override
+        public boolean hasNext()
+        {
+            if (nextItem == null) nextItem = readItem();
+            return nextItem != null;
+        }
+
+        @Override
+        public BatchItem next()
+        {
+            if (!hasNext()) throw new NoSuchElementException();
+            BatchItem item = nextItem;
+            nextItem = null;
+            return item;
+        }
+
+        private BatchItem readItem()
+        {
+            try
+            {
+                while (true)
+                {
+                    if (rangeNext != null && rangeNext.compareTo(rangeLast) <= 0)
+                    {
+                        BatchItem item = new BatchItem(null, rangeNext);
+                        rangeNext = rangeNext.add(BigInteger.ONE);
+                        return item;
+                    }
+
+                    String line = reader.readLine();
+                    if (line == null) return null;
+                    int comment = line.indexOf('#');
+                    if (comment >= 0) line = line.substring(0, comment);
+                    line = line.trim();
+                    if (line.isEmpty()) continue;
+
+                    if (line.length() == 42 && line.startsWith("0x"))
+                    {
+                        return new BatchItem(line.toLowerCase(), null);
+                    }
+
+                    try
+                    {
+                        int dash = line.indexOf('-', 1);
+                        if (dash > 0)
+                        {
+                            rangeNext = parseTokenId(line.substring(0, dash));
+                            rangeLast = parseTokenId(line.substring(dash + 1));
+                        }
+                        else
+                        {
+                            return new BatchItem(null, parseTokenId(line));
+                        }
+                    }
+                    catch (NumberFormatException e)
+                    {
+                        throw new IllegalArgumentException("Not an address, token id or token id range: " + line);
+                    }
+                }
+            }
+            catch (IOException e)
+            {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        private static BigInteger parseTokenId(String value)
+        {
+            value = value.trim();
+            if (value.startsWith("0x")) return new BigInteger(value.substring(2), 16);
+            else return new BigInteger(value);
+        }
+    }
+}
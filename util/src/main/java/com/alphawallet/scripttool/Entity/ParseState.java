@@ -2,5 +2,6 @@ package com.alphawallet.scripttool.Entity;
 
 public enum ParseState
 {
-    ARG, TS_FILE, USER_ADDR
+    ARG, TS_FILE, USER_ADDR, LINK_FILE, KEY_FILE, CONTRACT_ADDR, CHAIN_ID, EXPIRY, OUT_FILE, BATCH_FILE, FORMAT,
+    THREADS, RPC_URL, RPC_BATCH
 }
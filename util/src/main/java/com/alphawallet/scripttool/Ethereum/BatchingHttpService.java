@@ -0,0 +1,180 @@
+package com.alphawallet.scripttool.Ethereum;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.web3j.protocol.ObjectMapperFactory;
+import org.web3j.protocol.http.HttpService;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+
+/**
+ * HttpService that coalesces calls made concurrently by many threads into JSON-RPC batch requests.
+ *
+ * Each call blocks its caller as usual; a dispatcher thread collects up to batchSize pending calls (waiting at most
+ * LINGER_MS for a batch to fill), posts them as one JSON array and hands each caller its own element of the reply.
+ * Several batches can be in flight at once, so a node with high latency but spare capacity is kept busy.
+ */
+public class BatchingHttpService extends HttpService
+{
+    private static final long LINGER_MS = 2;
+    private static final long CALL_TIMEOUT_SECONDS = 60;
+
+    private final String url;
+    private final OkHttpClient client;
+    private final int batchSize;
+    private final ObjectMapper mapper = ObjectMapperFactory.getObjectMapper();
+    private final BlockingQueue<PendingCall> pending = new LinkedBlockingQueue<>();
+
+    public BatchingHttpService(String url, OkHttpClient client, int batchSize)
+    {
+        super(url, client, false);
+        this.url = url;
+        this.client = client;
+        this.batchSize = Math.max(1, batchSize);
+
+        Thread dispatcher = new Thread(this::dispatch, "rpc-batch");
+        dispatcher.setDaemon(true);
+        dispatcher.start();
+    }
+
+    @Override
+    protected InputStream performIO(String payload) throws IOException
+    {
+        PendingCall call = new PendingCall(payload, mapper.readTree(payload).get("id"));
+        pending.add(call);
+        try
+        {
+            return new ByteArrayInputStream(call.response.get(CALL_TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        }
+        catch (ExecutionException e)
+        {
+            throw e.getCause() instanceof IOException ? (IOException) e.getCause() : new IOException(e.getCause());
+        }
+        catch (InterruptedException | TimeoutException e)
+        {
+            throw new IOException(e);
+        }
+    }
+
+    private void dispatch()
+    {
+        List<PendingCall> batch = new ArrayList<>(batchSize);
+        while (true)
+        {
+            try
+            {
+                batch.add(pending.take());
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(LINGER_MS);
+                while (batch.size() < batchSize)
+                {
+                    pending.drainTo(batch, batchSize - batch.size());
+                    long wait = deadline - System.nanoTime();
+                    if (batch.size() >= batchSize || wait <= 0) break;
+                    PendingCall next = pending.poll(wait, TimeUnit.NANOSECONDS);
+                    if (next == null) break;
+                    batch.add(next);
+                }
+                post(new ArrayList<>(batch));
+                batch.clear();
+            }
+            catch (InterruptedException e)
+            {
+                return;
+            }
+        }
+    }
+
+    private void post(List<PendingCall> batch)
+    {
+        StringBuilder body = new StringBuilder("[");
+        for (int i = 0; i < batch.size(); i++)
+        {
+            if (i > 0) body.append(',');
+            body.append(batch.get(i).payload);
+        }
+        body.append(']');
+
+        Request request = new Request.Builder()
+                .url(url)
+                .post(RequestBody.create(JSON_MEDIA_TYPE, body.toString()))
+                .build();
+
+        client.newCall(request).enqueue(new Callback()
+        {
+            @Override
+            public void onFailure(Call call, IOException e)
+            {
+                for (PendingCall p : batch) p.response.completeExceptionally(e);
+            }
+
+            @Override
+            public void onResponse(Call call, Response response)
+            {
+                try (ResponseBody responseBody = response.body())
+                {
+                    if (!response.isSuccessful() || responseBody == null)
+                    {
+                        throw new IOException("Batch request failed: " + response.code());
+                    }
+                    complete(batch, mapper.readTree(responseBody.bytes()));
+                }
+                catch (IOException e)
+                {
+                    onFailure(call, e);
+                }
+            }
+        });
+    }
+
+    //replies can come back in any order; match them up by id
+    private void complete(List<PendingCall> batch, JsonNode replies) throws IOException
+    {
+        if (!replies.isArray()) throw new IOException("Node does not support batch requests: " + replies);
+
+        Map<JsonNode, byte[]> byId = new HashMap<>();
+        for (JsonNode reply : replies)
+        {
+            byId.put(reply.get("id"), mapper.writeValueAsBytes(reply));
+        }
+        for (PendingCall p : batch)
+        {
+            byte[] reply = byId.get(p.id);
+            if (reply != null) p.response.complete(reply);
+            else p.response.completeExceptionally(new IOException("No reply for request " + p.id));
+        }
+    }
+
+    private static class PendingCall
+    {
+        final String payload;
+        final JsonNode id;
+        final CompletableFuture<byte[]> response = new CompletableFuture<>();
+
+        PendingCall(String payload, JsonNode id)
+        {
+            this.payload = payload;
+            this.id = id;
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.alphawallet.scripttool.Ethereum;
+
+import com.alphawallet.token.entity.MagicLinkSigner;
+
+import org.web3j.crypto.Credentials;
+import org.web3j.crypto.Keys;
+import org.web3j.crypto.Sign;
+
+import java.math.BigInteger;
+import java.security.SignatureException;
+import java.util.Arrays;
+import java.util.Base64;
+
+/**
+ * Signs magic links with a private key held locally, for issuing links from the command line
+ */
+public class LocalKeySigner implements MagicLinkSigner
+{
+    private final Credentials credentials;
+
+    public LocalKeySigner(String privateKeyHex)
+    {
+        credentials = Credentials.create(privateKeyHex);
+    }
+
+    public String getAddress()
+    {
+        return credentials.getAddress();
+    }
+
+    @Override
+    public byte[] signMessage(byte[] message)
+    {
+        Sign.SignatureData sigData = Sign.signMessage(message, credentials.getEcKeyPair());
+        byte[] sig = new byte[65];
+        System.arraycopy(sigData.getR(), 0, sig, 0, 32);
+        System.arraycopy(sigData.getS(), 0, sig, 32, 32);
+        sig[64] = sigData.getV()[0];
+        return sig;
+    }
+
+    @Override
+    public byte[] Base64Decode(String message)
+    {
+        return Base64.getUrlDecoder().decode(message);
+    }
+
+    @Override
+    public byte[] Base64Encode(byte[] data)
+    {
+        return Base64.getUrlEncoder().encode(data);
+    }
+
+    @Override
+    public BigInteger signedMessageToKey(byte[] data, byte[] signature) throws SignatureException
+    {
+        if (signature.length != 65) return BigInteger.ZERO;
+        byte v = signature[64];
+        if (v < 27) v += 27;
+        Sign.SignatureData sigData = new Sign.SignatureData(v, Arrays.copyOfRange(signature, 0, 32),
+                                                            Arrays.copyOfRange(signature, 32, 64));
+        return Sign.signedMessageToKey(data, sigData);
+    }
+
+    @Override
+    public String getAddressFromKey(BigInteger recoveredKey)
+    {
+        return Keys.getAddress(recoveredKey);
+    }
+}
@@ -17,40 +17,92 @@ import org.web3j.protocol.core.methods.request.Transaction;
 import org.web3j.protocol.core.methods.response.Web3ClientVersion;
 import org.web3j.protocol.http.HttpService;
 
+import java.io.IOException;
 import java.math.BigInteger;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
 
 import com.alphawallet.token.entity.BadContract;
 
+import okhttp3.ConnectionPool;
+import okhttp3.Dispatcher;
 import okhttp3.OkHttpClient;
 
 public class TransactionHandler
 {
-    private static Web3j mWeb3;
+    //one connection pool per node, shared by every call in the run
+    private static final Map<Integer, Web3j> nodes = new ConcurrentHashMap<>();
+    private static volatile String nodeOverride;
+    private static volatile int rpcBatchSize = 1;
+
+    private final Web3j mWeb3;
 
     public TransactionHandler(int networkId)
     {
-        String nodeURL = EthereumNetworkBase.getNetworkByChain(networkId).rpcServerUrl;
+        mWeb3 = getWeb3j(networkId);
+    }
+
+    /**
+     * Send all calls to the given node instead of the chain's public node, coalescing up to batchSize concurrent
+     * calls into each JSON-RPC batch. Call before the first TransactionHandler is created.
+     */
+    public static void setNode(String url, int batchSize)
+    {
+        nodeOverride = url;
+        rpcBatchSize = Math.max(1, batchSize);
+        nodes.clear();
+    }
+
+    public static Web3j getWeb3j(int networkId)
+    {
+        return nodes.computeIfAbsent(networkId, TransactionHandler::buildNode);
+    }
+
+    private static Web3j buildNode(int networkId)
+    {
+        String nodeURL = nodeOverride != null ? nodeOverride : EthereumNetworkBase.getNetworkByChain(networkId).rpcServerUrl;
+        Dispatcher dispatcher = new Dispatcher();
+        dispatcher.setMaxRequests(64);
+        dispatcher.setMaxRequestsPerHost(64);
         OkHttpClient.Builder builder = new OkHttpClient.Builder();
         builder.connectTimeout(20, TimeUnit.SECONDS);
         builder.readTimeout(20, TimeUnit.SECONDS);
-        HttpService service = new HttpService(nodeURL, builder.build(), false);
-        mWeb3 = Web3j.build(service);
+        builder.dispatcher(dispatcher);
+        builder.connectionPool(new ConnectionPool(64, 5, TimeUnit.MINUTES));
+        OkHttpClient client = builder.build();
+        HttpService service = rpcBatchSize > 1 ? new BatchingHttpService(nodeURL, client, rpcBatchSize)
+                                               : new HttpService(nodeURL, client, false);
+        return Web3j.build(service);
+    }
+
+    public String getClientVersion()
+    {
         try
         {
             Web3ClientVersion web3ClientVersion = mWeb3.web3ClientVersion().sendAsync().get();
-            System.out.println(web3ClientVersion.getWeb3ClientVersion());
+            return web3ClientVersion.getWeb3ClientVersion();
         }
         catch (Exception e)
         {
             e.printStackTrace();
+            return null;
         }
     }
 
+    /**
+     * eth_call on the shared connection for the chain; transport for the TokenScript AttributeEngine
+     */
+    public static String ethCall(int networkId, String from, String to, String data) throws IOException
+    {
+        Transaction transaction = Transaction.createEthCallTransaction(from, to, data);
+        return getWeb3j(networkId).ethCall(transaction, DefaultBlockParameterName.LATEST).send().getValue();
+    }
+
     public List<BigInteger> getBalanceArray(String address, String contractAddress) throws Exception
     {
         List<BigInteger> result = new ArrayList<>();
@@ -3,6 +3,7 @@ package com.alphawallet.scripttool;
 import com.alphawallet.scripttool.Entity.CachedResult;
 import com.alphawallet.scripttool.Entity.ParseState;
 import com.alphawallet.scripttool.Entity.TokenscriptFunction;
+import com.alphawallet.scripttool.Ethereum.LocalKeySigner;
 import com.alphawallet.scripttool.Ethereum.TransactionHandler;
 import com.alphawallet.token.entity.AttributeInterface;
 import com.alphawallet.token.entity.AttributeType;
@@ -11,14 +12,22 @@ import com.alphawallet.token.entity.ContractInfo;
 import com.alphawallet.token.entity.TSAction;
 import com.alphawallet.token.entity.TokenScriptResult;
 import com.alphawallet.token.entity.TransactionResult;
+import com.alphawallet.token.tools.MagicLinkBatchGenerator;
 import com.alphawallet.token.tools.TokenDefinition;
 
 import org.web3j.abi.datatypes.Address;
 import org.xml.sax.SAXException;
 
+import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.math.BigInteger;
 import java.util.ArrayList;
 import java.util.HashMap;
@@ -28,6 +37,17 @@ import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
 import static com.alphawallet.scripttool.Entity.ParseState.ARG;
+import static com.alphawallet.scripttool.Entity.ParseState.BATCH_FILE;
+import static com.alphawallet.scripttool.Entity.ParseState.CHAIN_ID;
+import static com.alphawallet.scripttool.Entity.ParseState.CONTRACT_ADDR;
+import static com.alphawallet.scripttool.Entity.ParseState.EXPIRY;
+import static com.alphawallet.scripttool.Entity.ParseState.FORMAT;
+import static com.alphawallet.scripttool.Entity.ParseState.KEY_FILE;
+import static com.alphawallet.scripttool.Entity.ParseState.LINK_FILE;
+import static com.alphawallet.scripttool.Entity.ParseState.OUT_FILE;
+import static com.alphawallet.scripttool.Entity.ParseState.RPC_BATCH;
+import static com.alphawallet.scripttool.Entity.ParseState.RPC_URL;
+import static com.alphawallet.scripttool.Entity.ParseState.THREADS;
 import static com.alphawallet.scripttool.Entity.ParseState.TS_FILE;
 import static com.alphawallet.scripttool.Entity.ParseState.USER_ADDR;
 
@@ -36,6 +56,21 @@ public class ScriptTool implements AttributeInterface
     private File tokenScriptFile;
     private Address userAddress = Address.DEFAULT;
 
+    //magic link generation
+    private File linkFile;
+    private File keyFile;
+    private File outFile;
+    private String contractAddress;
+    private int chainId = 1;
+    private long expiry;
+
+    //batch evaluation
+    private File batchFile;
+    private BatchEvaluator.Format format;
+    private int threads = 32;
+    private String rpcUrl;
+    private int rpcBatchSize = 50;
+
     private Map<Integer, Map<String, Map<BigInteger, CachedResult>>> transactionResults = new ConcurrentHashMap<>();  //optimisation results
 
 
@@ -67,11 +102,96 @@ public class ScriptTool implements AttributeInterface
                         case "-address":
                             p = USER_ADDR;
                             break;
+                        case "-magiclinks":
+                            p = LINK_FILE;
+                            break;
+                        case "-key":
+                            p = KEY_FILE;
+                            break;
+                        case "-contract":
+                            p = CONTRACT_ADDR;
+                            break;
+                        case "-chain":
+                            p = CHAIN_ID;
+                            break;
+                        case "-expiry":
+                            p = EXPIRY;
+                            break;
+                        case "-out":
+                            p = OUT_FILE;
+                            break;
+                        case "-batch":
+                            p = BATCH_FILE;
+                            break;
+                        case "-format":
+                            p = FORMAT;
+                            break;
+                        case "-threads":
+                            p = THREADS;
+                            break;
+                        case "-rpc":
+                            p = RPC_URL;
+                            break;
+                        case "-rpcbatch":
+                            p = RPC_BATCH;
+                            break;
                         case "-help":
                             showUsage();
                             break;
                     }
                     break;
+                case LINK_FILE:
+                    linkFile = new File(arg);
+                    p = ARG;
+                    break;
+                case KEY_FILE:
+                    keyFile = new File(arg);
+                    p = ARG;
+                    break;
+                case OUT_FILE:
+                    outFile = new File(arg);
+                    p = ARG;
+                    break;
+                case BATCH_FILE:
+                    batchFile = new File(arg);
+                    p = ARG;
+                    break;
+                case FORMAT:
+                    try
+                    {
+                        format = BatchEvaluator.Format.valueOf(arg.toUpperCase());
+                    }
+                    catch (IllegalArgumentException e)
+                    {
+                        System.out.println("ERROR: " + arg + " is not a supported format (csv, jsonl)");
+                    }
+                    p = ARG;
+                    break;
+                case RPC_URL:
+                    rpcUrl = arg;
+                    p = ARG;
+                    break;
+                case CONTRACT_ADDR:
+                    contractAddress = arg;
+                    p = ARG;
+                    break;
+                case CHAIN_ID:
+                case EXPIRY:
+                case THREADS:
+                case RPC_BATCH:
+                    try
+                    {
+                        if (p == CHAIN_ID) chainId = Integer.parseInt(arg);
+                        else if (p == THREADS) threads = Integer.parseInt(arg);
+                        else if (p == RPC_BATCH) rpcBatchSize = Integer.parseInt(arg);
+                        else expiry = Long.parseLong(arg);
+                    }
+                    catch (NumberFormatException e)
+                    {
+                        System.out.println("ERROR: " + arg + " is not a number");
+                    }
+                    p = ARG;
+                    break;
                 case USER_ADDR:
                     try
                     {
@@ -110,8 +230,19 @@ public class ScriptTool implements AttributeInterface
             }
         }
 
-        if (tokenScriptFile != null)
+        if (linkFile != null)
         {
+            generateMagicLinks();
+        }
+        else if (batchFile != null && tokenScriptFile != null)
+        {
+            //only batch up calls when there are parallel workers to fill the batches
+            TransactionHandler.setNode(rpcUrl, rpcBatchSize);
+            evaluateBatch();
+        }
+        else if (tokenScriptFile != null)
+        {
+            if (rpcUrl != null) TransactionHandler.setNode(rpcUrl, 1);
             dumpTokenInfo();
         }
     }
@@ -120,6 +251,126 @@ public class ScriptTool implements AttributeInterface
     {
         System.out.println("Usage:");
         System.out.println("scripttool -tokenscript <TokenScript File> -address <Ethereum address>");
+        System.out.println("scripttool -magiclinks <ticket index file> -key <private key file> -contract <contract address> -chain <chain id> -expiry <UNIX time> [-out <link file>]");
+        System.out.println("  ticket index file: one link per line, comma separated ticket indices");
+        System.out.println("scripttool -tokenscript <TokenScript File> -batch <item file> [-contract <contract address> -chain <chain id>] [-out <file>] [-format csv|jsonl] [-threads <n>] [-rpc <node URL>] [-rpcbatch <calls per request>]");
+        System.out.println("  item file: one holder address, token id or token id range (first-last) per line");
+    }
+
+    private void generateMagicLinks()
+    {
+        if (keyFile == null || !keyFile.exists() || contractAddress == null || expiry == 0)
+        {
+            showUsage();
+            return;
+        }
+
+        try
+        {
+            LocalKeySigner signer = new LocalKeySigner(new String(Files.readAllBytes(keyFile.toPath()), StandardCharsets.UTF_8).trim());
+            List<MagicLinkBatchGenerator.LinkRequest> requests = readLinkRequests();
+            MagicLinkBatchGenerator generator = new MagicLinkBatchGenerator(signer, null, chainId, contractAddress,
+                                                                            BigInteger.ZERO, Runtime.getRuntime().availableProcessors());
+            //progress goes to stderr so the links can be piped from stdout
+            System.err.println("Generating " + requests.size() + " links signed by " + signer.getAddress());
+
+            long startTime = System.currentTimeMillis();
+            int count;
+            PrintWriter out = new PrintWriter(openOutput());
+            try
+            {
+                count = generator.generate(requests, (index, request, link) -> out.println(link));
+            }
+            finally
+            {
+                if (outFile != null) out.close();
+                else out.flush();
+            }
+            System.err.println("Generated " + count + " links in " + (System.currentTimeMillis() - startTime) + "ms");
+        }
+        catch (Exception e)
+        {
+            System.out.println("ERROR generating links:");
+            e.printStackTrace();
+        }
+
+        Runtime.getRuntime().exit(0);
+    }
+
+    private void evaluateBatch()
+    {
+        try
+        {
+            TokenDefinition definition = getTokenDefinition();
+            if (!checkValidity(definition)) return;
+
+            ContractAddress cAddr;
+            if (contractAddress != null)
+            {
+                cAddr = new ContractAddress(chainId, contractAddress);
+            }
+            else
+            {
+                //first holding contract in the TokenScript
+                ContractInfo holdingContract = definition.contracts.get(definition.holdingToken);
+                Integer holdingChain = holdingContract.addresses.keySet().iterator().next();
+                cAddr = new ContractAddress(holdingChain, holdingContract.addresses.get(holdingChain).get(0));
+            }
+
+            if (format == null)
+            {
+                format = (outFile != null && outFile.getName().toLowerCase().endsWith(".csv"))
+                        ? BatchEvaluator.Format.CSV : BatchEvaluator.Format.JSONL;
+            }
+
+            //progress goes to stderr so the rows can be piped from stdout
+            System.err.println("Evaluating " + definition.holdingToken + " at " + cAddr.address + " ChainID: " + cAddr.chainId
+                                       + " with " + threads + " workers");
+
+            BatchEvaluator evaluator = new BatchEvaluator(tokenScriptFile, definition, cAddr, threads, format);
+            PrintWriter out = new PrintWriter(openOutput());
+            try (BufferedReader input = Files.newBufferedReader(batchFile.toPath(), StandardCharsets.UTF_8))
+            {
+                evaluator.evaluate(input, out);
+            }
+            finally
+            {
+                if (outFile != null) out.close();
+                else out.flush();
+            }
+        }
+        catch (Exception e)
+        {
+            System.out.println("ERROR in batch evaluation:");
+            e.printStackTrace();
+        }
+
+        Runtime.getRuntime().exit(0);
+    }
+
+    private List<MagicLinkBatchGenerator.LinkRequest> readLinkRequests() throws IOException
+    {
+        List<MagicLinkBatchGenerator.LinkRequest> requests = new ArrayList<>();
+        try (BufferedReader reader = Files.newBufferedReader(linkFile.toPath(), StandardCharsets.UTF_8))
+        {
+            String line;
+            while ((line = reader.readLine()) != null)
+            {
+                line = line.trim();
+                if (line.isEmpty()) continue;
+                String[] items = line.split(",");
+                int[] indices = new int[items.length];
+                for (int i = 0; i < items.length; i++) indices[i] = Integer.parseInt(items[i].trim());
+                requests.add(MagicLinkBatchGenerator.LinkRequest.normal(indices, expiry));
+            }
+        }
+        return requests;
+    }
+
+    private Writer openOutput() throws IOException
+    {
+        if (outFile == null) return new OutputStreamWriter(System.out, StandardCharsets.UTF_8);
+        else return new OutputStreamWriter(new FileOutputStream(outFile), StandardCharsets.UTF_8);
     }
 
     private void dumpTokenInfo()
@@ -177,6 +428,8 @@ public class ScriptTool implements AttributeInterface
         TransactionHandler txHandler = new TransactionHandler(cAddr.chainId);
         List<BigInteger>   balanceArray = null;
 
+        System.out.println(txHandler.getClientVersion());
+
         String tokenName = txHandler.getNameOnly(cAddr.address);
         String symbol = txHandler.getSymbolOnly(cAddr.address);
         String nameWithSymbol = tokenName + "(" + symbol + ")";